@@ -122,6 +122,10 @@ public class CmsUpdateDBNewTables extends org.opencms.setup.db.update7to8.CmsUpd
         elements.put("CMS_REWRITES", indexes);
         indexes.add("CMS_REWRITES_IDX_01");
 
+        indexes = new ArrayList<String>();
+        elements.put("CMS_CLUSTER_EVENTS", indexes);
+        indexes.add("CMS_CLUSTER_EVENTS_IDX_01");
+
         Map<String, String> replacer = Collections.singletonMap("${indexTablespace}", indexTablespace);
         for (Map.Entry<String, List<String>> entry : elements.entrySet()) {
             String table = entry.getKey();
@@ -0,0 +1,345 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.ade.configuration;
+
+import org.opencms.ade.detailpage.CmsDetailPageInfo;
+import org.opencms.file.CmsResource;
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.main.CmsRuntimeException;
+import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ListMultimap;
+
+/**
+ * Represents a snapshot of the cached ADE configuration data.<p>
+ *
+ * Objects of this class are immutable, so they can be read by any number of threads without synchronization.
+ * The sitemap configurations are indexed in a tree of path segments. The folder types and the detail page
+ * indexes depend on the VFS and are computed on first use.<p>
+ *
+ * @since 9.0.0
+ */
+class CmsADEConfigCacheState {
+
+    /**
+     * The detail page data computed from the sitemap configurations.<p>
+     */
+    private static class CmsDetailPageIndex {
+
+        /** All detail pages. */
+        List<CmsDetailPageInfo> m_allDetailPages = new ArrayList<CmsDetailPageInfo>();
+
+        /** The structure ids of the detail pages by the normalized path of their parent folder. */
+        ListMultimap<String, CmsUUID> m_idsByParentFolder = ArrayListMultimap.create();
+
+        /** The structure ids of all detail pages. */
+        Set<CmsUUID> m_ids = new HashSet<CmsUUID>();
+
+        /** The detail page URIs by type. */
+        ListMultimap<String, String> m_urisByType = ArrayListMultimap.create();
+
+        /** The root paths of all detail pages. */
+        Set<String> m_uris = new HashSet<String>();
+    }
+
+    /**
+     * A node in the tree of path segments used for looking up the sitemap configuration for a path.<p>
+     */
+    private static class CmsPathTreeNode {
+
+        /** The child nodes by path segment. */
+        Map<String, CmsPathTreeNode> m_children = new HashMap<String, CmsPathTreeNode>();
+
+        /** The configuration with the path of this node as base path, or null. */
+        CmsADEConfigData m_config;
+    }
+
+    /** The log instance for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsADEConfigCacheState.class);
+
+    /** The detail page index, computed on first use. */
+    private volatile CmsDetailPageIndex m_detailPageIndex;
+
+    /** The content types for folders, computed on first use. */
+    private volatile Map<String, String> m_folderTypes;
+
+    /** The merged configuration from all the modules. */
+    private CmsADEConfigData m_moduleConfiguration;
+
+    /** The root of the path tree for the sitemap configurations. */
+    private CmsPathTreeNode m_pathTree = new CmsPathTreeNode();
+
+    /** The sitemap configurations by base path. */
+    private Map<String, CmsADEConfigData> m_siteConfigurations;
+
+    /**
+     * Creates a new state.<p>
+     *
+     * @param siteConfigurations the sitemap configurations by base path
+     * @param moduleConfiguration the merged module configuration
+     */
+    public CmsADEConfigCacheState(
+        Map<String, CmsADEConfigData> siteConfigurations,
+        CmsADEConfigData moduleConfiguration) {
+
+        m_siteConfigurations = new HashMap<String, CmsADEConfigData>(siteConfigurations);
+        m_moduleConfiguration = moduleConfiguration;
+        for (Map.Entry<String, CmsADEConfigData> entry : m_siteConfigurations.entrySet()) {
+            CmsPathTreeNode node = m_pathTree;
+            for (String segment : getPathSegments(entry.getKey())) {
+                CmsPathTreeNode child = node.m_children.get(segment);
+                if (child == null) {
+                    child = new CmsPathTreeNode();
+                    node.m_children.put(segment, child);
+                }
+                node = child;
+            }
+            node.m_config = entry.getValue();
+        }
+    }
+
+    /**
+     * Checks if derived data of this state depends on the given resource.<p>
+     *
+     * Only derived data which has already been computed is checked.<p>
+     *
+     * @param structureId the structure id of the resource
+     * @param rootPath the root path of the resource
+     *
+     * @return true if derived data of this state depends on the given resource
+     */
+    public boolean dependsOn(CmsUUID structureId, String rootPath) {
+
+        Map<String, String> folderTypes = m_folderTypes;
+        if ((folderTypes != null) && folderTypes.containsKey(rootPath)) {
+            return true;
+        }
+        CmsDetailPageIndex detailPageIndex = m_detailPageIndex;
+        return (detailPageIndex != null) && detailPageIndex.m_ids.contains(structureId);
+    }
+
+    /**
+     * Gets all detail page info beans which are defined anywhere in the configuration.<p>
+     *
+     * @return the list of detail page info beans
+     */
+    public List<CmsDetailPageInfo> getAllDetailPages() {
+
+        return Collections.unmodifiableList(getDetailPageIndex().m_allDetailPages);
+    }
+
+    /**
+     * Gets the URIs of all the detail pages for a given type.<p>
+     *
+     * @param type the name of the type
+     *
+     * @return the URIs of the detail pages for that type
+     */
+    public List<String> getDetailPages(String type) {
+
+        return Collections.unmodifiableList(getDetailPageIndex().m_urisByType.get(type));
+    }
+
+    /**
+     * Gets the set of type names for which detail pages are configured in any sitemap configuration.<p>
+     *
+     * @return the set of type names with configured detail pages
+     */
+    public Set<String> getDetailPageTypes() {
+
+        return Collections.unmodifiableSet(getDetailPageIndex().m_urisByType.keySet());
+    }
+
+    /**
+     * Gets the structure ids of the detail pages located in the given folder.<p>
+     *
+     * @param folderRootPath the root path of the folder
+     *
+     * @return the structure ids of the detail pages in the folder
+     */
+    public List<CmsUUID> getDetailPagesInFolder(String folderRootPath) {
+
+        return Collections.unmodifiableList(getDetailPageIndex().m_idsByParentFolder.get(
+            CmsStringUtil.joinPaths(folderRootPath, "/")));
+    }
+
+    /**
+     * Gets the content types for folders.<p>
+     *
+     * @return the content types by normalized folder root path
+     */
+    public Map<String, String> getFolderTypes() {
+
+        Map<String, String> result = m_folderTypes;
+        if (result == null) {
+            result = computeFolderTypes();
+            m_folderTypes = result;
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Gets the merged module configuration.<p>
+     *
+     * @return the merged module configuration
+     */
+    public CmsADEConfigData getModuleConfiguration() {
+
+        return m_moduleConfiguration;
+    }
+
+    /**
+     * Gets the best matching sitemap configuration for a given root path, ignoring the module configuration.<p>
+     *
+     * @param path a root path
+     *
+     * @return the configuration with the longest base path which is a prefix of the given path, or null
+     */
+    public CmsADEConfigData getSiteConfigData(String path) {
+
+        CmsPathTreeNode node = m_pathTree;
+        CmsADEConfigData result = node.m_config;
+        for (String segment : getPathSegments(path)) {
+            node = node.m_children.get(segment);
+            if (node == null) {
+                break;
+            }
+            if (node.m_config != null) {
+                result = node.m_config;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Gets the sitemap configurations by base path.<p>
+     *
+     * @return the sitemap configurations by base path
+     */
+    public Map<String, CmsADEConfigData> getSiteConfigurations() {
+
+        return Collections.unmodifiableMap(m_siteConfigurations);
+    }
+
+    /**
+     * Checks whether the given resource or folder is directly configured as a detail page.<p>
+     *
+     * @param structureId the structure id of the resource
+     * @param rootPath the root path of the resource
+     *
+     * @return true if the structure id or the root path matches a configured detail page
+     */
+    public boolean isDetailPage(CmsUUID structureId, String rootPath) {
+
+        CmsDetailPageIndex index = getDetailPageIndex();
+        return index.m_ids.contains(structureId) || index.m_uris.contains(rootPath);
+    }
+
+    /**
+     * Computes the content types for folders.<p>
+     *
+     * @return the content types by normalized folder root path
+     */
+    private Map<String, String> computeFolderTypes() {
+
+        LOG.info("Computing folder types for detail pages...");
+        Map<String, String> result = new HashMap<String, String>();
+        try {
+            // do this first, since folder types from modules should be overwritten by folder types from sitemaps
+            if (m_moduleConfiguration != null) {
+                result.putAll(m_moduleConfiguration.getFolderTypes());
+            }
+            for (CmsADEConfigData configData : m_siteConfigurations.values()) {
+                result.putAll(configData.getFolderTypes());
+            }
+        } catch (CmsException e) {
+            LOG.warn(e.getLocalizedMessage(), e);
+        } catch (CmsRuntimeException e) {
+            LOG.warn(e.getLocalizedMessage(), e);
+        }
+        return result;
+    }
+
+    /**
+     * Gets the detail page index, and computes it if necessary.<p>
+     *
+     * @return the detail page index
+     */
+    private CmsDetailPageIndex getDetailPageIndex() {
+
+        CmsDetailPageIndex result = m_detailPageIndex;
+        if (result == null) {
+            result = new CmsDetailPageIndex();
+            for (CmsADEConfigData configData : m_siteConfigurations.values()) {
+                result.m_allDetailPages.addAll(configData.getAllDetailPages(true));
+            }
+            for (CmsDetailPageInfo info : result.m_allDetailPages) {
+                result.m_ids.add(info.getId());
+                result.m_uris.add(info.getUri());
+                result.m_urisByType.put(info.getType(), info.getUri());
+                String parentPath = CmsResource.getParentFolder(info.getUri());
+                if (parentPath != null) {
+                    result.m_idsByParentFolder.put(CmsStringUtil.joinPaths(parentPath, "/"), info.getId());
+                }
+            }
+            m_detailPageIndex = result;
+        }
+        return result;
+    }
+
+    /**
+     * Splits a root path into its non-empty path segments.<p>
+     *
+     * @param path the root path
+     *
+     * @return the path segments
+     */
+    private List<String> getPathSegments(String path) {
+
+        List<String> result = new ArrayList<String>();
+        for (String segment : CmsStringUtil.splitAsList(CmsStringUtil.joinPaths("/", path, "/"), '/', false)) {
+            if (segment.length() > 0) {
+                result.add(segment);
+            }
+        }
+        return result;
+    }
+}
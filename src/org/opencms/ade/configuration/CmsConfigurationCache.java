@@ -39,7 +39,6 @@ import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.CmsRuntimeException;
-import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
 import java.util.ArrayList;
@@ -49,6 +48,8 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
 
 import org.apache.commons.logging.Log;
 
@@ -60,6 +61,10 @@ import org.apache.commons.logging.Log;
  * and a single instance which represents the merged configuration from all the modules. When a sitemap configuration
  * file is updated, only the single instance for that configuration file is updated, whereas if a module configuration file
  * is changed, the configuration of all modules will be read again.<p>
+ * 
+ * The cached data is kept in an immutable {@link CmsADEConfigCacheState} which is replaced as a whole when
+ * changed configuration files are read, so reading the configuration never blocks. Only the first read after
+ * the cache has been created waits until the configuration has been read.<p>
  */
 class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
 
@@ -78,20 +83,28 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
     /** The CMS context used for reading configuration data. */
     private CmsObject m_cms;
 
-    /** The configuration files which have been changed but not read yet. */
-    private Map<String, CmsUUID> m_configurationsToRead = new HashMap<String, CmsUUID>();
+    /** The configuration files which have been changed but not read yet, the null UUID marks removed files. */
+    private ConcurrentHashMap<String, CmsUUID> m_configurationsToRead = new ConcurrentHashMap<String, CmsUUID>();
+
+    /** Flag which indicates that the data derived from the configuration has to be computed again. */
+    private volatile boolean m_derivedDataOutdated;
 
-    /** The cached content types for folders. */
-    private Map<String, String> m_folderTypes = new HashMap<String, String>();
+    /** Flag which indicates that all sitemap configurations have to be read again. */
+    private boolean m_fullReload;
 
-    /** The merged configuration from all the modules. */
-    private CmsADEConfigData m_moduleConfiguration;
+    /** Flag which indicates that the configuration has been read at least once. */
+    private volatile boolean m_loaded;
 
     /** A cache which stores resources' paths by their structure IDs. */
-    private Map<CmsUUID, String> m_pathCache = Collections.synchronizedMap(new HashMap<CmsUUID, String>());
+    private Map<CmsUUID, String> m_pathCache = new ConcurrentHashMap<CmsUUID, String>();
+
+    /** The current configuration state. */
+    private volatile CmsADEConfigCacheState m_state = new CmsADEConfigCacheState(
+        Collections.<String, CmsADEConfigData> emptyMap(),
+        null);
 
-    /** The configurations from the sitemap / VFS. */
-    private Map<String, CmsADEConfigData> m_siteConfigurations = new HashMap<String, CmsADEConfigData>();
+    /** The lock used for updating the configuration state. */
+    private ReentrantLock m_updateLock = new ReentrantLock();
 
     /** 
      * Creates a new cache instance.<p>
@@ -139,30 +152,32 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
     /**
      * Initializes the cache by reading in all the configuration files.<p>
      */
-    public synchronized void initialize() {
+    public void initialize() {
 
-        m_siteConfigurations.clear();
-        if (m_cms.existsResource("/")) {
-            try {
-                List<CmsResource> configFileCandidates = m_cms.readResources(
-                    "/",
-                    CmsResourceFilter.DEFAULT.addRequireType(m_configType.getTypeId()));
-                for (CmsResource candidate : configFileCandidates) {
-                    if (isSitemapConfiguration(candidate.getRootPath(), candidate.getTypeId())) {
-                        update(candidate);
+        m_updateLock.lock();
+        try {
+            // the previous state stays available until the sitemap configurations have been read again
+            m_configurationsToRead.clear();
+            m_fullReload = true;
+            if (m_cms.existsResource("/")) {
+                try {
+                    List<CmsResource> configFileCandidates = m_cms.readResources(
+                        "/",
+                        CmsResourceFilter.DEFAULT.addRequireType(m_configType.getTypeId()));
+                    for (CmsResource candidate : configFileCandidates) {
+                        if (isSitemapConfiguration(candidate.getRootPath(), candidate.getTypeId())) {
+                            update(candidate);
+                        }
                     }
+                } catch (Exception e) {
+                    LOG.error(e.getLocalizedMessage(), e);
                 }
-            } catch (Exception e) {
-                LOG.error(e.getLocalizedMessage(), e);
             }
+            m_state = new CmsADEConfigCacheState(m_state.getSiteConfigurations(), readModuleConfiguration());
+            m_derivedDataOutdated = true;
+        } finally {
+            m_updateLock.unlock();
         }
-        refreshModuleConfiguration();
-        try {
-            initializeFolderTypes();
-        } catch (Exception e) {
-            LOG.error(e.getLocalizedMessage(), e);
-        }
-
     }
 
     /**
@@ -220,14 +235,9 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
      * 
      * @return the list of detail page info beans 
      */
-    protected synchronized List<CmsDetailPageInfo> getAllDetailPages() {
+    protected List<CmsDetailPageInfo> getAllDetailPages() {
 
-        readRemainingConfigurations();
-        List<CmsDetailPageInfo> result = new ArrayList<CmsDetailPageInfo>();
-        for (CmsADEConfigData configData : m_siteConfigurations.values()) {
-            result.addAll(configData.getAllDetailPages(true));
-        }
-        return result;
+        return new ArrayList<CmsDetailPageInfo>(getState().getAllDetailPages());
     }
 
     /** 
@@ -252,16 +262,9 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
      * 
      * @return the detail pages for that type 
      */
-    protected synchronized List<String> getDetailPages(String type) {
+    protected List<String> getDetailPages(String type) {
 
-        readRemainingConfigurations();
-        List<String> result = new ArrayList<String>();
-        for (CmsADEConfigData configData : m_siteConfigurations.values()) {
-            for (CmsDetailPageInfo pageInfo : configData.getDetailPagesForType(type)) {
-                result.add(pageInfo.getUri());
-            }
-        }
-        return result;
+        return new ArrayList<String>(getState().getDetailPages(type));
     }
 
     /**
@@ -269,26 +272,18 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
      * 
      * @return the set of type names with configured detail pages  
      */
-    protected synchronized Set<String> getDetailPageTypes() {
-
-        readRemainingConfigurations();
-        Set<String> result = new HashSet<String>();
-        for (CmsADEConfigData configData : m_siteConfigurations.values()) {
-            List<CmsDetailPageInfo> detailPageInfos = configData.getAllDetailPages(false);
-            for (CmsDetailPageInfo info : detailPageInfos) {
-                result.add(info.getType());
-            }
-        }
-        return result;
+    protected Set<String> getDetailPageTypes() {
+
+        return new HashSet<String>(getState().getDetailPageTypes());
     }
 
     /**
      * Gets the merged module configuration.<p>
      * @return the merged module configuration instance
      */
-    protected synchronized CmsADEConfigData getModuleConfiguration() {
+    protected CmsADEConfigData getModuleConfiguration() {
 
-        return m_moduleConfiguration;
+        return getState().getModuleConfiguration();
     }
 
     /**
@@ -297,14 +292,14 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
      * @param rootPath the path of a resource 
      * @return the parent folder content type 
      */
-    protected synchronized String getParentFolderType(String rootPath) {
+    protected String getParentFolderType(String rootPath) {
 
-        readRemainingConfigurations();
+        CmsADEConfigCacheState state = getState();
         String parent = CmsResource.getParentFolder(rootPath);
         if (parent == null) {
             return null;
         }
-        String type = m_folderTypes.get(parent);
+        String type = state.getFolderTypes().get(parent);
         // type may be null
         return type;
     }
@@ -321,48 +316,43 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
      * @param path a root path  
      * @return the configuration data for the given path, or null if none was found 
      */
-    protected synchronized CmsADEConfigData getSiteConfigData(String path) {
+    protected CmsADEConfigData getSiteConfigData(String path) {
 
         if (path == null) {
             return null;
         }
-        readRemainingConfigurations();
-        String normalizedPath = CmsStringUtil.joinPaths("/", path, "/");
-        List<String> prefixes = new ArrayList<String>();
-        for (String key : m_siteConfigurations.keySet()) {
-            if (normalizedPath.startsWith(CmsStringUtil.joinPaths("/", key, "/"))) {
-                prefixes.add(key);
-            }
-        }
-        if (prefixes.size() == 0) {
-            return null;
-        }
-        Collections.sort(prefixes);
-        // for any two prefixes of a string, one is a prefix of the other. so the alphabetically last
-        // prefix is the longest prefix of all.
-        return m_siteConfigurations.get(prefixes.get(prefixes.size() - 1));
+        return getState().getSiteConfigData(path);
     }
 
     /**
-     * Initializes the cached folder types.<p>
+     * Returns the current configuration state.<p>
      * 
-     * @throws CmsException if something goes wrong 
+     * If configuration files have changed, they are read before the state is returned, unless another thread is
+     * already reading them. In that case, the previous state is returned instead of waiting for the update.<p>
+     * 
+     * @return the current configuration state 
      */
-    protected synchronized void initializeFolderTypes() throws CmsException {
-
-        LOG.info("Computing folder types for detail pages...");
-        m_folderTypes.clear();
-        // do this first, since folder types from modules should be overwritten by folder types from sitemaps 
-        if (m_moduleConfiguration != null) {
-            Map<String, String> folderTypes = m_moduleConfiguration.getFolderTypes();
-            m_folderTypes.putAll(folderTypes);
-        }
+    protected CmsADEConfigCacheState getState() {
 
-        List<CmsADEConfigData> configDataObjects = new ArrayList<CmsADEConfigData>(m_siteConfigurations.values());
-        for (CmsADEConfigData configData : configDataObjects) {
-            Map<String, String> folderTypes = configData.getFolderTypes();
-            m_folderTypes.putAll(folderTypes);
+        if ((!m_loaded || !m_configurationsToRead.isEmpty() || m_derivedDataOutdated)
+            && !m_updateLock.isHeldByCurrentThread()) {
+            boolean locked;
+            if (m_loaded) {
+                locked = m_updateLock.tryLock();
+            } else {
+                // there is no previous state which could be used 
+                m_updateLock.lock();
+                locked = true;
+            }
+            if (locked) {
+                try {
+                    readRemainingConfigurations();
+                } finally {
+                    m_updateLock.unlock();
+                }
+            }
         }
+        return m_state;
     }
 
     /**
@@ -373,9 +363,9 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
      * 
      * @return true if the resource is configured as a detail page 
      */
-    protected synchronized boolean isDetailPage(CmsObject cms, CmsResource resource) {
+    protected boolean isDetailPage(CmsObject cms, CmsResource resource) {
 
-        readRemainingConfigurations();
+        CmsADEConfigCacheState state = getState();
         CmsResource folder;
         if (resource.isFile()) {
             if (!CmsResourceTypeXmlContainerPage.isContainerPage(resource)) {
@@ -390,35 +380,20 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
         } else {
             folder = resource;
         }
-        List<CmsDetailPageInfo> allDetailPages = new ArrayList<CmsDetailPageInfo>();
-        // First collect all detail page infos 
-        for (CmsADEConfigData configData : m_siteConfigurations.values()) {
-            List<CmsDetailPageInfo> detailPageInfos = configData.getAllDetailPages();
-            allDetailPages.addAll(detailPageInfos);
-        }
         // First pass: check if the structure id or path directly match one of the configured detail pages.
-        for (CmsDetailPageInfo info : allDetailPages) {
-            if (folder.getStructureId().equals(info.getId())
-                || folder.getRootPath().equals(info.getUri())
-                || resource.getStructureId().equals(info.getId())
-                || resource.getRootPath().equals(info.getUri())) {
-                return true;
-            }
+        if (state.isDetailPage(folder.getStructureId(), folder.getRootPath())
+            || state.isDetailPage(resource.getStructureId(), resource.getRootPath())) {
+            return true;
         }
         // Second pass: configured detail pages may be actual container pages rather than folders 
-        String normalizedFolderRootPath = CmsStringUtil.joinPaths(folder.getRootPath(), "/");
-        for (CmsDetailPageInfo info : allDetailPages) {
-            String parentPath = CmsResource.getParentFolder(info.getUri());
-            String normalizedParentPath = CmsStringUtil.joinPaths(parentPath, "/");
-            if (normalizedParentPath.equals(normalizedFolderRootPath)) {
-                try {
-                    CmsResource infoResource = m_cms.readResource(info.getId());
-                    if (infoResource.isFile()) {
-                        return true;
-                    }
-                } catch (CmsException e) {
-                    LOG.warn(e.getLocalizedMessage(), e);
+        for (CmsUUID detailPageId : state.getDetailPagesInFolder(folder.getRootPath())) {
+            try {
+                CmsResource infoResource = m_cms.readResource(detailPageId);
+                if (infoResource.isFile()) {
+                    return true;
                 }
+            } catch (CmsException e) {
+                LOG.warn(e.getLocalizedMessage(), e);
             }
         }
         return false;
@@ -461,18 +436,22 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
     }
 
     /**
-     * Reloads the module configuration.<p>
+     * Reads the module configuration.<p>
+     * 
+     * @return the merged module configuration 
      */
-    protected synchronized void refreshModuleConfiguration() {
+    protected CmsADEConfigData readModuleConfiguration() {
 
         LOG.info("Refreshing module configuration.");
+        CmsADEConfigData moduleConfiguration;
         if (m_cms.existsResource("/")) {
             CmsConfigurationReader reader = new CmsConfigurationReader(m_cms);
-            m_moduleConfiguration = reader.readModuleConfigurations();
+            moduleConfiguration = reader.readModuleConfigurations();
         } else {
-            m_moduleConfiguration = new CmsADEConfigData();
+            moduleConfiguration = new CmsADEConfigData();
         }
-        m_moduleConfiguration.initialize(m_cms);
+        moduleConfiguration.initialize(m_cms);
+        return moduleConfiguration;
     }
 
     /**
@@ -487,23 +466,14 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
         if (CmsResource.isTemporaryFileName(rootPath)) {
             return;
         }
-        try {
-            updateFolderTypes(rootPath);
-        } catch (CmsException e) {
-            LOG.error(e.getLocalizedMessage(), e);
-        }
+        checkDerivedData(structureId, rootPath);
         m_pathCache.remove(structureId);
         if (isSitemapConfiguration(rootPath, type)) {
-            synchronized (this) {
-                String basePath = getBasePath(rootPath);
-                removePath(basePath);
-                LOG.info("Removing config file from cache: " + rootPath);
-            }
+            LOG.info("Removing config file from cache: " + rootPath);
+            m_configurationsToRead.put(rootPath, CmsUUID.getNullUUID());
         } else if (isModuleConfiguration(rootPath, type)) {
             LOG.info("Removing module configuration " + rootPath);
-            synchronized (this) {
-                m_configurationsToRead.put(MODULE_CONFIG_KEY, CmsUUID.getNullUUID());
-            }
+            m_configurationsToRead.put(MODULE_CONFIG_KEY, CmsUUID.getNullUUID());
         }
 
     }
@@ -522,101 +492,87 @@ class CmsConfigurationCache implements I_CmsGlobalConfigurationCache {
             return;
         }
 
-        try {
-            updateFolderTypes(rootPath);
-        } catch (CmsException e) {
-            LOG.error(e.getLocalizedMessage(), e);
-        }
         if (m_pathCache.containsKey(structureId)) {
             m_pathCache.put(structureId, rootPath);
         }
+        checkDerivedData(structureId, rootPath);
         if (isSitemapConfiguration(rootPath, type)) {
-            synchronized (this) {
-                // Do not update the configuration right now, because reading configuration files while handling 
-                // an event may lead to cache problems. Instead, the configuration file is read when the configuration
-                // is queried.
-                LOG.info("Changed configuration file " + rootPath + "(" + structureId + "), will be read later");
-                m_configurationsToRead.put(rootPath, structureId);
-            }
+            // Do not update the configuration right now, because reading configuration files while handling 
+            // an event may lead to cache problems. Instead, the configuration file is read when the configuration
+            // is queried.
+            LOG.info("Changed configuration file " + rootPath + "(" + structureId + "), will be read later");
+            m_configurationsToRead.put(rootPath, structureId);
         } else if (isModuleConfiguration(rootPath, type)) {
             LOG.info("Changed module configuration file " + rootPath + "(" + structureId + ")");
-            synchronized (this) {
-                m_configurationsToRead.put(MODULE_CONFIG_KEY, CmsUUID.getNullUUID());
-            }
+            m_configurationsToRead.put(MODULE_CONFIG_KEY, CmsUUID.getNullUUID());
         }
     }
 
     /**
-    * Updates the cached folder types.<p>
-    * 
-    * @param rootPath the folder root path 
-    * @throws CmsException if something goes wrong 
-    */
-    protected synchronized void updateFolderTypes(String rootPath) throws CmsException {
-
-        if (m_folderTypes.containsKey(rootPath)) {
-            LOG.info("Updating folder types because of a change at " + rootPath);
-            synchronized (this) {
-                initializeFolderTypes();
-            }
+     * Checks whether the folder types or detail pages derived from the configuration depend on a changed resource,
+     * and if so, marks them for being computed again.<p>
+     * 
+     * @param structureId the structure id of the changed resource 
+     * @param rootPath the root path of the changed resource 
+     */
+    private void checkDerivedData(CmsUUID structureId, String rootPath) {
+
+        if (m_state.dependsOn(structureId, rootPath)) {
+            LOG.info("Updating folder types and detail pages because of a change at " + rootPath);
+            m_derivedDataOutdated = true;
         }
     }
 
     /**
-     * Reads the configuration files which have changed but not been read yet.<p>
+     * Reads the configuration files which have changed but not been read yet, and replaces the current state.<p>
+     * 
+     * Must only be called while holding the update lock.<p>
      */
-    private synchronized void readRemainingConfigurations() {
+    private void readRemainingConfigurations() {
 
-        if (m_configurationsToRead.isEmpty()) {
-            // do not initialize folder types if there were no changes!
-            return;
+        // copy the changes first, events may arrive while the configuration files are read 
+        Map<String, CmsUUID> configurationsToRead = new HashMap<String, CmsUUID>(m_configurationsToRead);
+        for (Map.Entry<String, CmsUUID> entry : configurationsToRead.entrySet()) {
+            m_configurationsToRead.remove(entry.getKey(), entry.getValue());
         }
-        for (Map.Entry<String, CmsUUID> entry : m_configurationsToRead.entrySet()) {
+        m_derivedDataOutdated = false;
+        CmsADEConfigCacheState state = m_state;
+        Map<String, CmsADEConfigData> siteConfigurations = new HashMap<String, CmsADEConfigData>();
+        if (!m_fullReload) {
+            siteConfigurations.putAll(state.getSiteConfigurations());
+        }
+        m_fullReload = false;
+        CmsADEConfigData moduleConfiguration = state.getModuleConfiguration();
+        for (Map.Entry<String, CmsUUID> entry : configurationsToRead.entrySet()) {
             String rootPath = entry.getKey();
             CmsUUID structureId = entry.getValue();
             if (rootPath.equals(MODULE_CONFIG_KEY)) {
-                refreshModuleConfiguration();
-            } else {
-                try {
-                    // remove the original entry first, so that the configuration will be gone if reading the 
-                    // configuration file fails.
-                    m_siteConfigurations.remove(rootPath);
-                    CmsResource configRes = m_cms.readResource(structureId);
-                    CmsConfigurationReader reader = new CmsConfigurationReader(m_cms);
-                    LOG.info("Reading configuration file " + rootPath + "(" + structureId + ")");
-                    String basePath = getBasePath(rootPath);
-                    CmsADEConfigData configData = reader.parseSitemapConfiguration(basePath, configRes);
-                    configData.initialize(m_cms);
-                    m_siteConfigurations.put(basePath, configData);
-                } catch (CmsException e) {
-                    LOG.warn(e.getLocalizedMessage(), e);
-                } catch (CmsRuntimeException e) {
-                    LOG.warn(e.getLocalizedMessage(), e);
-                }
+                moduleConfiguration = readModuleConfiguration();
+                continue;
+            }
+            String basePath = getBasePath(rootPath);
+            // remove the original entry first, so that the configuration will be gone if reading the 
+            // configuration file fails.
+            siteConfigurations.remove(basePath);
+            if (structureId.isNullUUID()) {
+                // the configuration file has been removed 
+                continue;
+            }
+            try {
+                CmsResource configRes = m_cms.readResource(structureId);
+                CmsConfigurationReader reader = new CmsConfigurationReader(m_cms);
+                LOG.info("Reading configuration file " + rootPath + "(" + structureId + ")");
+                CmsADEConfigData configData = reader.parseSitemapConfiguration(basePath, configRes);
+                configData.initialize(m_cms);
+                siteConfigurations.put(basePath, configData);
+            } catch (CmsException e) {
+                LOG.warn(e.getLocalizedMessage(), e);
+            } catch (CmsRuntimeException e) {
+                LOG.warn(e.getLocalizedMessage(), e);
             }
         }
-        m_configurationsToRead.clear();
-        // Methods which recursively call this method must be called after this point,
-        // because it will lead to an infinite recursion otherwise.
-
-        try {
-            initializeFolderTypes();
-        } catch (CmsException e) {
-            LOG.warn(e.getLocalizedMessage(), e);
-        } catch (CmsRuntimeException e) {
-            LOG.warn(e.getLocalizedMessage(), e);
-        }
-    }
-
-    /**
-     * Remove a sitemap configuration from the cache by its base path.<p>
-     * 
-     * @param rootPath the base path for the sitemap configuration 
-     */
-    private void removePath(String rootPath) {
-
-        m_configurationsToRead.remove(rootPath);
-        m_siteConfigurations.remove(rootPath);
+        // the folder types and detail pages are computed again by the new state when they are first needed
+        m_state = new CmsADEConfigCacheState(siteConfigurations, moduleConfiguration);
+        m_loaded = true;
     }
-
 }
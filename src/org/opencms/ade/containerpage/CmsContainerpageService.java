@@ -59,6 +59,7 @@ import org.opencms.flex.CmsFlexController;
 import org.opencms.gwt.CmsDefaultResourceStatusProvider;
 import org.opencms.gwt.CmsGwtActionElement;
 import org.opencms.gwt.CmsGwtService;
+import org.opencms.gwt.CmsReadOnlyRpc;
 import org.opencms.gwt.CmsRpcException;
 import org.opencms.gwt.CmsVfsService;
 import org.opencms.gwt.shared.CmsListInfoBean;
@@ -274,6 +275,7 @@ public class CmsContainerpageService extends CmsGwtService implements I_CmsConta
     /**
      * @see org.opencms.ade.containerpage.shared.rpc.I_CmsContainerpageService#checkContainerpageOrElementsChanged(org.opencms.util.CmsUUID, org.opencms.util.CmsUUID)
      */
+    @CmsReadOnlyRpc
     public boolean checkContainerpageOrElementsChanged(CmsUUID structureId, CmsUUID detailContentId)
     throws CmsRpcException {
 
@@ -57,6 +57,7 @@ import org.opencms.file.types.CmsResourceTypeXmlPage;
 import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.flex.CmsFlexController;
 import org.opencms.gwt.CmsGwtService;
+import org.opencms.gwt.CmsReadOnlyRpc;
 import org.opencms.gwt.CmsRpcException;
 import org.opencms.gwt.CmsVfsService;
 import org.opencms.gwt.shared.CmsIconUtil;
@@ -334,6 +335,7 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
     /**
      * @see org.opencms.ade.galleries.shared.rpc.I_CmsGalleryService#getGalleries(java.util.List)
      */
+    @CmsReadOnlyRpc
     public List<CmsGalleryFolderBean> getGalleries(List<String> resourceTypes) {
 
         return buildGalleriesList(readGalleryInfosByTypeNames(resourceTypes));
@@ -342,6 +344,7 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
     /**
      * @see org.opencms.ade.galleries.shared.rpc.I_CmsGalleryService#getInfoForResource(java.lang.String, java.lang.String)
      */
+    @CmsReadOnlyRpc
     public CmsResultItemBean getInfoForResource(String linkPath, String locale) throws CmsRpcException {
 
         CmsResultItemBean result = null;
@@ -485,6 +488,7 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
     /**
      * @see org.opencms.ade.galleries.shared.rpc.I_CmsGalleryService#getSearch(org.opencms.ade.galleries.shared.CmsGalleryDataBean)
      */
+    @CmsReadOnlyRpc
     public CmsGallerySearchBean getSearch(CmsGalleryDataBean data) {
 
         CmsGallerySearchBean result = null;
@@ -641,6 +645,7 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
     /**
      * @see org.opencms.ade.galleries.shared.rpc.I_CmsGalleryService#getSubEntries(java.lang.String, boolean)
      */
+    @CmsReadOnlyRpc
     public List<CmsSitemapEntryBean> getSubEntries(String rootPath, boolean isRoot) throws CmsRpcException {
 
         try {
@@ -654,6 +659,7 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
     /**
      * @see org.opencms.ade.galleries.shared.rpc.I_CmsGalleryService#getSubFolders(java.lang.String)
      */
+    @CmsReadOnlyRpc
     public List<CmsVfsEntryBean> getSubFolders(String rootPath) throws CmsRpcException {
 
         try {
@@ -665,8 +671,15 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
                 List<CmsResource> resources = cms.getSubFolders(
                     resource.getRootPath(),
                     CmsResourceFilter.ONLY_VISIBLE_NO_DELETED);
+                // read the titles of all sub folders at once
+                Map<CmsUUID, List<CmsProperty>> properties = cms.readPropertyObjects(
+                    resources,
+                    Collections.singleton(CmsPropertyDefinition.PROPERTY_TITLE),
+                    false);
                 for (CmsResource res : resources) {
-                    String title = cms.readPropertyObject(res, CmsPropertyDefinition.PROPERTY_TITLE, false).getValue();
+                    String title = CmsProperty.get(
+                        CmsPropertyDefinition.PROPERTY_TITLE,
+                        properties.get(res.getStructureId())).getValue();
                     result.add(internalCreateVfsEntryBean(res, title, false, isEditable(cms, res), null));
                 }
             }
@@ -1883,15 +1896,17 @@ public class CmsGalleryService extends CmsGwtService implements I_CmsGalleryServ
     private CmsWorkplaceSettings getWorkplaceSettings() {
 
         if (m_workplaceSettings == null) {
-            m_workplaceSettings = (CmsWorkplaceSettings)getRequest().getSession().getAttribute(
-                CmsWorkplaceManager.SESSION_WORKPLACE_SETTINGS);
-            // ensure workplace settings attribute is set
-            if (m_workplaceSettings == null) {
-                // creating any instance of {@link org.opencms.workplace.CmsWorkplaceSettings} and store it
-                m_workplaceSettings = CmsWorkplace.initWorkplaceSettings(getCmsObject(), null, false);
-                getRequest().getSession().setAttribute(
-                    CmsWorkplaceManager.SESSION_WORKPLACE_SETTINGS,
-                    m_workplaceSettings);
+            HttpSession session = getRequest().getSession();
+            // read only RPC calls of the same session may run concurrently
+            synchronized (session) {
+                m_workplaceSettings = (CmsWorkplaceSettings)session.getAttribute(
+                    CmsWorkplaceManager.SESSION_WORKPLACE_SETTINGS);
+                // ensure workplace settings attribute is set
+                if (m_workplaceSettings == null) {
+                    // creating any instance of {@link org.opencms.workplace.CmsWorkplaceSettings} and store it
+                    m_workplaceSettings = CmsWorkplace.initWorkplaceSettings(getCmsObject(), null, false);
+                    session.setAttribute(CmsWorkplaceManager.SESSION_WORKPLACE_SETTINGS, m_workplaceSettings);
+                }
             }
         }
         return m_workplaceSettings;
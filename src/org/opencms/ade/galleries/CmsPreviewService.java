@@ -39,6 +39,7 @@ import org.opencms.file.CmsVfsResourceNotFoundException;
 import org.opencms.file.types.CmsResourceTypeXmlContent;
 import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.gwt.CmsGwtService;
+import org.opencms.gwt.CmsReadOnlyRpc;
 import org.opencms.gwt.CmsRpcException;
 import org.opencms.i18n.CmsLocaleManager;
 import org.opencms.jsp.util.CmsJspStandardContextBean;
@@ -163,6 +164,7 @@ public class CmsPreviewService extends CmsGwtService implements I_CmsPreviewServ
     /**
      * @see org.opencms.ade.galleries.shared.rpc.I_CmsPreviewService#getImageInfo(java.lang.String, java.lang.String)
      */
+    @CmsReadOnlyRpc
     public CmsImageInfoBean getImageInfo(String resourcePath, String locale) throws CmsRpcException {
 
         CmsObject cms = getCmsObject();
@@ -202,6 +204,7 @@ public class CmsPreviewService extends CmsGwtService implements I_CmsPreviewServ
     /**
      * @see org.opencms.ade.galleries.shared.rpc.I_CmsPreviewService#getResourceInfo(java.lang.String, java.lang.String)
      */
+    @CmsReadOnlyRpc
     public CmsResourceInfoBean getResourceInfo(String resourcePath, String locale) throws CmsRpcException {
 
         CmsObject cms = getCmsObject();
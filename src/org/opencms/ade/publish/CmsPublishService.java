@@ -43,6 +43,7 @@ import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsUser;
 import org.opencms.flex.CmsFlexController;
 import org.opencms.gwt.CmsGwtService;
+import org.opencms.gwt.CmsReadOnlyRpc;
 import org.opencms.gwt.CmsRpcException;
 import org.opencms.gwt.CmsVfsService;
 import org.opencms.main.CmsException;
@@ -206,6 +207,7 @@ public class CmsPublishService extends CmsGwtService implements I_CmsPublishServ
      * 
      * @throws CmsRpcException if something goes wrong 
      */
+    @CmsReadOnlyRpc
     public List<CmsProjectBean> getProjects(Map<String, String> params) throws CmsRpcException {
 
         List<CmsProjectBean> result = null;
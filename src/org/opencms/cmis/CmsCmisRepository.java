@@ -43,6 +43,7 @@ import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsVfsResourceAlreadyExistsException;
 import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.file.types.I_CmsResourceType;
+import org.opencms.loader.CmsDumpLoader;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
@@ -59,6 +60,7 @@ import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
 import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
@@ -124,10 +126,15 @@ import org.apache.chemistry.opencmis.commons.impl.dataobjects.PermissionMappingD
 import org.apache.chemistry.opencmis.commons.impl.dataobjects.RepositoryCapabilitiesImpl;
 import org.apache.chemistry.opencmis.commons.impl.dataobjects.RepositoryInfoImpl;
 import org.apache.chemistry.opencmis.commons.spi.Holder;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.DeferredFileOutputStream;
 import org.apache.commons.logging.Log;
 
 /**
  * Repository instance for CMIS repositories.<p>
+ * 
+ * Read operations run concurrently, each with its own CMS context. Write operations are only serialized 
+ * with other write operations on the same object, or on the same parent folder when creating objects.<p>
  */
 public class CmsCmisRepository extends A_CmsCmisRepository {
 
@@ -193,6 +200,12 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /** The index parameter name. */
     private static final String PARAM_INDEX = "index";
 
+    /** Uploads larger than this number of bytes are spooled to a temporary file instead of memory. */
+    private static final int SPOOL_THRESHOLD = 1024 * 1024;
+
+    /** The number of monitors used to serialize write operations. */
+    private static final int WRITE_LOCK_COUNT = 64;
+
     /** The internal admin CMS context. */
     private CmsObject m_adminCms;
 
@@ -234,6 +247,9 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /** The root folder. */
     private CmsResource m_root;
 
+    /** The monitors used to serialize the write operations on the same object. */
+    private Object[] m_writeLocks = createWriteLocks();
+
     /**
      * Creates a permission definition.<p>
      * 
@@ -251,6 +267,72 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
         return pd;
     }
 
+    /**
+     * Creates the monitors used to serialize the write operations on the same object.<p>
+     * 
+     * @return the monitors 
+     */
+    private static Object[] createWriteLocks() {
+
+        Object[] locks = new Object[WRITE_LOCK_COUNT];
+        for (int i = 0; i < locks.length; i++) {
+            locks[i] = new Object();
+        }
+        return locks;
+    }
+
+    /**
+     * Deletes the temporary file of the given spooled content, if there is one.<p>
+     * 
+     * @param spool the spooled content
+     */
+    private static void deleteSpool(DeferredFileOutputStream spool) {
+
+        if (!spool.isInMemory()) {
+            spool.getFile().delete();
+        }
+    }
+
+    /**
+     * Opens an input stream on the given spooled content.<p>
+     * 
+     * @param spool the spooled content
+     * 
+     * @return an input stream to read the spooled content from
+     * 
+     * @throws IOException if the spool file could not be opened
+     */
+    private static InputStream openSpool(DeferredFileOutputStream spool) throws IOException {
+
+        if (spool.isInMemory()) {
+            return new ByteArrayInputStream(spool.getData());
+        }
+        return new FileInputStream(spool.getFile());
+    }
+
+    /**
+     * Reads the given content stream completely, spooling large contents to a temporary file.<p>
+     * 
+     * @param contentStream the content stream to read
+     * 
+     * @return the spooled content 
+     */
+    private static DeferredFileOutputStream spoolContent(ContentStream contentStream) {
+
+        DeferredFileOutputStream spool = new DeferredFileOutputStream(SPOOL_THRESHOLD, "opencms-cmis", ".tmp", null);
+        try {
+            try {
+                IOUtils.copy(contentStream.getStream(), spool);
+            } finally {
+                spool.close();
+            }
+        } catch (IOException e) {
+            deleteSpool(spool);
+            throw new CmisRuntimeException(e.getLocalizedMessage(), e);
+        }
+        return spool;
+    }
+
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#addConfigurationParameter(java.lang.String, java.lang.String)
      */
@@ -263,7 +345,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createDocument(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.data.Properties, java.lang.String, org.apache.chemistry.opencmis.commons.data.ContentStream, org.apache.chemistry.opencmis.commons.enums.VersioningState, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createDocument(
+    public String createDocument(
         CmsCmisCallContext context,
         Properties propertiesObj,
         String folderId,
@@ -283,46 +365,60 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             throw new CmisConstraintException("createDocument: no content stream given");
         }
 
+        // read the upload before locking, so a slow client does not block the other writes
+        DeferredFileOutputStream spool = spoolContent(contentStream);
         try {
-            CmsObject cms = getCmsObject(context);
-            Map<String, PropertyData<?>> properties = propertiesObj.getProperties();
-            String newDocName = (String)properties.get(PropertyIds.NAME).getFirstValue();
-            String defaultType = OpenCms.getResourceManager().getDefaultTypeForName(newDocName).getTypeName();
-            String resTypeName = getResourceTypeFromProperties(properties, defaultType);
-            I_CmsResourceType cmsResourceType = OpenCms.getResourceManager().getResourceType(resTypeName);
-            if (cmsResourceType.isFolder()) {
-                throw new CmisConstraintException("Not a document type: " + resTypeName);
-            }
-            List<CmsProperty> cmsProperties = getOpenCmsProperties(properties);
-            checkResourceName(newDocName);
-            InputStream stream = contentStream.getStream();
-            byte[] content = CmsFileUtil.readFully(stream);
-            CmsUUID parentFolderId = new CmsUUID(folderId);
-            CmsResource parentFolder = cms.readResource(parentFolderId);
-            String newFolderPath = CmsStringUtil.joinPaths(parentFolder.getRootPath(), newDocName);
-            try {
-                CmsResource newDocument = cms.createResource(
-                    newFolderPath,
-                    cmsResourceType.getTypeId(),
-                    content,
-                    cmsProperties);
-                cms.unlockResource(newDocument.getRootPath());
-                return newDocument.getStructureId().toString();
-            } catch (CmsVfsResourceAlreadyExistsException e) {
-                throw new CmisNameConstraintViolationException(e.getLocalizedMessage(), e);
+            synchronized (getWriteLock(folderId)) {
+                CmsObject cms = getCmsObject(context);
+                Map<String, PropertyData<?>> properties = propertiesObj.getProperties();
+                String newDocName = (String)properties.get(PropertyIds.NAME).getFirstValue();
+                String defaultType = OpenCms.getResourceManager().getDefaultTypeForName(newDocName).getTypeName();
+                String resTypeName = getResourceTypeFromProperties(properties, defaultType);
+                I_CmsResourceType cmsResourceType = OpenCms.getResourceManager().getResourceType(resTypeName);
+                if (cmsResourceType.isFolder()) {
+                    throw new CmisConstraintException("Not a document type: " + resTypeName);
+                }
+                List<CmsProperty> cmsProperties = getOpenCmsProperties(properties);
+                checkResourceName(newDocName);
+                CmsUUID parentFolderId = new CmsUUID(folderId);
+                CmsResource parentFolder = cms.readResource(parentFolderId);
+                String newFolderPath = CmsStringUtil.joinPaths(parentFolder.getRootPath(), newDocName);
+                try {
+                    CmsResource newDocument;
+                    if (cmsResourceType.getLoaderId() == CmsDumpLoader.RESOURCE_LOADER_ID) {
+                        newDocument = cms.createResource(
+                            newFolderPath,
+                            cmsResourceType.getTypeId(),
+                            new byte[0],
+                            cmsProperties);
+                        newDocument = writeContent(cms, newDocument, spool);
+                    } else {
+                        newDocument = cms.createResource(
+                            newFolderPath,
+                            cmsResourceType.getTypeId(),
+                            readSpool(spool),
+                            cmsProperties);
+                    }
+                    cms.unlockResource(newDocument.getRootPath());
+                    return newDocument.getStructureId().toString();
+                } catch (CmsVfsResourceAlreadyExistsException e) {
+                    throw new CmisNameConstraintViolationException(e.getLocalizedMessage(), e);
+                }
             }
         } catch (CmsException e) {
             handleCmsException(e);
             return null;
         } catch (IOException e) {
             throw new CmisRuntimeException(e.getLocalizedMessage(), e);
+        } finally {
+            deleteSpool(spool);
         }
     }
 
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createDocumentFromSource(org.opencms.cmis.CmsCmisCallContext, java.lang.String, org.apache.chemistry.opencmis.commons.data.Properties, java.lang.String, org.apache.chemistry.opencmis.commons.enums.VersioningState, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createDocumentFromSource(
+    public String createDocumentFromSource(
         CmsCmisCallContext context,
         String sourceId,
         Properties propertiesObj,
@@ -338,66 +434,68 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             throw new CmisConstraintException("createDocument: ACEs not allowed");
         }
 
-        try {
-            CmsObject cms = getCmsObject(context);
-            Map<String, PropertyData<?>> properties = new HashMap<String, PropertyData<?>>();
-            if (propertiesObj != null) {
-                properties = propertiesObj.getProperties();
-            }
-            List<CmsProperty> cmsProperties = getOpenCmsProperties(properties);
-            CmsUUID parentFolderId = new CmsUUID(folderId);
-            CmsResource parentFolder = cms.readResource(parentFolderId);
-            CmsUUID sourceUuid = new CmsUUID(sourceId);
-            CmsResource source = cms.readResource(sourceUuid);
-            String sourcePath = source.getRootPath();
-
-            PropertyData<?> nameProp = properties.get(PropertyIds.NAME);
-            String newDocName;
-            if (nameProp != null) {
-                newDocName = (String)nameProp.getFirstValue();
-                checkResourceName(newDocName);
-            } else {
-                newDocName = CmsResource.getName(source.getRootPath());
-            }
-            String targetPath = CmsStringUtil.joinPaths(parentFolder.getRootPath(), newDocName);
-
+        synchronized (getWriteLock(folderId)) {
             try {
-                cms.copyResource(sourcePath, targetPath);
-            } catch (CmsVfsResourceAlreadyExistsException e) {
-                throw new CmisNameConstraintViolationException(e.getLocalizedMessage(), e);
-            }
+                CmsObject cms = getCmsObject(context);
+                Map<String, PropertyData<?>> properties = new HashMap<String, PropertyData<?>>();
+                if (propertiesObj != null) {
+                    properties = propertiesObj.getProperties();
+                }
+                List<CmsProperty> cmsProperties = getOpenCmsProperties(properties);
+                CmsUUID parentFolderId = new CmsUUID(folderId);
+                CmsResource parentFolder = cms.readResource(parentFolderId);
+                CmsUUID sourceUuid = new CmsUUID(sourceId);
+                CmsResource source = cms.readResource(sourceUuid);
+                String sourcePath = source.getRootPath();
+
+                PropertyData<?> nameProp = properties.get(PropertyIds.NAME);
+                String newDocName;
+                if (nameProp != null) {
+                    newDocName = (String)nameProp.getFirstValue();
+                    checkResourceName(newDocName);
+                } else {
+                    newDocName = CmsResource.getName(source.getRootPath());
+                }
+                String targetPath = CmsStringUtil.joinPaths(parentFolder.getRootPath(), newDocName);
 
-            CmsResource targetResource = cms.readResource(targetPath);
-            cms.setDateLastModified(targetResource.getRootPath(), targetResource.getDateCreated(), false);
-            cms.unlockResource(targetResource);
-            boolean wasLocked = ensureLock(cms, targetResource);
-            cms.writePropertyObjects(targetResource, cmsProperties);
-            for (String key : properties.keySet()) {
-                if (key.startsWith(CmsCmisTypeManager.PROPERTY_PREFIX_DYNAMIC)) {
-                    I_CmsPropertyProvider provider = getTypeManager().getPropertyProvider(key);
-                    try {
-                        String value = (String)(properties.get(key).getFirstValue());
-                        provider.setPropertyValue(cms, targetResource, value);
-                    } catch (CmsException e) {
-                        LOG.error(e.getLocalizedMessage(), e);
-                    }
+                try {
+                    cms.copyResource(sourcePath, targetPath);
+                } catch (CmsVfsResourceAlreadyExistsException e) {
+                    throw new CmisNameConstraintViolationException(e.getLocalizedMessage(), e);
                 }
-            }
 
-            if (wasLocked) {
+                CmsResource targetResource = cms.readResource(targetPath);
+                cms.setDateLastModified(targetResource.getRootPath(), targetResource.getDateCreated(), false);
                 cms.unlockResource(targetResource);
+                boolean wasLocked = ensureLock(cms, targetResource);
+                cms.writePropertyObjects(targetResource, cmsProperties);
+                for (String key : properties.keySet()) {
+                    if (key.startsWith(CmsCmisTypeManager.PROPERTY_PREFIX_DYNAMIC)) {
+                        I_CmsPropertyProvider provider = getTypeManager().getPropertyProvider(key);
+                        try {
+                            String value = (String)(properties.get(key).getFirstValue());
+                            provider.setPropertyValue(cms, targetResource, value);
+                        } catch (CmsException e) {
+                            LOG.error(e.getLocalizedMessage(), e);
+                        }
+                    }
+                }
+
+                if (wasLocked) {
+                    cms.unlockResource(targetResource);
+                }
+                return targetResource.getStructureId().toString();
+            } catch (CmsException e) {
+                handleCmsException(e);
+                return null;
             }
-            return targetResource.getStructureId().toString();
-        } catch (CmsException e) {
-            handleCmsException(e);
-            return null;
         }
     }
 
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createFolder(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.data.Properties, java.lang.String, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createFolder(
+    public String createFolder(
         CmsCmisCallContext context,
         Properties propertiesObj,
         String folderId,
@@ -411,41 +509,45 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             throw new CmisConstraintException("createFolder: ACEs not allowed");
         }
 
-        try {
-            CmsObject cms = getCmsObject(context);
-            Map<String, PropertyData<?>> properties = propertiesObj.getProperties();
-            String resTypeName = getResourceTypeFromProperties(properties, CmsResourceTypeFolder.getStaticTypeName());
-            I_CmsResourceType cmsResourceType = OpenCms.getResourceManager().getResourceType(resTypeName);
-            if (!cmsResourceType.isFolder()) {
-                throw new CmisConstraintException("Invalid folder type: " + resTypeName);
-            }
-            List<CmsProperty> cmsProperties = getOpenCmsProperties(properties);
-            String newFolderName = (String)properties.get(PropertyIds.NAME).getFirstValue();
-            checkResourceName(newFolderName);
-            CmsUUID parentFolderId = new CmsUUID(folderId);
-            CmsResource parentFolder = cms.readResource(parentFolderId);
-            String newFolderPath = CmsStringUtil.joinPaths(parentFolder.getRootPath(), newFolderName);
+        synchronized (getWriteLock(folderId)) {
             try {
-                CmsResource newFolder = cms.createResource(
-                    newFolderPath,
-                    cmsResourceType.getTypeId(),
-                    null,
-                    cmsProperties);
-                cms.unlockResource(newFolder);
-                return newFolder.getStructureId().toString();
-            } catch (CmsVfsResourceAlreadyExistsException e) {
-                throw new CmisNameConstraintViolationException(e.getLocalizedMessage(), e);
+                CmsObject cms = getCmsObject(context);
+                Map<String, PropertyData<?>> properties = propertiesObj.getProperties();
+                String resTypeName = getResourceTypeFromProperties(
+                    properties,
+                    CmsResourceTypeFolder.getStaticTypeName());
+                I_CmsResourceType cmsResourceType = OpenCms.getResourceManager().getResourceType(resTypeName);
+                if (!cmsResourceType.isFolder()) {
+                    throw new CmisConstraintException("Invalid folder type: " + resTypeName);
+                }
+                List<CmsProperty> cmsProperties = getOpenCmsProperties(properties);
+                String newFolderName = (String)properties.get(PropertyIds.NAME).getFirstValue();
+                checkResourceName(newFolderName);
+                CmsUUID parentFolderId = new CmsUUID(folderId);
+                CmsResource parentFolder = cms.readResource(parentFolderId);
+                String newFolderPath = CmsStringUtil.joinPaths(parentFolder.getRootPath(), newFolderName);
+                try {
+                    CmsResource newFolder = cms.createResource(
+                        newFolderPath,
+                        cmsResourceType.getTypeId(),
+                        null,
+                        cmsProperties);
+                    cms.unlockResource(newFolder);
+                    return newFolder.getStructureId().toString();
+                } catch (CmsVfsResourceAlreadyExistsException e) {
+                    throw new CmisNameConstraintViolationException(e.getLocalizedMessage(), e);
+                }
+            } catch (CmsException e) {
+                handleCmsException(e);
+                return null;
             }
-        } catch (CmsException e) {
-            handleCmsException(e);
-            return null;
         }
     }
 
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#createRelationship(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.data.Properties, java.util.List, org.apache.chemistry.opencmis.commons.data.Acl, org.apache.chemistry.opencmis.commons.data.Acl)
      */
-    public synchronized String createRelationship(
+    public String createRelationship(
         CmsCmisCallContext context,
         Properties properties,
         List<String> policies,
@@ -464,15 +566,17 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
             String cmsTypeName = typeId.substring("opencms:".length());
             CmsUUID sourceId = new CmsUUID(sourceProp);
             CmsUUID targetId = new CmsUUID(targetProp);
-            CmsResource sourceRes = cms.readResource(sourceId);
-            boolean wasLocked = ensureLock(cms, sourceRes);
-            try {
-                CmsResource targetRes = cms.readResource(targetId);
-                cms.addRelationToResource(sourceRes.getRootPath(), targetRes.getRootPath(), cmsTypeName);
-                return "REL_" + sourceRes.getStructureId() + "_" + targetRes.getStructureId() + "_" + cmsTypeName;
-            } finally {
-                if (wasLocked) {
-                    cms.unlockResource(sourceRes);
+            synchronized (getWriteLock(sourceProp)) {
+                CmsResource sourceRes = cms.readResource(sourceId);
+                boolean wasLocked = ensureLock(cms, sourceRes);
+                try {
+                    CmsResource targetRes = cms.readResource(targetId);
+                    cms.addRelationToResource(sourceRes.getRootPath(), targetRes.getRootPath(), cmsTypeName);
+                    return "REL_" + sourceRes.getStructureId() + "_" + targetRes.getStructureId() + "_" + cmsTypeName;
+                } finally {
+                    if (wasLocked) {
+                        cms.unlockResource(sourceRes);
+                    }
                 }
             }
         } catch (CmsException e) {
@@ -484,7 +588,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#deleteContentStream(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.spi.Holder)
      */
-    public synchronized void deleteContentStream(
+    public void deleteContentStream(
         CmsCmisCallContext context,
         Holder<String> objectId,
         Holder<String> changeToken) {
@@ -496,16 +600,18 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#deleteObject(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean)
      */
-    public synchronized void deleteObject(CmsCmisCallContext context, String objectId, boolean allVersions) {
+    public void deleteObject(CmsCmisCallContext context, String objectId, boolean allVersions) {
 
         checkWriteAccess();
-        getHelper(objectId).deleteObject(context, objectId, allVersions);
+        synchronized (getWriteLock(objectId)) {
+            getHelper(objectId).deleteObject(context, objectId, allVersions);
+        }
     }
 
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#deleteTree(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.UnfileObject, boolean)
      */
-    public synchronized FailedToDeleteData deleteTree(
+    public FailedToDeleteData deleteTree(
         CmsCmisCallContext context,
         String folderId,
         boolean allVersions,
@@ -514,29 +620,31 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
 
         checkWriteAccess();
 
-        try {
+        synchronized (getWriteLock(folderId)) {
+            try {
 
-            FailedToDeleteDataImpl result = new FailedToDeleteDataImpl();
-            result.setIds(new ArrayList<String>());
-            CmsObject cms = getCmsObject(context);
-            CmsUUID structureId = new CmsUUID(folderId);
-            CmsResource folder = cms.readResource(structureId);
-            if (!folder.isFolder()) {
-                throw new CmisConstraintException("deleteTree can only be used on folders.");
+                FailedToDeleteDataImpl result = new FailedToDeleteDataImpl();
+                result.setIds(new ArrayList<String>());
+                CmsObject cms = getCmsObject(context);
+                CmsUUID structureId = new CmsUUID(folderId);
+                CmsResource folder = cms.readResource(structureId);
+                if (!folder.isFolder()) {
+                    throw new CmisConstraintException("deleteTree can only be used on folders.");
+                }
+                ensureLock(cms, folder);
+                cms.deleteResource(folder.getRootPath(), CmsResource.DELETE_PRESERVE_SIBLINGS);
+                return result;
+            } catch (CmsException e) {
+                handleCmsException(e);
+                return null;
             }
-            ensureLock(cms, folder);
-            cms.deleteResource(folder.getRootPath(), CmsResource.DELETE_PRESERVE_SIBLINGS);
-            return result;
-        } catch (CmsException e) {
-            handleCmsException(e);
-            return null;
         }
     }
 
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getAcl(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean)
      */
-    public synchronized Acl getAcl(CmsCmisCallContext context, String objectId, boolean onlyBasicPermissions) {
+    public Acl getAcl(CmsCmisCallContext context, String objectId, boolean onlyBasicPermissions) {
 
         return getHelper(objectId).getAcl(context, objectId, onlyBasicPermissions);
     }
@@ -544,7 +652,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getAllowableActions(org.opencms.cmis.CmsCmisCallContext, java.lang.String)
      */
-    public synchronized AllowableActions getAllowableActions(CmsCmisCallContext context, String objectId) {
+    public AllowableActions getAllowableActions(CmsCmisCallContext context, String objectId) {
 
         return getHelper(objectId).getAllowableActions(context, objectId);
     }
@@ -552,7 +660,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getCheckedOutDocs(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectList getCheckedOutDocs(
+    public ObjectList getCheckedOutDocs(
         CmsCmisCallContext context,
         String folderId,
         String filter,
@@ -571,7 +679,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getChildren(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectInFolderList getChildren(
+    public ObjectInFolderList getChildren(
         CmsCmisCallContext context,
         String folderId,
         String filter,
@@ -667,7 +775,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getContentStream(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ContentStream getContentStream(
+    public ContentStream getContentStream(
         CmsCmisCallContext context,
         String objectId,
         String streamId,
@@ -708,7 +816,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getDescendants(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.math.BigInteger, java.lang.String, boolean, boolean, boolean)
      */
-    public synchronized List<ObjectInFolderContainer> getDescendants(
+    public List<ObjectInFolderContainer> getDescendants(
         CmsCmisCallContext context,
         String folderId,
         BigInteger depth,
@@ -797,7 +905,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getFolderParent(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized ObjectData getFolderParent(CmsCmisCallContext context, String folderId, String filter) {
+    public ObjectData getFolderParent(CmsCmisCallContext context, String folderId, String filter) {
 
         List<ObjectParentData> parents = getObjectParents(context, folderId, filter, false, false);
         if (parents.size() == 0) {
@@ -825,7 +933,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObject(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, boolean)
      */
-    public synchronized ObjectData getObject(
+    public ObjectData getObject(
         CmsCmisCallContext context,
         String objectId,
         String filter,
@@ -849,7 +957,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectByPath(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, boolean, boolean)
      */
-    public synchronized ObjectData getObjectByPath(
+    public ObjectData getObjectByPath(
         CmsCmisCallContext context,
         String path,
         String filter,
@@ -893,7 +1001,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectParents(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, boolean, boolean)
      */
-    public synchronized List<ObjectParentData> getObjectParents(
+    public List<ObjectParentData> getObjectParents(
         CmsCmisCallContext context,
         String objectId,
         String filter,
@@ -948,7 +1056,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getObjectRelationships(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, org.apache.chemistry.opencmis.commons.enums.RelationshipDirection, java.lang.String, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized ObjectList getObjectRelationships(
+    public ObjectList getObjectRelationships(
         CmsCmisCallContext context,
         String objectId,
         boolean includeSubRelationshipTypes,
@@ -993,7 +1101,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getProperties(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String)
      */
-    public synchronized Properties getProperties(CmsCmisCallContext context, String objectId, String filter) {
+    public Properties getProperties(CmsCmisCallContext context, String objectId, String filter) {
 
         ObjectData object = getObject(context, objectId, null, false, null, null, false, false);
         return object.getProperties();
@@ -1002,7 +1110,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getRenditions(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized List<RenditionData> getRenditions(
+    public List<RenditionData> getRenditions(
         CmsCmisCallContext context,
         String objectId,
         String renditionFilter,
@@ -1030,7 +1138,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getRepositoryInfo()
      */
-    public synchronized RepositoryInfo getRepositoryInfo() {
+    public RepositoryInfo getRepositoryInfo() {
 
         // compile repository info
         RepositoryInfoImpl repositoryInfo = new RepositoryInfoImpl();
@@ -1104,7 +1212,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeChildren(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, java.math.BigInteger, java.math.BigInteger)
      */
-    public synchronized TypeDefinitionList getTypeChildren(
+    public TypeDefinitionList getTypeChildren(
         CmsCmisCallContext context,
         String typeId,
         boolean includePropertyDefinitions,
@@ -1117,7 +1225,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeDefinition(org.opencms.cmis.CmsCmisCallContext, java.lang.String)
      */
-    public synchronized TypeDefinition getTypeDefinition(CmsCmisCallContext context, String typeId) {
+    public TypeDefinition getTypeDefinition(CmsCmisCallContext context, String typeId) {
 
         return m_typeManager.getTypeDefinition(typeId);
     }
@@ -1125,7 +1233,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#getTypeDescendants(org.opencms.cmis.CmsCmisCallContext, java.lang.String, java.math.BigInteger, boolean)
      */
-    public synchronized List<TypeDefinitionContainer> getTypeDescendants(
+    public List<TypeDefinitionContainer> getTypeDescendants(
         CmsCmisCallContext context,
         String typeId,
         BigInteger depth,
@@ -1190,7 +1298,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#moveObject(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, java.lang.String, java.lang.String)
      */
-    public synchronized void moveObject(
+    public void moveObject(
         CmsCmisCallContext context,
         Holder<String> objectId,
         String targetFolderId,
@@ -1198,25 +1306,27 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
 
         checkWriteAccess();
 
-        try {
-            CmsObject cms = getCmsObject(context);
-            CmsUUID structureId = new CmsUUID(objectId.getValue());
-            CmsUUID targetStructureId = new CmsUUID(targetFolderId);
-            CmsResource targetFolder = cms.readResource(targetStructureId);
-            CmsResource resourceToMove = cms.readResource(structureId);
-            String name = CmsResource.getName(resourceToMove.getRootPath());
-            String newPath = CmsStringUtil.joinPaths(targetFolder.getRootPath(), name);
-            boolean wasLocked = ensureLock(cms, resourceToMove);
+        synchronized (getWriteLock(objectId.getValue())) {
             try {
-                cms.moveResource(resourceToMove.getRootPath(), newPath);
-            } finally {
-                if (wasLocked) {
-                    CmsResource movedResource = cms.readResource(resourceToMove.getStructureId());
-                    cms.unlockResource(movedResource);
+                CmsObject cms = getCmsObject(context);
+                CmsUUID structureId = new CmsUUID(objectId.getValue());
+                CmsUUID targetStructureId = new CmsUUID(targetFolderId);
+                CmsResource targetFolder = cms.readResource(targetStructureId);
+                CmsResource resourceToMove = cms.readResource(structureId);
+                String name = CmsResource.getName(resourceToMove.getRootPath());
+                String newPath = CmsStringUtil.joinPaths(targetFolder.getRootPath(), name);
+                boolean wasLocked = ensureLock(cms, resourceToMove);
+                try {
+                    cms.moveResource(resourceToMove.getRootPath(), newPath);
+                } finally {
+                    if (wasLocked) {
+                        CmsResource movedResource = cms.readResource(resourceToMove.getStructureId());
+                        cms.unlockResource(movedResource);
+                    }
                 }
+            } catch (CmsException e) {
+                handleCmsException(e);
             }
-        } catch (CmsException e) {
-            handleCmsException(e);
         }
     }
 
@@ -1224,7 +1334,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
      * @see org.opencms.cmis.I_CmsCmisRepository#query(org.opencms.cmis.CmsCmisCallContext, java.lang.String, boolean, boolean, org.apache.chemistry.opencmis.commons.enums.IncludeRelationships, java.lang.String, java.math.BigInteger, java.math.BigInteger)
      */
     @Override
-    public synchronized ObjectList query(
+    public ObjectList query(
         CmsCmisCallContext context,
         String statement,
         boolean searchAllVersions,
@@ -1280,7 +1390,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#setContentStream(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, boolean, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.data.ContentStream)
      */
-    public synchronized void setContentStream(
+    public void setContentStream(
         CmsCmisCallContext context,
         Holder<String> objectId,
         boolean overwriteFlag,
@@ -1289,29 +1399,32 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
 
         checkWriteAccess();
 
+        if (!overwriteFlag) {
+            throw new CmisContentAlreadyExistsException();
+        }
+
+        // read the upload before locking, so a slow client does not block the other writes
+        DeferredFileOutputStream spool = spoolContent(contentStream);
         try {
-            CmsObject cms = getCmsObject(context);
-            CmsUUID structureId = new CmsUUID(objectId.getValue());
-            if (!overwriteFlag) {
-                throw new CmisContentAlreadyExistsException();
-            }
-            CmsResource resource = cms.readResource(structureId);
-            if (resource.isFolder()) {
-                throw new CmisStreamNotSupportedException("Folders may not have content streams.");
-            }
-            CmsFile file = cms.readFile(resource);
-            InputStream contentInput = contentStream.getStream();
-            byte[] newContent = CmsFileUtil.readFully(contentInput);
-            file.setContents(newContent);
-            boolean wasLocked = ensureLock(cms, resource);
-            CmsFile newFile = cms.writeFile(file);
-            if (wasLocked) {
-                cms.unlockResource(newFile);
+            synchronized (getWriteLock(objectId.getValue())) {
+                CmsObject cms = getCmsObject(context);
+                CmsUUID structureId = new CmsUUID(objectId.getValue());
+                CmsResource resource = cms.readResource(structureId);
+                if (resource.isFolder()) {
+                    throw new CmisStreamNotSupportedException("Folders may not have content streams.");
+                }
+                boolean wasLocked = ensureLock(cms, resource);
+                CmsResource newResource = writeContent(cms, resource, spool);
+                if (wasLocked) {
+                    cms.unlockResource(newResource);
+                }
             }
         } catch (CmsException e) {
             handleCmsException(e);
         } catch (IOException e) {
             throw new CmisRuntimeException(e.getLocalizedMessage(), e);
+        } finally {
+            deleteSpool(spool);
         }
     }
 
@@ -1335,7 +1448,7 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
     /**
      * @see org.opencms.cmis.I_CmsCmisRepository#updateProperties(org.opencms.cmis.CmsCmisCallContext, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.spi.Holder, org.apache.chemistry.opencmis.commons.data.Properties)
      */
-    public synchronized void updateProperties(
+    public void updateProperties(
         CmsCmisCallContext context,
         Holder<String> objectId,
         Holder<String> changeToken,
@@ -1343,45 +1456,47 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
 
         checkWriteAccess();
 
-        try {
-
-            CmsObject cms = getCmsObject(context);
-            CmsUUID structureId = new CmsUUID(objectId.getValue());
-            CmsResource resource = cms.readResource(structureId);
-            Map<String, PropertyData<?>> propertyMap = properties.getProperties();
-            List<CmsProperty> cmsProperties = getOpenCmsProperties(propertyMap);
-            boolean wasLocked = ensureLock(cms, resource);
+        synchronized (getWriteLock(objectId.getValue())) {
             try {
-                cms.writePropertyObjects(resource, cmsProperties);
-                @SuppressWarnings("unchecked")
-                PropertyData<String> nameProperty = (PropertyData<String>)propertyMap.get(PropertyIds.NAME);
-                if (nameProperty != null) {
-                    String newName = nameProperty.getFirstValue();
-                    checkResourceName(newName);
-                    String parentFolder = CmsResource.getParentFolder(resource.getRootPath());
-                    String newPath = CmsStringUtil.joinPaths(parentFolder, newName);
-                    cms.moveResource(resource.getRootPath(), newPath);
-                    resource = cms.readResource(resource.getStructureId());
-                }
 
-                for (String key : properties.getProperties().keySet()) {
-                    if (key.startsWith(CmsCmisTypeManager.PROPERTY_PREFIX_DYNAMIC)) {
-                        I_CmsPropertyProvider provider = getTypeManager().getPropertyProvider(key);
-                        try {
-                            String value = (String)(properties.getProperties().get(key).getFirstValue());
-                            provider.setPropertyValue(cms, resource, value);
-                        } catch (CmsException e) {
-                            LOG.error(e.getLocalizedMessage(), e);
+                CmsObject cms = getCmsObject(context);
+                CmsUUID structureId = new CmsUUID(objectId.getValue());
+                CmsResource resource = cms.readResource(structureId);
+                Map<String, PropertyData<?>> propertyMap = properties.getProperties();
+                List<CmsProperty> cmsProperties = getOpenCmsProperties(propertyMap);
+                boolean wasLocked = ensureLock(cms, resource);
+                try {
+                    cms.writePropertyObjects(resource, cmsProperties);
+                    @SuppressWarnings("unchecked")
+                    PropertyData<String> nameProperty = (PropertyData<String>)propertyMap.get(PropertyIds.NAME);
+                    if (nameProperty != null) {
+                        String newName = nameProperty.getFirstValue();
+                        checkResourceName(newName);
+                        String parentFolder = CmsResource.getParentFolder(resource.getRootPath());
+                        String newPath = CmsStringUtil.joinPaths(parentFolder, newName);
+                        cms.moveResource(resource.getRootPath(), newPath);
+                        resource = cms.readResource(resource.getStructureId());
+                    }
+
+                    for (String key : properties.getProperties().keySet()) {
+                        if (key.startsWith(CmsCmisTypeManager.PROPERTY_PREFIX_DYNAMIC)) {
+                            I_CmsPropertyProvider provider = getTypeManager().getPropertyProvider(key);
+                            try {
+                                String value = (String)(properties.getProperties().get(key).getFirstValue());
+                                provider.setPropertyValue(cms, resource, value);
+                            } catch (CmsException e) {
+                                LOG.error(e.getLocalizedMessage(), e);
+                            }
                         }
                     }
+                } finally {
+                    if (wasLocked) {
+                        cms.unlockResource(resource);
+                    }
                 }
-            } finally {
-                if (wasLocked) {
-                    cms.unlockResource(resource);
-                }
+            } catch (CmsException e) {
+                handleCmsException(e);
             }
-        } catch (CmsException e) {
-            handleCmsException(e);
         }
     }
 
@@ -1680,4 +1795,72 @@ public class CmsCmisRepository extends A_CmsCmisRepository {
         return m_resourceHelper;
     }
 
+    /**
+     * Returns the monitor used to serialize the write operations on the object with the given id.<p>
+     * 
+     * Read operations do not use any lock, and write operations on different objects 
+     * usually use different monitors, so they can run concurrently.<p>
+     * 
+     * @param objectId the object id 
+     * 
+     * @return the monitor for the object 
+     */
+    private Object getWriteLock(String objectId) {
+
+        int hash = (objectId == null) ? 0 : objectId.hashCode();
+        return m_writeLocks[(hash & Integer.MAX_VALUE) % m_writeLocks.length];
+    }
+
+    /**
+     * Reads the given spooled content into a byte array.<p>
+     * 
+     * @param spool the spooled content
+     * 
+     * @return the content 
+     * 
+     * @throws IOException if reading the spooled content fails
+     */
+    private byte[] readSpool(DeferredFileOutputStream spool) throws IOException {
+
+        InputStream in = openSpool(spool);
+        try {
+            return CmsFileUtil.readFully(in, (int)spool.getByteCount(), false);
+        } finally {
+            in.close();
+        }
+    }
+
+    /**
+     * Writes the given spooled content to a file resource.<p>
+     * 
+     * Resources that are delivered with the {@link CmsDumpLoader} are written with 
+     * {@link CmsObject#writeContent(CmsResource, InputStream, int)}, so the content is streamed 
+     * to the VFS instead of being buffered completely in memory.<p>
+     * 
+     * @param cms the CMS context 
+     * @param resource the file resource to write
+     * @param spool the spooled content
+     * 
+     * @return the written resource
+     * 
+     * @throws CmsException if something goes wrong
+     * @throws IOException if reading the spooled content fails
+     */
+    private CmsResource writeContent(CmsObject cms, CmsResource resource, DeferredFileOutputStream spool)
+    throws CmsException, IOException {
+
+        I_CmsResourceType type = OpenCms.getResourceManager().getResourceType(resource);
+        if (type.getLoaderId() == CmsDumpLoader.RESOURCE_LOADER_ID) {
+            InputStream in = openSpool(spool);
+            try {
+                return cms.writeContent(resource, in, (int)spool.getByteCount());
+            } finally {
+                in.close();
+            }
+        }
+        CmsFile file = cms.readFile(resource);
+        file.setContents(readSpool(spool));
+        return cms.writeFile(file);
+    }
+
 }
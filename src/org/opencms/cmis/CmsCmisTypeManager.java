@@ -107,19 +107,19 @@ public class CmsCmisTypeManager {
     private CmsObject m_adminCms;
 
     /** The list of OpenCms property definitions. */
-    private List<CmsPropertyDefinition> m_cmsPropertyDefinitions;
+    private volatile List<CmsPropertyDefinition> m_cmsPropertyDefinitions;
 
     /** The last update time. */
-    private long m_lastUpdate;
+    private volatile long m_lastUpdate;
 
     /** List of dynamic property providers. */
     private List<I_CmsPropertyProvider> m_propertyProviders = new ArrayList<I_CmsPropertyProvider>();
 
     /** The internal list of type definitions. */
-    private List<TypeDefinitionContainer> m_typeList;
+    private volatile List<TypeDefinitionContainer> m_typeList;
 
     /** The internal map of type definitions. */
-    private Map<String, TypeDefinitionContainerImpl> m_types;
+    private volatile Map<String, TypeDefinitionContainerImpl> m_types;
 
     /**
      * Creates a new type manager instance.<p>
@@ -1046,16 +1046,27 @@ public class CmsCmisTypeManager {
 
     /** 
      * Refreshes the internal data if the last update was longer ago than the udpate interval.<p>
+     * 
+     * The type definitions are rebuilt in a separate instance and then replaced as a whole, 
+     * so concurrent readers never see incomplete type definitions.<p>
      */
-    private synchronized void refresh() {
+    private void refresh() {
 
-        try {
-            long now = System.currentTimeMillis();
-            if ((now - m_lastUpdate) > UPDATE_INTERVAL) {
-                setup();
+        if ((System.currentTimeMillis() - m_lastUpdate) <= UPDATE_INTERVAL) {
+            return;
+        }
+        synchronized (this) {
+            try {
+                if ((System.currentTimeMillis() - m_lastUpdate) > UPDATE_INTERVAL) {
+                    CmsCmisTypeManager update = new CmsCmisTypeManager(m_adminCms, m_propertyProviders);
+                    m_cmsPropertyDefinitions = update.m_cmsPropertyDefinitions;
+                    m_typeList = update.m_typeList;
+                    m_types = update.m_types;
+                    m_lastUpdate = update.m_lastUpdate;
+                }
+            } catch (CmsException e) {
+                LOG.error(e.getLocalizedMessage(), e);
             }
-        } catch (CmsException e) {
-            LOG.error(e.getLocalizedMessage(), e);
         }
     }
 
@@ -520,6 +520,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
     /** The node name for the workplace-server node. */
     public static final String N_WORKPLACE_SERVER = "workplace-server";
 
+    /** The node name for the xmlcontents node. */
+    public static final String N_XMLCONTENTS = "xmlcontents";
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsSystemConfiguration.class);
 
@@ -1188,6 +1191,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
         digester.addCallParam(adeCachePath + "/" + N_GROUPCONTAINERS, 0, A_OFFLINE);
         digester.addCallMethod(adeCachePath + "/" + N_GROUPCONTAINERS, "setGroupContainerOnlineSize", 1);
         digester.addCallParam(adeCachePath + "/" + N_GROUPCONTAINERS, 0, A_ONLINE);
+        // parsed XML content cache
+        digester.addCallMethod(adeCachePath + "/" + N_XMLCONTENTS, "setXmlContentOnlineSize", 1);
+        digester.addCallParam(adeCachePath + "/" + N_XMLCONTENTS, 0, A_ONLINE);
         // set the settings
         digester.addSetNext(adeCachePath, "setAdeCacheSettings");
 
@@ -1635,6 +1641,9 @@ public class CmsSystemConfiguration extends A_CmsXmlConfiguration {
                 groupContainerCacheElem.addAttribute(A_OFFLINE, ""
                     + getAdeCacheSettings().getGroupContainerOfflineSize());
                 groupContainerCacheElem.addAttribute(A_ONLINE, "" + getAdeCacheSettings().getGroupContainerOnlineSize());
+                // parsed XML content cache
+                Element xmlContentCacheElem = cacheElem.addElement(N_XMLCONTENTS);
+                xmlContentCacheElem.addAttribute(A_ONLINE, "" + getAdeCacheSettings().getXmlContentOnlineSize());
             }
         }
 
@@ -36,8 +36,10 @@ import org.opencms.gwt.shared.alias.CmsAliasImportStatus;
 import org.opencms.gwt.shared.alias.CmsAliasMode;
 import org.opencms.i18n.CmsEncoder;
 import org.opencms.lock.CmsLock;
+import org.opencms.main.CmsEvent;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.security.CmsRole;
 import org.opencms.util.CmsStringUtil;
@@ -51,20 +53,59 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
 
 import org.apache.commons.logging.Log;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.Multimap;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 /**
  * The alias manager provides access to the aliases stored in the database.<p>
+ * 
+ * For resolving request paths, the aliases and rewrite aliases of each site are cached. The cache is cleared
+ * when aliases are changed through this class, and when resources are published or deleted. Alias changes 
+ * are announced with an {@link I_CmsEventListener#EVENT_ALIASES_MODIFIED} event, so the caches of the 
+ * other cluster nodes are cleared as well.<p>
  */
-public class CmsAliasManager {
+public class CmsAliasManager implements I_CmsEventListener {
+
+    /**
+     * The cached aliases of a single site.<p>
+     */
+    private static class SiteAliases {
+
+        /** The aliases by alias path. */
+        Map<String, CmsAlias> m_aliasesByPath;
+
+        /** The matcher for the rewrite aliases. */
+        CmsRewriteAliasMatcher m_rewriteMatcher;
+
+        /**
+         * Creates a new instance.<p>
+         * 
+         * @param aliases the aliases of the site 
+         * @param rewriteAliases the rewrite aliases of the site 
+         */
+        SiteAliases(List<CmsAlias> aliases, List<CmsRewriteAlias> rewriteAliases) {
+
+            m_aliasesByPath = new HashMap<String, CmsAlias>();
+            for (CmsAlias alias : aliases) {
+                m_aliasesByPath.put(alias.getAliasPath(), alias);
+            }
+            m_rewriteMatcher = new CmsRewriteAliasMatcher(rewriteAliases);
+        }
+    }
 
     /** The logger instance for this class. */
     private static final Log LOG = CmsLog.getLog(CmsAliasManager.class);
@@ -72,6 +113,9 @@ public class CmsAliasManager {
     /** The security manager for accessing the database. */
     protected CmsSecurityManager m_securityManager;
 
+    /** The cached aliases by site root; replaced by a new cache when the cache is cleared. */
+    private volatile Cache<String, SiteAliases> m_siteAliases = CacheBuilder.newBuilder().build();
+
     /**
      * Creates a new alias manager instance.<p>
      *
@@ -80,6 +124,57 @@ public class CmsAliasManager {
     public CmsAliasManager(CmsSecurityManager securityManager) {
 
         m_securityManager = securityManager;
+        OpenCms.addCmsEventListener(this, new int[] {
+            I_CmsEventListener.EVENT_ALIASES_MODIFIED,
+            I_CmsEventListener.EVENT_CLEAR_CACHES,
+            I_CmsEventListener.EVENT_PUBLISH_PROJECT,
+            I_CmsEventListener.EVENT_RESOURCE_DELETED});
+    }
+
+    /**
+     * Removes all cached aliases.<p>
+     */
+    public void clearCache() {
+
+        // replace the cache instead of clearing it, so aliases which are currently being loaded don't end up in the cache
+        m_siteAliases = CacheBuilder.newBuilder().build();
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsEventListener#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    public void cmsEvent(CmsEvent event) {
+
+        switch (event.getType()) {
+            case I_CmsEventListener.EVENT_ALIASES_MODIFIED:
+            case I_CmsEventListener.EVENT_CLEAR_CACHES:
+            case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
+            case I_CmsEventListener.EVENT_RESOURCE_DELETED:
+                // deleting a new resource also deletes its aliases
+                clearCache();
+                break;
+            default:
+                // noop
+        }
+    }
+
+    /**
+     * Gets the alias for a path in a given site from the alias cache.<p>
+     * 
+     * This method is intended for resolving request paths. If the aliases of the site are not cached yet,
+     * they are read from the database along with the rewrite aliases of the site.<p>
+     * 
+     * @param cms the current CMS context
+     * @param siteRoot the site root 
+     * @param aliasPath the alias path 
+     * 
+     * @return the alias for the path, or null if there is no alias for the path
+     *  
+     * @throws CmsException if something goes wrong 
+     */
+    public CmsAlias getAliasForPathCached(CmsObject cms, String siteRoot, String aliasPath) throws CmsException {
+
+        return getSiteAliases(cms, siteRoot).m_aliasesByPath.get(aliasPath);
     }
 
     /**
@@ -161,6 +256,8 @@ public class CmsAliasManager {
 
     /**
      * Gets the rewrite alias matcher for the given site.<p>
+     * 
+     * The matcher is cached until the aliases of the site are changed.<p>
      *
      * @param cms the CMS context to use 
      * @param siteRoot the site root
@@ -171,8 +268,7 @@ public class CmsAliasManager {
      */
     public CmsRewriteAliasMatcher getRewriteAliasMatcher(CmsObject cms, String siteRoot) throws CmsException {
 
-        List<CmsRewriteAlias> aliases = getRewriteAliases(cms, siteRoot);
-        return new CmsRewriteAliasMatcher(aliases);
+        return getSiteAliases(cms, siteRoot).m_rewriteMatcher;
     }
 
     /**
@@ -218,12 +314,16 @@ public class CmsAliasManager {
         String line = reader.readLine();
         List<CmsAliasImportResult> totalResult = new ArrayList<CmsAliasImportResult>();
         CmsAliasImportResult result;
-        while (line != null) {
-            result = processAliasLine(cms, siteRoot, line, separator);
-            if (result != null) {
-                totalResult.add(result);
+        try {
+            while (line != null) {
+                result = processAliasLine(cms, siteRoot, line, separator);
+                if (result != null) {
+                    totalResult.add(result);
+                }
+                line = reader.readLine();
             }
-            line = reader.readLine();
+        } finally {
+            OpenCms.fireCmsEvent(I_CmsEventListener.EVENT_ALIASES_MODIFIED, null);
         }
         return totalResult;
     }
@@ -240,7 +340,11 @@ public class CmsAliasManager {
     public synchronized void saveAliases(CmsObject cms, CmsUUID structureId, List<CmsAlias> aliases)
     throws CmsException {
 
-        m_securityManager.saveAliases(cms.getRequestContext(), cms.readResource(structureId), aliases);
+        try {
+            m_securityManager.saveAliases(cms.getRequestContext(), cms.readResource(structureId), aliases);
+        } finally {
+            OpenCms.fireCmsEvent(I_CmsEventListener.EVENT_ALIASES_MODIFIED, null);
+        }
         touch(cms, cms.readResource(structureId));
     }
 
@@ -257,7 +361,11 @@ public class CmsAliasManager {
     throws CmsException {
 
         checkPermissionsForMassEdit(cms, siteRoot);
-        m_securityManager.saveRewriteAliases(cms.getRequestContext(), siteRoot, newAliases);
+        try {
+            m_securityManager.saveRewriteAliases(cms.getRequestContext(), siteRoot, newAliases);
+        } finally {
+            OpenCms.fireCmsEvent(I_CmsEventListener.EVENT_ALIASES_MODIFIED, null);
+        }
     }
 
     /**
@@ -513,6 +621,48 @@ public class CmsAliasManager {
         }
     }
 
+    /**
+     * Gets the cached aliases of a site, and reads them from the database if they are not cached yet.<p>
+     * 
+     * @param cms the current CMS context 
+     * @param siteRoot the site root 
+     * 
+     * @return the cached aliases of the site
+     *  
+     * @throws CmsException if something goes wrong 
+     */
+    private SiteAliases getSiteAliases(final CmsObject cms, final String siteRoot) throws CmsException {
+
+        Cache<String, SiteAliases> cache = m_siteAliases;
+        SiteAliases result = cache.getIfPresent(siteRoot);
+        if (result != null) {
+            return result;
+        }
+        try {
+            // concurrent requests for the same site wait for a single load
+            return cache.get(siteRoot, new Callable<SiteAliases>() {
+
+                public SiteAliases call() throws CmsException {
+
+                    SiteAliases aliases = new SiteAliases(
+                        getAliasesForSite(cms, siteRoot),
+                        getRewriteAliases(cms, siteRoot));
+                    if (LOG.isDebugEnabled()) {
+                        LOG.debug("Cached " + aliases.m_aliasesByPath.size() + " aliases for site " + siteRoot);
+                    }
+                    return aliases;
+                }
+            });
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof CmsException) {
+                throw (CmsException)e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (UncheckedExecutionException e) {
+            throw (RuntimeException)e.getCause();
+        }
+    }
+
     /**
      * Message accessor.<p>
      * 
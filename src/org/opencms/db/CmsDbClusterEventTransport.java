@@ -0,0 +1,463 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.db;
+
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.main.CmsClusterEvent;
+import org.opencms.main.CmsClusterEventManager;
+import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsClusterEventTransport;
+import org.opencms.main.OpenCms;
+
+import java.io.UnsupportedEncodingException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Cluster event transport that distributes the events with the <code>CMS_CLUSTER_EVENTS</code> table
+ * of the OpenCms database shared by all cluster nodes.<p>
+ *
+ * Every node writes the events it fires to the table, numbered with a sequence that is local to the node.
+ * A background thread of every node periodically reads the events written by the other nodes.
+ * For every other node, the highest sequence number already received is kept as a high-water mark,
+ * so that an event is only fired once even if it is read by more than one poll.<p>
+ *
+ * Since the nodes do not share a global sequence, the events are read by their creation date. The read
+ * window starts at the time of the previous poll, minus the maximum expected clock difference between the
+ * nodes. Events older than the retention time are deleted from the table.<p>
+ *
+ * @since 9.0.0
+ */
+public class CmsDbClusterEventTransport implements I_CmsClusterEventTransport {
+
+    /**
+     * Thread that polls the events written by the other cluster nodes.<p>
+     */
+    protected class CmsClusterEventPollThread extends Thread {
+
+        /** Indicates if this thread is still alive. */
+        protected volatile boolean m_isAlive;
+
+        /**
+         * Constructor.<p>
+         */
+        protected CmsClusterEventPollThread() {
+
+            super("OpenCms: Cluster Event Poller");
+            setDaemon(true);
+            m_isAlive = true;
+        }
+
+        /**
+         * @see java.lang.Thread#run()
+         */
+        @Override
+        public void run() {
+
+            while (m_isAlive) {
+                try {
+                    sleep(getPollInterval());
+                } catch (InterruptedException e) {
+                    // check if the thread has been shut down while sleeping
+                    continue;
+                }
+                // the database is only available after OpenCms has been initialized
+                if (m_isAlive && (OpenCms.getRunLevel() >= OpenCms.RUNLEVEL_3_SHELL_ACCESS)) {
+                    try {
+                        poll();
+                        deleteOutdatedEvents(false);
+                    } catch (Throwable t) {
+                        LOG.error(t.getLocalizedMessage(), t);
+                    }
+                }
+            }
+        }
+    }
+
+    /** The default maximum difference between the clocks of the cluster nodes in milliseconds. */
+    public static final long DEFAULT_CLOCK_SKEW = 60000;
+
+    /** The default interval between two polls in milliseconds. */
+    public static final long DEFAULT_POLL_INTERVAL = 2000;
+
+    /** The default time the events are kept in the database in milliseconds. */
+    public static final long DEFAULT_RETENTION_TIME = 24 * 60 * 60 * 1000;
+
+    /** The interval between two deletions of outdated events in milliseconds. */
+    private static final long CLEANUP_INTERVAL = 10 * 60 * 1000;
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsDbClusterEventTransport.class);
+
+    /** The maximum difference between the clocks of the cluster nodes in milliseconds. */
+    private long m_clockSkew;
+
+    /** The name of the database pool used to access the events table. */
+    private String m_dbPoolName;
+
+    /** The highest event sequence number already received, by node id. */
+    private Map<String, Integer> m_highWaterMarks;
+
+    /** The time of the last deletion of outdated events. */
+    private long m_lastCleanup;
+
+    /** The time of the last poll. */
+    private long m_lastPoll;
+
+    /** The event manager the received events are passed to. */
+    private CmsClusterEventManager m_manager;
+
+    /** The id of this cluster node. */
+    private String m_nodeId;
+
+    /** The interval between two polls in milliseconds. */
+    private volatile long m_pollInterval;
+
+    /** The thread polling the events. */
+    private CmsClusterEventPollThread m_pollThread;
+
+    /** The time the events are kept in the database in milliseconds. */
+    private long m_retentionTime;
+
+    /** The SQL manager used to read the queries for the configured database. */
+    private org.opencms.db.generic.CmsSqlManager m_sqlManager;
+
+    /** Lock object used to write the events of this node in sequence order. */
+    private Object m_sendLock;
+
+    /** The sequence number of the last event sent by this node. */
+    private int m_sequence;
+
+    /**
+     * Creates a new database cluster event transport that uses the default database pool.<p>
+     */
+    public CmsDbClusterEventTransport() {
+
+        this(CmsDbPool.getDefaultDbPoolName());
+    }
+
+    /**
+     * Creates a new database cluster event transport that uses the given database pool.<p>
+     *
+     * @param dbPoolName the name of the database pool used to access the events table
+     */
+    public CmsDbClusterEventTransport(String dbPoolName) {
+
+        m_dbPoolName = dbPoolName;
+        m_clockSkew = DEFAULT_CLOCK_SKEW;
+        m_pollInterval = DEFAULT_POLL_INTERVAL;
+        m_retentionTime = DEFAULT_RETENTION_TIME;
+        m_highWaterMarks = new HashMap<String, Integer>();
+        m_sendLock = new Object();
+    }
+
+    /**
+     * Deletes the events that are older than the retention time.<p>
+     *
+     * @param force if <code>false</code>, the events are only deleted if the last deletion is
+     *      longer ago than the cleanup interval
+     */
+    public void deleteOutdatedEvents(boolean force) {
+
+        long now = System.currentTimeMillis();
+        if (!force && ((now - m_lastCleanup) < CLEANUP_INTERVAL)) {
+            return;
+        }
+        m_lastCleanup = now;
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        try {
+            conn = getConnection();
+            stmt = getSqlManager().getPreparedStatement(conn, "C_CLUSTER_EVENTS_DELETE_1");
+            stmt.setLong(1, now - m_retentionTime);
+            int count = stmt.executeUpdate();
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_CLUSTER_EVENTS_DELETED_1, new Integer(count)));
+            }
+        } catch (SQLException e) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_CLUSTER_EVENTS_DELETE_FAILED_0), e);
+        } finally {
+            closeAll(conn, stmt, null);
+        }
+    }
+
+    /**
+     * Returns the maximum difference between the clocks of the cluster nodes in milliseconds.<p>
+     *
+     * @return the maximum difference between the clocks of the cluster nodes in milliseconds
+     */
+    public long getClockSkew() {
+
+        return m_clockSkew;
+    }
+
+    /**
+     * Returns the interval between two polls in milliseconds.<p>
+     *
+     * @return the interval between two polls in milliseconds
+     */
+    public long getPollInterval() {
+
+        return m_pollInterval;
+    }
+
+    /**
+     * Returns the time the events are kept in the database in milliseconds.<p>
+     *
+     * @return the time the events are kept in the database in milliseconds
+     */
+    public long getRetentionTime() {
+
+        return m_retentionTime;
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsClusterEventTransport#initialize(org.opencms.main.CmsClusterEventManager)
+     */
+    public void initialize(CmsClusterEventManager manager) {
+
+        m_manager = manager;
+        m_nodeId = manager.getNodeId();
+        // events written before this node has been started are not relevant
+        m_lastPoll = System.currentTimeMillis();
+        m_lastCleanup = m_lastPoll;
+        m_pollThread = new CmsClusterEventPollThread();
+        m_pollThread.start();
+        if (CmsLog.INIT.isInfoEnabled()) {
+            CmsLog.INIT.info(Messages.get().getBundle().key(
+                Messages.INIT_CLUSTER_EVENTS_STARTED_2,
+                m_nodeId,
+                new Long(m_pollInterval)));
+        }
+    }
+
+    /**
+     * Reads the events written by the other cluster nodes since the last poll, and passes them to the event manager.<p>
+     *
+     * This is called periodically by the poll thread.<p>
+     */
+    public synchronized void poll() {
+
+        long now = System.currentTimeMillis();
+        List<CmsClusterEvent> events = new ArrayList<CmsClusterEvent>();
+        Map<String, Integer> highWaterMarks = new HashMap<String, Integer>();
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        try {
+            conn = getConnection();
+            stmt = getSqlManager().getPreparedStatement(conn, "C_CLUSTER_EVENTS_READ_1");
+            stmt.setLong(1, m_lastPoll - m_clockSkew);
+            res = stmt.executeQuery();
+            while (res.next()) {
+                String nodeId = res.getString(1);
+                int sequence = res.getInt(2);
+                if (m_nodeId.equals(nodeId)) {
+                    continue;
+                }
+                Integer highWaterMark = m_highWaterMarks.get(nodeId);
+                if ((highWaterMark == null) || (sequence > highWaterMark.intValue())) {
+                    byte[] data = getSqlManager().getBytes(res, "EVENT_DATA");
+                    events.add(CmsClusterEvent.valueOf(
+                        nodeId,
+                        res.getInt(3),
+                        (data != null) ? CmsEncoder.createString(data, CmsEncoder.ENCODING_UTF_8) : null));
+                    highWaterMark = new Integer(sequence);
+                }
+                // the events are ordered by sequence, so the last one is the highest
+                highWaterMarks.put(nodeId, highWaterMark);
+            }
+        } catch (SQLException e) {
+            // the events will be read again with the next poll
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_CLUSTER_EVENTS_READ_FAILED_0), e);
+            return;
+        } finally {
+            closeAll(conn, stmt, res);
+        }
+        // nodes without events in the current read window can be forgotten, their next events are all new
+        m_highWaterMarks = highWaterMarks;
+        m_lastPoll = now;
+        for (CmsClusterEvent event : events) {
+            m_manager.receiveEvent(event);
+        }
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsClusterEventTransport#send(org.opencms.main.CmsClusterEvent)
+     */
+    public void send(CmsClusterEvent event) {
+
+        if (OpenCms.getRunLevel() < OpenCms.RUNLEVEL_3_SHELL_ACCESS) {
+            // events fired during startup are not relevant for the other nodes
+            return;
+        }
+        // events must be written in sequence order, otherwise a poll could skip an event with a lower sequence
+        synchronized (m_sendLock) {
+            Connection conn = null;
+            PreparedStatement stmt = null;
+            try {
+                String data = event.getSerializedData();
+                conn = getConnection();
+                stmt = getSqlManager().getPreparedStatement(conn, "C_CLUSTER_EVENTS_INSERT_5");
+                stmt.setString(1, event.getNodeId());
+                stmt.setInt(2, m_sequence + 1);
+                stmt.setInt(3, event.getType());
+                stmt.setLong(4, System.currentTimeMillis());
+                // the data is stored as binary, since the size of the event data is not limited
+                getSqlManager().setBytes(
+                    stmt,
+                    5,
+                    (data != null) ? data.getBytes(CmsEncoder.ENCODING_UTF_8) : new byte[0]);
+                stmt.executeUpdate();
+                m_sequence++;
+            } catch (SQLException e) {
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_CLUSTER_EVENT_WRITE_FAILED_1, event), e);
+            } catch (UnsupportedEncodingException e) {
+                // can not happen, UTF-8 is always supported
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_CLUSTER_EVENT_WRITE_FAILED_1, event), e);
+            } finally {
+                closeAll(conn, stmt, null);
+            }
+        }
+    }
+
+    /**
+     * Sets the maximum difference between the clocks of the cluster nodes in milliseconds.<p>
+     *
+     * @param clockSkew the maximum difference between the clocks of the cluster nodes in milliseconds
+     */
+    public void setClockSkew(long clockSkew) {
+
+        m_clockSkew = clockSkew;
+    }
+
+    /**
+     * Sets the interval between two polls in milliseconds.<p>
+     *
+     * @param pollInterval the interval between two polls in milliseconds
+     */
+    public void setPollInterval(long pollInterval) {
+
+        m_pollInterval = pollInterval;
+    }
+
+    /**
+     * Sets the time the events are kept in the database in milliseconds.<p>
+     *
+     * @param retentionTime the time the events are kept in the database in milliseconds
+     */
+    public void setRetentionTime(long retentionTime) {
+
+        m_retentionTime = retentionTime;
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsClusterEventTransport#shutDown()
+     */
+    public void shutDown() {
+
+        if (m_pollThread != null) {
+            m_pollThread.m_isAlive = false;
+            m_pollThread.interrupt();
+            m_pollThread = null;
+        }
+    }
+
+    /**
+     * Closes the given JDBC objects, ignoring errors.<p>
+     *
+     * @param conn the connection to close, may be <code>null</code>
+     * @param stmt the statement to close, may be <code>null</code>
+     * @param res the result set to close, may be <code>null</code>
+     */
+    private void closeAll(Connection conn, PreparedStatement stmt, ResultSet res) {
+
+        try {
+            if (res != null) {
+                res.close();
+            }
+        } catch (SQLException e) {
+            LOG.debug(e.getLocalizedMessage(), e);
+        }
+        try {
+            if (stmt != null) {
+                stmt.close();
+            }
+        } catch (SQLException e) {
+            LOG.debug(e.getLocalizedMessage(), e);
+        }
+        try {
+            if (conn != null) {
+                conn.close();
+            }
+        } catch (SQLException e) {
+            LOG.debug(e.getLocalizedMessage(), e);
+        }
+    }
+
+    /**
+     * Returns a connection of the configured database pool.<p>
+     *
+     * @return a connection of the configured database pool
+     *
+     * @throws SQLException if something goes wrong
+     */
+    private Connection getConnection() throws SQLException {
+
+        return OpenCms.getSqlManager().getConnection(m_dbPoolName);
+    }
+
+    /**
+     * Returns the SQL manager used to read the queries for the configured database.<p>
+     *
+     * This is the SQL manager of the project driver. If the project driver does not use SQL queries,
+     * e.g. with the JPA drivers, the generic queries are used.<p>
+     *
+     * @return the SQL manager used to read the queries for the configured database
+     */
+    private org.opencms.db.generic.CmsSqlManager getSqlManager() {
+
+        if (m_sqlManager == null) {
+            CmsSqlManager sqlManager = OpenCms.getSqlManager().getProjectDriverSqlManager();
+            if (sqlManager instanceof org.opencms.db.generic.CmsSqlManager) {
+                m_sqlManager = (org.opencms.db.generic.CmsSqlManager)sqlManager;
+            } else {
+                m_sqlManager = new org.opencms.db.generic.CmsSqlManager();
+            }
+        }
+        return m_sqlManager;
+    }
+}
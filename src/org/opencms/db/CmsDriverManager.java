@@ -36,6 +36,7 @@ import org.opencms.db.log.CmsLogEntryType;
 import org.opencms.db.log.CmsLogFilter;
 import org.opencms.db.urlname.CmsUrlNameMappingEntry;
 import org.opencms.db.urlname.CmsUrlNameMappingFilter;
+import org.opencms.db.urlname.CmsUrlNameMappingIndex;
 import org.opencms.file.CmsDataAccessException;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsFolder;
@@ -47,6 +48,7 @@ import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsRequestContext;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.CmsResourceSortOrder;
 import org.opencms.file.CmsUser;
 import org.opencms.file.CmsUserSearchParameters;
 import org.opencms.file.CmsVfsException;
@@ -114,6 +116,9 @@ import org.opencms.util.CmsUUID;
 import org.opencms.util.PrintfFormat;
 import org.opencms.workplace.commons.CmsProgressThread;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -122,12 +127,15 @@ import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
@@ -135,7 +143,11 @@ import org.apache.commons.dbcp.PoolingDriver;
 import org.apache.commons.logging.Log;
 import org.apache.commons.pool.ObjectPool;
 
+import com.google.common.base.Function;
 import com.google.common.base.Objects;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
 import com.google.common.collect.ArrayListMultimap;
 
 /**
@@ -167,6 +179,26 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
     }
 
+    /**
+     * A cached list of resources read with a limit, which contains all resources matching the query
+     * because the database returned less resources than requested.<p>
+     */
+    private static class CmsCompleteResourceList extends ArrayList<CmsResource> {
+
+        /** The serial version id. */
+        private static final long serialVersionUID = -3129872960377946285L;
+
+        /**
+         * Creates a complete resource list.<p>
+         *
+         * @param resources the resources of the list
+         */
+        protected CmsCompleteResourceList(List<CmsResource> resources) {
+
+            super(resources);
+        }
+    }
+
     /**
      * Enumeration class for the mode parameter in the
      * {@link CmsDriverManager#readChangedResourcesInsideProject(CmsDbContext, CmsUUID, CmsReadChangedProjectResourceMode)}
@@ -283,6 +315,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** Mode for reading project resources from the db. */
     public static final int READMODE_UNMATCHSTATE = 2;
 
+    /** Indicates that resources released after the request time should be read first, independent of the order. */
+    public static final int READMODE_UNRELEASED_FIRST = 256;
+
     /** Prefix char for temporary files in the VFS. */
     public static final String TEMP_FILE_PREFIX = "~";
 
@@ -322,6 +357,16 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** The list of initialized JDBC pools. */
     private List<PoolingDriver> m_connectionPools;
 
+    /** The locks for the creation of resources by root path of the parent folder, released when no longer used. */
+    private LoadingCache<String, Lock> m_createResourceLocks = CacheBuilder.newBuilder().weakValues().build(
+        CacheLoader.from(new Function<String, Lock>() {
+
+            public Lock apply(String parentFolderName) {
+
+                return new ReentrantLock();
+            }
+        }));
+
     /** The history driver. */
     private I_CmsHistoryDriver m_historyDriver;
 
@@ -361,6 +406,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
     /** The subscription driver. */
     private I_CmsSubscriptionDriver m_subscriptionDriver;
 
+    /** The index of the Online URL name mappings; replaced by a new index when it is cleared. */
+    private volatile CmsUrlNameMappingIndex m_urlNameMappingIndex = new CmsUrlNameMappingIndex();
+
     /** The user driver. */
     private I_CmsUserDriver m_userDriver;
 
@@ -977,12 +1025,38 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 CmsUUID publishHistoryId = new CmsUUID((String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID));
                 report = (I_CmsReport)event.getData().get(I_CmsEventListener.KEY_REPORT);
                 dbc = (CmsDbContext)event.getData().get(I_CmsEventListener.KEY_DBCONTEXT);
-                m_monitor.clearCache();
-                writeExportPoints(dbc, report, publishHistoryId);
+                // events received from other cluster nodes do not carry a database context
+                boolean clearDbc = false;
+                if (dbc == null) {
+                    dbc = new CmsDbContext();
+                    clearDbc = true;
+                }
+                try {
+                    List<CmsPublishedResource> publishedResources = null;
+                    try {
+                        publishedResources = readPublishedResources(dbc, publishHistoryId);
+                    } catch (CmsException e) {
+                        LOG.error(
+                            Messages.get().getBundle().key(Messages.ERR_READ_PUBLISHED_RESOURCES_FOR_ID_1, publishHistoryId),
+                            e);
+                    }
+                    // only clear the cache entries affected by the published resources
+                    m_monitor.clearCacheForPublishedResources(publishedResources);
+                    if (clearDbc) {
+                        // the URL name mappings were published on another cluster node
+                        clearUrlNameMappingIndex();
+                    }
+                    writeExportPoints(dbc, report, publishHistoryId);
+                } finally {
+                    if (clearDbc) {
+                        dbc.clear();
+                    }
+                }
                 break;
 
             case I_CmsEventListener.EVENT_CLEAR_CACHES:
                 m_monitor.clearCache();
+                clearUrlNameMappingIndex();
                 break;
             case I_CmsEventListener.EVENT_CLEAR_PRINCIPAL_CACHES:
             case I_CmsEventListener.EVENT_USER_MODIFIED:
@@ -1570,6 +1644,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
      * the created resource will be made a sibling of the existing resource,
      * and both will share the new content.<p>
      *
+     * Resources in the same folder are created one after another,
+     * resources in different folders can be created concurrently.<p>
+     *
      * @param dbc the current database context
      * @param resourcePath the name of the resource to create (full path)
      * @param resource the new resource to create
@@ -1583,7 +1660,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
      *
      * @throws CmsException if something goes wrong
      */
-    public synchronized CmsResource createResource(
+    public CmsResource createResource(
         CmsDbContext dbc,
         String resourcePath,
         CmsResource resource,
@@ -1596,9 +1673,12 @@ public final class CmsDriverManager implements I_CmsEventListener {
             resourcePath = CmsFileUtil.addTrailingSeparator(resourcePath);
         }
 
+        // need to provide the parent folder id for resource creation
+        String parentFolderName = CmsResource.getParentFolder(resourcePath);
+        // resources in the same folder are created one after another, so the name checks below can not be outdated
+        Lock createLock = m_createResourceLocks.getUnchecked(parentFolderName != null ? parentFolderName : resourcePath);
+        createLock.lock();
         try {
-            // need to provide the parent folder id for resource creation
-            String parentFolderName = CmsResource.getParentFolder(resourcePath);
             CmsResource parentFolder = readFolder(dbc, parentFolderName, CmsResourceFilter.IGNORE_EXPIRATION);
 
             CmsLock parentLock = getLock(dbc, parentFolder);
@@ -1888,9 +1968,14 @@ public final class CmsDriverManager implements I_CmsEventListener {
                     new String[] {resource.getRootPath()}), false);
             }
         } finally {
-            // clear the internal caches
-            m_monitor.clearAccessControlListCache();
-            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            try {
+                // clear the internal caches
+                m_monitor.clearAccessControlListCache();
+                m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            } finally {
+                // a failed flush must not block the folder for all later creations
+                createLock.unlock();
+            }
 
             if (newResource != null) {
                 // fire an event that a new resource has been created
@@ -4471,6 +4556,8 @@ public final class CmsDriverManager implements I_CmsEventListener {
     throws CmsException {
 
         CmsUUID projectId = getProjectIdForContext(dbc);
+        // resources related to the given one may be published later, this can not be tracked
+        updateContextUntracked(dbc);
         return getVfsDriver(dbc).readRelations(dbc, projectId, resource, filter);
     }
 
@@ -5942,6 +6029,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
     public void publishJob(CmsObject cms, CmsDbContext dbc, CmsPublishList publishList, I_CmsReport report)
     throws CmsException {
 
+        List<CmsPublishedResource> publishedResources = null;
         try {
             // check state and lock
             List<CmsResource> allResources = new ArrayList<CmsResource>(publishList.getFolderList());
@@ -5981,11 +6069,16 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
             CmsProject onlineProject = readProject(dbc, CmsProject.ONLINE_PROJECT_ID);
 
-            // clear the cache
-            m_monitor.clearCache();
+            // clear the cache entries of the resources to publish
+            List<CmsPublishedResource> resourcesToPublish = new ArrayList<CmsPublishedResource>();
+            for (CmsResource resource : publishList.getAllResources()) {
+                resourcesToPublish.add(new CmsPublishedResource(resource));
+            }
+            m_monitor.clearCacheForPublishedResources(resourcesToPublish);
 
             int publishTag = getNextPublishTag(dbc);
             getProjectDriver(dbc).publishProject(dbc, report, onlineProject, publishList, publishTag);
+            publishedResources = getProjectDriver(dbc).readPublishedResources(dbc, publishList.getPublishHistoryId());
 
             // iterate the initialized module action instances
             Iterator<String> i = OpenCms.getModuleManager().getModuleNames().iterator();
@@ -6011,8 +6104,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
                 cms.getRequestContext().setCurrentProject(onlineProject);
             }
         } finally {
-            // clear the cache again
-            m_monitor.clearCache();
+            // clear the cache again, this also covers the old paths of moved resources
+            // if the published resources could not be read, this clears the whole cache
+            m_monitor.clearCacheForPublishedResources(publishedResources);
         }
     }
 
@@ -6145,6 +6239,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             CmsUrlNameMappingFilter idFilter = CmsUrlNameMappingFilter.ALL.filterStructureId(res.getStructureId());
             vfsDriver.deleteUrlNameMappingEntries(dbc, true, idFilter);
             vfsDriver.deleteUrlNameMappingEntries(dbc, false, idFilter);
+            m_urlNameMappingIndex.removeEntriesForId(res.getStructureId());
         } else {
             // copy the new entries to the online table
             List<CmsUrlNameMappingEntry> entries = vfsDriver.readUrlNameMappingEntries(
@@ -6166,6 +6261,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
                         entry.getLocale());
                     vfsDriver.addUrlNameMappingEntry(dbc, true, newEntry);
                     vfsDriver.addUrlNameMappingEntry(dbc, false, newEntry);
+                    m_urlNameMappingIndex.addEntry(newEntry);
                 }
             }
         }
@@ -6309,6 +6405,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
     throws CmsException {
 
         List<CmsResource> result = getSubscriptionDriver().readAllSubscribedResources(dbc, poolName, principal);
+        updateContextUntracked(dbc);
         result = filterPermissions(dbc, result, CmsResourceFilter.DEFAULT);
         return result;
     }
@@ -6328,10 +6425,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
     public String readBestUrlName(CmsDbContext dbc, CmsUUID id, Locale locale, List<Locale> defaultLocales)
     throws CmsDataAccessException {
 
-        List<CmsUrlNameMappingEntry> entries = getVfsDriver(dbc).readUrlNameMappingEntries(
-            dbc,
-            dbc.currentProject().isOnlineProject(),
-            CmsUrlNameMappingFilter.ALL.filterStructureId(id));
+        List<CmsUrlNameMappingEntry> entries = readUrlNameMappingEntriesForId(dbc, id);
         if (entries.isEmpty()) {
             return null;
         }
@@ -6438,9 +6532,48 @@ public final class CmsDriverManager implements I_CmsEventListener {
         }
 
         // we must always apply the result filter and update the context dates
+        updateContextFolder(dbc, resource);
         return updateContextDates(dbc, resourceList, filter);
     }
 
+    /**
+     * Reads the content of a file and writes it to the given output stream.<p>
+     *
+     * In contrast to <code>{@link #readFile(CmsDbContext, CmsResource)}</code>, the content
+     * is streamed from the database, so it is never buffered completely in memory.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the file resource to read the content for
+     * @param out the output stream to write the content to
+     *
+     * @throws CmsException if operation was not successful
+     */
+    public void readContent(CmsDbContext dbc, CmsResource resource, OutputStream out) throws CmsException {
+
+        if (resource.isFolder()) {
+            throw new CmsVfsResourceNotFoundException(Messages.get().container(
+                Messages.ERR_ACCESS_FOLDER_AS_FILE_1,
+                dbc.removeSiteRoot(resource.getRootPath())));
+        }
+
+        if (resource instanceof I_CmsHistoryResource) {
+            // the history driver has no streaming access to the content
+            byte[] content = getHistoryDriver(dbc).readContent(
+                dbc,
+                resource.getResourceId(),
+                ((I_CmsHistoryResource)resource).getPublishTag());
+            try {
+                out.write(content);
+            } catch (IOException e) {
+                throw new CmsDbIoException(Messages.get().container(
+                    Messages.ERR_READ_FILE_1,
+                    dbc.removeSiteRoot(resource.getRootPath())), e);
+            }
+        } else {
+            getVfsDriver(dbc).readContent(dbc, dbc.currentProject().getUuid(), resource.getResourceId(), out);
+        }
+    }
+
     /**
      * Returns the default file for the given folder.<p>
      *
@@ -6870,6 +7003,9 @@ public final class CmsDriverManager implements I_CmsEventListener {
      */
     public CmsUUID readIdForUrlName(CmsDbContext dbc, String name) throws CmsDataAccessException {
 
+        if (dbc.currentProject().isOnlineProject()) {
+            return getUrlNameMappingIndex(dbc).getIdForName(name);
+        }
         List<CmsUrlNameMappingEntry> entries = getVfsDriver(dbc).readUrlNameMappingEntries(
             dbc,
             dbc.currentProject().isOnlineProject(),
@@ -6927,10 +7063,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
      */
     public String readNewestUrlNameForId(CmsDbContext dbc, CmsUUID id) throws CmsDataAccessException {
 
-        List<CmsUrlNameMappingEntry> entries = getVfsDriver(dbc).readUrlNameMappingEntries(
-            dbc,
-            dbc.currentProject().isOnlineProject(),
-            CmsUrlNameMappingFilter.ALL.filterStructureId(id));
+        List<CmsUrlNameMappingEntry> entries = readUrlNameMappingEntriesForId(dbc, id);
         if (entries.isEmpty()) {
             return null;
         }
@@ -7288,35 +7421,40 @@ public final class CmsDriverManager implements I_CmsEventListener {
         if ((properties == null) || !dbc.getProjectId().isNullUUID()) {
             // result not cached, let's look it up in the DB
             if (search) {
-                boolean cont;
-                properties = new ArrayList<CmsProperty>();
-                List<CmsProperty> parentProperties = null;
-
-                do {
-                    try {
-                        parentProperties = readPropertyObjects(dbc, resource, false);
-
-                        // make sure properties from lower folders "overwrite" properties from upper folders
-                        parentProperties.removeAll(properties);
-                        parentProperties.addAll(properties);
-
-                        properties.clear();
-                        properties.addAll(parentProperties);
-
-                        cont = resource.getRootPath().length() > 1;
-                    } catch (CmsSecurityException se) {
-                        // a security exception (probably no read permission) we return the current result
-                        cont = false;
+                properties = readPropertyObjects(dbc, resource, false);
+                String parentFolder = CmsResource.getParentFolder(resource.getRootPath());
+                if (parentFolder != null) {
+                    // the inherited properties are the searched properties of the parent folder,
+                    // these are computed only once for each folder and shared by all children 
+                    List<CmsProperty> parentProperties = m_monitor.getCachedPropertyList(getCacheKey(
+                        CACHE_ALL_PROPERTIES,
+                        search,
+                        projectId,
+                        parentFolder));
+                    if ((parentProperties == null) || !dbc.getProjectId().isNullUUID()) {
+                        try {
+                            // no permission check on parent folder is required since we must have "read"
+                            // permissions to read the child resource anyway
+                            parentProperties = readPropertyObjects(
+                                dbc,
+                                readResource(dbc, parentFolder, CmsResourceFilter.ALL),
+                                true);
+                        } catch (CmsSecurityException se) {
+                            // a security exception (probably no read permission) we return the current result
+                            parentProperties = Collections.emptyList();
+                        }
                     }
-                    if (cont) {
-                        // no permission check on parent folder is required since we must have "read"
-                        // permissions to read the child resource anyway
-                        resource = readResource(
-                            dbc,
-                            CmsResource.getParentFolder(resource.getRootPath()),
-                            CmsResourceFilter.ALL);
+                    // make sure properties from lower folders "overwrite" properties from upper folders
+                    Map<String, CmsProperty> merged = new LinkedHashMap<String, CmsProperty>();
+                    for (CmsProperty property : parentProperties) {
+                        merged.put(property.getName(), property);
+                    }
+                    for (CmsProperty property : properties) {
+                        merged.remove(property.getName());
+                        merged.put(property.getName(), property);
                     }
-                } while (cont);
+                    properties = new ArrayList<CmsProperty>(merged.values());
+                }
             } else {
                 properties = getVfsDriver(dbc).readPropertyObjects(dbc, dbc.currentProject(), resource);
                 //                for (CmsProperty prop : properties) {
@@ -7335,6 +7473,83 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return new ArrayList<CmsProperty>(properties);
     }
 
+    /**
+     * Reads the property objects of all given resources.<p>
+     *
+     * The properties of the resources that are not cached yet are read from the database 
+     * with as few queries as possible, and are then stored in the property list cache.<p>
+     *
+     * If <code>search</code> is <code>true</code>, the properties of the parent folders 
+     * are merged as in {@link #readPropertyObjects(CmsDbContext, CmsResource, boolean)}.<p>
+     *
+     * @param dbc the current database context
+     * @param resources the resources to read the properties for
+     * @param propertyNames the names of the properties to return, or <code>null</code> for all properties
+     * @param search <code>true</code>, if the properties should be searched on all parent folders if not found on the resource
+     *
+     * @return the lists of <code>{@link CmsProperty}</code> objects, keyed by the structure id of the resources
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertyObjects(
+        CmsDbContext dbc,
+        List<CmsResource> resources,
+        Collection<String> propertyNames,
+        boolean search) throws CmsException {
+
+        CmsUUID projectId = getProjectIdForContext(dbc);
+        boolean useCache = dbc.getProjectId().isNullUUID();
+
+        // collect the resources with properties that are not cached
+        List<CmsResource> missing = new ArrayList<CmsResource>();
+        for (CmsResource resource : resources) {
+            if (!useCache
+                || (m_monitor.getCachedPropertyList(getCacheKey(
+                    CACHE_ALL_PROPERTIES,
+                    false,
+                    projectId,
+                    resource.getRootPath())) == null)) {
+                missing.add(resource);
+            }
+        }
+        Map<CmsUUID, List<CmsProperty>> read = Collections.emptyMap();
+        if (!missing.isEmpty()) {
+            read = getVfsDriver(dbc).readPropertyObjects(dbc, dbc.currentProject(), missing);
+            for (CmsResource resource : missing) {
+                List<CmsProperty> properties = read.get(resource.getStructureId());
+                CmsProperty.setFrozen(properties);
+                if (useCache) {
+                    m_monitor.cachePropertyList(
+                        getCacheKey(CACHE_ALL_PROPERTIES, false, projectId, resource.getRootPath()),
+                        properties);
+                }
+            }
+        }
+
+        Map<CmsUUID, List<CmsProperty>> result = new LinkedHashMap<CmsUUID, List<CmsProperty>>();
+        for (CmsResource resource : resources) {
+            List<CmsProperty> properties;
+            if (search) {
+                // the properties of the resource itself are cached now
+                properties = readPropertyObjects(dbc, resource, true);
+            } else if (read.containsKey(resource.getStructureId())) {
+                properties = new ArrayList<CmsProperty>(read.get(resource.getStructureId()));
+            } else {
+                properties = readPropertyObjects(dbc, resource, false);
+            }
+            if (propertyNames != null) {
+                Iterator<CmsProperty> itProperties = properties.iterator();
+                while (itProperties.hasNext()) {
+                    if (!propertyNames.contains(itProperties.next().getName())) {
+                        itProperties.remove();
+                    }
+                }
+            }
+            result.put(resource.getStructureId(), properties);
+        }
+        return result;
+    }
+
     /**
      * Reads the resources that were published in a publish task for a given publish history ID.<p>
      *
@@ -7465,7 +7680,17 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         CmsUUID projectId = getProjectIdForContext(dbc);
         // please note: the filter will be applied in the security manager later
-        CmsResource resource = getVfsDriver(dbc).readResource(dbc, projectId, structureID, filter.includeDeleted());
+        CmsResource resource;
+        try {
+            resource = getVfsDriver(dbc).readResource(dbc, projectId, structureID, filter.includeDeleted());
+        } catch (CmsVfsResourceNotFoundException e) {
+            // the result depends on the missing resource, it may be created later
+            CmsFlexRequestContextInfo info = dbc.getFlexRequestContextInfo();
+            if (info != null) {
+                info.addDependency(structureID, null);
+            }
+            throw e;
+        }
 
         // context dates need to be updated
         updateContextDates(dbc, resource);
@@ -7494,7 +7719,17 @@ public final class CmsDriverManager implements I_CmsEventListener {
 
         CmsUUID projectId = getProjectIdForContext(dbc);
         // please note: the filter will be applied in the security manager later
-        CmsResource resource = getVfsDriver(dbc).readResource(dbc, projectId, resourcePath, filter.includeDeleted());
+        CmsResource resource;
+        try {
+            resource = getVfsDriver(dbc).readResource(dbc, projectId, resourcePath, filter.includeDeleted());
+        } catch (CmsVfsResourceNotFoundException e) {
+            // the result depends on the missing resource, it may be created later
+            CmsFlexRequestContextInfo info = dbc.getFlexRequestContextInfo();
+            if (info != null) {
+                info.addDependency(null, resourcePath);
+            }
+            throw e;
+        }
 
         // context dates need to be updated
         updateContextDates(dbc, resource);
@@ -7564,9 +7799,129 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
         }
         // we must always apply the result filter and update the context dates
+        updateContextFolder(dbc, parent);
         return updateContextDates(dbc, resourceList, filter);
     }
 
+    /**
+     * Reads the first resources below the given path matching the filter criteria in the given order,
+     * including the full tree below the path only in case the <code>readTree</code>
+     * parameter is <code>true</code>.<p>
+     * 
+     * The sorting and the limitation of the result are done by the database. In case not enough 
+     * of the resources read are visible for the current user, more resources are read until 
+     * the requested number of resources is found.<p>
+     *
+     * @param dbc the current database context
+     * @param parent the parent path to read the resources from
+     * @param filter the filter
+     * @param readTree <code>true</code> to read all subresources
+     * @param order the order of the result
+     * @param maxResults the maximum number of resources to return, or <code>0</code> to return all resources
+     *
+     * @return a sorted list of <code>{@link CmsResource}</code> objects matching the filter criteria
+     *
+     * @throws CmsDataAccessException if the bare reading of the resources fails
+     * @throws CmsException if security and permission checks for the resources read fail
+     */
+    public List<CmsResource> readResources(
+        CmsDbContext dbc,
+        CmsResource parent,
+        CmsResourceFilter filter,
+        boolean readTree,
+        CmsResourceSortOrder order,
+        int maxResults) throws CmsException, CmsDataAccessException {
+
+        if (maxResults <= 0) {
+            // no limit, sorting in memory is as fast as sorting in the database
+            List<CmsResource> result = readResources(dbc, parent, filter, readTree);
+            Collections.sort(result, order.getComparator());
+            return result;
+        }
+
+        // try to get the sub resources from the cache
+        String cacheKey = getCacheKey(new String[] {
+            dbc.currentUser().getName(),
+            filter.getCacheId(),
+            readTree ? "+" : "-",
+            order.name(),
+            String.valueOf(maxResults),
+            parent.getRootPath()}, dbc);
+
+        List<CmsResource> result = null;
+        List<CmsResource> resourceList = m_monitor.getCachedResourceList(cacheKey);
+        if ((resourceList != null) && dbc.getProjectId().isNullUUID()) {
+            result = updateContextDates(dbc, resourceList, filter);
+            if ((result.size() < maxResults) && !(resourceList instanceof CmsCompleteResourceList)) {
+                // resources may have expired since the list was cached, and the list does
+                // not contain the following resources, so read again
+                result = null;
+            }
+        }
+        if (result == null) {
+            int mode = (readTree ? CmsDriverManager.READMODE_INCLUDE_TREE : CmsDriverManager.READMODE_EXCLUDE_TREE)
+                | (filter.excludeType() ? CmsDriverManager.READMODE_EXCLUDE_TYPE : 0)
+                | (filter.excludeState() ? CmsDriverManager.READMODE_EXCLUDE_STATE : 0)
+                | ((filter.getOnlyFolders() != null) ? (filter.getOnlyFolders().booleanValue()
+                ? CmsDriverManager.READMODE_ONLY_FOLDERS
+                : CmsDriverManager.READMODE_ONLY_FILES) : 0)
+                | (filter.requireTimerange() ? CmsDriverManager.READMODE_UNRELEASED_FIRST : 0);
+            resourceList = new ArrayList<CmsResource>();
+            boolean complete = false;
+            int readCount = 0;
+            int fetchSize = maxResults;
+            while (true) {
+                List<CmsResource> resources = getVfsDriver(dbc).readResourceTree(
+                    dbc,
+                    dbc.currentProject().getUuid(),
+                    (readTree ? parent.getRootPath() : parent.getStructureId().toString()),
+                    filter.getType(),
+                    filter.getState(),
+                    filter.getModifiedAfter(),
+                    filter.getModifiedBefore(),
+                    filter.getReleaseAfter(),
+                    filter.getReleaseBefore(),
+                    filter.getExpireAfter(),
+                    filter.getExpireBefore(),
+                    mode,
+                    order,
+                    fetchSize);
+                // only check the permissions of the resources not seen in the previous iteration
+                List<CmsResource> newResources = resources.subList(
+                    Math.min(readCount, resources.size()),
+                    resources.size());
+                // HACK: do not take care of permissions if reading organizational units
+                if (!parent.getRootPath().startsWith("/system/orgunits/")) {
+                    newResources = filterPermissions(dbc, newResources, filter);
+                }
+                resourceList.addAll(newResources);
+                readCount = resources.size();
+                complete = resources.size() < fetchSize;
+                if (complete || (countValid(dbc, resourceList, filter) >= maxResults)) {
+                    // all resources read, or enough visible resources found
+                    break;
+                }
+                fetchSize *= 4;
+            }
+            if (complete) {
+                // remember that less resources than the limit do not mean that more have to be read
+                resourceList = new CmsCompleteResourceList(resourceList);
+            }
+            // store the result in the resourceList cache
+            if (dbc.getProjectId().isNullUUID()) {
+                m_monitor.cacheResourceList(cacheKey, resourceList);
+            }
+            result = updateContextDates(dbc, resourceList, filter);
+        }
+        // unreleased resources are read first, and may have been released since the list was cached 
+        Collections.sort(result, order.getComparator());
+        updateContextFolder(dbc, parent);
+        if (result.size() > maxResults) {
+            result = new ArrayList<CmsResource>(result.subList(0, maxResults));
+        }
+        return result;
+    }
+
     /**
      * Returns the resources that were visited by a user set in the filter.<p>
      *
@@ -7582,6 +7937,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
     throws CmsException {
 
         List<CmsResource> result = getSubscriptionDriver().readResourcesVisitedBy(dbc, poolName, filter);
+        updateContextUntracked(dbc);
         result = filterPermissions(dbc, result, CmsResourceFilter.DEFAULT);
         return result;
     }
@@ -7647,6 +8003,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
             }
         }
         // we must always apply the result filter and update the context dates
+        updateContextFolder(dbc, folder);
         return updateContextDates(dbc, resourceList, filter);
     }
 
@@ -7822,7 +8179,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
     throws CmsException {
 
         List<CmsResource> result = getSubscriptionDriver().readSubscribedResources(dbc, poolName, filter);
-
+        updateContextUntracked(dbc);
         result = filterPermissions(dbc, result, CmsResourceFilter.DEFAULT);
         return result;
     }
@@ -7860,10 +8217,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
     public List<String> readUrlNamesForAllLocales(CmsDbContext dbc, CmsUUID id) throws CmsDataAccessException {
 
         List<String> result = new ArrayList<String>();
-        List<CmsUrlNameMappingEntry> entries = getVfsDriver(dbc).readUrlNameMappingEntries(
-            dbc,
-            dbc.currentProject().isOnlineProject(),
-            CmsUrlNameMappingFilter.ALL.filterStructureId(id));
+        List<CmsUrlNameMappingEntry> entries = readUrlNameMappingEntriesForId(dbc, id);
         ArrayListMultimap<String, CmsUrlNameMappingEntry> entriesByLocale = ArrayListMultimap.create();
         for (CmsUrlNameMappingEntry entry : entries) {
             String localeKey = entry.getLocale();
@@ -9351,6 +9705,76 @@ public final class CmsDriverManager implements I_CmsEventListener {
         OpenCms.fireCmsEvent(new CmsEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, data));
     }
 
+    /**
+     * Writes the content of a file from the given input stream.<p>
+     *
+     * In contrast to <code>{@link #writeFile(CmsDbContext, CmsFile)}</code>, the content
+     * is streamed to the database, so it is never buffered completely in memory. No content
+     * validation or transformation of the resource type is applied.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the file resource to write the content for
+     * @param content the input stream to read the new content from
+     * @param length the number of bytes to read from the input stream
+     *
+     * @return the written resource, without content
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see CmsObject#writeContent(CmsResource, InputStream, int)
+     */
+    public CmsResource writeContent(CmsDbContext dbc, CmsResource resource, InputStream content, int length)
+    throws CmsException {
+
+        // the content date and length are updated together with the content
+        CmsResource modified = new CmsResource(
+            resource.getStructureId(),
+            resource.getResourceId(),
+            resource.getRootPath(),
+            resource.getTypeId(),
+            resource.isFolder(),
+            resource.getFlags(),
+            resource.getProjectLastModified(),
+            resource.getState(),
+            resource.getDateCreated(),
+            resource.getUserCreated(),
+            resource.getDateLastModified(),
+            dbc.currentUser().getId(),
+            resource.getDateReleased(),
+            resource.getDateExpired(),
+            resource.getSiblingCount(),
+            length,
+            System.currentTimeMillis(),
+            resource.getVersion());
+        if (resource.isTouched()) {
+            modified.setDateLastModified(resource.getDateLastModified());
+        }
+
+        getVfsDriver(dbc).writeResource(dbc, dbc.currentProject().getUuid(), modified, UPDATE_RESOURCE_STATE);
+        getVfsDriver(dbc).writeContent(dbc, modified.getResourceId(), content, length);
+        // log it
+        log(dbc, new CmsLogEntry(
+            dbc,
+            modified.getStructureId(),
+            CmsLogEntryType.RESOURCE_CONTENT_MODIFIED,
+            new String[] {modified.getRootPath()}), false);
+
+        // read the resource back from db
+        CmsResource result = readResource(dbc, modified.getStructureId(), CmsResourceFilter.ALL);
+
+        deleteRelationsWithSiblings(dbc, result);
+
+        // update the cache
+        m_monitor.clearResourceCache();
+
+        Map<String, Object> data = new HashMap<String, Object>(2);
+        data.put(I_CmsEventListener.KEY_RESOURCE, result);
+        data.put(I_CmsEventListener.KEY_CHANGE, new Integer(CHANGED_CONTENT));
+        OpenCms.fireCmsEvent(new CmsEvent(I_CmsEventListener.EVENT_RESOURCE_MODIFIED, data));
+
+        return result;
+    }
+
     /**
      * Writes all export points into the file system for the publish task
      * specified by trhe given publish history ID.<p>
@@ -9711,7 +10135,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         } finally {
             // update the driver manager cache
             m_monitor.clearResourceCache();
-            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            flushPropertyCaches(resource);
 
             // fire an event that a property of a resource has been modified
             Map<String, Object> data = new HashMap<String, Object>();
@@ -9792,7 +10216,7 @@ public final class CmsDriverManager implements I_CmsEventListener {
         } finally {
             // update the driver manager cache
             m_monitor.clearResourceCache();
-            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY, CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+            flushPropertyCaches(resource);
 
             // fire an event that the properties of a resource have been modified
             OpenCms.fireCmsEvent(new CmsEvent(
@@ -10382,6 +10806,16 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return false;
     }
 
+    /**
+     * Replaces the index of the Online URL name mappings with a new index, which is loaded on the next access.<p>
+     * 
+     * The old index is not changed, so readers which are still using it are not affected.<p>
+     */
+    private void clearUrlNameMappingIndex() {
+
+        m_urlNameMappingIndex = new CmsUrlNameMappingIndex();
+    }
+
     /**
      * Copies all relations from the source resource to the target resource.<p>
      *
@@ -10415,6 +10849,26 @@ public final class CmsDriverManager implements I_CmsEventListener {
         repairCategories(dbc, getProjectIdForContext(dbc), target);
     }
 
+    /**
+     * Counts the resources of the given list that match the given filter.<p>
+     *
+     * @param dbc the current database context
+     * @param resourceList the resources to check
+     * @param filter the filter to use
+     *
+     * @return the number of resources that match the filter
+     */
+    private int countValid(CmsDbContext dbc, List<CmsResource> resourceList, CmsResourceFilter filter) {
+
+        int result = 0;
+        for (CmsResource resource : resourceList) {
+            if (filter.isValid(dbc.getRequestContext(), resource)) {
+                result++;
+            }
+        }
+        return result;
+    }
+
     /**
      * Filters the given list of resources, removes all resources where the current user
      * does not have READ permissions, plus the filter is applied.<p>
@@ -10587,6 +11041,24 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return result;
     }
 
+    /**
+     * Flushes the cached properties and property lists that depend on the properties of the given resource.<p>
+     *
+     * Folders have no siblings, so only the property lists of the folder sub-tree are removed. 
+     * Properties of files may be shared by siblings, so all property lists are removed.<p>
+     *
+     * @param resource the resource whose properties have been changed
+     */
+    private void flushPropertyCaches(CmsResource resource) {
+
+        m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY);
+        if (resource.isFolder()) {
+            m_monitor.uncachePropertyListsOfSubtree(resource.getRootPath());
+        } else {
+            m_monitor.flushCache(CmsMemoryMonitor.CacheType.PROPERTY_LIST);
+        }
+    }
+
     /**
      * Returns the access control list of a given resource.<p>
      *
@@ -10815,6 +11287,28 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return updateState;
     }
 
+    /**
+     * Returns the index of the Online URL name mappings, and loads it if it hasn't been loaded yet.<p>
+     *
+     * @param dbc the current database context
+     *
+     * @return the URL name mapping index
+     *
+     * @throws CmsDataAccessException if reading the URL name mappings fails
+     */
+    private CmsUrlNameMappingIndex getUrlNameMappingIndex(CmsDbContext dbc) throws CmsDataAccessException {
+
+        CmsUrlNameMappingIndex index = m_urlNameMappingIndex;
+        if (!index.isLoaded()) {
+            synchronized (index) {
+                if (!index.isLoaded()) {
+                    index.load(getVfsDriver(dbc).readUrlNameMappingEntries(dbc, true, CmsUrlNameMappingFilter.ALL));
+                }
+            }
+        }
+        return index;
+    }
+
     /**
      * Returns all groups that are virtualizing the given role in the given ou.<p>
      *
@@ -11037,6 +11531,30 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return result;
     }
 
+    /**
+     * Reads the URL name mapping entries for a structure id.<p>
+     *
+     * In the Online project, the entries are read from the URL name mapping index instead of the database.<p>
+     *
+     * @param dbc the current database context
+     * @param id the structure id
+     *
+     * @return the URL name mapping entries for the structure id
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    private List<CmsUrlNameMappingEntry> readUrlNameMappingEntriesForId(CmsDbContext dbc, CmsUUID id)
+    throws CmsDataAccessException {
+
+        if (dbc.currentProject().isOnlineProject()) {
+            return getUrlNameMappingIndex(dbc).getEntriesForId(id);
+        }
+        return getVfsDriver(dbc).readUrlNameMappingEntries(
+            dbc,
+            false,
+            CmsUrlNameMappingFilter.ALL.filterStructureId(id));
+    }
+
     /**
      * Sorts the given list of {@link CmsAccessControlEntry} objects.<p>
      *
@@ -11445,6 +11963,40 @@ public final class CmsDriverManager implements I_CmsEventListener {
         return result;
     }
 
+    /**
+     * Adds the given folder to the dependencies of the current users context.<p>
+     *
+     * This is used when sub-resources of the folder have been read, so that the
+     * Flex cache entries generated in this context depend on all resources in the sub-tree of the folder.<p>
+     *
+     * @param dbc the current database context
+     * @param folder the folder whose sub-resources have been read
+     */
+    private void updateContextFolder(CmsDbContext dbc, CmsResource folder) {
+
+        CmsFlexRequestContextInfo info = dbc.getFlexRequestContextInfo();
+        if (info != null) {
+            info.addFolderDependency(folder.getRootPath());
+        }
+    }
+
+    /**
+     * Marks the current users context as depending on resources which can not be tracked.<p>
+     *
+     * This is used for query based reads like relation lookups, where a newly published resource
+     * may change the result without being contained in the dependencies of the context.
+     * Flex cache entries generated in this context are removed on every publish operation.<p>
+     *
+     * @param dbc the current database context
+     */
+    private void updateContextUntracked(CmsDbContext dbc) {
+
+        CmsFlexRequestContextInfo info = dbc.getFlexRequestContextInfo();
+        if (info != null) {
+            info.addUntrackedDependency();
+        }
+    }
+
     /**
      * Updates the state of a resource, depending on the <code>resourceState</code> parameter.<p>
      *
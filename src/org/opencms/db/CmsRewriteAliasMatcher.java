@@ -28,10 +28,13 @@
 package org.opencms.db;
 
 import org.opencms.main.CmsLog;
+import org.opencms.util.CmsCollectionsGenericWrapper;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
@@ -40,6 +43,10 @@ import org.apache.commons.logging.Log;
 
 /**
  * Helper class used for matching rewrite aliases to incoming request URIs.<p>
+ * 
+ * The patterns of the rewrite aliases are compiled once when the matcher is created. Paths which didn't
+ * match any of the rewrite aliases are remembered, so repeated requests for them don't need to evaluate
+ * the patterns again.<p>
  */
 public class CmsRewriteAliasMatcher {
 
@@ -89,12 +96,24 @@ public class CmsRewriteAliasMatcher {
 
     }
 
+    /** The maximum number of paths remembered as not matching any rewrite alias. */
+    private static final int MAX_MISSES = 1000;
+
     /** The logger instance for this class. */
     private static final Log LOG = CmsLog.getLog(CmsRewriteAliasMatcher.class);
 
     /** The list of rewrite aliases to use for matching. */
     private List<CmsRewriteAlias> m_aliases;
 
+    /** The paths which didn't match any rewrite alias. */
+    private Map<String, Boolean> m_misses;
+
+    /** The compiled patterns of the rewrite aliases, with null entries for invalid patterns. */
+    private List<Pattern> m_patterns;
+
+    /** The literal prefixes which a path must start with to match the corresponding pattern. */
+    private List<String> m_prefixes;
+
     /**
      * Creates a new matcher instance for the given list of rewrite aliases.<p>
      * 
@@ -103,6 +122,52 @@ public class CmsRewriteAliasMatcher {
     public CmsRewriteAliasMatcher(Collection<CmsRewriteAlias> aliases) {
 
         m_aliases = new ArrayList<CmsRewriteAlias>(aliases);
+        m_patterns = new ArrayList<Pattern>(m_aliases.size());
+        m_prefixes = new ArrayList<String>(m_aliases.size());
+        for (CmsRewriteAlias alias : m_aliases) {
+            Pattern pattern = null;
+            try {
+                pattern = Pattern.compile(alias.getPatternString());
+            } catch (PatternSyntaxException e) {
+                LOG.warn(e.getLocalizedMessage(), e);
+            }
+            m_patterns.add(pattern);
+            m_prefixes.add(getLiteralPrefix(alias.getPatternString()));
+        }
+        Map<String, Boolean> misses = CmsCollectionsGenericWrapper.createLRUMap(MAX_MISSES);
+        m_misses = Collections.synchronizedMap(misses);
+    }
+
+    /**
+     * Gets the literal prefix of a regular expression, i.e. a string which every string matched by the 
+     * regular expression must start with.<p>
+     * 
+     * @param regex the regular expression 
+     * 
+     * @return the literal prefix of the regular expression (may be empty)
+     */
+    protected static String getLiteralPrefix(String regex) {
+
+        if (regex.indexOf('|') >= 0) {
+            // alternatives may start with different prefixes
+            return "";
+        }
+        StringBuffer prefix = new StringBuffer();
+        for (int i = 0; i < regex.length(); i++) {
+            char c = regex.charAt(i);
+            if ((c == '?') || (c == '*') || (c == '{')) {
+                // the preceding character is optional or repeated 
+                if (prefix.length() > 0) {
+                    prefix.setLength(prefix.length() - 1);
+                }
+                break;
+            }
+            if ("\\[]().+^$".indexOf(c) >= 0) {
+                break;
+            }
+            prefix.append(c);
+        }
+        return prefix.toString();
     }
 
     /**
@@ -114,20 +179,26 @@ public class CmsRewriteAliasMatcher {
      */
     public RewriteResult match(String path) {
 
-        for (CmsRewriteAlias alias : m_aliases) {
+        if (m_misses.containsKey(path)) {
+            return null;
+        }
+        for (int i = 0; i < m_aliases.size(); i++) {
+            Pattern pattern = m_patterns.get(i);
+            if ((pattern == null) || !path.startsWith(m_prefixes.get(i))) {
+                continue;
+            }
+            CmsRewriteAlias alias = m_aliases.get(i);
             try {
-                Pattern pattern = Pattern.compile(alias.getPatternString());
                 Matcher matcher = pattern.matcher(path);
                 if (matcher.matches()) {
                     String newPath = matcher.replaceFirst(alias.getReplacementString());
                     return new RewriteResult(newPath, alias);
                 }
-            } catch (PatternSyntaxException e) {
-                LOG.warn(e.getLocalizedMessage(), e);
             } catch (IndexOutOfBoundsException e) {
                 LOG.warn(e.getLocalizedMessage(), e);
             }
         }
+        m_misses.put(path, Boolean.TRUE);
         return null;
     }
 }
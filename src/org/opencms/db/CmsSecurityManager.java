@@ -44,6 +44,7 @@ import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsRequestContext;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.CmsResourceSortOrder;
 import org.opencms.file.CmsUser;
 import org.opencms.file.CmsUserSearchParameters;
 import org.opencms.file.CmsVfsException;
@@ -92,6 +93,8 @@ import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -1089,7 +1092,7 @@ public final class CmsSecurityManager {
      *
      * @see org.opencms.file.types.I_CmsResourceType#createResource(CmsObject, CmsSecurityManager, String, byte[], List)
      */
-    public synchronized CmsResource createResource(
+    public CmsResource createResource(
         CmsRequestContext context,
         String resourcename,
         int type,
@@ -1099,6 +1102,7 @@ public final class CmsSecurityManager {
         String checkExistsPath = "/".equals(resourcename) ? "/" : CmsFileUtil.removeTrailingSeparator(resourcename);
         // We use checkExistsPath instead of resourcename because when creating a folder /foo/bar/, we want to fail
         // if a file /foo/bar already exists. 
+        // This is only a quick check, concurrent creations of the same resource are detected by the driver manager.
 
         if (existsResource(context, checkExistsPath, CmsResourceFilter.ALL)) {
             // check if the resource already exists by name
@@ -4028,6 +4032,30 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Reads the content of a file and writes it to the given output stream.<p>
+     *
+     * In contrast to <code>{@link #readFile(CmsRequestContext, CmsResource)}</code>, the content
+     * is streamed from the database, so it is never buffered completely in memory.<p>
+     *
+     * @param context the current request context
+     * @param resource the resource to read the content for
+     * @param out the output stream to write the content to
+     *
+     * @throws CmsException if something goes wrong
+     */
+    public void readContent(CmsRequestContext context, CmsResource resource, OutputStream out) throws CmsException {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            m_driverManager.readContent(dbc, resource, out);
+        } catch (Exception e) {
+            dbc.report(null, Messages.get().container(Messages.ERR_READ_FILE_1, context.getSitePath(resource)), e);
+        } finally {
+            dbc.clear();
+        }
+    }
+
     /**
      * Returns the default file for the given folder.<p>
      *
@@ -4750,6 +4778,43 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Reads the property objects of all given resources.<p>
+     *
+     * The properties are read with as few database queries as possible.<p>
+     *
+     * @param context the context of the current request
+     * @param resources the resources to read the properties for
+     * @param propertyNames the names of the properties to return, or <code>null</code> for all properties
+     * @param search <code>true</code>, if the properties should be searched on all parent folders if not found on the resource
+     *
+     * @return the lists of <code>{@link CmsProperty}</code> objects, keyed by the structure id of the resources
+     *
+     * @throws CmsException if something goes wrong
+     *
+     * @see CmsObject#readPropertyObjects(List, Collection, boolean)
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertyObjects(
+        CmsRequestContext context,
+        List<CmsResource> resources,
+        Collection<String> propertyNames,
+        boolean search) throws CmsException {
+
+        Map<CmsUUID, List<CmsProperty>> result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            result = m_driverManager.readPropertyObjects(dbc, resources, propertyNames, search);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_READ_PROPS_FOR_RESOURCES_1, new Integer(resources.size())),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Reads the resources that were published in a publish task for a given publish history ID.<p>
      *
@@ -4946,6 +5011,48 @@ public final class CmsSecurityManager {
         return result;
     }
 
+    /**
+     * Reads the first resources below the given path matching the filter criteria in the given order,
+     * including the full tree below the path only in case the <code>readTree</code>
+     * parameter is <code>true</code>.<p>
+     *
+     * @param context the current request context
+     * @param parent the parent path to read the resources from
+     * @param filter the filter
+     * @param readTree <code>true</code> to read all subresources
+     * @param order the order of the result
+     * @param maxResults the maximum number of resources to return, or <code>0</code> to return all resources
+     *
+     * @return a sorted list of <code>{@link CmsResource}</code> objects matching the filter criteria
+     *
+     * @throws CmsSecurityException if the user has insufficient permission for the given resource (read is required)
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readResources(
+        CmsRequestContext context,
+        CmsResource parent,
+        CmsResourceFilter filter,
+        boolean readTree,
+        CmsResourceSortOrder order,
+        int maxResults) throws CmsException, CmsSecurityException {
+
+        List<CmsResource> result = null;
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        try {
+            // check the access permissions
+            checkPermissions(dbc, parent, CmsPermissionSet.ACCESS_READ, true, CmsResourceFilter.ALL);
+            result = m_driverManager.readResources(dbc, parent, filter, readTree, order, maxResults);
+        } catch (Exception e) {
+            dbc.report(
+                null,
+                Messages.get().container(Messages.ERR_READ_RESOURCES_1, context.removeSiteRoot(parent.getRootPath())),
+                e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Returns the resources that were visited by a user set in the filter.<p>
      *
@@ -6370,6 +6477,39 @@ public final class CmsSecurityManager {
         }
     }
 
+    /**
+     * Writes the content of a file from the given input stream.<p>
+     *
+     * In contrast to <code>{@link #writeFile(CmsRequestContext, CmsFile)}</code>, the content
+     * is streamed to the database, so it is never buffered completely in memory.<p>
+     *
+     * @param context the current request context
+     * @param resource the resource to write the content for
+     * @param content the input stream to read the new content from
+     * @param length the number of bytes to read from the input stream
+     *
+     * @return the written resource, without content
+     *
+     * @throws CmsException if something goes wrong
+     * @throws CmsSecurityException if the user has insufficient permission for the given resource (write access permission is required)
+     */
+    public CmsResource writeContent(CmsRequestContext context, CmsResource resource, InputStream content, int length)
+    throws CmsException, CmsSecurityException {
+
+        CmsDbContext dbc = m_dbContextFactory.getDbContext(context);
+        CmsResource result = null;
+        try {
+            checkOfflineProject(dbc);
+            checkPermissions(dbc, resource, CmsPermissionSet.ACCESS_WRITE, true, CmsResourceFilter.ALL);
+            result = m_driverManager.writeContent(dbc, resource, content, length);
+        } catch (Exception e) {
+            dbc.report(null, Messages.get().container(Messages.ERR_WRITE_FILE_1, context.getSitePath(resource)), e);
+        } finally {
+            dbc.clear();
+        }
+        return result;
+    }
+
     /**
      * Writes a resource to the OpenCms VFS, including it's content.<p>
      *
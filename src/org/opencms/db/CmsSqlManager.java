@@ -116,6 +116,16 @@ public class CmsSqlManager {
         return CmsDbPool.getDefaultDbPoolName();
     }
 
+    /**
+     * Returns the SQL manager used by the project driver, which provides the SQL queries for the configured database.<p>
+     * 
+     * @return the SQL manager used by the project driver
+     */
+    public CmsSqlManager getProjectDriverSqlManager() {
+
+        return m_driverManager.getProjectDriver().getSqlManager();
+    }
+
     /** 
      * Returns the number of idle connections managed by a pool.<p> 
      * 
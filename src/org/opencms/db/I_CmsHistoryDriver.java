@@ -38,6 +38,7 @@ import org.opencms.security.I_CmsPrincipal;
 import org.opencms.util.CmsUUID;
 
 import java.util.List;
+import java.util.Map;
 
 /**
  * Definitions of all required history driver methods.<p>
@@ -392,4 +393,21 @@ public interface I_CmsHistoryDriver {
      */
     void writeResource(CmsDbContext dbc, CmsResource resource, List<CmsProperty> properties, int publishTag)
     throws CmsDataAccessException;
+
+    /**
+     * Writes several resources to the history.<p>
+     * 
+     * The result is the same as calling {@link #writeResource(CmsDbContext, CmsResource, List, int)}
+     * for each of the resources, but implementations may write the history entries of all resources 
+     * that are not deleted with a few batched statements, in a single transaction.<p>
+     * 
+     * @param dbc the current database context
+     * @param resources the properties of the resources that are written to the history, 
+     *      keyed by the resources 
+     * @param publishTag the publish tag
+     * 
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    void writeResources(CmsDbContext dbc, Map<CmsResource, List<CmsProperty>> resources, int publishTag)
+    throws CmsDataAccessException;
 }
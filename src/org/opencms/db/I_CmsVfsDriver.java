@@ -36,11 +36,14 @@ import org.opencms.file.CmsProject;
 import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceSortOrder;
 import org.opencms.relations.CmsRelation;
 import org.opencms.relations.CmsRelationFilter;
 import org.opencms.security.CmsOrganizationalUnit;
 import org.opencms.util.CmsUUID;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.Collection;
@@ -464,6 +467,23 @@ public interface I_CmsVfsDriver {
      */
     byte[] readContent(CmsDbContext dbc, CmsUUID projectId, CmsUUID resourceId) throws CmsDataAccessException;
 
+    /**
+     * Reads the content of a file specified by it's resource ID and writes it to the given output stream.<p>
+     *
+     * The content is never buffered completely in memory. Implementations must not keep a pooled 
+     * database connection open while writing to the output stream, since it may be a slow client stream, 
+     * so large content is spooled to a temporary file first.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the ID of the current project
+     * @param resourceId the id of the resource
+     * @param out the output stream to write the content to
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    void readContent(CmsDbContext dbc, CmsUUID projectId, CmsUUID resourceId, OutputStream out)
+    throws CmsDataAccessException;
+
     /**
      * Reads a folder specified by it's structure ID.<p>
      *
@@ -570,6 +590,26 @@ public interface I_CmsVfsDriver {
     List<CmsProperty> readPropertyObjects(CmsDbContext dbc, CmsProject project, CmsResource resource)
     throws CmsDataAccessException;
 
+    /**
+     * Reads all property objects mapped to the given resources from the database.<p>
+     *
+     * The returned map contains an entry for each of the given resources, keyed by its structure id.
+     * Resources without properties are mapped to an empty list.<p>
+     *
+     * @param dbc the current database context
+     * @param project the current project
+     * @param resources the resources to read the properties for
+     *
+     * @return the lists of CmsProperty objects containing both the structure and resource value of the properties,
+     *      keyed by the structure id of the resources
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    Map<CmsUUID, List<CmsProperty>> readPropertyObjects(
+        CmsDbContext dbc,
+        CmsProject project,
+        List<CmsResource> resources) throws CmsDataAccessException;
+
     /**
      * Reads all relations with the given filter for the given resource.<p>
      *
@@ -732,6 +772,51 @@ public interface I_CmsVfsDriver {
         long expiredBefore,
         int mode) throws CmsDataAccessException;
 
+    /**
+     * Reads the first resources of a subtree in the given order.<p>
+     * 
+     * The parameters are the same as for {@link #readResourceTree(CmsDbContext, CmsUUID, String, int, CmsResourceState, long, long, long, long, long, long, int)},
+     * but the sorting and the limitation of the result size are done by the database.<p>
+     * 
+     * If the mode contains {@link CmsDriverManager#READMODE_UNRELEASED_FIRST}, resources with a release date 
+     * after the time of the current request are returned first, independent of the order. This way the caller 
+     * still sees all resources that will become valid later on when filtering by the release date.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the project id for matching resources
+     * @param parent the path to the resource used as root of the searched subtree or the structure id of the parent folder
+     * @param type the resource type of matching resources or {@link CmsDriverManager#READ_IGNORE_TYPE}
+     * @param state the state of matching resources or <code>null</code> to ignore
+     * @param startTime the start of the time range for the last modification date of matching resources or READ_IGNORE_TIME
+     * @param endTime the end of the time range for the last modification date of matching resources or READ_IGNORE_TIME
+     * @param releasedAfter the start of the time range for the release date of matching resources
+     * @param releasedBefore the end of the time range for the release date of matching resources
+     * @param expiredAfter the start of the time range for the expire date of matching resources
+     * @param expiredBefore the end of the time range for the expire date of matching resources
+     * @param mode additional mode flags, see {@link #readResourceTree(CmsDbContext, CmsUUID, String, int, CmsResourceState, long, long, long, long, long, long, int)}
+     * @param order the order of the result
+     * @param maxResults the maximum number of resources to read, or <code>0</code> to read all resources
+     *
+     * @return a list of CmsResource objects matching the given criteria
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    List<CmsResource> readResourceTree(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        String parent,
+        int type,
+        CmsResourceState state,
+        long startTime,
+        long endTime,
+        long releasedAfter,
+        long releasedBefore,
+        long expiredAfter,
+        long expiredBefore,
+        int mode,
+        CmsResourceSortOrder order,
+        int maxResults) throws CmsDataAccessException;
+
     /**
      * Reads the rewrite aliases matching a given filter.<p>
      * 
@@ -795,6 +880,23 @@ public interface I_CmsVfsDriver {
     Map<String, Integer> readVersions(CmsDbContext dbc, CmsUUID projectId, CmsUUID resourceId, CmsUUID structureId)
     throws CmsDataAccessException;
 
+    /**
+     * Reads the version numbers of the given resources.<p>
+     *
+     * The returned map contains an entry for each of the given resources, keyed by its structure id.
+     * The entries have the same format as the result of {@link #readVersions(CmsDbContext, CmsUUID, CmsUUID, CmsUUID)}.<p>
+     *
+     * @param dbc the current database context
+     * @param projectId the project to read the versions from
+     * @param resources the resources to read the versions for
+     *
+     * @return the version number maps of the resources, keyed by structure id
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    Map<CmsUUID, Map<String, Integer>> readVersions(CmsDbContext dbc, CmsUUID projectId, List<CmsResource> resources)
+    throws CmsDataAccessException;
+
     /**
      * Removes a file physically in the database.<p>
      *
@@ -912,6 +1014,21 @@ public interface I_CmsVfsDriver {
      */
     void writeContent(CmsDbContext dbc, CmsUUID resourceId, byte[] content) throws CmsDataAccessException;
 
+    /**
+     * Writes the resource content with the specified resource id from the given input stream.<p>
+     *
+     * The content is streamed to the database, so it is never buffered completely in memory.<p>
+     *
+     * @param dbc the current database context
+     * @param resourceId the id of the resource used to identify the content to update
+     * @param content the input stream to read the new content of the file from
+     * @param length the number of bytes to read from the input stream
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    void writeContent(CmsDbContext dbc, CmsUUID resourceId, InputStream content, int length)
+    throws CmsDataAccessException;
+
     /**
      * Writes the "last-modified-in-project" ID of a resource.<p>
      *
@@ -951,6 +1068,22 @@ public interface I_CmsVfsDriver {
     void writePropertyObjects(CmsDbContext dbc, CmsProject project, CmsResource resource, List<CmsProperty> properties)
     throws CmsDataAccessException;
 
+    /**
+     * Writes the property objects of several resources to the database.<p>
+     *
+     * The result is the same as calling {@link #writePropertyObjects(CmsDbContext, CmsProject, CmsResource, List)}
+     * for each of the resources in the iteration order of the given map, but implementations may
+     * write the property values of all resources with a few batched statements.<p>
+     *
+     * @param dbc the current database context
+     * @param project the current project
+     * @param properties the lists of CmsProperty objects to write, keyed by the resource they are attached to
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    void writePropertyObjects(CmsDbContext dbc, CmsProject project, Map<CmsResource, List<CmsProperty>> properties)
+    throws CmsDataAccessException;
+
     /**
      * Writes the structure and/or resource record(s) of an existing file.<p>
      *
@@ -1021,4 +1154,27 @@ public interface I_CmsVfsDriver {
         int changed,
         boolean isPublishing) throws CmsDataAccessException;
 
+    /**
+     * Writes the file state of several resources in either the structure or resource records, or both of them.<p>
+     *
+     * The result is the same as calling {@link #writeResourceState(CmsDbContext, CmsProject, CmsResource, int, boolean)}
+     * for each of the resources, but implementations may update all resources with a few batched statements.<p>
+     *
+     * @param dbc the current database context
+     * @param project the current project
+     * @param resources the resources to be updated
+     * @param changed determines whether the structure or resource state, or none of them, is set to "changed"
+     * @param isPublishing if this method is called during publishing to version numbers are updated
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     *
+     * @see #writeResourceState(CmsDbContext, CmsProject, CmsResource, int, boolean)
+     */
+    void writeResourceStates(
+        CmsDbContext dbc,
+        CmsProject project,
+        List<CmsResource> resources,
+        int changed,
+        boolean isPublishing) throws CmsDataAccessException;
+
 }
\ No newline at end of file
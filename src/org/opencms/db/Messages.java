@@ -504,6 +504,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_PROJECT_VIEW_1 = "ERR_READ_PROJECT_VIEW_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_READ_PROPS_FOR_RESOURCES_1 = "ERR_READ_PROPS_FOR_RESOURCES_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_PROP_FOR_RESOURCE_2 = "ERR_READ_PROP_FOR_RESOURCE_2";
 
@@ -792,6 +795,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_CLOSE_CONN_POOL_1 = "INIT_CLOSE_CONN_POOL_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_CLUSTER_EVENTS_STARTED_2 = "INIT_CLUSTER_EVENTS_STARTED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_DRIVER_FAILED_1 = "INIT_DRIVER_FAILED_1";
 
@@ -849,6 +855,18 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CLOSE_CONN_POOL_ERROR_1 = "LOG_CLOSE_CONN_POOL_ERROR_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_CLUSTER_EVENTS_DELETED_1 = "LOG_CLUSTER_EVENTS_DELETED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_CLUSTER_EVENTS_DELETE_FAILED_0 = "LOG_CLUSTER_EVENTS_DELETE_FAILED_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_CLUSTER_EVENTS_READ_FAILED_0 = "LOG_CLUSTER_EVENTS_READ_FAILED_0";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_CLUSTER_EVENT_WRITE_FAILED_1 = "LOG_CLUSTER_EVENT_WRITE_FAILED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_CMS_EVENT_1 = "LOG_CMS_EVENT_1";
 
@@ -64,7 +64,10 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -81,6 +84,9 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(org.opencms.db.generic.CmsHistoryDriver.class);
 
+    /** The maximum number of ids in the IN condition of a single query. */
+    private static final int READ_CHUNK_SIZE = 200;
+
     /** The driver manager instance. */
     protected CmsDriverManager m_driverManager;
 
@@ -1530,6 +1536,190 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         writeProperties(dbc, resource, properties, publishTag);
     }
 
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#writeResources(org.opencms.db.CmsDbContext, java.util.Map, int)
+     */
+    public void writeResources(CmsDbContext dbc, Map<CmsResource, List<CmsProperty>> resources, int publishTag)
+    throws CmsDataAccessException {
+
+        // deleted resources also move content and versions, so they are written one by one
+        Map<CmsResource, List<CmsProperty>> batchResources = new LinkedHashMap<CmsResource, List<CmsProperty>>();
+        for (Map.Entry<CmsResource, List<CmsProperty>> entry : resources.entrySet()) {
+            if (entry.getKey().getState().isDeleted()) {
+                writeResource(dbc, entry.getKey(), entry.getValue(), publishTag);
+            } else {
+                batchResources.put(entry.getKey(), entry.getValue());
+            }
+        }
+        if (batchResources.isEmpty()) {
+            return;
+        }
+
+        List<CmsResource> resourceList = new ArrayList<CmsResource>(batchResources.keySet());
+        Set<CmsUUID> resourceIds = new LinkedHashSet<CmsUUID>();
+        List<CmsUUID> structureIds = new ArrayList<CmsUUID>();
+        for (CmsResource resource : resourceList) {
+            resourceIds.add(resource.getResourceId());
+            structureIds.add(resource.getStructureId());
+        }
+
+        // read the version numbers
+        Map<CmsUUID, Map<String, Integer>> versions = m_driverManager.getVfsDriver(dbc).readVersions(
+            dbc,
+            CmsProject.ONLINE_PROJECT_ID,
+            resourceList);
+
+        // read the property definitions, create them if missing
+        Map<String, CmsPropertyDefinition> propDefs = new HashMap<String, CmsPropertyDefinition>();
+        for (List<CmsProperty> properties : batchResources.values()) {
+            for (CmsProperty property : properties) {
+                if (!propDefs.containsKey(property.getName())) {
+                    CmsPropertyDefinition propDef;
+                    try {
+                        propDef = readPropertyDefinition(dbc, property.getName());
+                    } catch (CmsDbEntryNotFoundException e) {
+                        // create if missing
+                        propDef = createPropertyDefinition(dbc, property.getName(), CmsPropertyDefinition.TYPE_NORMAL);
+                    }
+                    propDefs.put(property.getName(), propDef);
+                }
+            }
+        }
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        boolean autoCommit = false;
+        boolean success = false;
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+
+            // read which resources already have an entry for this publish tag, and the online parent folders
+            Set<CmsUUID> existingResourceIds = internalReadIdsForIds(
+                dbc,
+                conn,
+                "C_HISTORY_EXISTS_RESOURCES_FOR_IDS",
+                new Integer(publishTag),
+                new ArrayList<CmsUUID>(resourceIds)).keySet();
+            Map<CmsUUID, CmsUUID> parentIds = internalReadIdsForIds(
+                dbc,
+                conn,
+                "C_HISTORY_READ_ONLINE_PARENT_IDS_FOR_IDS",
+                null,
+                structureIds);
+
+            autoCommit = conn.getAutoCommit();
+            if (autoCommit) {
+                conn.setAutoCommit(false);
+            }
+
+            // write the resources
+            Set<CmsUUID> writtenResourceIds = new HashSet<CmsUUID>(existingResourceIds);
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_RESOURCES_HISTORY_WRITE");
+            for (CmsResource resource : resourceList) {
+                if (!writtenResourceIds.add(resource.getResourceId())) {
+                    continue;
+                }
+                int resourceVersion = versions.get(resource.getStructureId()).get("resource").intValue();
+                stmt.setString(1, resource.getResourceId().toString());
+                stmt.setInt(2, resource.getTypeId());
+                stmt.setInt(3, resource.getFlags());
+                stmt.setLong(4, resource.getDateCreated());
+                stmt.setString(5, resource.getUserCreated().toString());
+                stmt.setLong(6, resource.getDateLastModified());
+                stmt.setString(7, resource.getUserLastModified().toString());
+                stmt.setInt(8, resource.getState().getState());
+                stmt.setInt(9, resource.getLength());
+                stmt.setLong(10, resource.getDateContent());
+                stmt.setString(11, dbc.currentProject().getUuid().toString());
+                stmt.setInt(12, resource.getSiblingCount());
+                stmt.setInt(13, resourceVersion);
+                stmt.setInt(14, publishTag);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            // write the structures
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_STRUCTURE_HISTORY_WRITE");
+            for (CmsResource resource : resourceList) {
+                int structureVersion = versions.get(resource.getStructureId()).get("structure").intValue();
+                CmsUUID parentId = parentIds.get(resource.getStructureId());
+                stmt.setString(1, resource.getStructureId().toString());
+                stmt.setString(2, resource.getResourceId().toString());
+                stmt.setString(3, resource.getRootPath());
+                stmt.setInt(4, resource.getState().getState());
+                stmt.setLong(5, resource.getDateReleased());
+                stmt.setLong(6, resource.getDateExpired());
+                stmt.setInt(7, structureVersion);
+                stmt.setString(8, (parentId != null ? parentId : CmsUUID.getNullUUID()).toString());
+                stmt.setInt(9, publishTag);
+                stmt.setInt(10, resource.getVersion());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+            m_sqlManager.closeAll(dbc, null, stmt, null);
+
+            // write the properties
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_PROPERTIES_HISTORY_CREATE");
+            for (Map.Entry<CmsResource, List<CmsProperty>> entry : batchResources.entrySet()) {
+                CmsResource resource = entry.getKey();
+                for (CmsProperty property : entry.getValue()) {
+                    for (int i = 0; i < 2; i++) {
+                        int mappingType;
+                        String value;
+                        CmsUUID id;
+                        if (i == 0) {
+                            // write the structure value on the first cycle
+                            value = property.getStructureValue();
+                            mappingType = CmsProperty.STRUCTURE_RECORD_MAPPING;
+                            id = resource.getStructureId();
+                            if (CmsStringUtil.isEmpty(value)) {
+                                continue;
+                            }
+                        } else {
+                            // write the resource value on the second cycle
+                            value = property.getResourceValue();
+                            mappingType = CmsProperty.RESOURCE_RECORD_MAPPING;
+                            id = resource.getResourceId();
+                            if (CmsStringUtil.isEmpty(value)) {
+                                break;
+                            }
+                        }
+                        stmt.setString(1, resource.getStructureId().toString());
+                        stmt.setString(2, propDefs.get(property.getName()).getId().toString());
+                        stmt.setString(3, id.toString());
+                        stmt.setInt(4, mappingType);
+                        stmt.setString(5, m_sqlManager.validateEmpty(value));
+                        stmt.setInt(6, publishTag);
+                        stmt.addBatch();
+                    }
+                }
+            }
+            stmt.executeBatch();
+
+            if (autoCommit) {
+                conn.commit();
+            }
+            success = true;
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            if (autoCommit && (conn != null)) {
+                try {
+                    if (!success) {
+                        conn.rollback();
+                    }
+                    conn.setAutoCommit(true);
+                } catch (SQLException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+            }
+            m_sqlManager.closeAll(dbc, conn, stmt, null);
+        }
+    }
+
     /**
      * Updates the property map for the given resource with the given property data.<p>
      * 
@@ -1879,6 +2069,68 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         }
     }
 
+    /**
+     * Reads the rows of a query that ends with an <code>IN</code> condition for the given ids.<p>
+     * 
+     * The first column of the query must contain an id of the given list, the optional second
+     * column another id which is returned as value of the map.<p>
+     * 
+     * @param dbc the current database context
+     * @param conn the connection to use
+     * @param queryKey the key of the query
+     * @param publishTag the publish tag for the first parameter of the query, or <code>null</code> if not used
+     * @param ids the ids for the <code>IN</code> condition
+     * 
+     * @return the ids of the first column, mapped to the ids of the second column if available
+     * 
+     * @throws SQLException if something goes wrong
+     */
+    protected Map<CmsUUID, CmsUUID> internalReadIdsForIds(
+        CmsDbContext dbc,
+        Connection conn,
+        String queryKey,
+        Integer publishTag,
+        List<CmsUUID> ids) throws SQLException {
+
+        Map<CmsUUID, CmsUUID> result = new LinkedHashMap<CmsUUID, CmsUUID>();
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        try {
+            for (int start = 0; start < ids.size(); start += READ_CHUNK_SIZE) {
+                List<CmsUUID> chunk = ids.subList(start, Math.min(start + READ_CHUNK_SIZE, ids.size()));
+                StringBuffer queryBuf = new StringBuffer(256);
+                queryBuf.append(m_sqlManager.readQuery(queryKey));
+                queryBuf.append(BEGIN_CONDITION);
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (i > 0) {
+                        queryBuf.append(", ");
+                    }
+                    queryBuf.append('?');
+                }
+                queryBuf.append(END_CONDITION);
+                stmt = m_sqlManager.getPreparedStatementForSql(conn, queryBuf.toString());
+                int index = 1;
+                if (publishTag != null) {
+                    stmt.setInt(index++, publishTag.intValue());
+                }
+                for (CmsUUID id : chunk) {
+                    stmt.setString(index++, id.toString());
+                }
+                res = stmt.executeQuery();
+                boolean hasValue = res.getMetaData().getColumnCount() > 1;
+                while (res.next()) {
+                    result.put(new CmsUUID(res.getString(1)), hasValue ? new CmsUUID(res.getString(2)) : null);
+                }
+                m_sqlManager.closeAll(dbc, null, stmt, res);
+                res = null;
+                stmt = null;
+            }
+        } finally {
+            m_sqlManager.closeAll(dbc, null, stmt, res);
+        }
+        return result;
+    }
+
     /**
      * Tests if a history resource does exist.<p>
      * 
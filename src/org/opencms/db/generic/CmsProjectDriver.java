@@ -96,7 +96,10 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
 import java.util.Set;
 
 import org.apache.commons.logging.Log;
@@ -110,6 +113,453 @@ import com.google.common.collect.Sets;
  */
 public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
+    /**
+     * Collects the writes of a publish process which can be done with batched statements,
+     * together with the report output of the resources they belong to.<p>
+     */
+    private static class CmsPublishBatch {
+
+        /** The structure id of the first resource which could not be written. */
+        CmsUUID m_failedId;
+
+        /** The error message for the first resource which could not be written. */
+        CmsMessageContainer m_failedMessage;
+
+        /** The cause of the first resource which could not be written. */
+        Throwable m_failedThrowable;
+
+        /** The resources for which old history entries are deleted, with the number of versions to keep. */
+        Map<CmsResource, Integer> m_historyDeletions = new LinkedHashMap<CmsResource, Integer>();
+
+        /** The publish history entries to write. */
+        List<CmsPublishedResource> m_historyEntries = new ArrayList<CmsPublishedResource>();
+
+        /** The resources to write to the history, with their properties. */
+        Map<CmsResource, List<CmsProperty>> m_historyResources = new LinkedHashMap<CmsResource, List<CmsProperty>>();
+
+        /** The online project. */
+        CmsProject m_onlineProject;
+
+        /** The properties to write online, keyed by the online resources. */
+        Map<CmsResource, List<CmsProperty>> m_onlineProperties = new LinkedHashMap<CmsResource, List<CmsProperty>>();
+
+        /** The id of the current publish process. */
+        CmsUUID m_publishHistoryId;
+
+        /** The tag of the current publish process. */
+        int m_publishTag;
+
+        /** The report which holds back the output of the resources in this batch. */
+        CmsPublishBatchReport m_report;
+
+        /** The resources for which the offline state should be reset. */
+        List<CmsResource> m_resetResources = new ArrayList<CmsResource>();
+
+        /**
+         * Creates a new publish batch.<p>
+         *
+         * @param publishHistoryId the id of the current publish process
+         * @param publishTag the tag of the current publish process
+         * @param onlineProject the online project
+         * @param report the report of the current publish process
+         */
+        CmsPublishBatch(CmsUUID publishHistoryId, int publishTag, CmsProject onlineProject, I_CmsReport report) {
+
+            m_publishHistoryId = publishHistoryId;
+            m_publishTag = publishTag;
+            m_onlineProject = onlineProject;
+            m_report = new CmsPublishBatchReport(report);
+        }
+
+        /**
+         * Removes all entries from this batch.<p>
+         */
+        void clear() {
+
+            m_historyDeletions.clear();
+            m_historyEntries.clear();
+            m_historyResources.clear();
+            m_onlineProperties.clear();
+            m_resetResources.clear();
+            m_report.clear();
+            m_failedId = null;
+            m_failedMessage = null;
+            m_failedThrowable = null;
+        }
+
+        /**
+         * Remembers that a resource of this batch could not be written.<p>
+         *
+         * Only the first failure is reported, the following ones are only logged.<p>
+         *
+         * @param structureId the structure id of the resource
+         * @param rootPath the root path of the resource
+         * @param isFolder if the resource is a folder
+         * @param e the cause
+         */
+        void setFailed(CmsUUID structureId, String rootPath, boolean isFolder, CmsDataAccessException e) {
+
+            if (m_failedThrowable != null) {
+                LOG.error(e.getLocalizedMessage(), e);
+                return;
+            }
+            m_failedId = structureId;
+            m_failedMessage = Messages.get().container(
+                isFolder ? Messages.ERR_ERROR_PUBLISHING_FOLDER_1 : Messages.ERR_ERROR_PUBLISHING_FILE_1,
+                rootPath);
+            m_failedThrowable = e;
+        }
+
+        /**
+         * Returns the number of resources with pending writes in this batch.<p>
+         *
+         * @return the number of resources with pending writes
+         */
+        int size() {
+
+            return Math.max(m_report.size(), m_historyEntries.size());
+        }
+    }
+
+    /**
+     * Report which holds back the output for the resources of a publish batch
+     * until their batched writes have been done.<p>
+     */
+    private static class CmsPublishBatchReport implements I_CmsReport {
+
+        /**
+         * A line or a part of a line printed to the report.<p>
+         */
+        private static class CmsReportEntry {
+
+            /** The format of the message. */
+            int m_format;
+
+            /** The message, or <code>null</code> for a line break or a throwable. */
+            CmsMessageContainer m_message;
+
+            /** If the message is followed by a line break. */
+            boolean m_newline;
+
+            /** The throwable to print, or <code>null</code>. */
+            Throwable m_throwable;
+
+            /**
+             * Creates a new report entry.<p>
+             *
+             * @param message the message, or <code>null</code> for a line break or a throwable
+             * @param format the format of the message
+             * @param newline if the message is followed by a line break
+             * @param throwable the throwable to print, or <code>null</code>
+             */
+            CmsReportEntry(CmsMessageContainer message, int format, boolean newline, Throwable throwable) {
+
+                m_message = message;
+                m_format = format;
+                m_newline = newline;
+                m_throwable = throwable;
+            }
+        }
+
+        /** The entries of the current resource, or <code>null</code> if the output is not held back. */
+        private List<CmsReportEntry> m_current;
+
+        /** The report the output is written to. */
+        private I_CmsReport m_report;
+
+        /** The held back report entries, keyed by the structure id of the resource they belong to. */
+        private Map<CmsUUID, List<CmsReportEntry>> m_sections = new LinkedHashMap<CmsUUID, List<CmsReportEntry>>();
+
+        /**
+         * Creates a new publish batch report.<p>
+         *
+         * @param report the report the output is written to
+         */
+        CmsPublishBatchReport(I_CmsReport report) {
+
+            m_report = report;
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#addError(java.lang.Object)
+         */
+        public void addError(Object obj) {
+
+            m_report.addError(obj);
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#addWarning(java.lang.Object)
+         */
+        public void addWarning(Object obj) {
+
+            m_report.addWarning(obj);
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#formatRuntime()
+         */
+        public String formatRuntime() {
+
+            return m_report.formatRuntime();
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#getErrors()
+         */
+        public List<Object> getErrors() {
+
+            return m_report.getErrors();
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#getLastEntryTime()
+         */
+        public long getLastEntryTime() {
+
+            return m_report.getLastEntryTime();
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#getLocale()
+         */
+        public Locale getLocale() {
+
+            return m_report.getLocale();
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#getReportUpdate()
+         */
+        public String getReportUpdate() {
+
+            return m_report.getReportUpdate();
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#getRuntime()
+         */
+        public long getRuntime() {
+
+            return m_report.getRuntime();
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#getSiteRoot()
+         */
+        public String getSiteRoot() {
+
+            return m_report.getSiteRoot();
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#getWarnings()
+         */
+        public List<Object> getWarnings() {
+
+            return m_report.getWarnings();
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#hasError()
+         */
+        public boolean hasError() {
+
+            return m_report.hasError();
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#hasWarning()
+         */
+        public boolean hasWarning() {
+
+            return m_report.hasWarning();
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#print(org.opencms.i18n.CmsMessageContainer)
+         */
+        public void print(CmsMessageContainer container) {
+
+            print(container, FORMAT_DEFAULT);
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#print(org.opencms.i18n.CmsMessageContainer, int)
+         */
+        public void print(CmsMessageContainer container, int format) {
+
+            add(new CmsReportEntry(container, format, false, null));
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#println()
+         */
+        public void println() {
+
+            add(new CmsReportEntry(null, FORMAT_DEFAULT, true, null));
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#println(org.opencms.i18n.CmsMessageContainer)
+         */
+        public void println(CmsMessageContainer container) {
+
+            println(container, FORMAT_DEFAULT);
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#println(org.opencms.i18n.CmsMessageContainer, int)
+         */
+        public void println(CmsMessageContainer container, int format) {
+
+            add(new CmsReportEntry(container, format, true, null));
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#println(java.lang.Throwable)
+         */
+        public void println(Throwable t) {
+
+            add(new CmsReportEntry(null, FORMAT_DEFAULT, true, t));
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#printMessageWithParam(org.opencms.i18n.CmsMessageContainer, java.lang.Object)
+         */
+        public void printMessageWithParam(CmsMessageContainer container, Object param) {
+
+            print(container, FORMAT_NOTE);
+            print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_ARGUMENT_1, param));
+            print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#printMessageWithParam(int, int, org.opencms.i18n.CmsMessageContainer, java.lang.Object)
+         */
+        public void printMessageWithParam(int m, int n, CmsMessageContainer container, Object param) {
+
+            print(
+                org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_SUCCESSION_2,
+                    String.valueOf(m),
+                    String.valueOf(n)),
+                FORMAT_NOTE);
+            printMessageWithParam(container, param);
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#removeSiteRoot(java.lang.String)
+         */
+        public String removeSiteRoot(String resourcename) {
+
+            return m_report.removeSiteRoot(resourcename);
+        }
+
+        /**
+         * @see org.opencms.report.I_CmsReport#resetRuntime()
+         */
+        public void resetRuntime() {
+
+            m_report.resetRuntime();
+        }
+
+        /**
+         * Discards the held back output.<p>
+         */
+        void clear() {
+
+            m_sections.clear();
+            m_current = null;
+        }
+
+        /**
+         * Writes the held back output to the report.<p>
+         *
+         * The output of the given failed resource ends with the error message instead of
+         * the "ok" message.<p>
+         *
+         * @param failedId the structure id of the resource which could not be written, or <code>null</code>
+         * @param message the error message for the failed resource
+         * @param throwable the cause of the error
+         */
+        void flush(CmsUUID failedId, CmsMessageContainer message, Throwable throwable) {
+
+            List<CmsReportEntry> failedSection = (failedId != null) ? m_sections.get(failedId) : null;
+            for (List<CmsReportEntry> section : m_sections.values()) {
+                if (section == failedSection) {
+                    CmsReportEntry last = section.isEmpty() ? null : section.get(section.size() - 1);
+                    if ((last != null) && last.m_newline && (last.m_format == FORMAT_OK)) {
+                        section.remove(section.size() - 1);
+                    }
+                }
+                for (CmsReportEntry entry : section) {
+                    if (entry.m_throwable != null) {
+                        m_report.println(entry.m_throwable);
+                    } else if (entry.m_message == null) {
+                        m_report.println();
+                    } else if (entry.m_newline) {
+                        m_report.println(entry.m_message, entry.m_format);
+                    } else {
+                        m_report.print(entry.m_message, entry.m_format);
+                    }
+                }
+                if (section == failedSection) {
+                    m_report.println(message, FORMAT_ERROR);
+                    m_report.println(throwable);
+                }
+            }
+            if ((throwable != null) && (failedSection == null)) {
+                // the failed resource has no output of its own
+                m_report.println(message, FORMAT_ERROR);
+                m_report.println(throwable);
+            }
+            clear();
+        }
+
+        /**
+         * Returns the number of resources with held back output.<p>
+         *
+         * @return the number of resources with held back output
+         */
+        int size() {
+
+            return m_sections.size();
+        }
+
+        /**
+         * Starts holding back the output for the given resource.<p>
+         *
+         * @param structureId the structure id of the resource
+         */
+        void startResource(CmsUUID structureId) {
+
+            m_current = new ArrayList<CmsReportEntry>();
+            m_sections.put(structureId, m_current);
+        }
+
+        /**
+         * Adds an entry to the output of the current resource, or writes it to the report
+         * if no output is held back.<p>
+         *
+         * @param entry the entry to add
+         */
+        private void add(CmsReportEntry entry) {
+
+            if (m_current != null) {
+                m_current.add(entry);
+            } else if (entry.m_throwable != null) {
+                m_report.println(entry.m_throwable);
+            } else if (entry.m_message == null) {
+                m_report.println();
+            } else if (entry.m_newline) {
+                m_report.println(entry.m_message, entry.m_format);
+            } else {
+                m_report.print(entry.m_message, entry.m_format);
+            }
+        }
+    }
+
     /**
      * This private class is a temporary storage for the method {@link CmsProjectDriver#readLocks(CmsDbContext)}.<p>
      */
@@ -188,6 +638,9 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
     /** Attribute name for reading the project of a resource. */
     public static final String DBC_ATTR_READ_PROJECT_FOR_RESOURCE = "DBC_ATTR_READ_PROJECT_FOR_RESOURCE";
 
+    /** The database context attribute holding the batch of the current publish process. */
+    private static final String KEY_PUBLISH_BATCH = "publishBatch";
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(org.opencms.db.generic.CmsProjectDriver.class);
 
@@ -197,6 +650,9 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
     /** The SQL manager. */
     protected CmsSqlManager m_sqlManager;
 
+    /** The number of resources written with one batch during publishing, 0 to disable batching. */
+    private int m_publishBatchSize;
+
     /**
      * @see org.opencms.db.I_CmsProjectDriver#createProject(org.opencms.db.CmsDbContext, CmsUUID, org.opencms.file.CmsUser, org.opencms.file.CmsGroup, org.opencms.file.CmsGroup, java.lang.String, java.lang.String, int, CmsProject.CmsProjectType)
      */
@@ -868,11 +1324,17 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         String classname = configuration.get("db.project.sqlmanager");
         m_sqlManager = initSqlManager(classname);
         m_sqlManager.init(I_CmsProjectDriver.DRIVER_TYPE_ID, poolUrl);
+        m_publishBatchSize = configuration.getInteger("db.project.publish.batchsize", 100);
 
         m_driverManager = driverManager;
 
         if (CmsLog.INIT.isInfoEnabled()) {
             CmsLog.INIT.info(Messages.get().getBundle().key(Messages.INIT_ASSIGNED_POOL_1, poolUrl));
+            if (m_publishBatchSize > 0) {
+                CmsLog.INIT.info(Messages.get().getBundle().key(
+                    Messages.INIT_PUBLISH_BATCH_SIZE_1,
+                    String.valueOf(m_publishBatchSize)));
+            }
         }
 
         if ((successiveDrivers != null) && !successiveDrivers.isEmpty()) {
@@ -1160,11 +1622,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
                 dbc.pop();
                 // delete old historical entries
-                m_driverManager.getHistoryDriver(dbc).deleteEntries(
-                    dbc,
-                    new CmsHistoryFile(offlineResource),
-                    OpenCms.getSystemInfo().getHistoryVersionsAfterDeletion(),
-                    -1);
+                internalDeleteHistoryEntries(dbc, offlineResource, OpenCms.getSystemInfo().getHistoryVersionsAfterDeletion());
 
                 report.println(
                     org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
@@ -1195,11 +1653,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
                 dbc.pop();
                 // delete old historical entries
-                m_driverManager.getHistoryDriver(dbc).deleteEntries(
-                    dbc,
-                    new CmsHistoryFile(offlineResource),
-                    OpenCms.getSystemInfo().getHistoryVersions(),
-                    -1);
+                internalDeleteHistoryEntries(dbc, offlineResource, OpenCms.getSystemInfo().getHistoryVersions());
 
                 report.println(
                     org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
@@ -1223,11 +1677,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
                 dbc.pop();
                 // delete old historical entries
-                m_driverManager.getHistoryDriver(dbc).deleteEntries(
-                    dbc,
-                    new CmsHistoryFile(offlineResource),
-                    OpenCms.getSystemInfo().getHistoryVersions(),
-                    -1);
+                internalDeleteHistoryEntries(dbc, offlineResource, OpenCms.getSystemInfo().getHistoryVersions());
 
                 report.println(
                     org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
@@ -1537,11 +1987,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                     dbc.currentProject(),
                     offlineFolder);
                 CmsProperty.setAutoCreatePropertyDefinitions(offlineProperties, true);
-                m_driverManager.getVfsDriver(dbc).writePropertyObjects(
-                    dbc,
-                    onlineProject,
-                    onlineFolder,
-                    offlineProperties);
+                internalPublishProperties(dbc, onlineProject, onlineFolder, offlineProperties);
             } catch (CmsDataAccessException e) {
                 if (LOG.isErrorEnabled()) {
                     LOG.error(
@@ -1591,6 +2037,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         int publishedFileCount = 0;
         Set<CmsUUID> publishedContentIds = new HashSet<CmsUUID>();
         Set<CmsUUID> publishedIds = new HashSet<CmsUUID>();
+        CmsPublishBatch batch = null;
 
         try {
 
@@ -1612,6 +2059,14 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                 }
             }
 
+            if (m_publishBatchSize > 0) {
+                // collect the writes which can be batched, and write them in chunks
+                batch = new CmsPublishBatch(publishList.getPublishHistoryId(), publishTag, onlineProject, report);
+                dbc.setAttribute(KEY_PUBLISH_BATCH, batch);
+            }
+            // the output for the resources of a batch is held back until their batch has been written
+            I_CmsReport resourceReport = (batch != null) ? batch.m_report : report;
+
             ///////////////////////////////////////////////////////////////////////////////////////
             // publish new/changed folders
 
@@ -1632,15 +2087,17 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
             Iterator<CmsResource> itFolders = publishList.getFolderList().iterator();
             I_CmsProjectDriver projectDriver = m_driverManager.getProjectDriver(dbc);
-            I_CmsHistoryDriver historyDriver = m_driverManager.getHistoryDriver(dbc);
             while (itFolders.hasNext()) {
                 CmsResource currentFolder = itFolders.next();
+                if (batch != null) {
+                    batch.m_report.startResource(currentFolder.getStructureId());
+                }
                 try {
                     if (currentFolder.getState().isNew() || currentFolder.getState().isChanged()) {
                         // bounce the current publish task through all project drivers
                         projectDriver.publishFolder(
                             dbc,
-                            report,
+                            resourceReport,
                             ++publishedFolderCount,
                             foldersSize,
                             onlineProject,
@@ -1662,11 +2119,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                             new String[] {currentFolder.getRootPath()}), true);
 
                         // delete old historical entries
-                        historyDriver.deleteEntries(
-                            dbc,
-                            new CmsHistoryFile(currentFolder),
-                            OpenCms.getSystemInfo().getHistoryVersions(),
-                            -1);
+                        internalDeleteHistoryEntries(dbc, currentFolder, OpenCms.getSystemInfo().getHistoryVersions());
 
                         // reset the resource state to UNCHANGED and the last-modified-in-project-ID to 0
                         internalResetResourceState(dbc, currentFolder);
@@ -1674,12 +2127,12 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                         m_driverManager.unlockResource(dbc, currentFolder, true, true);
                     } else {
                         // state == unchanged !!?? something went really wrong
-                        report.print(Messages.get().container(Messages.RPT_PUBLISH_FOLDER_0), I_CmsReport.FORMAT_NOTE);
-                        report.print(org.opencms.report.Messages.get().container(
+                        resourceReport.print(Messages.get().container(Messages.RPT_PUBLISH_FOLDER_0), I_CmsReport.FORMAT_NOTE);
+                        resourceReport.print(org.opencms.report.Messages.get().container(
                             org.opencms.report.Messages.RPT_ARGUMENT_1,
                             dbc.removeSiteRoot(currentFolder.getRootPath())));
-                        report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-                        report.println(
+                        resourceReport.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+                        resourceReport.println(
                             org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
                             I_CmsReport.FORMAT_ERROR);
 
@@ -1695,12 +2148,21 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
 
                     dbc.pop();
                 } catch (Throwable t) {
+                    try {
+                        // write the held back output before the error
+                        flushPublishBatch(dbc, batch, true);
+                    } catch (CmsException e) {
+                        // the error has already been written to the report
+                        LOG.error(e.getLocalizedMessage(), e);
+                    }
                     dbc.report(
                         report,
                         Messages.get().container(Messages.ERR_ERROR_PUBLISHING_FOLDER_1, currentFolder.getRootPath()),
                         t);
                 }
+                flushPublishBatch(dbc, batch, false);
             }
+            flushPublishBatch(dbc, batch, true);
 
             if (foldersSize > 0) {
                 report.println(
@@ -1735,11 +2197,18 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             Iterator<CmsResource> itFiles = publishList.getFileList().iterator();
             while (itFiles.hasNext()) {
                 CmsResource currentResource = itFiles.next();
+                if (currentResource.getState().isDeleted()) {
+                    // the online resource is removed, so everything before has to be written
+                    flushPublishBatch(dbc, batch, true);
+                }
+                if (batch != null) {
+                    batch.m_report.startResource(currentResource.getStructureId());
+                }
                 try {
                     // bounce the current publish task through all project drivers
                     projectDriver.publishFile(
                         dbc,
-                        report,
+                        resourceReport,
                         ++publishedFileCount,
                         filesSize,
                         onlineProject,
@@ -1769,12 +2238,21 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                     publishedIds.add(currentResource.getStructureId());
                     dbc.pop();
                 } catch (Throwable t) {
+                    try {
+                        // write the held back output before the error
+                        flushPublishBatch(dbc, batch, true);
+                    } catch (CmsException e) {
+                        // the error has already been written to the report
+                        LOG.error(e.getLocalizedMessage(), e);
+                    }
                     dbc.report(
                         report,
                         Messages.get().container(Messages.ERR_ERROR_PUBLISHING_FILE_1, currentResource.getRootPath()),
                         t);
                 }
+                flushPublishBatch(dbc, batch, false);
             }
+            flushPublishBatch(dbc, batch, true);
 
             if (filesSize > 0) {
                 report.println(Messages.get().container(Messages.RPT_PUBLISH_FILES_END_0), I_CmsReport.FORMAT_HEADLINE);
@@ -1839,7 +2317,9 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                             currentFolder.getRootPath()),
                         t);
                 }
+                flushPublishBatch(dbc, batch, false);
             }
+            flushPublishBatch(dbc, batch, true);
 
             if (deletedFoldersSize > 0) {
                 report.println(Messages.get().container(Messages.RPT_DELETE_FOLDERS_END_0), I_CmsReport.FORMAT_HEADLINE);
@@ -1856,6 +2336,15 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
             }
             throw new CmsDataAccessException(message, o);
         } finally {
+            if (batch != null) {
+                dbc.removeAttribute(KEY_PUBLISH_BATCH);
+                try {
+                    // write what is left over if publishing was aborted
+                    flushPublishBatch(dbc, batch, true);
+                } catch (CmsException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+            }
             // reset vfs driver internal info after publishing
             m_driverManager.getVfsDriver(dbc).publishVersions(dbc, null, false);
             Object[] msgArgs = new Object[] {
@@ -2699,28 +3188,13 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
     public void writePublishHistory(CmsDbContext dbc, CmsUUID publishId, CmsPublishedResource resource)
     throws CmsDataAccessException {
 
-        Connection conn = null;
-        PreparedStatement stmt = null;
-
-        try {
-            conn = m_sqlManager.getConnection(dbc);
-            stmt = m_sqlManager.getPreparedStatement(conn, "C_RESOURCES_WRITE_PUBLISH_HISTORY");
-            stmt.setInt(1, resource.getPublishTag());
-            stmt.setString(2, resource.getStructureId().toString());
-            stmt.setString(3, resource.getResourceId().toString());
-            stmt.setString(4, resource.getRootPath());
-            stmt.setInt(5, resource.getMovedState().getState());
-            stmt.setInt(6, resource.getType());
-            stmt.setString(7, publishId.toString());
-            stmt.setInt(8, resource.getSiblingCount());
-            stmt.executeUpdate();
-        } catch (SQLException e) {
-            throw new CmsDbSqlException(Messages.get().container(
-                Messages.ERR_GENERIC_SQL_1,
-                CmsDbSqlException.getErrorQuery(stmt)), e);
-        } finally {
-            m_sqlManager.closeAll(dbc, conn, stmt, null);
+        CmsPublishBatch batch = getPublishBatch(dbc);
+        if ((batch != null) && batch.m_publishHistoryId.equals(publishId)) {
+            // the entry is written with the next batch of the publish process
+            batch.m_historyEntries.add(resource);
+            return;
         }
+        writePublishHistoryEntry(dbc, publishId, resource);
     }
 
     /**
@@ -3088,6 +3562,52 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         return new CmsLogEntry(userId, date, structureId, type, data);
     }
 
+    /**
+     * Writes the properties of a published resource online.<p>
+     *
+     * @param dbc the current database context
+     * @param onlineProject the online project
+     * @param onlineResource the online resource
+     * @param properties the offline properties of the resource
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected void internalPublishProperties(
+        CmsDbContext dbc,
+        CmsProject onlineProject,
+        CmsResource onlineResource,
+        List<CmsProperty> properties) throws CmsDataAccessException {
+
+        CmsPublishBatch batch = getPublishBatch(dbc);
+        if (batch != null) {
+            // the properties are written with the next batch of the publish process
+            batch.m_onlineProperties.put(onlineResource.getCopy(), properties);
+            return;
+        }
+        m_driverManager.getVfsDriver(dbc).writePropertyObjects(dbc, onlineProject, onlineResource, properties);
+    }
+
+    /**
+     * Deletes the old history entries of a published resource.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the published resource
+     * @param versionsToKeep the number of versions to keep
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected void internalDeleteHistoryEntries(CmsDbContext dbc, CmsResource resource, int versionsToKeep)
+    throws CmsDataAccessException {
+
+        CmsPublishBatch batch = getPublishBatch(dbc);
+        if (batch != null) {
+            // the entries are deleted after the history of the next batch has been written
+            batch.m_historyDeletions.put(resource, new Integer(versionsToKeep));
+            return;
+        }
+        m_driverManager.getHistoryDriver(dbc).deleteEntries(dbc, new CmsHistoryFile(resource), versionsToKeep, -1);
+    }
+
     /**
      * Resets the state to UNCHANGED for a specified resource.<p>
      *
@@ -3098,25 +3618,14 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
      */
     protected void internalResetResourceState(CmsDbContext dbc, CmsResource resource) throws CmsDataAccessException {
 
-        try {
-            // reset the resource state
+        CmsPublishBatch batch = getPublishBatch(dbc);
+        if (batch != null) {
+            // the state is written with the next batch of the publish process
             resource.setState(CmsResource.STATE_UNCHANGED);
-            m_driverManager.getVfsDriver(dbc).writeResourceState(
-                dbc,
-                dbc.currentProject(),
-                resource,
-                CmsDriverManager.UPDATE_ALL,
-                true);
-        } catch (CmsDataAccessException e) {
-            if (LOG.isErrorEnabled()) {
-                LOG.error(
-                    Messages.get().getBundle().key(
-                        Messages.LOG_ERROR_RESETTING_RESOURCE_STATE_1,
-                        resource.getRootPath()),
-                    e);
-            }
-            throw e;
+            batch.m_resetResources.add(resource);
+            return;
         }
+        writeUnchangedState(dbc, resource);
     }
 
     /**
@@ -3165,7 +3674,13 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                         dbc.currentProject(),
                         resource);
                 }
-                m_driverManager.getHistoryDriver(dbc).writeResource(dbc, resource, properties, publishTag);
+                CmsPublishBatch batch = getPublishBatch(dbc);
+                if ((batch != null) && !resource.getState().isDeleted()) {
+                    // written with the next batch of the publish process, without the file content
+                    batch.m_historyResources.put(resource.getCopy(), properties);
+                } else {
+                    m_driverManager.getHistoryDriver(dbc).writeResource(dbc, resource, properties, publishTag);
+                }
             }
             // write the resource to the publish history
             m_driverManager.getProjectDriver(dbc).writePublishHistory(
@@ -3406,7 +3921,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                 dbc.currentProject(),
                 offlineResource);
             CmsProperty.setAutoCreatePropertyDefinitions(offlineProperties, true);
-            m_driverManager.getVfsDriver(dbc).writePropertyObjects(dbc, onlineProject, newFile, offlineProperties);
+            internalPublishProperties(dbc, onlineProject, newFile, offlineProperties);
         } catch (CmsDataAccessException e) {
             if (LOG.isErrorEnabled()) {
                 LOG.error(
@@ -3732,7 +4247,7 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
                 dbc.currentProject(),
                 offlineResource);
             CmsProperty.setAutoCreatePropertyDefinitions(offlineProperties, true);
-            m_driverManager.getVfsDriver(dbc).writePropertyObjects(dbc, onlineProject, newFile, offlineProperties);
+            internalPublishProperties(dbc, onlineProject, newFile, offlineProperties);
         } catch (CmsDataAccessException e) {
             if (LOG.isErrorEnabled()) {
                 LOG.error(
@@ -3765,4 +4280,268 @@ public class CmsProjectDriver implements I_CmsDriver, I_CmsProjectDriver {
         m_driverManager.getVfsDriver(dbc).updateRelations(dbc, onlineProject, offlineResource);
     }
 
+    /**
+     * Writes the publish history entries of a publish batch with a JDBC batch in one transaction.<p>
+     *
+     * @param dbc the current database context
+     * @param batch the publish batch
+     *
+     * @return true if the entries were written, false if they were rolled back
+     */
+    private boolean executePublishHistoryBatch(CmsDbContext dbc, CmsPublishBatch batch) {
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+        boolean autoCommit = true;
+        boolean success = false;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            autoCommit = conn.getAutoCommit();
+            conn.setAutoCommit(false);
+
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_RESOURCES_WRITE_PUBLISH_HISTORY");
+            for (CmsPublishedResource resource : batch.m_historyEntries) {
+                setPublishHistoryParameters(stmt, batch.m_publishHistoryId, resource);
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
+
+            conn.commit();
+            success = true;
+        } catch (SQLException e) {
+            if (LOG.isWarnEnabled()) {
+                LOG.warn(Messages.get().getBundle().key(
+                    Messages.LOG_PUBLISH_BATCH_FAILED_1,
+                    String.valueOf(batch.m_historyEntries.size())), e);
+            }
+            if (conn != null) {
+                try {
+                    conn.rollback();
+                } catch (SQLException e1) {
+                    LOG.error(e1.getLocalizedMessage(), e1);
+                }
+            }
+        } finally {
+            if (conn != null) {
+                try {
+                    conn.setAutoCommit(autoCommit);
+                } catch (SQLException e) {
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+            }
+            m_sqlManager.closeAll(dbc, conn, stmt, null);
+        }
+        return success;
+    }
+
+    /**
+     * Writes the pending entries of the given publish batch, and then the held back report output 
+     * of the resources they belong to.<p>
+     *
+     * Unless forced, the entries are only written if the configured batch size is reached.
+     * If a batch can not be written, its entries are written one by one, so that
+     * the report names the resource which can not be published.<p>
+     *
+     * @param dbc the current database context
+     * @param batch the publish batch, may be <code>null</code>
+     * @param force if the entries should be written even if the batch size is not reached yet
+     *
+     * @throws CmsException if an entry can not be written
+     */
+    private void flushPublishBatch(CmsDbContext dbc, CmsPublishBatch batch, boolean force) throws CmsException {
+
+        if ((batch == null) || (batch.size() == 0) || (!force && (batch.size() < m_publishBatchSize))) {
+            return;
+        }
+        I_CmsVfsDriver vfsDriver = m_driverManager.getVfsDriver(dbc);
+        I_CmsHistoryDriver historyDriver = m_driverManager.getHistoryDriver(dbc);
+        try {
+            if (!batch.m_onlineProperties.isEmpty()) {
+                try {
+                    vfsDriver.writePropertyObjects(dbc, batch.m_onlineProject, batch.m_onlineProperties);
+                } catch (CmsDataAccessException e) {
+                    logPublishBatchFailed(batch.m_onlineProperties.size(), e);
+                    for (Map.Entry<CmsResource, List<CmsProperty>> entry : batch.m_onlineProperties.entrySet()) {
+                        CmsResource resource = entry.getKey();
+                        try {
+                            vfsDriver.writePropertyObjects(dbc, batch.m_onlineProject, resource, entry.getValue());
+                        } catch (CmsDataAccessException e1) {
+                            batch.setFailed(resource.getStructureId(), resource.getRootPath(), resource.isFolder(), e1);
+                        }
+                    }
+                }
+            }
+            if (!batch.m_historyResources.isEmpty()) {
+                try {
+                    historyDriver.writeResources(dbc, batch.m_historyResources, batch.m_publishTag);
+                } catch (CmsDataAccessException e) {
+                    logPublishBatchFailed(batch.m_historyResources.size(), e);
+                    for (Map.Entry<CmsResource, List<CmsProperty>> entry : batch.m_historyResources.entrySet()) {
+                        CmsResource resource = entry.getKey();
+                        try {
+                            historyDriver.writeResource(dbc, resource, entry.getValue(), batch.m_publishTag);
+                        } catch (CmsDataAccessException e1) {
+                            batch.setFailed(resource.getStructureId(), resource.getRootPath(), resource.isFolder(), e1);
+                        }
+                    }
+                }
+            }
+            for (Map.Entry<CmsResource, Integer> entry : batch.m_historyDeletions.entrySet()) {
+                // delete old historical entries, after the new ones have been written
+                CmsResource resource = entry.getKey();
+                try {
+                    historyDriver.deleteEntries(dbc, new CmsHistoryFile(resource), entry.getValue().intValue(), -1);
+                } catch (CmsDataAccessException e) {
+                    batch.setFailed(resource.getStructureId(), resource.getRootPath(), resource.isFolder(), e);
+                }
+            }
+            if (!batch.m_historyEntries.isEmpty() && !executePublishHistoryBatch(dbc, batch)) {
+                for (CmsPublishedResource resource : batch.m_historyEntries) {
+                    try {
+                        writePublishHistoryEntry(dbc, batch.m_publishHistoryId, resource);
+                    } catch (CmsDataAccessException e) {
+                        batch.setFailed(resource.getStructureId(), resource.getRootPath(), resource.isFolder(), e);
+                    }
+                }
+            }
+            if (!batch.m_resetResources.isEmpty()) {
+                try {
+                    vfsDriver.writeResourceStates(
+                        dbc,
+                        dbc.currentProject(),
+                        batch.m_resetResources,
+                        CmsDriverManager.UPDATE_ALL,
+                        true);
+                } catch (CmsDataAccessException e) {
+                    logPublishBatchFailed(batch.m_resetResources.size(), e);
+                    for (CmsResource resource : batch.m_resetResources) {
+                        try {
+                            writeUnchangedState(dbc, resource);
+                        } catch (CmsDataAccessException e1) {
+                            batch.setFailed(resource.getStructureId(), resource.getRootPath(), resource.isFolder(), e1);
+                        }
+                    }
+                }
+            }
+
+            // now the resources are published, write their report output
+            CmsMessageContainer failedMessage = batch.m_failedMessage;
+            Throwable failedThrowable = batch.m_failedThrowable;
+            batch.m_report.flush(batch.m_failedId, failedMessage, failedThrowable);
+            if (failedThrowable != null) {
+                dbc.throwException(failedMessage, failedThrowable);
+            }
+        } finally {
+            batch.clear();
+        }
+    }
+
+    /**
+     * Returns the batch of the publish process running with the given database context.<p>
+     *
+     * @param dbc the current database context
+     *
+     * @return the publish batch, or <code>null</code> if batching is not used
+     */
+    private CmsPublishBatch getPublishBatch(CmsDbContext dbc) {
+
+        return (CmsPublishBatch)dbc.getAttribute(KEY_PUBLISH_BATCH);
+    }
+
+    /**
+     * Logs that a batch of a publish process could not be written and is written one by one.<p>
+     *
+     * @param size the number of entries in the batch
+     * @param e the cause
+     */
+    private void logPublishBatchFailed(int size, CmsDataAccessException e) {
+
+        if (LOG.isWarnEnabled()) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_PUBLISH_BATCH_FAILED_1, String.valueOf(size)), e);
+        }
+    }
+
+    /**
+     * Sets the parameters of a statement writing a publish history entry.<p>
+     *
+     * @param stmt the statement
+     * @param publishId the id of the publish process
+     * @param resource the published resource
+     *
+     * @throws SQLException if something goes wrong
+     */
+    private void setPublishHistoryParameters(PreparedStatement stmt, CmsUUID publishId, CmsPublishedResource resource)
+    throws SQLException {
+
+        stmt.setInt(1, resource.getPublishTag());
+        stmt.setString(2, resource.getStructureId().toString());
+        stmt.setString(3, resource.getResourceId().toString());
+        stmt.setString(4, resource.getRootPath());
+        stmt.setInt(5, resource.getMovedState().getState());
+        stmt.setInt(6, resource.getType());
+        stmt.setString(7, publishId.toString());
+        stmt.setInt(8, resource.getSiblingCount());
+    }
+
+    /**
+     * Writes an entry of the publish history.<p>
+     *
+     * @param dbc the current database context
+     * @param publishId the id of the publish process
+     * @param resource the published resource
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    private void writePublishHistoryEntry(CmsDbContext dbc, CmsUUID publishId, CmsPublishedResource resource)
+    throws CmsDataAccessException {
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatement(conn, "C_RESOURCES_WRITE_PUBLISH_HISTORY");
+            setPublishHistoryParameters(stmt, publishId, resource);
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, null);
+        }
+    }
+
+    /**
+     * Resets the state of the given resource to unchanged in the current project.<p>
+     *
+     * @param dbc the current database context
+     * @param resource the Cms resource
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    private void writeUnchangedState(CmsDbContext dbc, CmsResource resource) throws CmsDataAccessException {
+
+        try {
+            // reset the resource state
+            resource.setState(CmsResource.STATE_UNCHANGED);
+            m_driverManager.getVfsDriver(dbc).writeResourceState(
+                dbc,
+                dbc.currentProject(),
+                resource,
+                CmsDriverManager.UPDATE_ALL,
+                true);
+        } catch (CmsDataAccessException e) {
+            if (LOG.isErrorEnabled()) {
+                LOG.error(
+                    Messages.get().getBundle().key(
+                        Messages.LOG_ERROR_RESETTING_RESOURCE_STATE_1,
+                        resource.getRootPath()),
+                    e);
+            }
+            throw e;
+        }
+    }
+
 }
\ No newline at end of file
@@ -37,6 +37,7 @@ import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
 import java.io.ByteArrayInputStream;
+import java.io.InputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -185,6 +186,25 @@ public class CmsSqlManager extends org.opencms.db.CmsSqlManager {
 
     }
 
+    /**
+     * Retrieves the value of the designated column in the current row of this ResultSet object as 
+     * a stream of bytes, which allows to read large binary values without buffering them in memory.<p>
+     * 
+     * Overwrite this method if another database server requires a different handling of 
+     * byte attributes in tables, see {@link #getBytes(ResultSet, String)}.<p>
+     * 
+     * @param res the result set
+     * @param attributeName the name of the table attribute
+     * 
+     * @return the column value as stream; if the value is SQL NULL, the value returned is null 
+     * 
+     * @throws SQLException if a database access error occurs
+     */
+    public InputStream getBinaryStream(ResultSet res, String attributeName) throws SQLException {
+
+        return res.getBinaryStream(attributeName);
+    }
+
     /**
      * Retrieves the value of the designated column in the current row of this ResultSet object as 
      * a byte array in the Java programming language.<p>
@@ -34,6 +34,7 @@ import org.opencms.db.CmsAliasFilter;
 import org.opencms.db.CmsDbConsistencyException;
 import org.opencms.db.CmsDbContext;
 import org.opencms.db.CmsDbEntryNotFoundException;
+import org.opencms.db.CmsDbIoException;
 import org.opencms.db.CmsDbSqlException;
 import org.opencms.db.CmsDbUtil;
 import org.opencms.db.CmsDriverManager;
@@ -56,6 +57,7 @@ import org.opencms.file.CmsProject;
 import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceSortOrder;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsVfsException;
 import org.opencms.file.CmsVfsResourceAlreadyExistsException;
@@ -80,6 +82,9 @@ import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
@@ -90,10 +95,14 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.DeferredFileOutputStream;
 import org.apache.commons.logging.Log;
 
 /**
@@ -109,9 +118,15 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
     /** Contains the macro replacement value for the online project. */
     protected static final String ONLINE = "ONLINE";
 
+    /** Content larger than this number of bytes is spooled to a temporary file when streamed. */
+    private static final int CONTENT_SPOOL_THRESHOLD = 1024 * 1024;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(org.opencms.db.generic.CmsVfsDriver.class);
 
+    /** The maximum number of ids in the IN condition of a single query. */
+    private static final int READ_CHUNK_SIZE = 200;
+
     /** The driver manager. */
     protected CmsDriverManager m_driverManager;
 
@@ -1838,6 +1853,75 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return byteRes;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readContent(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, org.opencms.util.CmsUUID, java.io.OutputStream)
+     */
+    public void readContent(CmsDbContext dbc, CmsUUID projectId, CmsUUID resourceId, OutputStream out)
+    throws CmsDataAccessException {
+
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        Connection conn = null;
+
+        // the content is spooled to a bounded buffer or a temporary file first, so that the pooled 
+        // connection is not held open while the content is written to a (possibly slow) client stream
+        DeferredFileOutputStream spool = new DeferredFileOutputStream(
+            CONTENT_SPOOL_THRESHOLD,
+            "opencms-content",
+            ".tmp",
+            null);
+        try {
+            try {
+                conn = m_sqlManager.getConnection(dbc);
+                if (projectId.equals(CmsProject.ONLINE_PROJECT_ID)) {
+                    stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_ONLINE_FILES_CONTENT");
+                } else {
+                    stmt = m_sqlManager.getPreparedStatement(conn, projectId, "C_OFFLINE_FILES_CONTENT");
+                }
+                stmt.setString(1, resourceId.toString());
+                res = stmt.executeQuery();
+
+                if (res.next()) {
+                    // stream the attribute FILE_CONTENT instead of reading it into an array of bytes
+                    InputStream content = m_sqlManager.getBinaryStream(
+                        res,
+                        m_sqlManager.readQuery("C_RESOURCES_FILE_CONTENT"));
+                    if (content != null) {
+                        try {
+                            IOUtils.copy(content, spool);
+                        } finally {
+                            content.close();
+                        }
+                    }
+                    while (res.next()) {
+                        // do nothing only move through all rows because of mssql odbc driver
+                    }
+                } else {
+                    throw new CmsVfsResourceNotFoundException(Messages.get().container(
+                        Messages.ERR_READ_CONTENT_WITH_RESOURCE_ID_2,
+                        resourceId,
+                        Boolean.valueOf(projectId.equals(CmsProject.ONLINE_PROJECT_ID))));
+                }
+            } catch (SQLException e) {
+                throw new CmsDbSqlException(Messages.get().container(
+                    Messages.ERR_GENERIC_SQL_1,
+                    CmsDbSqlException.getErrorQuery(stmt)), e);
+            } finally {
+                m_sqlManager.closeAll(dbc, conn, stmt, res);
+                spool.close();
+            }
+            spool.writeTo(out);
+        } catch (IOException e) {
+            throw new CmsDbIoException(
+                Messages.get().container(Messages.ERR_WRITING_TO_OUTPUT_STREAM_1, resourceId),
+                e);
+        } finally {
+            if (!spool.isInMemory()) {
+                spool.getFile().delete();
+            }
+        }
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readFolder(org.opencms.db.CmsDbContext, CmsUUID, org.opencms.util.CmsUUID)
      */
@@ -2160,6 +2244,110 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return new ArrayList<CmsProperty>(propertyMap.values());
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readPropertyObjects(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, java.util.List)
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertyObjects(
+        CmsDbContext dbc,
+        CmsProject project,
+        List<CmsResource> resources) throws CmsDataAccessException {
+
+        CmsUUID projectId = ((dbc.getProjectId() == null) || dbc.getProjectId().isNullUUID())
+        ? project.getUuid()
+        : dbc.getProjectId();
+
+        // the property maps of the resources, keyed by structure id
+        Map<CmsUUID, Map<String, CmsProperty>> propertyMaps = new LinkedHashMap<CmsUUID, Map<String, CmsProperty>>();
+        // the resources sharing the resource record, keyed by resource id 
+        Map<CmsUUID, List<CmsResource>> siblings = new HashMap<CmsUUID, List<CmsResource>>();
+        // the resources, keyed by structure id
+        Map<CmsUUID, CmsResource> structures = new HashMap<CmsUUID, CmsResource>();
+        for (CmsResource resource : resources) {
+            if (structures.put(resource.getStructureId(), resource) != null) {
+                continue;
+            }
+            propertyMaps.put(resource.getStructureId(), new HashMap<String, CmsProperty>());
+            List<CmsResource> resourceSiblings = siblings.get(resource.getResourceId());
+            if (resourceSiblings == null) {
+                resourceSiblings = new ArrayList<CmsResource>(1);
+                siblings.put(resource.getResourceId(), resourceSiblings);
+            }
+            resourceSiblings.add(resource);
+        }
+
+        List<CmsUUID> mappingIds = new ArrayList<CmsUUID>(structures.keySet());
+        mappingIds.addAll(siblings.keySet());
+
+        ResultSet res = null;
+        PreparedStatement stmt = null;
+        Connection conn = null;
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            for (int start = 0; start < mappingIds.size(); start += READ_CHUNK_SIZE) {
+                List<CmsUUID> chunk = mappingIds.subList(
+                    start,
+                    Math.min(start + READ_CHUNK_SIZE, mappingIds.size()));
+                StringBuffer queryBuf = new StringBuffer(256);
+                queryBuf.append(m_sqlManager.readQuery(projectId, "C_PROPERTIES_READALL_FOR_MAPPINGS"));
+                queryBuf.append(BEGIN_CONDITION);
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (i > 0) {
+                        queryBuf.append(", ");
+                    }
+                    queryBuf.append('?');
+                }
+                queryBuf.append(END_CONDITION);
+                stmt = m_sqlManager.getPreparedStatementForSql(conn, queryBuf.toString());
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i).toString());
+                }
+                res = stmt.executeQuery();
+                while (res.next()) {
+                    String propertyKey = res.getString(1);
+                    String propertyValue = res.getString(2);
+                    int mappingType = res.getInt(3);
+                    CmsUUID mappingId = new CmsUUID(res.getString(4));
+                    if (mappingType == CmsProperty.STRUCTURE_RECORD_MAPPING) {
+                        // this property value is mapped to a structure record
+                        CmsResource resource = structures.get(mappingId);
+                        if (resource != null) {
+                            getProperty(propertyMaps, resource, propertyKey).setStructureValue(propertyValue);
+                        }
+                    } else if (mappingType == CmsProperty.RESOURCE_RECORD_MAPPING) {
+                        // this property value is mapped to a resource record, shared by all siblings
+                        List<CmsResource> resourceSiblings = siblings.get(mappingId);
+                        if (resourceSiblings != null) {
+                            for (CmsResource resource : resourceSiblings) {
+                                getProperty(propertyMaps, resource, propertyKey).setResourceValue(propertyValue);
+                            }
+                        }
+                    } else {
+                        throw new CmsDbConsistencyException(Messages.get().container(
+                            Messages.ERR_UNKNOWN_PROPERTY_VALUE_MAPPING_3,
+                            mappingId,
+                            new Integer(mappingType),
+                            propertyKey));
+                    }
+                }
+                m_sqlManager.closeAll(dbc, null, stmt, res);
+                res = null;
+                stmt = null;
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, res);
+        }
+
+        Map<CmsUUID, List<CmsProperty>> result = new LinkedHashMap<CmsUUID, List<CmsProperty>>();
+        for (Map.Entry<CmsUUID, Map<String, CmsProperty>> entry : propertyMaps.entrySet()) {
+            result.put(entry.getKey(), new ArrayList<CmsProperty>(entry.getValue().values()));
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readRelations(org.opencms.db.CmsDbContext, CmsUUID, CmsResource, org.opencms.relations.CmsRelationFilter)
      */
@@ -2536,6 +2724,42 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         long expiredBefore,
         int mode) throws CmsDataAccessException {
 
+        return readResourceTree(
+            dbc,
+            projectId,
+            parentPath,
+            type,
+            state,
+            lastModifiedAfter,
+            lastModifiedBefore,
+            releasedAfter,
+            releasedBefore,
+            expiredAfter,
+            expiredBefore,
+            mode,
+            null,
+            0);
+    }
+
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readResourceTree(org.opencms.db.CmsDbContext, CmsUUID, java.lang.String, int, org.opencms.db.CmsResourceState, long, long, long, long, long, long, int, org.opencms.file.CmsResourceSortOrder, int)
+     */
+    public List<CmsResource> readResourceTree(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        String parentPath,
+        int type,
+        CmsResourceState state,
+        long lastModifiedAfter,
+        long lastModifiedBefore,
+        long releasedAfter,
+        long releasedBefore,
+        long expiredAfter,
+        long expiredBefore,
+        int mode,
+        CmsResourceSortOrder order,
+        int maxResults) throws CmsDataAccessException {
+
         List<CmsResource> result = new ArrayList<CmsResource>();
 
         StringBuffer conditions = new StringBuffer();
@@ -2562,8 +2786,25 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
             queryBuf.append(m_sqlManager.readQuery(projectId, "C_RESOURCES_READ_TREE"));
             queryBuf.append(conditions);
             queryBuf.append(" ");
-            queryBuf.append(m_sqlManager.readQuery(projectId, "C_RESOURCES_ORDER_BY_PATH"));
+            if (order == null) {
+                queryBuf.append(m_sqlManager.readQuery(projectId, "C_RESOURCES_ORDER_BY_PATH"));
+            } else if ((mode & CmsDriverManager.READMODE_UNRELEASED_FIRST) > 0) {
+                // resources released in the future come first, the caller needs their release dates
+                long requestTime = (dbc.getRequestContext() != null)
+                ? dbc.getRequestContext().getRequestTime()
+                : System.currentTimeMillis();
+                queryBuf.append(m_sqlManager.readQuery(projectId, "C_RESOURCES_ORDER_BY_UNRELEASED_FIRST"));
+                params.add(Long.valueOf(requestTime));
+                queryBuf.append(", ");
+                queryBuf.append(m_sqlManager.readQuery(projectId, "C_RESOURCES_ORDER_" + order.name()));
+            } else {
+                queryBuf.append("ORDER BY ");
+                queryBuf.append(m_sqlManager.readQuery(projectId, "C_RESOURCES_ORDER_" + order.name()));
+            }
             stmt = m_sqlManager.getPreparedStatementForSql(conn, queryBuf.toString());
+            if (maxResults > 0) {
+                stmt.setMaxRows(maxResults);
+            }
 
             for (int i = 0; i < params.size(); i++) {
                 if (params.get(i) instanceof Integer) {
@@ -2768,6 +3009,58 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return result;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readVersions(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, java.util.List)
+     */
+    public Map<CmsUUID, Map<String, Integer>> readVersions(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        List<CmsResource> resources) throws CmsDataAccessException {
+
+        Set<CmsUUID> resourceIds = new LinkedHashSet<CmsUUID>();
+        Set<CmsUUID> structureIds = new LinkedHashSet<CmsUUID>();
+        for (CmsResource resource : resources) {
+            resourceIds.add(resource.getResourceId());
+            structureIds.add(resource.getStructureId());
+        }
+
+        Map<CmsUUID, Integer> resourceVersions;
+        Map<CmsUUID, Integer> structureVersions;
+        Connection conn = null;
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            resourceVersions = internalReadVersions(
+                dbc,
+                conn,
+                projectId,
+                "C_RESOURCES_READ_VERSIONS_RES_FOR_IDS",
+                new ArrayList<CmsUUID>(resourceIds));
+            structureVersions = internalReadVersions(
+                dbc,
+                conn,
+                projectId,
+                "C_RESOURCES_READ_VERSIONS_STR_FOR_IDS",
+                new ArrayList<CmsUUID>(structureIds));
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(null)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, null, null);
+        }
+
+        Map<CmsUUID, Map<String, Integer>> result = new HashMap<CmsUUID, Map<String, Integer>>();
+        for (CmsResource resource : resources) {
+            Integer structureVersion = structureVersions.get(resource.getStructureId());
+            Integer resourceVersion = resourceVersions.get(resource.getResourceId());
+            Map<String, Integer> versions = new HashMap<String, Integer>();
+            versions.put("structure", structureVersion != null ? structureVersion : new Integer(-1));
+            versions.put(I_CmsEventListener.KEY_RESOURCE, resourceVersion != null ? resourceVersion : new Integer(-1));
+            result.put(resource.getStructureId(), versions);
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#removeFile(org.opencms.db.CmsDbContext, CmsUUID, org.opencms.file.CmsResource)
      */
@@ -3124,6 +3417,31 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#writeContent(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, java.io.InputStream, int)
+     */
+    public void writeContent(CmsDbContext dbc, CmsUUID resourceId, InputStream content, int length)
+    throws CmsDataAccessException {
+
+        Connection conn = null;
+        PreparedStatement stmt = null;
+
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            stmt = m_sqlManager.getPreparedStatement(conn, dbc.currentProject(), "C_OFFLINE_CONTENTS_UPDATE");
+            // the JDBC driver reads the content from the stream while updating the database
+            stmt.setBinaryStream(1, content, length);
+            stmt.setString(2, resourceId.toString());
+            stmt.executeUpdate();
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, null);
+        }
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#writeLastModifiedProjectId(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, CmsUUID, org.opencms.file.CmsResource)
      */
@@ -3318,6 +3636,180 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#writePropertyObjects(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, java.util.Map)
+     */
+    public void writePropertyObjects(
+        CmsDbContext dbc,
+        CmsProject project,
+        Map<CmsResource, List<CmsProperty>> properties) throws CmsDataAccessException {
+
+        if (properties.isEmpty()) {
+            return;
+        }
+
+        CmsUUID projectId = ((dbc.getProjectId() == null) || dbc.getProjectId().isNullUUID())
+        ? project.getUuid()
+        : dbc.getProjectId();
+
+        // read the existing property values of all resources and the property definitions with a few queries
+        Map<CmsUUID, List<CmsProperty>> existingProperties = readPropertyObjects(
+            dbc,
+            project,
+            new ArrayList<CmsResource>(properties.keySet()));
+        Map<String, CmsPropertyDefinition> propertyDefinitions = new HashMap<String, CmsPropertyDefinition>();
+        for (CmsPropertyDefinition propertyDefinition : readPropertyDefinitions(dbc, projectId)) {
+            propertyDefinitions.put(propertyDefinition.getName(), propertyDefinition);
+        }
+
+        // the resource values written so far, they are shared by siblings, keyed by property definition and resource id
+        Map<String, String> writtenResourceValues = new HashMap<String, String>();
+        // the statements to execute, in the order they have to be executed
+        List<CmsPair<String, List<I_CmsPreparedStatementParameter>>> statements = new ArrayList<CmsPair<String, List<I_CmsPreparedStatementParameter>>>();
+        // the properties without property definition, they are written one by one after the others
+        Map<CmsResource, List<CmsProperty>> undefinedProperties = new LinkedHashMap<CmsResource, List<CmsProperty>>();
+
+        for (Map.Entry<CmsResource, List<CmsProperty>> entry : properties.entrySet()) {
+            CmsResource resource = entry.getKey();
+            List<CmsProperty> resourceProperties = existingProperties.get(resource.getStructureId());
+            for (CmsProperty property : entry.getValue()) {
+                CmsPropertyDefinition propertyDefinition = propertyDefinitions.get(property.getName());
+                if (propertyDefinition == null) {
+                    List<CmsProperty> undefined = undefinedProperties.get(resource);
+                    if (undefined == null) {
+                        undefined = new ArrayList<CmsProperty>();
+                        undefinedProperties.put(resource, undefined);
+                    }
+                    undefined.add(property);
+                    continue;
+                }
+
+                CmsProperty existingProperty = CmsProperty.get(property.getName(), resourceProperties);
+                String resourceValueKey = propertyDefinition.getId() + "|" + resource.getResourceId();
+                if (writtenResourceValues.containsKey(resourceValueKey)) {
+                    // the resource value has already been written for a sibling
+                    CmsProperty siblingProperty = new CmsProperty();
+                    siblingProperty.setName(property.getName());
+                    siblingProperty.setStructureValue(existingProperty.getStructureValue());
+                    siblingProperty.setResourceValue(writtenResourceValues.get(resourceValueKey));
+                    existingProperty = siblingProperty;
+                }
+                if (existingProperty.isIdentical(property)) {
+                    // property already has the identical values set, no write required
+                    continue;
+                }
+
+                for (int i = 0; i < 2; i++) {
+                    int mappingType = -1;
+                    String value = null;
+                    CmsUUID id = null;
+                    boolean existsPropertyValue = false;
+                    boolean deletePropertyValue = false;
+
+                    if (i == 0) {
+                        // write/delete the *structure value* on the first cycle
+                        if ((existingProperty.getStructureValue() != null) && property.isDeleteStructureValue()) {
+                            // this property value is marked to be deleted
+                            deletePropertyValue = true;
+                        } else {
+                            value = property.getStructureValue();
+                            if (CmsStringUtil.isEmptyOrWhitespaceOnly(value)) {
+                                // no structure value set or the structure value is an empty string,
+                                // continue with the resource value
+                                continue;
+                            }
+                        }
+                        mappingType = CmsProperty.STRUCTURE_RECORD_MAPPING;
+                        id = resource.getStructureId();
+                        existsPropertyValue = existingProperty.getStructureValue() != null;
+                    } else {
+                        // write/delete the *resource value* on the second cycle
+                        if ((existingProperty.getResourceValue() != null) && property.isDeleteResourceValue()) {
+                            // this property value is marked to be deleted
+                            deletePropertyValue = true;
+                        } else {
+                            value = property.getResourceValue();
+                            if (CmsStringUtil.isEmptyOrWhitespaceOnly(value)) {
+                                // no resource value set or the resource value is an empty string,
+                                // break out of the loop
+                                break;
+                            }
+                        }
+                        mappingType = CmsProperty.RESOURCE_RECORD_MAPPING;
+                        id = resource.getResourceId();
+                        existsPropertyValue = existingProperty.getResourceValue() != null;
+                        writtenResourceValues.put(resourceValueKey, deletePropertyValue ? null : value);
+                    }
+
+                    List<I_CmsPreparedStatementParameter> params = new ArrayList<I_CmsPreparedStatementParameter>(5);
+                    String query;
+                    if (!deletePropertyValue) {
+                        if (existsPropertyValue) {
+                            // {structure|resource} property value already exists- use update statement
+                            query = "C_PROPERTIES_UPDATE";
+                            params.add(new CmsPreparedStatementStringParameter(m_sqlManager.validateEmpty(value)));
+                            params.add(new CmsPreparedStatementStringParameter(id.toString()));
+                            params.add(new CmsPreparedStatementIntParameter(mappingType));
+                            params.add(new CmsPreparedStatementStringParameter(propertyDefinition.getId().toString()));
+                        } else {
+                            // {structure|resource} property value doesn't exist- use create statement
+                            query = "C_PROPERTIES_CREATE";
+                            params.add(new CmsPreparedStatementStringParameter(new CmsUUID().toString()));
+                            params.add(new CmsPreparedStatementStringParameter(propertyDefinition.getId().toString()));
+                            params.add(new CmsPreparedStatementStringParameter(id.toString()));
+                            params.add(new CmsPreparedStatementIntParameter(mappingType));
+                            params.add(new CmsPreparedStatementStringParameter(m_sqlManager.validateEmpty(value)));
+                        }
+                    } else {
+                        // {structure|resource} property value marked as deleted- use delete statement
+                        query = "C_PROPERTIES_DELETE";
+                        params.add(new CmsPreparedStatementStringParameter(propertyDefinition.getId().toString()));
+                        params.add(new CmsPreparedStatementStringParameter(id.toString()));
+                        params.add(new CmsPreparedStatementIntParameter(mappingType));
+                    }
+                    statements.add(CmsPair.create(query, params));
+                }
+            }
+        }
+
+        PreparedStatement stmt = null;
+        Connection conn = null;
+        try {
+            conn = m_sqlManager.getConnection(dbc);
+            String currentQuery = null;
+            for (CmsPair<String, List<I_CmsPreparedStatementParameter>> statement : statements) {
+                if (!statement.getFirst().equals(currentQuery)) {
+                    // consecutive statements of the same kind are executed as one batch
+                    if (stmt != null) {
+                        stmt.executeBatch();
+                        m_sqlManager.closeAll(dbc, null, stmt, null);
+                    }
+                    currentQuery = statement.getFirst();
+                    stmt = m_sqlManager.getPreparedStatement(conn, projectId, currentQuery);
+                }
+                List<I_CmsPreparedStatementParameter> params = statement.getSecond();
+                for (int i = 0; i < params.size(); i++) {
+                    params.get(i).insertIntoStatement(stmt, i + 1);
+                }
+                stmt.addBatch();
+            }
+            if (stmt != null) {
+                stmt.executeBatch();
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, conn, stmt, null);
+        }
+
+        // properties without definition are written one by one, this creates the missing definitions
+        for (Map.Entry<CmsResource, List<CmsProperty>> entry : undefinedProperties.entrySet()) {
+            writePropertyObjects(dbc, project, entry.getKey(), entry.getValue());
+        }
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#writeResource(org.opencms.db.CmsDbContext, CmsUUID, org.opencms.file.CmsResource, int)
      */
@@ -3429,10 +3921,23 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         int changed,
         boolean isPublishing) throws CmsDataAccessException {
 
+        writeResourceStates(dbc, project, Collections.singletonList(resource), changed, isPublishing);
+    }
+
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#writeResourceStates(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, java.util.List, int, boolean)
+     */
+    public void writeResourceStates(
+        CmsDbContext dbc,
+        CmsProject project,
+        List<CmsResource> resources,
+        int changed,
+        boolean isPublishing) throws CmsDataAccessException {
+
         PreparedStatement stmt = null;
         Connection conn = null;
 
-        if (project.getUuid().equals(CmsProject.ONLINE_PROJECT_ID)) {
+        if (project.getUuid().equals(CmsProject.ONLINE_PROJECT_ID) || resources.isEmpty()) {
             return;
         }
 
@@ -3441,30 +3946,39 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
 
             if (changed == CmsDriverManager.UPDATE_RESOURCE_PROJECT) {
                 stmt = m_sqlManager.getPreparedStatement(conn, project, "C_RESOURCES_UPDATE_RESOURCE_PROJECT");
-                stmt.setInt(1, resource.getFlags());
-                stmt.setString(2, project.getUuid().toString());
-                stmt.setString(3, resource.getResourceId().toString());
-                stmt.executeUpdate();
+                for (CmsResource resource : resources) {
+                    stmt.setInt(1, resource.getFlags());
+                    stmt.setString(2, project.getUuid().toString());
+                    stmt.setString(3, resource.getResourceId().toString());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
                 m_sqlManager.closeAll(dbc, null, stmt, null);
             }
 
             if (changed == CmsDriverManager.UPDATE_RESOURCE) {
                 stmt = m_sqlManager.getPreparedStatement(conn, project, "C_RESOURCES_UPDATE_RESOURCE_STATELASTMODIFIED");
-                stmt.setInt(1, resource.getState().getState());
-                stmt.setLong(2, resource.getDateLastModified());
-                stmt.setString(3, resource.getUserLastModified().toString());
-                stmt.setString(4, project.getUuid().toString());
-                stmt.setString(5, resource.getResourceId().toString());
-                stmt.executeUpdate();
+                for (CmsResource resource : resources) {
+                    stmt.setInt(1, resource.getState().getState());
+                    stmt.setLong(2, resource.getDateLastModified());
+                    stmt.setString(3, resource.getUserLastModified().toString());
+                    stmt.setString(4, project.getUuid().toString());
+                    stmt.setString(5, resource.getResourceId().toString());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
                 m_sqlManager.closeAll(dbc, null, stmt, null);
             }
 
             if ((changed == CmsDriverManager.UPDATE_RESOURCE_STATE) || (changed == CmsDriverManager.UPDATE_ALL)) {
                 stmt = m_sqlManager.getPreparedStatement(conn, project, "C_RESOURCES_UPDATE_RESOURCE_STATE");
-                stmt.setInt(1, resource.getState().getState());
-                stmt.setString(2, project.getUuid().toString());
-                stmt.setString(3, resource.getResourceId().toString());
-                stmt.executeUpdate();
+                for (CmsResource resource : resources) {
+                    stmt.setInt(1, resource.getState().getState());
+                    stmt.setString(2, project.getUuid().toString());
+                    stmt.setString(3, resource.getResourceId().toString());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
                 m_sqlManager.closeAll(dbc, null, stmt, null);
             }
 
@@ -3472,18 +3986,24 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
                 || (changed == CmsDriverManager.UPDATE_ALL)
                 || (changed == CmsDriverManager.UPDATE_STRUCTURE_STATE)) {
                 stmt = m_sqlManager.getPreparedStatement(conn, project, "C_RESOURCES_UPDATE_STRUCTURE_STATE");
-                stmt.setInt(1, resource.getState().getState());
-                stmt.setString(2, resource.getStructureId().toString());
-                stmt.executeUpdate();
+                for (CmsResource resource : resources) {
+                    stmt.setInt(1, resource.getState().getState());
+                    stmt.setString(2, resource.getStructureId().toString());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
                 m_sqlManager.closeAll(dbc, null, stmt, null);
             }
 
             if ((changed == CmsDriverManager.UPDATE_STRUCTURE) || (changed == CmsDriverManager.UPDATE_ALL)) {
                 stmt = m_sqlManager.getPreparedStatement(conn, project, "C_RESOURCES_UPDATE_RELEASE_EXPIRED");
-                stmt.setLong(1, resource.getDateReleased());
-                stmt.setLong(2, resource.getDateExpired());
-                stmt.setString(3, resource.getStructureId().toString());
-                stmt.executeUpdate();
+                for (CmsResource resource : resources) {
+                    stmt.setLong(1, resource.getDateReleased());
+                    stmt.setLong(2, resource.getDateExpired());
+                    stmt.setString(3, resource.getStructureId().toString());
+                    stmt.addBatch();
+                }
+                stmt.executeBatch();
                 m_sqlManager.closeAll(dbc, null, stmt, null);
             }
         } catch (SQLException e) {
@@ -3495,7 +4015,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
 
         if (isPublishing) {
-            internalUpdateVersions(dbc, resource);
+            internalUpdateVersions(dbc, resources);
         }
     }
 
@@ -3938,6 +4458,67 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * Reads the version numbers of the resource or structure records with the given ids.<p>
+     * 
+     * The ids are read in chunks, with one query for each chunk.<p>
+     *
+     * @param dbc the current database context
+     * @param conn the connection to use
+     * @param projectId the project to read the versions from
+     * @param queryKey the key of the query, which has to select the id and the version number, 
+     *      and has to end with an <code>IN</code> condition for the ids
+     * @param ids the resource or structure ids to read the version numbers for
+     *
+     * @return the version numbers, keyed by id
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected Map<CmsUUID, Integer> internalReadVersions(
+        CmsDbContext dbc,
+        Connection conn,
+        CmsUUID projectId,
+        String queryKey,
+        List<CmsUUID> ids) throws CmsDataAccessException {
+
+        Map<CmsUUID, Integer> versions = new HashMap<CmsUUID, Integer>();
+        PreparedStatement stmt = null;
+        ResultSet res = null;
+        try {
+            for (int start = 0; start < ids.size(); start += READ_CHUNK_SIZE) {
+                List<CmsUUID> chunk = ids.subList(start, Math.min(start + READ_CHUNK_SIZE, ids.size()));
+                StringBuffer queryBuf = new StringBuffer(256);
+                queryBuf.append(m_sqlManager.readQuery(projectId, queryKey));
+                queryBuf.append(BEGIN_CONDITION);
+                for (int i = 0; i < chunk.size(); i++) {
+                    if (i > 0) {
+                        queryBuf.append(", ");
+                    }
+                    queryBuf.append('?');
+                }
+                queryBuf.append(END_CONDITION);
+                stmt = m_sqlManager.getPreparedStatementForSql(conn, queryBuf.toString());
+                for (int i = 0; i < chunk.size(); i++) {
+                    stmt.setString(i + 1, chunk.get(i).toString());
+                }
+                res = stmt.executeQuery();
+                while (res.next()) {
+                    versions.put(new CmsUUID(res.getString(1)), new Integer(res.getInt(2)));
+                }
+                m_sqlManager.closeAll(dbc, null, stmt, res);
+                res = null;
+                stmt = null;
+            }
+        } catch (SQLException e) {
+            throw new CmsDbSqlException(Messages.get().container(
+                Messages.ERR_GENERIC_SQL_1,
+                CmsDbSqlException.getErrorQuery(stmt)), e);
+        } finally {
+            m_sqlManager.closeAll(dbc, null, stmt, res);
+        }
+        return versions;
+    }
+
     /**
      * Updates the offline version numbers.<p>
      *
@@ -3948,6 +4529,20 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
      */
     protected void internalUpdateVersions(CmsDbContext dbc, CmsResource resource) throws CmsDataAccessException {
 
+        internalUpdateVersions(dbc, Collections.singletonList(resource));
+    }
+
+    /**
+     * Updates the offline version numbers of the given resources from the online version numbers.<p>
+     *
+     * @param dbc the current database context
+     * @param resources the resources to update the version numbers for
+     *
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected void internalUpdateVersions(CmsDbContext dbc, List<CmsResource> resources)
+    throws CmsDataAccessException {
+
         if (dbc.getRequestContext() == null) {
             // no needed during initialization
             return;
@@ -3958,33 +4553,32 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
 
         // read the online version numbers
-        Map<String, Integer> onlineVersions = readVersions(
-            dbc,
-            CmsProject.ONLINE_PROJECT_ID,
-            resource.getResourceId(),
-            resource.getStructureId());
-        int onlineStructureVersion = onlineVersions.get("structure").intValue();
-        int onlineResourceVersion = onlineVersions.get("resource").intValue();
+        Map<CmsUUID, Map<String, Integer>> onlineVersions = readVersions(dbc, CmsProject.ONLINE_PROJECT_ID, resources);
 
         Connection conn = null;
         PreparedStatement stmt = null;
-        ResultSet res = null;
 
         try {
             conn = m_sqlManager.getConnection(dbc);
 
-            // update the resource version
+            // update the resource versions
             stmt = m_sqlManager.getPreparedStatement(conn, dbc.currentProject(), "C_RESOURCES_UPDATE_RESOURCE_VERSION");
-            stmt.setInt(1, onlineResourceVersion);
-            stmt.setString(2, resource.getResourceId().toString());
-            stmt.executeUpdate();
+            for (CmsResource resource : resources) {
+                stmt.setInt(1, onlineVersions.get(resource.getStructureId()).get("resource").intValue());
+                stmt.setString(2, resource.getResourceId().toString());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
             m_sqlManager.closeAll(dbc, null, stmt, null);
 
-            // update the structure version
+            // update the structure versions
             stmt = m_sqlManager.getPreparedStatement(conn, dbc.currentProject(), "C_RESOURCES_UPDATE_STRUCTURE_VERSION");
-            stmt.setInt(1, onlineStructureVersion);
-            stmt.setString(2, resource.getStructureId().toString());
-            stmt.executeUpdate();
+            for (CmsResource resource : resources) {
+                stmt.setInt(1, onlineVersions.get(resource.getStructureId()).get("structure").intValue());
+                stmt.setString(2, resource.getStructureId().toString());
+                stmt.addBatch();
+            }
+            stmt.executeBatch();
             m_sqlManager.closeAll(dbc, null, stmt, null);
 
         } catch (SQLException e) {
@@ -3992,7 +4586,7 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
                 Messages.ERR_GENERIC_SQL_1,
                 CmsDbSqlException.getErrorQuery(stmt)), e);
         } finally {
-            m_sqlManager.closeAll(dbc, conn, stmt, res);
+            m_sqlManager.closeAll(dbc, conn, stmt, null);
         }
     }
 
@@ -4693,6 +5287,33 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return CmsPair.create(conditionString, conditionParams);
     }
 
+    /**
+     * Returns the property with the given name from the property map of the given resource, 
+     * creating it if it does not exist yet.<p>
+     * 
+     * @param propertyMaps the property maps of the resources, keyed by structure id
+     * @param resource the resource to get the property for
+     * @param propertyKey the name of the property
+     * 
+     * @return the property
+     */
+    private CmsProperty getProperty(
+        Map<CmsUUID, Map<String, CmsProperty>> propertyMaps,
+        CmsResource resource,
+        String propertyKey) {
+
+        Map<String, CmsProperty> propertyMap = propertyMaps.get(resource.getStructureId());
+        CmsProperty property = propertyMap.get(propertyKey);
+        if (property == null) {
+            // there doesn't exist a property object for this key yet
+            property = new CmsProperty();
+            property.setName(propertyKey);
+            property.setOrigin(resource.getRootPath());
+            propertyMap.put(propertyKey, property);
+        }
+        return property;
+    }
+
     /**
      * Helper method to prepare the SQL conditions for accessing rewrite aliases using a given filter.<p>
      * 
@@ -166,6 +166,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_QUERY_NOT_FOUND_1 = "ERR_QUERY_NOT_FOUND_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_READING_FROM_INPUT_STREAM_1 = "ERR_READING_FROM_INPUT_STREAM_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_READ_CONTENT_WITH_RESOURCE_ID_2 = "ERR_READ_CONTENT_WITH_RESOURCE_ID_2";
 
@@ -298,6 +301,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String INIT_FILL_DEFAULTS_0 = "INIT_FILL_DEFAULTS_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String INIT_PUBLISH_BATCH_SIZE_1 = "INIT_PUBLISH_BATCH_SIZE_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String INIT_ROOT_ORGUNIT_DEFAULTS_INITIALIZED_0 = "INIT_ROOT_ORGUNIT_DEFAULTS_INITIALIZED_0";
 
@@ -388,6 +394,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PUBLISHING_RESOURCE_1 = "LOG_PUBLISHING_RESOURCE_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PUBLISH_BATCH_FAILED_1 = "LOG_PUBLISH_BATCH_FAILED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_QUERY_NOT_FOUND_1 = "LOG_QUERY_NOT_FOUND_1";
 
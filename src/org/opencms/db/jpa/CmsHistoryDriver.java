@@ -1391,6 +1391,17 @@ public class CmsHistoryDriver implements I_CmsDriver, I_CmsHistoryDriver {
         writeProperties(dbc, resource, properties, publishTag);
     }
 
+    /**
+     * @see org.opencms.db.I_CmsHistoryDriver#writeResources(org.opencms.db.CmsDbContext, java.util.Map, int)
+     */
+    public void writeResources(CmsDbContext dbc, Map<CmsResource, List<CmsProperty>> resources, int publishTag)
+    throws CmsDataAccessException {
+
+        for (Map.Entry<CmsResource, List<CmsProperty>> entry : resources.entrySet()) {
+            writeResource(dbc, entry.getKey(), entry.getValue(), publishTag);
+        }
+    }
+
     /**
      * Updates the property map for the given resource with the given property data.<p>
      * 
@@ -34,6 +34,7 @@ import org.opencms.db.CmsAliasFilter;
 import org.opencms.db.CmsDbConsistencyException;
 import org.opencms.db.CmsDbContext;
 import org.opencms.db.CmsDbEntryNotFoundException;
+import org.opencms.db.CmsDbIoException;
 import org.opencms.db.CmsDbSqlException;
 import org.opencms.db.CmsDriverManager;
 import org.opencms.db.CmsResourceState;
@@ -80,6 +81,7 @@ import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.CmsResourceSortOrder;
 import org.opencms.file.CmsVfsException;
 import org.opencms.file.CmsVfsResourceAlreadyExistsException;
 import org.opencms.file.CmsVfsResourceNotFoundException;
@@ -103,13 +105,18 @@ import org.opencms.util.CmsPair;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.sql.ResultSet;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -1976,6 +1983,22 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return byteRes == null ? EMPTY_BLOB : byteRes;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readContent(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, org.opencms.util.CmsUUID, java.io.OutputStream)
+     */
+    public void readContent(CmsDbContext dbc, CmsUUID projectId, CmsUUID resourceId, OutputStream out)
+    throws CmsDataAccessException {
+
+        // the JPA entities hold the content as array of bytes
+        try {
+            out.write(readContent(dbc, projectId, resourceId));
+        } catch (IOException e) {
+            throw new CmsDbIoException(
+                Messages.get().container(Messages.ERR_WRITING_TO_OUTPUT_STREAM_1, resourceId),
+                e);
+        }
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readFolder(org.opencms.db.CmsDbContext, CmsUUID, org.opencms.util.CmsUUID)
      */
@@ -2236,6 +2259,24 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return new ArrayList<CmsProperty>(propertyMap.values());
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readPropertyObjects(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, java.util.List)
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertyObjects(
+        CmsDbContext dbc,
+        CmsProject project,
+        List<CmsResource> resources) throws CmsDataAccessException {
+
+        // the properties are read with one query for each resource
+        Map<CmsUUID, List<CmsProperty>> result = new LinkedHashMap<CmsUUID, List<CmsProperty>>();
+        for (CmsResource resource : resources) {
+            if (!result.containsKey(resource.getStructureId())) {
+                result.put(resource.getStructureId(), readPropertyObjects(dbc, project, resource));
+            }
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readRelations(org.opencms.db.CmsDbContext, CmsUUID, CmsResource, org.opencms.relations.CmsRelationFilter)
      */
@@ -2579,6 +2620,65 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return result;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readResourceTree(org.opencms.db.CmsDbContext, CmsUUID, java.lang.String, int, org.opencms.db.CmsResourceState, long, long, long, long, long, long, int, org.opencms.file.CmsResourceSortOrder, int)
+     */
+    public List<CmsResource> readResourceTree(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        String parentPath,
+        int type,
+        CmsResourceState state,
+        long lastModifiedAfter,
+        long lastModifiedBefore,
+        long releasedAfter,
+        long releasedBefore,
+        long expiredAfter,
+        long expiredBefore,
+        int mode,
+        final CmsResourceSortOrder order,
+        int maxResults) throws CmsDataAccessException {
+
+        List<CmsResource> result = readResourceTree(
+            dbc,
+            projectId,
+            parentPath,
+            type,
+            state,
+            lastModifiedAfter,
+            lastModifiedBefore,
+            releasedAfter,
+            releasedBefore,
+            expiredAfter,
+            expiredBefore,
+            mode);
+        if (order != null) {
+            // sort in memory
+            final boolean unreleasedFirst = (mode & CmsDriverManager.READMODE_UNRELEASED_FIRST) > 0;
+            final long requestTime = (dbc.getRequestContext() != null)
+            ? dbc.getRequestContext().getRequestTime()
+            : System.currentTimeMillis();
+            Collections.sort(result, new Comparator<CmsResource>() {
+
+                public int compare(CmsResource r1, CmsResource r2) {
+
+                    if (unreleasedFirst) {
+                        boolean unreleased1 = r1.getDateReleased() > requestTime;
+                        boolean unreleased2 = r2.getDateReleased() > requestTime;
+                        if (unreleased1 != unreleased2) {
+                            return unreleased1 ? -1 : 1;
+                        }
+                    }
+                    return order.getComparator().compare(r1, r2);
+                }
+            });
+        }
+        if ((maxResults > 0) && (result.size() > maxResults)) {
+            result = new ArrayList<CmsResource>(result.subList(0, maxResults));
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#readRewriteAliases(org.opencms.db.CmsDbContext, org.opencms.db.CmsRewriteAliasFilter)
      */
@@ -2711,6 +2811,26 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         return result;
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#readVersions(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, java.util.List)
+     */
+    public Map<CmsUUID, Map<String, Integer>> readVersions(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        List<CmsResource> resources) throws CmsDataAccessException {
+
+        // the versions are read with one query for each resource
+        Map<CmsUUID, Map<String, Integer>> result = new LinkedHashMap<CmsUUID, Map<String, Integer>>();
+        for (CmsResource resource : resources) {
+            if (!result.containsKey(resource.getStructureId())) {
+                result.put(
+                    resource.getStructureId(),
+                    readVersions(dbc, projectId, resource.getResourceId(), resource.getStructureId()));
+            }
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#removeFile(org.opencms.db.CmsDbContext, CmsUUID, org.opencms.file.CmsResource)
      */
@@ -3047,6 +3167,22 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#writeContent(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, java.io.InputStream, int)
+     */
+    public void writeContent(CmsDbContext dbc, CmsUUID resourceId, InputStream content, int length)
+    throws CmsDataAccessException {
+
+        // the JPA entities hold the content as array of bytes
+        try {
+            writeContent(dbc, resourceId, CmsFileUtil.readFully(content, length, false));
+        } catch (IOException e) {
+            throw new CmsDbIoException(
+                Messages.get().container(Messages.ERR_READING_FROM_INPUT_STREAM_1, resourceId),
+                e);
+        }
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#writeLastModifiedProjectId(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, CmsUUID, org.opencms.file.CmsResource)
      */
@@ -3236,6 +3372,19 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#writePropertyObjects(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, java.util.Map)
+     */
+    public void writePropertyObjects(
+        CmsDbContext dbc,
+        CmsProject project,
+        Map<CmsResource, List<CmsProperty>> properties) throws CmsDataAccessException {
+
+        for (Map.Entry<CmsResource, List<CmsProperty>> entry : properties.entrySet()) {
+            writePropertyObjects(dbc, project, entry.getKey(), entry.getValue());
+        }
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#writeResource(org.opencms.db.CmsDbContext, CmsUUID, org.opencms.file.CmsResource, int)
      */
@@ -3340,6 +3489,21 @@ public class CmsVfsDriver implements I_CmsDriver, I_CmsVfsDriver {
         }
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#writeResourceStates(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, java.util.List, int, boolean)
+     */
+    public void writeResourceStates(
+        CmsDbContext dbc,
+        CmsProject project,
+        List<CmsResource> resources,
+        int changed,
+        boolean isPublishing) throws CmsDataAccessException {
+
+        for (CmsResource resource : resources) {
+            writeResourceState(dbc, project, resource, changed, isPublishing);
+        }
+    }
+
     /**
      * @see org.opencms.db.I_CmsVfsDriver#writeResourceState(org.opencms.db.CmsDbContext, org.opencms.file.CmsProject, org.opencms.file.CmsResource, int, boolean)
      */
@@ -38,7 +38,9 @@ import org.opencms.file.CmsProject;
 import org.opencms.main.OpenCms;
 import org.opencms.util.CmsUUID;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.OutputStream;
 import java.sql.Connection;
 import java.sql.PreparedStatement;
@@ -46,6 +48,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 
 import org.apache.commons.dbcp.DelegatingResultSet;
+import org.apache.commons.io.IOUtils;
 
 /**
  * Oracle implementation of the VFS driver methods.<p>
@@ -172,6 +175,16 @@ public class CmsVfsDriver extends org.opencms.db.generic.CmsVfsDriver {
         internalWriteContent(dbc, dbc.currentProject().getUuid(), resourceId, content, -1);
     }
 
+    /**
+     * @see org.opencms.db.I_CmsVfsDriver#writeContent(org.opencms.db.CmsDbContext, org.opencms.util.CmsUUID, java.io.InputStream, int)
+     */
+    @Override
+    public void writeContent(CmsDbContext dbc, CmsUUID resourceId, InputStream content, int length)
+    throws CmsDataAccessException {
+
+        internalWriteContent(dbc, dbc.currentProject().getUuid(), resourceId, content, -1);
+    }
+
     /**
      * Writes the resource content with the specified resource id.<p>
      * 
@@ -190,6 +203,29 @@ public class CmsVfsDriver extends org.opencms.db.generic.CmsVfsDriver {
         byte[] contents,
         int publishTag) throws CmsDataAccessException {
 
+        internalWriteContent(dbc, projectId, resourceId, new ByteArrayInputStream(contents), publishTag);
+    }
+
+    /**
+     * Writes the resource content with the specified resource id from the given input stream.<p>
+     * 
+     * The content is copied to the blob in chunks, so it is never buffered completely in memory.<p>
+     * 
+     * @param dbc the current database context
+     * @param projectId the id of the current project
+     * @param resourceId the id of the resource used to identify the content to update
+     * @param contents the input stream to read the new content of the file from
+     * @param publishTag the publish tag if to be written to the online content
+     * 
+     * @throws CmsDataAccessException if something goes wrong
+     */
+    protected void internalWriteContent(
+        CmsDbContext dbc,
+        CmsUUID projectId,
+        CmsUUID resourceId,
+        InputStream contents,
+        int publishTag) throws CmsDataAccessException {
+
         PreparedStatement stmt = null;
         PreparedStatement commit = null;
         Connection conn = null;
@@ -223,7 +259,7 @@ public class CmsVfsDriver extends org.opencms.db.generic.CmsVfsDriver {
             }
             // write file content 
             OutputStream output = CmsUserDriver.getOutputStreamFromBlob(res, "FILE_CONTENT");
-            output.write(contents, 0, contents.length);
+            IOUtils.copy(contents, output);
             output.close();
 
             if (!wasInTransaction) {
@@ -0,0 +1,205 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.db.urlname;
+
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory index of the URL name mapping entries of the Online project.<p>
+ * 
+ * The index maps structure ids to their URL name mapping entries and URL names to structure ids, so
+ * that detail links can be generated and resolved without reading the mapping table on every request.
+ * For each structure id, the entries are stored in a small array to keep the memory footprint low.<p>
+ * 
+ * The index is filled once with {@link #load(Collection)} and afterwards updated incrementally when URL name
+ * mappings are published. As long as the index is not loaded, all update operations are ignored.
+ * Read operations are not synchronized, while loading and updating the index is. To discard the 
+ * index, it is replaced by a new instance, so readers still using the old index are not affected.<p>
+ * 
+ * @since 9.0.0
+ */
+public class CmsUrlNameMappingIndex {
+
+    /** Empty entry array. */
+    private static final CmsUrlNameMappingEntry[] NO_ENTRIES = new CmsUrlNameMappingEntry[0];
+
+    /** The mapping entries by structure id. */
+    private Map<CmsUUID, CmsUrlNameMappingEntry[]> m_entriesById =
+        new ConcurrentHashMap<CmsUUID, CmsUrlNameMappingEntry[]>();
+
+    /** The structure ids by URL name. */
+    private Map<String, CmsUUID> m_idsByName = new ConcurrentHashMap<String, CmsUUID>();
+
+    /** Flag which indicates whether the index has been loaded. */
+    private volatile boolean m_loaded;
+
+    /**
+     * Adds a new mapping entry to the index.<p>
+     * 
+     * @param entry the entry to add 
+     */
+    public synchronized void addEntry(CmsUrlNameMappingEntry entry) {
+
+        if (!m_loaded) {
+            return;
+        }
+        removeEntriesForName(entry.getName());
+        internalAddEntry(entry);
+    }
+
+    /**
+     * Returns the mapping entries for a structure id.<p>
+     * 
+     * @param id the structure id 
+     * 
+     * @return a new list containing the mapping entries for the structure id 
+     */
+    public List<CmsUrlNameMappingEntry> getEntriesForId(CmsUUID id) {
+
+        CmsUrlNameMappingEntry[] entries = m_entriesById.get(id);
+        if (entries == null) {
+            return new ArrayList<CmsUrlNameMappingEntry>();
+        }
+        return new ArrayList<CmsUrlNameMappingEntry>(Arrays.asList(entries));
+    }
+
+    /**
+     * Returns the structure id which is mapped to a URL name.<p>
+     * 
+     * @param name the URL name 
+     * 
+     * @return the structure id mapped to the name, or null if the name is not mapped 
+     */
+    public CmsUUID getIdForName(String name) {
+
+        return m_idsByName.get(name);
+    }
+
+    /**
+     * Checks whether the index has been loaded.<p>
+     * 
+     * @return true if the index has been loaded 
+     */
+    public boolean isLoaded() {
+
+        return m_loaded;
+    }
+
+    /**
+     * Fills the index with the given entries and marks it as loaded.<p>
+     * 
+     * @param entries all URL name mapping entries of the Online project 
+     */
+    public synchronized void load(Collection<CmsUrlNameMappingEntry> entries) {
+
+        if (m_loaded) {
+            return;
+        }
+        for (CmsUrlNameMappingEntry entry : entries) {
+            internalAddEntry(entry);
+        }
+        m_loaded = true;
+    }
+
+    /**
+     * Removes all entries for a given structure id from the index.<p>
+     * 
+     * @param id the structure id 
+     */
+    public synchronized void removeEntriesForId(CmsUUID id) {
+
+        if (!m_loaded) {
+            return;
+        }
+        CmsUrlNameMappingEntry[] entries = m_entriesById.remove(id);
+        if (entries != null) {
+            for (CmsUrlNameMappingEntry entry : entries) {
+                m_idsByName.remove(entry.getName());
+            }
+        }
+    }
+
+    /**
+     * Removes the entry for a given URL name from the index.<p>
+     * 
+     * @param name the URL name
+     */
+    public synchronized void removeEntriesForName(String name) {
+
+        if (!m_loaded) {
+            return;
+        }
+        CmsUUID id = m_idsByName.remove(name);
+        if (id == null) {
+            return;
+        }
+        CmsUrlNameMappingEntry[] entries = m_entriesById.get(id);
+        if (entries == null) {
+            return;
+        }
+        List<CmsUrlNameMappingEntry> remaining = new ArrayList<CmsUrlNameMappingEntry>(entries.length);
+        for (CmsUrlNameMappingEntry entry : entries) {
+            if (!entry.getName().equals(name)) {
+                remaining.add(entry);
+            }
+        }
+        if (remaining.isEmpty()) {
+            m_entriesById.remove(id);
+        } else {
+            m_entriesById.put(id, remaining.toArray(NO_ENTRIES));
+        }
+    }
+
+    /**
+     * Adds an entry to the index without any checks.<p>
+     * 
+     * @param entry the entry to add 
+     */
+    private void internalAddEntry(CmsUrlNameMappingEntry entry) {
+
+        CmsUUID id = entry.getStructureId();
+        CmsUrlNameMappingEntry[] entries = m_entriesById.get(id);
+        CmsUrlNameMappingEntry[] newEntries;
+        if (entries == null) {
+            newEntries = new CmsUrlNameMappingEntry[] {entry};
+        } else {
+            newEntries = Arrays.copyOf(entries, entries.length + 1);
+            newEntries[entries.length] = entry;
+        }
+        m_entriesById.put(id, newEntries);
+        m_idsByName.put(entry.getName(), id);
+    }
+}
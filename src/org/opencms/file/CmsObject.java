@@ -37,6 +37,7 @@ import org.opencms.file.history.CmsHistoryPrincipal;
 import org.opencms.file.history.CmsHistoryProject;
 import org.opencms.file.history.I_CmsHistoryResource;
 import org.opencms.file.types.I_CmsResourceType;
+import org.opencms.loader.CmsDumpLoader;
 import org.opencms.lock.CmsLock;
 import org.opencms.lock.CmsLockFilter;
 import org.opencms.lock.CmsLockType;
@@ -63,7 +64,10 @@ import org.opencms.util.CmsUUID;
 import org.opencms.workplace.CmsWorkplace;
 import org.opencms.xml.content.CmsNumberSuffixNameSequence;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -2197,6 +2201,26 @@ public final class CmsObject {
         return m_securityManager.readBestUrlName(m_context, id, locale, defaultLocales);
     }
 
+    /**
+     * Reads the binary content of a file resource and writes it to the given output stream.<p>
+     * 
+     * In contrast to <code>{@link #readFile(CmsResource)}</code>, the content is streamed from the 
+     * database, so large files are never buffered completely in memory.<p>
+     * 
+     * No resource filter is applied, since we already have a full resource instance.<p>
+     * 
+     * @param resource the file resource to read the content for
+     * @param out the output stream to write the content to
+     * 
+     * @throws CmsException if the content could not be read for any reason
+     * 
+     * @see #readFile(CmsResource)
+     */
+    public void readContent(CmsResource resource, OutputStream out) throws CmsException {
+
+        m_securityManager.readContent(m_context, resource, out);
+    }
+
     /**
      * Returns the default resource for the given folder.<p>
      * <ol>
@@ -2771,6 +2795,49 @@ public final class CmsObject {
         return m_securityManager.readPropertyObjects(m_context, resource, search);
     }
 
+    /**
+     * Reads all property objects of the given resources.<p>
+     * 
+     * Use this instead of calling {@link #readPropertyObjects(CmsResource, boolean)} for each 
+     * resource of a list, since the properties are read with as few database queries as possible.<p>
+     * 
+     * @param resources the resources to read the properties for
+     * @param search if <code>true</code>, the properties of all parent folders of the resources 
+     *      are merged with the resource properties.
+     * 
+     * @return the lists of <code>{@link CmsProperty}</code> objects, keyed by the structure id of the resources
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertyObjects(List<CmsResource> resources, boolean search)
+    throws CmsException {
+
+        return m_securityManager.readPropertyObjects(m_context, resources, null, search);
+    }
+
+    /**
+     * Reads the property objects with the given names of the given resources.<p>
+     * 
+     * Use this instead of calling {@link #readPropertyObject(CmsResource, String, boolean)} for each 
+     * resource of a list, since the properties are read with as few database queries as possible.<p>
+     * 
+     * @param resources the resources to read the properties for
+     * @param propertyNames the names of the properties to read, or <code>null</code> to read all properties
+     * @param search if <code>true</code>, the properties of all parent folders of the resources 
+     *      are merged with the resource properties.
+     * 
+     * @return the lists of <code>{@link CmsProperty}</code> objects, keyed by the structure id of the resources
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    public Map<CmsUUID, List<CmsProperty>> readPropertyObjects(
+        List<CmsResource> resources,
+        Collection<String> propertyNames,
+        boolean search) throws CmsException {
+
+        return m_securityManager.readPropertyObjects(m_context, resources, propertyNames, search);
+    }
+
     /**
      * Reads the resources that were published in a publish task for a given publish history ID.<p>
      * 
@@ -2993,6 +3060,36 @@ public final class CmsObject {
         return m_securityManager.readResources(m_context, resource, filter, readTree);
     }
 
+    /**
+     * Reads the first resources below the given path matching the filter criteria in the given order,
+     * including the full tree below the path only in case the <code>readTree</code> 
+     * parameter is <code>true</code>.<p>
+     * 
+     * Use this instead of {@link #readResources(String, CmsResourceFilter, boolean)} if only 
+     * the first resources of a large folder are needed, since the sorting and the limitation 
+     * of the result are done by the database.<p>
+     * 
+     * @param resourcename the parent path to read the resources from
+     * @param filter the filter
+     * @param readTree <code>true</code> to read all sub resources
+     * @param order the order of the result
+     * @param maxResults the maximum number of resources to return, or <code>0</code> to return all resources
+     * 
+     * @return a sorted list of <code>{@link CmsResource}</code> objects matching the filter criteria
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    public List<CmsResource> readResources(
+        String resourcename,
+        CmsResourceFilter filter,
+        boolean readTree,
+        CmsResourceSortOrder order,
+        int maxResults) throws CmsException {
+
+        CmsResource resource = readResource(resourcename, CmsResourceFilter.ALL);
+        return m_securityManager.readResources(m_context, resource, filter, readTree, order, maxResults);
+    }
+
     /**
      * Reads all resources that have a value set for the specified property.<p>
      * 
@@ -3640,6 +3737,38 @@ public final class CmsObject {
         m_securityManager.validatePassword(password);
     }
 
+    /**
+     * Writes the binary content of a file resource from the given input stream.<p>
+     * 
+     * In contrast to <code>{@link #writeFile(CmsFile)}</code>, the content is streamed to the 
+     * database, so large files are never buffered completely in memory.<p>
+     * 
+     * Since the content is not available to the resource type, this is only supported for 
+     * resource types that are delivered with the {@link CmsDumpLoader}, and that apply no content 
+     * validation or transformation rules when the content is written.<p>
+     * 
+     * @param resource the file resource to write the content for
+     * @param content the input stream to read the new content from
+     * @param length the number of bytes to read from the input stream
+     * 
+     * @return the written resource, without content
+     * 
+     * @throws CmsException if something goes wrong, or the resource type does not support streaming
+     * 
+     * @see #writeFile(CmsFile)
+     */
+    public CmsResource writeContent(CmsResource resource, InputStream content, int length) throws CmsException {
+
+        I_CmsResourceType type = getResourceType(resource);
+        if (type.getLoaderId() != CmsDumpLoader.RESOURCE_LOADER_ID) {
+            throw new CmsVfsException(Messages.get().container(
+                Messages.ERR_WRITE_CONTENT_STREAM_UNSUPPORTED_2,
+                getSitePath(resource),
+                type.getTypeName()));
+        }
+        return m_securityManager.writeContent(m_context, resource, content, length);
+    }
+
     /**
      * Writes a resource to the OpenCms VFS, including it's content.<p>
      * 
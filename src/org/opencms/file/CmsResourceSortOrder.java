@@ -0,0 +1,138 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.file;
+
+import java.util.Collections;
+import java.util.Comparator;
+
+/**
+ * The orders in which resources can be read from the VFS with 
+ * {@link CmsObject#readResources(String, CmsResourceFilter, boolean, CmsResourceSortOrder, int)}.<p>
+ * 
+ * All orders can be evaluated by the database, so only the first resources of a large 
+ * result need to be read. Resources that are equal according to an order are sorted by their root path.<p>
+ * 
+ * @since 9.0.0
+ */
+public enum CmsResourceSortOrder {
+
+    /** Ascending by creation date. */
+    DATE_CREATED(new Comparator<CmsResource>() {
+
+        /**
+         * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
+         */
+        public int compare(CmsResource r1, CmsResource r2) {
+
+            long date1 = r1.getDateCreated();
+            long date2 = r2.getDateCreated();
+            return (date1 > date2) ? 1 : (date1 < date2) ? -1 : 0;
+        }
+    }),
+
+    /** Descending by creation date. */
+    DATE_CREATED_DESC(new Comparator<CmsResource>() {
+
+        /**
+         * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
+         */
+        public int compare(CmsResource r1, CmsResource r2) {
+
+            long date1 = r1.getDateCreated();
+            long date2 = r2.getDateCreated();
+            return (date1 > date2) ? -1 : (date1 < date2) ? 1 : 0;
+        }
+    }),
+
+    /** Ascending by date of last modification. */
+    DATE_LAST_MODIFIED(new Comparator<CmsResource>() {
+
+        /**
+         * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
+         */
+        public int compare(CmsResource r1, CmsResource r2) {
+
+            long date1 = r1.getDateLastModified();
+            long date2 = r2.getDateLastModified();
+            return (date1 > date2) ? 1 : (date1 < date2) ? -1 : 0;
+        }
+    }),
+
+    /** Descending by date of last modification. */
+    DATE_LAST_MODIFIED_DESC(new Comparator<CmsResource>() {
+
+        /**
+         * @see java.util.Comparator#compare(java.lang.Object, java.lang.Object)
+         */
+        public int compare(CmsResource r1, CmsResource r2) {
+
+            long date1 = r1.getDateLastModified();
+            long date2 = r2.getDateLastModified();
+            return (date1 > date2) ? -1 : (date1 < date2) ? 1 : 0;
+        }
+    }),
+
+    /** 
+     * Descending by release date, using the date of last modification for resources without release date, 
+     * like {@link I_CmsResource#COMPARE_DATE_RELEASED}. 
+     */
+    DATE_RELEASED_DESC(I_CmsResource.COMPARE_DATE_RELEASED),
+
+    /** Ascending by root path. */
+    ROOT_PATH(I_CmsResource.COMPARE_ROOT_PATH),
+
+    /** Descending by root path. */
+    ROOT_PATH_DESC(Collections.reverseOrder(I_CmsResource.COMPARE_ROOT_PATH));
+
+    /** The comparator for sorting resources in memory. */
+    private Comparator<? super CmsResource> m_comparator;
+
+    /**
+     * Creates a new sort order.<p>
+     * 
+     * @param comparator the comparator for sorting resources in memory
+     */
+    private CmsResourceSortOrder(Comparator<? super CmsResource> comparator) {
+
+        m_comparator = comparator;
+    }
+
+    /**
+     * Returns a comparator that sorts resources in memory like the database does for this order.<p>
+     * 
+     * Since the sorting is stable, the comparator produces the same result as the database 
+     * if applied to a list of resources sorted by root path.<p>
+     * 
+     * @return the comparator for this order
+     */
+    public Comparator<? super CmsResource> getComparator() {
+
+        return m_comparator;
+    }
+}
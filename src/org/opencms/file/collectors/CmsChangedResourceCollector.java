@@ -31,6 +31,7 @@ import org.opencms.file.CmsDataAccessException;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.CmsResourceSortOrder;
 import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.loader.CmsLoaderException;
 import org.opencms.main.CmsException;
@@ -232,9 +233,6 @@ public class CmsChangedResourceCollector extends A_CmsResourceCollector {
             }
         }
 
-        // read the resources using the configured filter
-        List<CmsResource> result = cms.readResources(foldername, filter, tree);
-
         // determine which attribute should be used to sort the result
         String sortBy = CmsDateResourceComparator.DATE_ATTRIBUTES_LIST.get(1);
         if (params.containsKey(PARAM_KEY_SORTBY)) {
@@ -243,10 +241,6 @@ public class CmsChangedResourceCollector extends A_CmsResourceCollector {
         List<String> dateIdentifiers = new ArrayList<String>(1);
         dateIdentifiers.add(sortBy);
 
-        // a special date comparator is used to sort the resources
-        CmsDateResourceComparator comparator = new CmsDateResourceComparator(cms, dateIdentifiers, asc);
-        Collections.sort(result, comparator);
-
         int count = -1;
         if (params.containsKey(PARAM_KEY_COUNT)) {
             try {
@@ -259,6 +253,22 @@ public class CmsChangedResourceCollector extends A_CmsResourceCollector {
                 throw e;
             }
         }
+
+        List<CmsResource> result;
+        CmsResourceSortOrder order = CmsDateResourceComparator.getSortOrder(dateIdentifiers, asc);
+        if (order != null) {
+            // let the database sort the resources and read only the required number of resources
+            result = cms.readResources(foldername, filter, tree, order, Math.max(count, 0));
+        } else {
+            // read the resources using the configured filter
+            result = cms.readResources(foldername, filter, tree);
+
+            // a special date comparator is used to sort the resources
+            CmsDateResourceComparator comparator = new CmsDateResourceComparator(cms, dateIdentifiers, asc);
+            comparator.initKeys(result);
+            Collections.sort(result, comparator);
+        }
+
         if (count > 0) {
             return shrinkToFit(result, count);
         } else {
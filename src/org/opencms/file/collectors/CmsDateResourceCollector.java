@@ -31,6 +31,7 @@ import org.opencms.file.CmsDataAccessException;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.CmsResourceSortOrder;
 import org.opencms.main.CmsException;
 
 import java.util.Arrays;
@@ -186,10 +187,16 @@ public class CmsDateResourceCollector extends A_CmsResourceCollector {
 
         CmsResourceFilter filter = CmsResourceFilter.DEFAULT.addRequireType(data.getType()).addExcludeFlags(
             CmsResource.FLAG_TEMPFILE);
+        CmsResourceSortOrder order = CmsDateResourceComparator.getSortOrder(dateIdentifiers, asc);
+        if (order != null) {
+            // let the database sort the resources and read only the required number of resources
+            return cms.readResources(foldername, filter, tree, order, data.getCount());
+        }
         List<CmsResource> result = cms.readResources(foldername, filter, tree);
 
         // a special date comparator is used to sort the resources
         CmsDateResourceComparator comparator = new CmsDateResourceComparator(cms, dateIdentifiers, asc);
+        comparator.initKeys(result);
         Collections.sort(result, comparator);
 
         return shrinkToFit(result, data.getCount());
@@ -30,10 +30,12 @@ package org.opencms.file.collectors;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceSortOrder;
 import org.opencms.main.CmsException;
 import org.opencms.util.CmsStringUtil;
 import org.opencms.util.CmsUUID;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Comparator;
@@ -141,8 +143,55 @@ public class CmsDateResourceComparator implements Comparator<CmsResource> {
         List<String> dateIdentifiers,
         long defaultValue) {
 
+        return calculateDate(cms, resource, dateIdentifiers, defaultValue, null);
+    }
+
+    /**
+     * Returns the order the database can use to sort resources like a comparator with the given date identifiers.<p>
+     * 
+     * This is only possible if the first date identifier is <code>"dateCreated"</code> or 
+     * <code>"dateLastModified"</code>, since these dates are always set, so the other date 
+     * identifiers are never used.<p>
+     * 
+     * @param dateIdentifiers the date identifiers of the comparator
+     * @param asc if true, the date sort order is ascending, otherwise descending
+     * 
+     * @return the order to use, or <code>null</code> if the resources can only be sorted in memory
+     */
+    public static CmsResourceSortOrder getSortOrder(List<String> dateIdentifiers, boolean asc) {
+
+        String date = ((dateIdentifiers == null) || dateIdentifiers.isEmpty())
+        ? DATE_ATTRIBUTES[0]
+        : dateIdentifiers.get(0);
+        switch (DATE_ATTRIBUTES_LIST.indexOf(date)) {
+            case 0: // "dateCreated"
+                return asc ? CmsResourceSortOrder.DATE_CREATED : CmsResourceSortOrder.DATE_CREATED_DESC;
+            case 1: // "dateLastModified"
+                return asc ? CmsResourceSortOrder.DATE_LAST_MODIFIED : CmsResourceSortOrder.DATE_LAST_MODIFIED_DESC;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Calculates the date to use for comparison of this resource based on the given date identifiers.<p>
+     * 
+     * @param cms the current OpenCms user context
+     * @param resource the resource to create the key for
+     * @param dateIdentifiers the date identifiers to use for selecting the date
+     * @param defaultValue the default value to use in case no value can be calculated
+     * @param properties the already read properties of the resource, or <code>null</code> to read them if required
+     * 
+     * @return the calculated date
+     */
+    private static long calculateDate(
+        CmsObject cms,
+        CmsResource resource,
+        List<String> dateIdentifiers,
+        long defaultValue,
+        List<CmsProperty> properties) {
+
         long result = 0;
-        List<CmsProperty> properties = null;
         for (int i = 0, size = dateIdentifiers.size(); i < size; i++) {
             // check all configured comparisons
             String date = dateIdentifiers.get(i);
@@ -277,4 +326,43 @@ public class CmsDateResourceComparator implements Comparator<CmsResource> {
 
         return m_date;
     }
+
+    /**
+     * Initializes the comparator keys for all given resources.<p>
+     * 
+     * In case date identifiers refer to properties, the properties of all resources are read 
+     * at once, instead of reading them for each single resource while sorting.<p>
+     * 
+     * @param resources the resources that will be sorted with this comparator
+     */
+    public void initKeys(List<CmsResource> resources) {
+
+        List<String> propertyNames = new ArrayList<String>();
+        for (String date : m_dateIdentifiers) {
+            if (!DATE_ATTRIBUTES_LIST.contains(date)) {
+                propertyNames.add(date);
+            }
+        }
+        if (propertyNames.isEmpty() || (resources.size() < 2)) {
+            // no properties required, the keys are calculated lazily from the resource attributes
+            return;
+        }
+        Map<CmsUUID, List<CmsProperty>> properties;
+        try {
+            properties = m_cms.readPropertyObjects(resources, propertyNames, false);
+        } catch (CmsException e) {
+            // keys will be initialized lazily for each resource
+            return;
+        }
+        for (CmsResource resource : resources) {
+            CmsDateResourceComparator key = new CmsDateResourceComparator();
+            key.m_date = calculateDate(
+                m_cms,
+                resource,
+                m_dateIdentifiers,
+                resource.getDateCreated(),
+                properties.get(resource.getStructureId()));
+            m_keys.put(resource.getStructureId(), key);
+        }
+    }
 }
\ No newline at end of file
@@ -31,7 +31,7 @@ import org.opencms.file.CmsDataAccessException;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
-import org.opencms.file.I_CmsResource;
+import org.opencms.file.CmsResourceSortOrder;
 import org.opencms.jsp.CmsJspNavBuilder;
 import org.opencms.jsp.CmsJspNavElement;
 import org.opencms.main.CmsException;
@@ -223,11 +223,8 @@ public class CmsDefaultResourceCollector extends A_CmsResourceCollector {
 
         CmsResourceFilter filter = CmsResourceFilter.DEFAULT_FILES.addRequireType(data.getType()).addExcludeFlags(
             CmsResource.FLAG_TEMPFILE);
-        List<CmsResource> result = cms.readResources(foldername, filter, tree);
-
-        Collections.sort(result, I_CmsResource.COMPARE_DATE_RELEASED);
-
-        return shrinkToFit(result, data.getCount());
+        // the database sorts the resources and reads only the required number of resources
+        return cms.readResources(foldername, filter, tree, CmsResourceSortOrder.DATE_RELEASED_DESC, data.getCount());
     }
 
     /**
@@ -308,12 +305,8 @@ public class CmsDefaultResourceCollector extends A_CmsResourceCollector {
 
         CmsResourceFilter filter = CmsResourceFilter.DEFAULT_FILES.addRequireType(data.getType()).addExcludeFlags(
             CmsResource.FLAG_TEMPFILE);
-        List<CmsResource> result = cms.readResources(foldername, filter, tree);
-
-        Collections.sort(result, I_CmsResource.COMPARE_ROOT_PATH);
-        Collections.reverse(result);
-
-        return shrinkToFit(result, data.getCount());
+        // the database sorts the resources and reads only the required number of resources
+        return cms.readResources(foldername, filter, tree, CmsResourceSortOrder.ROOT_PATH_DESC, data.getCount());
     }
 
     /**
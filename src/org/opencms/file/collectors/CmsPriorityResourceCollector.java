@@ -226,6 +226,7 @@ public class CmsPriorityResourceCollector extends A_CmsResourceCollector {
 
         // create priority comparator to use to sort the resources
         CmsPriorityDateResourceComparator comparator = new CmsPriorityDateResourceComparator(cms, asc);
+        comparator.initKeys(result);
         Collections.sort(result, comparator);
 
         return shrinkToFit(result, data.getCount());
@@ -303,6 +304,7 @@ public class CmsPriorityResourceCollector extends A_CmsResourceCollector {
 
         // create priority comparator to use to sort the resources
         CmsPriorityDateResourceComparator comparator = new CmsPriorityDateResourceComparator(cms, asc);
+        comparator.initKeys(mapped);
         Collections.sort(mapped, comparator);
 
         return shrinkToFit(mapped, data.getCount());
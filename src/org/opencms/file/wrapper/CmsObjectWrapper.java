@@ -44,14 +44,19 @@ import org.opencms.file.types.CmsResourceTypeXmlPage;
 import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.i18n.CmsEncoder;
 import org.opencms.i18n.CmsLocaleManager;
+import org.opencms.loader.CmsDumpLoader;
 import org.opencms.loader.CmsLoaderException;
 import org.opencms.lock.CmsLock;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsIllegalArgumentException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.OpenCms;
+import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsUUID;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
@@ -526,6 +531,54 @@ public class CmsObjectWrapper {
         }
     }
 
+    /**
+     * Reads the binary content of a file resource and writes it to the given output stream,
+     * using the specified resource filter.<p>
+     * 
+     * If one of the configured resource wrappers is responsible for the resource, or if the 
+     * UTF-8 byte order mask has to be added, the content is read with 
+     * {@link #readFile(String, CmsResourceFilter)}. Otherwise the content is streamed from the VFS, 
+     * so large files are never buffered completely in memory.<p>
+     * 
+     * @see CmsObject#readContent(CmsResource, OutputStream)
+     * 
+     * @param resourcename the name of the resource to read (full path)
+     * @param filter the resource filter to use while reading
+     * @param out the output stream to write the content to
+     *
+     * @throws CmsException if the file resource could not be read for any reason
+     * @throws IOException if writing to the output stream fails
+     */
+    public void readContent(String resourcename, CmsResourceFilter filter, OutputStream out)
+    throws CmsException, IOException {
+
+        CmsFile file = null;
+
+        // iterate through all wrappers and call "readFile" till one does not return null
+        Iterator<I_CmsResourceWrapper> iter = getWrappers().iterator();
+        while (iter.hasNext()) {
+            I_CmsResourceWrapper wrapper = iter.next();
+            file = wrapper.readFile(m_cms, resourcename, filter);
+            if (file != null) {
+                break;
+            }
+        }
+
+        if (file == null) {
+            CmsResource res = m_cms.readResource(resourcename, filter);
+            if (!needUtf8Marker(res)) {
+                // stream the content, so large files are not buffered in memory
+                m_cms.readContent(res, out);
+                return;
+            }
+            file = m_cms.readFile(res);
+        }
+        if (needUtf8Marker(file)) {
+            file.setContents(CmsResourceWrapperUtils.addUtf8Marker(file.getContents()));
+        }
+        out.write(file.getContents());
+    }
+
     /**
      * Reads a file resource (including it's binary content) from the VFS,
      * using the specified resource filter.<p>
@@ -809,6 +862,41 @@ public class CmsObjectWrapper {
         }
     }
 
+    /**
+     * Writes the binary content of an existing file resource from the given input stream.<p>
+     * 
+     * If the resource exists in the VFS, is delivered with the {@link CmsDumpLoader} and does not 
+     * need the UTF-8 byte order mask, the content is streamed to the VFS with 
+     * {@link CmsObject#writeContent(CmsResource, InputStream, int)}, so large files are never buffered 
+     * completely in memory. Otherwise the content is read and written with 
+     * {@link #readFile(String, CmsResourceFilter)} and {@link #writeFile(CmsFile)}.<p>
+     * 
+     * @see CmsObject#writeContent(CmsResource, InputStream, int)
+     * 
+     * @param resourcename the name of the resource to write (full path)
+     * @param content the input stream to read the new content from
+     * @param length the number of bytes to read from the input stream
+     * 
+     * @return the written resource
+     * 
+     * @throws CmsException if something goes wrong
+     * @throws IOException if reading from the input stream fails
+     */
+    public CmsResource writeContent(String resourcename, InputStream content, int length)
+    throws CmsException, IOException {
+
+        if (m_cms.existsResource(resourcename)) {
+            CmsResource res = m_cms.readResource(resourcename, CmsResourceFilter.DEFAULT);
+            I_CmsResourceType type = OpenCms.getResourceManager().getResourceType(res);
+            if ((type.getLoaderId() == CmsDumpLoader.RESOURCE_LOADER_ID) && !needUtf8Marker(res)) {
+                return m_cms.writeContent(res, content, length);
+            }
+        }
+        CmsFile file = readFile(resourcename, CmsResourceFilter.DEFAULT);
+        file.setContents(CmsFileUtil.readFully(content, length, false));
+        return writeFile(file);
+    }
+
     /**
      * Writes a resource to the OpenCms VFS, including it's content.<p>
      * 
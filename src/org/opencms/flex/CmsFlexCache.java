@@ -29,8 +29,15 @@ package org.opencms.flex;
 
 import org.opencms.cache.CmsLruCache;
 import org.opencms.cache.I_CmsLruCacheObject;
+import org.opencms.ade.configuration.CmsADEManager;
+import org.opencms.db.CmsPublishedResource;
 import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.file.types.CmsResourceTypeJsp;
+import org.opencms.file.types.CmsResourceTypeXmlContainerPage;
+import org.opencms.i18n.CmsVfsBundleManager;
 import org.opencms.loader.CmsJspLoader;
+import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
@@ -38,6 +45,7 @@ import org.opencms.security.CmsRole;
 import org.opencms.util.CmsCollectionsGenericWrapper;
 import org.opencms.util.CmsFileUtil;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 
 import java.io.File;
 import java.util.Collection;
@@ -45,6 +53,7 @@ import java.util.Collections;
 import java.util.HashSet;
 import java.util.Hashtable;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -88,8 +97,13 @@ import org.apache.commons.logging.Log;
  * </ul>
  *
  * Cache clearing is handled using events.
- * The cache is fully flushed if an event {@link I_CmsEventListener#EVENT_PUBLISH_PROJECT} 
- * or {@link I_CmsEventListener#EVENT_CLEAR_CACHES} is caught.<p>
+ * The cache is fully flushed if an event {@link I_CmsEventListener#EVENT_CLEAR_CACHES} is caught.
+ * If an event {@link I_CmsEventListener#EVENT_PUBLISH_PROJECT} is caught, the offline part of the cache 
+ * is flushed, but from the online part only the entries are removed which depend on one of the published 
+ * resources. The dependencies of an entry are the resources read while the entry was generated, 
+ * see {@link CmsFlexRequestContextInfo}. If a publish operation contains resources which may influence 
+ * arbitrary pages, like JSPs, sitemap configurations or resources in the <code>/system/</code> folder, 
+ * the cache is still fully flushed.<p>
  * 
  * @since 6.0.0 
  * 
@@ -297,6 +311,12 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
 
         switch (event.getType()) {
             case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(Messages.get().getBundle().key(
+                        Messages.LOG_FLEXCACHE_RECEIVED_EVENT_CLEAR_CACHE_PARTIALLY_0));
+                }
+                clearPublished(readPublishedResources(event));
+                break;
             case I_CmsEventListener.EVENT_CLEAR_CACHES:
                 if (LOG.isDebugEnabled()) {
                     LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHE_RECEIVED_EVENT_CLEAR_CACHE_0));
@@ -820,6 +840,67 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
         clearAccordingToSuffix(CACHE_ONLINESUFFIX, true);
     }
 
+    /**
+     * Removes all entries which are affected by the given published resources.<p>
+     * 
+     * The offline part of the cache is cleared completely. From the online part, 
+     * only the entries which depend on one of the published resources are removed.
+     * If the published resources can influence arbitrary entries, the cache is cleared completely.<p>
+     * 
+     * @param publishedResources the published resources, if <code>null</code> the cache is cleared completely
+     */
+    private synchronized void clearPublished(List<CmsPublishedResource> publishedResources) {
+
+        if (!isEnabled()) {
+            return;
+        }
+        if ((publishedResources == null) || requiresFullClear(publishedResources)) {
+            clear();
+            return;
+        }
+        clearOffline();
+
+        Set<CmsUUID> structureIds = new HashSet<CmsUUID>();
+        Set<String> rootPaths = new HashSet<String>();
+        Set<String> parentFolders = new HashSet<String>();
+        for (CmsPublishedResource pubRes : publishedResources) {
+            structureIds.add(pubRes.getStructureId());
+            rootPaths.add(pubRes.getRootPath());
+            String parentFolder = CmsResource.getParentFolder(pubRes.getRootPath());
+            while ((parentFolder != null) && parentFolders.add(parentFolder)) {
+                parentFolder = CmsResource.getParentFolder(parentFolder);
+            }
+        }
+
+        int removed = 0;
+        Set<String> keys = new HashSet<String>(m_keyCache.keySet());
+        for (String key : keys) {
+            if (key.endsWith(CACHE_OFFLINESUFFIX)) {
+                continue;
+            }
+            CmsFlexCacheVariation v = m_keyCache.get(key);
+            if ((v == null) || (v.m_map == null)) {
+                continue;
+            }
+            Iterator<I_CmsLruCacheObject> allEntries = v.m_map.values().iterator();
+            while (allEntries.hasNext()) {
+                I_CmsLruCacheObject nextObject = allEntries.next();
+                if (((CmsFlexCacheEntry)nextObject).isAffectedBy(structureIds, rootPaths, parentFolders)) {
+                    allEntries.remove();
+                    m_variationCache.remove(nextObject);
+                    m_size--;
+                    removed++;
+                }
+            }
+        }
+        if (LOG.isInfoEnabled()) {
+            LOG.info(Messages.get().getBundle().key(
+                Messages.LOG_FLEXCACHE_CLEAR_PUBLISHED_2,
+                Integer.valueOf(removed),
+                Integer.valueOf(publishedResources.size())));
+        }
+    }
+
     /**
      * This method purges the JSP repository dirs,
      * i.e. it deletes all JSP files that OpenCms has written to the
@@ -899,4 +980,64 @@ public class CmsFlexCache extends Object implements I_CmsEventListener {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_FLEXCACHE_ADDED_ENTRY_1, theCacheEntry.toString()));
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Reads the published resources for the publish history id contained in the given publish event.<p>
+     * 
+     * @param event the publish event
+     * 
+     * @return the published resources, or <code>null</code> if they could not be read
+     */
+    private List<CmsPublishedResource> readPublishedResources(org.opencms.main.CmsEvent event) {
+
+        Map<String, ?> data = event.getData();
+        String publishIdStr = (data != null) ? (String)data.get(I_CmsEventListener.KEY_PUBLISHID) : null;
+        if (publishIdStr == null) {
+            return null;
+        }
+        try {
+            CmsObject cms = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+            return cms.readPublishedResources(new CmsUUID(publishIdStr));
+        } catch (CmsException e) {
+            LOG.error(
+                Messages.get().getBundle().key(Messages.LOG_FLEXCACHE_READ_PUBLISHED_RESOURCES_FAILED_1, publishIdStr),
+                e);
+            return null;
+        }
+    }
+
+    /**
+     * Checks if the given published resources require a complete clearing of the cache.<p>
+     * 
+     * This is the case if a published resource may influence entries which do not depend on it directly,
+     * e.g. moved resources, siblings, JSPs, configuration files or resources in the <code>/system/</code> folder.<p>
+     * 
+     * @param publishedResources the published resources
+     * 
+     * @return <code>true</code> if the cache has to be cleared completely
+     */
+    private boolean requiresFullClear(List<CmsPublishedResource> publishedResources) {
+
+        String[] globalTypes = new String[] {
+            CmsADEManager.CONFIG_TYPE,
+            CmsADEManager.MODULE_CONFIG_TYPE,
+            CmsResourceTypeXmlContainerPage.INHERIT_CONTAINER_CONFIG_TYPE_NAME,
+            CmsVfsBundleManager.TYPE_PROPERTIES_BUNDLE,
+            CmsVfsBundleManager.TYPE_XML_BUNDLE};
+        for (CmsPublishedResource pubRes : publishedResources) {
+            if (pubRes.isMoved()
+                || (pubRes.getSiblingCount() > 1)
+                || (pubRes.getStructureId() == null)
+                || pubRes.getRootPath().startsWith(CmsResource.VFS_FOLDER_SYSTEM + "/")
+                || CmsResourceTypeJsp.isJspTypeId(pubRes.getType())) {
+                return true;
+            }
+            for (String typeName : globalTypes) {
+                if (OpenCms.getResourceManager().matchResourceType(typeName, pubRes.getType())) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+}
@@ -34,13 +34,16 @@ import org.opencms.main.CmsLog;
 import org.opencms.monitor.CmsMemoryMonitor;
 import org.opencms.monitor.I_CmsMemoryMonitorable;
 import org.opencms.util.CmsCollectionsGenericWrapper;
+import org.opencms.util.CmsUUID;
 
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 
 import javax.servlet.ServletException;
 
@@ -92,18 +95,27 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
     /** The list of items for this resource. */
     private List<Object> m_elements;
 
+    /** The root paths of the folders whose sub-resources this entry depends on, <code>null</code> if unknown. */
+    private Set<String> m_folderDependencies;
+
     /** A Map of cached headers for this resource. */
     private Map<String, List<String>> m_headers;
 
     /** Pointer to the next cache entry in the LRU cache. */
     private I_CmsLruCacheObject m_next;
 
+    /** The root paths of the resources this entry depends on, <code>null</code> if unknown. */
+    private Set<String> m_pathDependencies;
+
     /** Pointer to the previous cache entry in the LRU cache. */
     private I_CmsLruCacheObject m_previous;
 
     /** A redirection target (if redirection is set). */
     private String m_redirectTarget;
 
+    /** The structure ids of the resources this entry depends on, <code>null</code> if unknown. */
+    private Set<CmsUUID> m_structureIdDependencies;
+
     /** The key under which this cache entry is stored in the variation map. */
     private String m_variationKey;
 
@@ -303,6 +315,43 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         return m_elements;
     }
 
+    /**
+     * Checks if this cache entry is affected by changes of the given resources.<p>
+     * 
+     * An entry is affected if it depends on one of the given resources, on a resource 
+     * inside one of the given resources (if this is a folder) or if it depends on the contents 
+     * of a folder that contains one of the given resources. 
+     * If the dependencies of this entry are not known, it is always affected.<p>
+     * 
+     * @param structureIds the structure ids of the changed resources
+     * @param rootPaths the root paths of the changed resources
+     * @param parentFolders the root paths of all folders containing one of the changed resources 
+     * 
+     * @return <code>true</code> if this cache entry is affected by changes of the given resources
+     */
+    public boolean isAffectedBy(Set<CmsUUID> structureIds, Set<String> rootPaths, Set<String> parentFolders) {
+
+        if ((m_structureIdDependencies == null) || (m_pathDependencies == null) || (m_folderDependencies == null)) {
+            return true;
+        }
+        for (CmsUUID structureId : m_structureIdDependencies) {
+            if (structureIds.contains(structureId)) {
+                return true;
+            }
+        }
+        for (String path : m_pathDependencies) {
+            if (isInOrBelow(path, rootPaths)) {
+                return true;
+            }
+        }
+        for (String folder : m_folderDependencies) {
+            if (parentFolders.contains(folder) || isInOrBelow(folder, rootPaths)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * @see org.opencms.cache.I_CmsLruCacheObject#removeFromLruCache()
      */
@@ -504,6 +553,32 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         m_headers = null;
     }
 
+    /**
+     * Sets the dependencies of this cache entry from the given request context info.<p>
+     * 
+     * If no request context info is available, or if resources have been read 
+     * which are not tracked by the request context info, the dependencies of this entry 
+     * are unknown and the entry will be removed on every publish operation.<p>
+     * 
+     * @param info the request context info with the resources read while generating this entry, may be <code>null</code>
+     */
+    public void setDependencies(CmsFlexRequestContextInfo info) {
+
+        if ((info == null) || info.hasUntrackedDependencies()) {
+            return;
+        }
+        m_structureIdDependencies = new HashSet<CmsUUID>(info.getStructureIdDependencies());
+        m_pathDependencies = new HashSet<String>(info.getPathDependencies());
+        m_folderDependencies = new HashSet<String>(info.getFolderDependencies());
+        m_byteSize += m_structureIdDependencies.size() * CmsMemoryMonitor.getMemorySize(CmsUUID.getNullUUID());
+        for (String path : m_pathDependencies) {
+            m_byteSize += CmsMemoryMonitor.getMemorySize(path);
+        }
+        for (String folder : m_folderDependencies) {
+            m_byteSize += CmsMemoryMonitor.getMemorySize(folder);
+        }
+    }
+
     /**
      * Stores a backward reference to the map and key where this cache entry is stored.<p>
      * 
@@ -547,4 +622,24 @@ public class CmsFlexCacheEntry implements I_CmsLruCacheObject, I_CmsMemoryMonito
         }
         return str;
     }
+
+    /**
+     * Checks if the given root path or one of its parent folders is contained in the given set of root paths.<p>
+     * 
+     * @param rootPath the root path to check
+     * @param rootPaths the set of root paths
+     * 
+     * @return <code>true</code> if the given root path or one of its parent folders is contained in the set
+     */
+    private boolean isInOrBelow(String rootPath, Set<String> rootPaths) {
+
+        String path = rootPath;
+        while (path != null) {
+            if (rootPaths.contains(path)) {
+                return true;
+            }
+            path = CmsResource.getParentFolder(path);
+        }
+        return false;
+    }
 }
@@ -456,6 +456,21 @@ public class CmsFlexController {
         return m_flexResponseList.get(m_flexResponseList.size() - 1);
     }
 
+    /**
+     * Returns the request context info of the current include level, 
+     * containing the dates and dependencies of all resources read on this level.<p>
+     * 
+     * @return the request context info of the current include level, or <code>null</code> if not available
+     */
+    public CmsFlexRequestContextInfo getCurrentContextInfo() {
+
+        int pos = m_flexContextInfoList.size() - 1;
+        if (pos < 0) {
+            return null;
+        }
+        return m_flexContextInfoList.get(pos);
+    }
+
     /**
      * Returns the combined "expires" date for all resources read during this request.<p>
      * 
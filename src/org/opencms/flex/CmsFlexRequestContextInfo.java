@@ -28,6 +28,10 @@
 package org.opencms.flex;
 
 import org.opencms.file.CmsResource;
+import org.opencms.util.CmsUUID;
+
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Contains information about the OpenCms request context required by the 
@@ -38,6 +42,12 @@ import org.opencms.file.CmsResource;
  * Information about the "last modified" and "expire" times of VFS resources are 
  * stored in this Object.<p> 
  * 
+ * Also the VFS resources read in this context are stored, so that the FlexCache 
+ * is able to remove only the entries which depend on published resources.
+ * If resources have been read by a query whose result can not be described 
+ * by these dependencies, e.g. a search or a relation lookup, this is recorded as well, 
+ * and the FlexCache removes the entries of this context on every publish operation.<p>
+ * 
  * @since 6.0.0 
  */
 public class CmsFlexRequestContextInfo {
@@ -48,6 +58,18 @@ public class CmsFlexRequestContextInfo {
     /** The currently calculated "last modified" date for this request context.  */
     private long m_dateLastModified;
 
+    /** The root paths of the folders whose sub-resources have been read in this context. */
+    private Set<String> m_folderDependencies;
+
+    /** The root paths of the resources read in this context. */
+    private Set<String> m_pathDependencies;
+
+    /** The structure ids of the resources read in this context. */
+    private Set<CmsUUID> m_structureIdDependencies;
+
+    /** Indicates if resources have been read in this context which are not tracked by the dependencies. */
+    private boolean m_untrackedDependencies;
+
     /**
      * Public constructor.<p>
      */
@@ -55,6 +77,87 @@ public class CmsFlexRequestContextInfo {
 
         // by default the expiration date is the max long value
         m_dateExpires = CmsResource.DATE_EXPIRED_DEFAULT;
+        m_folderDependencies = new HashSet<String>();
+        m_pathDependencies = new HashSet<String>();
+        m_structureIdDependencies = new HashSet<CmsUUID>();
+    }
+
+    /**
+     * Adds a resource read in this context to the dependencies.<p>
+     * 
+     * Resources inside a folder which has already been added with 
+     * {@link #addFolderDependency(String)} are not stored again.<p>
+     * 
+     * @param structureId the structure id of the resource, may be <code>null</code>
+     * @param rootPath the root path of the resource, may be <code>null</code>
+     */
+    public void addDependency(CmsUUID structureId, String rootPath) {
+
+        if (rootPath != null) {
+            if (isInFolderDependency(rootPath)) {
+                return;
+            }
+            m_pathDependencies.add(rootPath);
+        }
+        if (structureId != null) {
+            m_structureIdDependencies.add(structureId);
+        }
+    }
+
+    /**
+     * Adds a folder to the dependencies, indicating that sub-resources of the folder have been read in this context.<p>
+     * 
+     * The context then depends on all resources in the sub-tree of the folder.<p>
+     * 
+     * @param rootPath the root path of the folder
+     */
+    public void addFolderDependency(String rootPath) {
+
+        m_folderDependencies.add(rootPath);
+    }
+
+    /**
+     * Indicates that resources have been read in this context by a query 
+     * whose result can not be described by the dependencies of this context.<p>
+     * 
+     * This is the case for searches, relation lookups and other query based reads,
+     * where a newly published resource may change the result without being 
+     * one of the dependencies. A FlexCache entry generated in this context 
+     * is removed on every publish operation.<p>
+     */
+    public void addUntrackedDependency() {
+
+        m_untrackedDependencies = true;
+    }
+
+    /**
+     * Returns the root paths of the folders whose sub-resources have been read in this context.<p>
+     * 
+     * @return the root paths of the folders whose sub-resources have been read in this context
+     */
+    public Set<String> getFolderDependencies() {
+
+        return m_folderDependencies;
+    }
+
+    /**
+     * Returns the root paths of the resources read in this context.<p>
+     * 
+     * @return the root paths of the resources read in this context
+     */
+    public Set<String> getPathDependencies() {
+
+        return m_pathDependencies;
+    }
+
+    /**
+     * Returns the structure ids of the resources read in this context.<p>
+     * 
+     * @return the structure ids of the resources read in this context
+     */
+    public Set<CmsUUID> getStructureIdDependencies() {
+
+        return m_structureIdDependencies;
     }
 
     /**
@@ -77,6 +180,18 @@ public class CmsFlexRequestContextInfo {
         return m_dateLastModified;
     }
 
+    /**
+     * Returns if resources have been read in this context which are not tracked by the dependencies.<p>
+     * 
+     * @return <code>true</code> if resources have been read in this context which are not tracked by the dependencies
+     * 
+     * @see #addUntrackedDependency()
+     */
+    public boolean hasUntrackedDependencies() {
+
+        return m_untrackedDependencies;
+    }
+
     /**
      * Merges this context info with the values from the other context info.<p>
      *  
@@ -139,16 +254,41 @@ public class CmsFlexRequestContextInfo {
      * "expires" date with the values from a given resource.<p>
      * 
      * The "expires" date is the calculated from the given date values 
-     * of resource release and expiration and also the current time.<p>
+     * of resource release and expiration and also the current time.
+     * The resource is also added to the dependencies of this context.<p>
      * 
      * @param resource the resource to use for updating the context values
      */
     public void updateFromResource(CmsResource resource) {
 
+        addDependency(resource.getStructureId(), resource.getRootPath());
+
         // first set the last modification date
         updateDateLastModified(resource.getDateLastModified());
         // now use both release and expiration date from the resource to update the expires info
         updateDateExpires(resource.getDateReleased());
         updateDateExpires(resource.getDateExpired());
     }
+
+    /**
+     * Checks if the given root path is inside one of the folder dependencies.<p>
+     * 
+     * @param rootPath the root path to check
+     * 
+     * @return <code>true</code> if the given root path is inside one of the folder dependencies
+     */
+    private boolean isInFolderDependency(String rootPath) {
+
+        if (m_folderDependencies.isEmpty()) {
+            return false;
+        }
+        String parentFolder = CmsResource.getParentFolder(rootPath);
+        while (parentFolder != null) {
+            if (m_folderDependencies.contains(parentFolder)) {
+                return true;
+            }
+            parentFolder = CmsResource.getParentFolder(parentFolder);
+        }
+        return false;
+    }
 }
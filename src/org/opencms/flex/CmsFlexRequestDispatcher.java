@@ -434,6 +434,12 @@ public class CmsFlexRequestDispatcher implements RequestDispatcher {
                         entry.setDateLastModified(controller.getDateLastModified());
                         entry.setDateExpires(controller.getDateExpires());
                     }
+                    CmsFlexRequestContextInfo info = controller.getCurrentContextInfo();
+                    if (info != null) {
+                        // the entry always depends on the included resource itself
+                        info.addDependency(resource.getStructureId(), resource.getRootPath());
+                    }
+                    entry.setDependencies(info);
                     cache.put(w_res.getCmsCacheKey(), entry, variation);
                 } else {
                     // result can not be cached, do not use "last modified" optimization
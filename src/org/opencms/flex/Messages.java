@@ -112,9 +112,15 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_FLEXCACHE_CLEAR_ONLINE_KEYS_AND_ENTRIES_0 = "LOG_FLEXCACHE_CLEAR_ONLINE_KEYS_AND_ENTRIES_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_FLEXCACHE_CLEAR_PUBLISHED_2 = "LOG_FLEXCACHE_CLEAR_PUBLISHED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_FLEXCACHE_PURGED_JSP_REPOSITORY_0 = "LOG_FLEXCACHE_PURGED_JSP_REPOSITORY_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_FLEXCACHE_READ_PUBLISHED_RESOURCES_FAILED_1 = "LOG_FLEXCACHE_READ_PUBLISHED_RESOURCES_FAILED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_FLEXCACHE_RECEIVED_EVENT_CLEAR_CACHE_0 = "LOG_FLEXCACHE_RECEIVED_EVENT_CLEAR_CACHE_0";
 
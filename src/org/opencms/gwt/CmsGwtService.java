@@ -43,24 +43,33 @@ import org.opencms.security.CmsRoleViolationException;
 import org.opencms.util.CmsUUID;
 
 import java.io.IOException;
+import java.lang.reflect.Method;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 
 import javax.servlet.ServletException;
 import javax.servlet.ServletRequest;
 import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpSession;
 
 import org.apache.commons.logging.Log;
 
+import com.google.gwt.user.server.rpc.RPCRequest;
 import com.google.gwt.user.server.rpc.RemoteServiceServlet;
 import com.google.gwt.user.server.rpc.SerializationPolicy;
 
 /**
  * Wrapper for GWT services served through OpenCms.<p>
  * 
+ * The RPC calls of a session are processed one after the other, using a fair lock stored in the session. 
+ * Calls to methods annotated with {@link CmsReadOnlyRpc} are processed without waiting for this lock.<p>
+ * 
  * @since 8.0.0
  */
 public class CmsGwtService extends RemoteServiceServlet {
@@ -68,6 +77,12 @@ public class CmsGwtService extends RemoteServiceServlet {
     /** The static log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsGwtService.class);
 
+    /** Caches for each service class and method if the method is free of side effects. */
+    private static final Map<String, Boolean> READ_ONLY_METHODS = new ConcurrentHashMap<String, Boolean>();
+
+    /** The session attribute name for the lock used to process the RPC calls of a session one after the other. */
+    private static final String SESSION_ATTR_RPC_LOCK = "__OCMS_GWT_RPC_LOCK__";
+
     /** Serialization id. */
     private static final long serialVersionUID = 8119684308154724518L;
 
@@ -77,6 +92,9 @@ public class CmsGwtService extends RemoteServiceServlet {
     /** The current CMS context. */
     private ThreadLocal<CmsObject> m_perThreadCmsObject;
 
+    /** The session lock held by the current thread. */
+    private ThreadLocal<Lock> m_perThreadSessionLock;
+
     /**
      * Constructor.<p>
      */
@@ -194,6 +212,7 @@ public class CmsGwtService extends RemoteServiceServlet {
             arg1.setCharacterEncoding(arg0.getCharacterEncoding());
             super.service(arg0, arg1);
         } finally {
+            unlockSession();
             clearThreadStorage();
         }
     }
@@ -271,6 +290,85 @@ public class CmsGwtService extends RemoteServiceServlet {
         super.doUnexpectedFailure(e);
     }
 
+    /**
+     * Checks if the given service method is free of side effects.<p>
+     * 
+     * This is the case if the implementation of the method or the service class is annotated 
+     * with {@link CmsReadOnlyRpc}.<p>
+     * 
+     * @param method the service method
+     * 
+     * @return <code>true</code> if the given service method is free of side effects
+     */
+    protected boolean isReadOnly(Method method) {
+
+        String key = getClass().getName() + "#" + method.toString();
+        Boolean result = READ_ONLY_METHODS.get(key);
+        if (result == null) {
+            boolean readOnly = getClass().isAnnotationPresent(CmsReadOnlyRpc.class);
+            if (!readOnly) {
+                try {
+                    readOnly = getClass().getMethod(method.getName(), method.getParameterTypes()).isAnnotationPresent(
+                        CmsReadOnlyRpc.class);
+                } catch (NoSuchMethodException e) {
+                    // should never happen, the service implements the method
+                    LOG.debug(e.getLocalizedMessage(), e);
+                }
+            }
+            result = Boolean.valueOf(readOnly);
+            READ_ONLY_METHODS.put(key, result);
+        }
+        return result.booleanValue();
+    }
+
+    /**
+     * Waits for the other RPC calls of the session to finish, unless the called method is 
+     * free of side effects.<p>
+     * 
+     * The session lock acquired here is held by the current thread until {@link #unlockSession()} is called.<p>
+     * 
+     * @param request the current request
+     * @param method the called service method
+     */
+    protected void lockSession(HttpServletRequest request, Method method) {
+
+        if (!isReadOnly(method)) {
+            Lock lock = getSessionLock(request);
+            lock.lock();
+            if (m_perThreadSessionLock == null) {
+                m_perThreadSessionLock = new ThreadLocal<Lock>();
+            }
+            m_perThreadSessionLock.set(lock);
+        }
+    }
+
+    /**
+     * Releases the session lock, if held by the current thread.<p>
+     */
+    protected void unlockSession() {
+
+        if (m_perThreadSessionLock != null) {
+            Lock lock = m_perThreadSessionLock.get();
+            if (lock != null) {
+                m_perThreadSessionLock.remove();
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Waits for the other RPC calls of the current session to finish, unless the called method is 
+     * free of side effects.<p>
+     * 
+     * @see com.google.gwt.user.server.rpc.RemoteServiceServlet#onAfterRequestDeserialized(com.google.gwt.user.server.rpc.RPCRequest)
+     */
+    @Override
+    protected void onAfterRequestDeserialized(RPCRequest rpcRequest) {
+
+        super.onAfterRequestDeserialized(rpcRequest);
+        lockSession(getRequest(), rpcRequest.getMethod());
+    }
+
     /**
      * Locks the given resource with a temporary, if not already locked by the current user.
      * Will throw an exception if the resource could not be locked for the current user.<p>
@@ -396,4 +494,25 @@ public class CmsGwtService extends RemoteServiceServlet {
             perThreadResponse.remove();
         }
     }
+
+    /**
+     * Returns the lock used to process the RPC calls of the session of the given request one after the other.<p>
+     * 
+     * @param request the current request
+     * 
+     * @return the session lock
+     */
+    private Lock getSessionLock(HttpServletRequest request) {
+
+        HttpSession session = request.getSession();
+        synchronized (session) {
+            Lock lock = (Lock)session.getAttribute(SESSION_ATTR_RPC_LOCK);
+            if (lock == null) {
+                // use a fair lock, so the calls are processed in the order they arrive
+                lock = new ReentrantLock(true);
+                session.setAttribute(SESSION_ATTR_RPC_LOCK, lock);
+            }
+            return lock;
+        }
+    }
 }
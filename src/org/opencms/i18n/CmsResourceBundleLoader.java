@@ -35,11 +35,16 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.security.AccessControlException;
-import java.util.HashMap;
 import java.util.Locale;
 import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import com.google.common.util.concurrent.UncheckedExecutionException;
 
 /**
  * Resource bundle loader for property based resource bundles from OpenCms that has a flushable cache.<p>
@@ -54,6 +59,9 @@ import java.util.ResourceBundle;
  * {@link java.util.ResourceBundle#getBundle(java.lang.String, java.util.Locale)} is used to look up 
  * the resource bundle with the Java default resource bundle loading mechanism.<p>
  * 
+ * Cached bundles are read without locking. Each bundle is loaded only once, even if it is requested 
+ * by several threads at the same time. Flushing the cache replaces it with a new cache instance.<p>
+ * 
  * @see java.util.ResourceBundle
  * @see java.util.PropertyResourceBundle
  * @see org.opencms.i18n.CmsPropertyResourceBundle
@@ -78,14 +86,6 @@ public final class CmsResourceBundleLoader {
         /** The locale. */
         private Locale m_locale;
 
-        /**
-         * Create an ampty bundly key.<p>
-         */
-        BundleKey() {
-
-            // noop
-        }
-
         /**
          * Create an initialized bundle key.<p>
          * 
@@ -155,16 +155,13 @@ public final class CmsResourceBundleLoader {
     }
 
     /**  The resource bundle cache. */
-    private static Map<BundleKey, ResourceBundle> m_bundleCache;
+    private static volatile LoadingCache<BundleKey, ResourceBundle> m_bundleCache = createBundleCache();
 
     /** The last default Locale we saw, if this ever changes then we have to reset our caches. */
-    private static Locale m_lastDefaultLocale;
-
-    /** Cache lookup key to avoid having to a new one for every getBundle() call. */
-    private static BundleKey m_lookupKey = new BundleKey();
+    private static volatile Locale m_lastDefaultLocale = Locale.getDefault();
 
     /**  The permanent list resource bundle cache. */
-    private static Map<String, I_CmsResourceBundle> m_permanentCache;
+    private static volatile Map<String, I_CmsResourceBundle> m_permanentCache = new ConcurrentHashMap<String, I_CmsResourceBundle>();
 
     /** Singleton cache entry to represent previous failed lookups. */
     private static final ResourceBundle NULL_ENTRY = new CmsListResourceBundle();
@@ -198,7 +195,7 @@ public final class CmsResourceBundleLoader {
      */
     public static synchronized void flushBundleCache() {
 
-        m_bundleCache.clear();
+        m_bundleCache = createBundleCache();
 
         // We are not flushing the permanent cache on clear!
         // Reason: It's not 100% clear if the cache would be filled correctly from the XML after a flush.
@@ -222,21 +219,21 @@ public final class CmsResourceBundleLoader {
 
         if (baseName != null) {
             // first check and clear the bundle cache
-            HashMap<BundleKey, ResourceBundle> bundleCacheNew = new HashMap<BundleKey, ResourceBundle>(
-                m_bundleCache.size());
-            for (Map.Entry<BundleKey, ResourceBundle> entry : m_bundleCache.entrySet()) {
+            LoadingCache<BundleKey, ResourceBundle> bundleCache = m_bundleCache;
+            LoadingCache<BundleKey, ResourceBundle> bundleCacheNew = createBundleCache();
+            for (Map.Entry<BundleKey, ResourceBundle> entry : bundleCache.asMap().entrySet()) {
                 if (!entry.getKey().isSameBase(baseName)) {
                     // entry has a different base name, keep it
                     bundleCacheNew.put(entry.getKey(), entry.getValue());
                 }
             }
-            if (bundleCacheNew.size() < m_bundleCache.size()) {
+            if (bundleCacheNew.size() < bundleCache.size()) {
                 // switch caches if only if at least one entry was removed
                 m_bundleCache = bundleCacheNew;
             }
             if (flushPermanent) {
                 // now check and clear the permanent cache
-                HashMap<String, I_CmsResourceBundle> permanentCacheNew = new HashMap<String, I_CmsResourceBundle>(
+                Map<String, I_CmsResourceBundle> permanentCacheNew = new ConcurrentHashMap<String, I_CmsResourceBundle>(
                     m_permanentCache.size());
                 for (Map.Entry<String, I_CmsResourceBundle> entry : m_permanentCache.entrySet()) {
                     String key = entry.getKey();
@@ -291,51 +288,30 @@ public final class CmsResourceBundleLoader {
      * @param locale A locale
      * @return the desired resource bundle
      */
-    // This method is synchronized so that the cache is properly
-    // handled.
-    public static synchronized ResourceBundle getBundle(String baseName, Locale locale) {
+    public static ResourceBundle getBundle(String baseName, Locale locale) {
 
         // If the default locale changed since the last time we were called,
         // all cache entries are invalidated.
         Locale defaultLocale = Locale.getDefault();
         if (defaultLocale != m_lastDefaultLocale) {
-            m_bundleCache = new HashMap<BundleKey, ResourceBundle>();
+            m_bundleCache = createBundleCache();
             m_lastDefaultLocale = defaultLocale;
-            if (m_permanentCache == null) {
-                // the permanent cache is not cleared after the default locale changes
-                m_permanentCache = new HashMap<String, I_CmsResourceBundle>();
-            }
         }
 
         // This will throw NullPointerException if any arguments are null.
-        m_lookupKey.set(baseName, locale);
-
-        Object obj = m_bundleCache.get(m_lookupKey);
-
-        if (obj instanceof ResourceBundle) {
-            return (ResourceBundle)obj;
-        } else if (obj == NULL_ENTRY) {
-            // Lookup has failed previously. Fall through.
-        } else {
-            // First, look for a bundle for the specified locale. We don't want
-            // the base bundle this time.
-            boolean wantBase = locale.equals(defaultLocale);
-            ResourceBundle bundle = tryBundle(baseName, locale, wantBase);
-
-            // Try the default locale if necessary
-            if ((bundle == null) && !locale.equals(defaultLocale)) {
-                bundle = tryBundle(baseName, defaultLocale, true);
+        BundleKey key = new BundleKey(baseName, locale);
+        ResourceBundle bundle;
+        try {
+            bundle = m_bundleCache.getUnchecked(key);
+        } catch (UncheckedExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException)e.getCause();
             }
+            throw e;
+        }
 
-            BundleKey key = new BundleKey(baseName, locale);
-            if (bundle == null) {
-                // Cache the fact that this lookup has previously failed.
-                m_bundleCache.put(key, NULL_ENTRY);
-            } else {
-                // Cache the result and return it.
-                m_bundleCache.put(key, bundle);
-                return bundle;
-            }
+        if (bundle != NULL_ENTRY) {
+            return bundle;
         }
 
         // unable to find the resource bundle with this implementation
@@ -343,6 +319,48 @@ public final class CmsResourceBundleLoader {
         return ResourceBundle.getBundle(baseName, locale);
     }
 
+    /**
+     * Creates an empty resource bundle cache.<p>
+     * 
+     * @return the resource bundle cache
+     */
+    private static LoadingCache<BundleKey, ResourceBundle> createBundleCache() {
+
+        return CacheBuilder.newBuilder().build(new CacheLoader<BundleKey, ResourceBundle>() {
+
+            @Override
+            public ResourceBundle load(BundleKey key) {
+
+                return loadBundle(key.m_baseName, key.m_locale);
+            }
+        });
+    }
+
+    /**
+     * Loads the resource bundle for the given locale with this implementation.<p>
+     * 
+     * @param baseName the name of the ResourceBundle
+     * @param locale the locale
+     * 
+     * @return the resource bundle, or {@link #NULL_ENTRY} if the bundle was not found
+     */
+    private static ResourceBundle loadBundle(String baseName, Locale locale) {
+
+        // First, look for a bundle for the specified locale. We don't want
+        // the base bundle this time.
+        Locale defaultLocale = Locale.getDefault();
+        boolean wantBase = locale.equals(defaultLocale);
+        ResourceBundle bundle = tryBundle(baseName, locale, wantBase);
+
+        // Try the default locale if necessary
+        if ((bundle == null) && !locale.equals(defaultLocale)) {
+            bundle = tryBundle(baseName, defaultLocale, true);
+        }
+
+        // a failed lookup is cached as well
+        return bundle != null ? bundle : NULL_ENTRY;
+    }
+
     /**
      * Tries to load a property file with the specified name.
      *
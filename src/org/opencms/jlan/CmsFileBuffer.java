@@ -27,42 +27,175 @@
 
 package org.opencms.jlan;
 
+import org.opencms.main.CmsLog;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+import org.apache.commons.logging.Log;
+
 /**
- * Buffer class which holds file contents for JLAN file access in memory before they are written to the VFS.<p>
+ * Buffer class which holds file contents for JLAN file access before they are written to the VFS.<p>
  * 
- * This is implemented as a CmsByteBuffer instance together with a 'position' index which marks the next write position
+ * Small files are kept in memory in a CmsByteBuffer instance. As soon as the content grows beyond
+ * {@link #MEMORY_THRESHOLD} bytes, it is moved to a temporary file, so that copying large files to the
+ * share does not keep their whole content on the heap. Together with the content, the buffer keeps
+ * a 'position' index which marks the next write position.<p>
+ * 
+ * Instances of this class should be released with {@link #dispose()} when they are no longer needed.<p>
  */
 public class CmsFileBuffer {
 
-    /** The buffer used to store the file contents. */
+    /** The maximum size of content which is kept in memory. */
+    public static final int MEMORY_THRESHOLD = 1024 * 1024;
+
+    /** The logger instance for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsFileBuffer.class);
+
+    /** The in-memory buffer used to store the file contents, or null if they have been moved to a temporary file. */
     CmsByteBuffer m_buffer = new CmsByteBuffer(8192);
 
     /** The current write position. */
     long m_position;
 
+    /** The channel of the temporary file, or null if the contents are kept in memory. */
+    private FileChannel m_channel;
+
+    /** The temporary file used to store large file contents. */
+    private File m_tempFile;
+
+    /** The temporary file opened for random access. */
+    private RandomAccessFile m_tempFileAccess;
+
+    /**
+     * Releases the resources held by this buffer, and deletes the temporary file if one was created.<p>
+     */
+    public void dispose() {
+
+        m_buffer = new CmsByteBuffer(8192);
+        m_position = 0;
+        if (m_tempFileAccess != null) {
+            try {
+                m_tempFileAccess.close();
+            } catch (IOException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+            m_tempFileAccess = null;
+            m_channel = null;
+        }
+        if (m_tempFile != null) {
+            if (!m_tempFile.delete()) {
+                LOG.warn("Couldn't delete temporary file: " + m_tempFile.getAbsolutePath());
+            }
+            m_tempFile = null;
+        }
+    }
+
     /**
      * Gets the contents of this buffer as a byte array.<p>
      * 
      * @return the file content 
+     * 
+     * @throws IOException if reading from the temporary file fails 
      */
-    public byte[] getContents() {
+    public byte[] getContents() throws IOException {
 
+        if (m_channel != null) {
+            long size = m_channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("File too large: " + size);
+            }
+            byte[] contents = new byte[(int)size];
+            readFromChannel(ByteBuffer.wrap(contents), 0);
+            return contents;
+        }
         byte[] contents = new byte[m_buffer.size()];
         m_buffer.readBytes(contents, 0, 0, m_buffer.size());
         return contents;
     }
 
+    /**
+     * Returns an input stream which reads the contents of this buffer from the start.<p>
+     * 
+     * The contents must not be changed while the stream is read.<p>
+     * 
+     * @return an input stream for the contents of this buffer 
+     */
+    public InputStream getInputStream() {
+
+        return new InputStream() {
+
+            /** The read position of the stream. */
+            private long m_readPosition;
+
+            @Override
+            public int read() throws IOException {
+
+                byte[] b = new byte[1];
+                return read(b, 0, 1) < 0 ? -1 : b[0] & 0xFF;
+            }
+
+            @Override
+            public int read(byte[] b, int off, int len) throws IOException {
+
+                if (len == 0) {
+                    return 0;
+                }
+                int result = CmsFileBuffer.this.read(b, len, off, m_readPosition);
+                if (result > 0) {
+                    m_readPosition += result;
+                }
+                return result;
+            }
+        };
+    }
+
     /**
      * Gets the length of the file content.<p>
      * 
      * @return the content length 
      *  
+     * @throws IOException if the size of the temporary file can not be read 
      */
-    public long getLength() {
+    public long getLength() throws IOException {
 
+        if (m_channel != null) {
+            return m_channel.size();
+        }
         return m_buffer.size();
     }
 
+    /**
+     * Returns an output stream which writes to this buffer, starting at the current write position.<p>
+     * 
+     * In contrast to {@link #write(byte[], int, int)}, the write position is moved behind the written data.<p>
+     * 
+     * @return an output stream for this buffer 
+     */
+    public OutputStream getOutputStream() {
+
+        return new OutputStream() {
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+
+                CmsFileBuffer.this.write(b, off, len);
+                m_position += len;
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+
+                write(new byte[] {(byte)b}, 0, 1);
+            }
+        };
+    }
+
     /** 
      * Gets the current write position.<p>
      * 
@@ -77,11 +210,23 @@ public class CmsFileBuffer {
      * Initializes the file content data.<p>
      * 
      * @param data the file content data 
+     * 
+     * @throws IOException if writing to the temporary file fails 
      */
-    public void init(byte[] data) {
+    public void init(byte[] data) throws IOException {
 
         m_position = 0;
-        m_buffer.writeBytes(data, 0, 0, data.length);
+        write(data, 0, data.length);
+    }
+
+    /**
+     * Checks whether the contents of this buffer have been moved to a temporary file.<p>
+     * 
+     * @return true if the contents are stored in a temporary file
+     */
+    public boolean isFileBacked() {
+
+        return m_channel != null;
     }
 
     /**
@@ -94,17 +239,24 @@ public class CmsFileBuffer {
      * @param fileOffset the start index for this instance 
      * 
      * @return the number of bytes read, or -1 if we are at the end of the file 
+     * 
+     * @throws IOException if reading from the temporary file fails 
      */
-    public int read(byte[] dest, int length, int bufferOffset, int fileOffset) {
+    public int read(byte[] dest, int length, int bufferOffset, long fileOffset) throws IOException {
 
-        if (fileOffset >= m_buffer.size()) {
+        long size = getLength();
+        if (fileOffset >= size) {
             return -1;
         }
-        int readEnd = fileOffset + length;
-        if (readEnd > m_buffer.size()) {
-            length = length - (readEnd - m_buffer.size());
+        long readEnd = fileOffset + length;
+        if (readEnd > size) {
+            length = (int)(length - (readEnd - size));
+        }
+        if (m_channel != null) {
+            readFromChannel(ByteBuffer.wrap(dest, bufferOffset, length), fileOffset);
+        } else {
+            m_buffer.readBytes(dest, (int)fileOffset, bufferOffset, length);
         }
-        m_buffer.readBytes(dest, fileOffset, bufferOffset, length);
         return length;
     }
 
@@ -122,10 +274,19 @@ public class CmsFileBuffer {
      * Changes the size of this buffer.<p>
      * 
      * @param size the new size 
+     * 
+     * @throws IOException if resizing the temporary file fails 
      */
-    public void truncate(int size) {
+    public void truncate(long size) throws IOException {
 
-        m_buffer.truncate(size);
+        if ((m_channel == null) && (size > MEMORY_THRESHOLD)) {
+            moveToTempFile();
+        }
+        if (m_channel != null) {
+            m_tempFileAccess.setLength(size);
+        } else {
+            m_buffer.truncate((int)size);
+        }
         m_position = Math.min(size, m_position);
     }
 
@@ -133,9 +294,74 @@ public class CmsFileBuffer {
      * Writes the data to the internal buffer.<p>
      * 
      * @param data the data to write 
+     * 
+     * @throws IOException if writing to the temporary file fails 
+     */
+    public void write(byte[] data) throws IOException {
+
+        write(data, 0, data.length);
+    }
+
+    /**
+     * Writes a part of a byte array to the internal buffer at the current write position.<p>
+     * 
+     * @param data the array containing the data to write
+     * @param offset the start index of the data in the array 
+     * @param length the number of bytes to write
+     * 
+     * @throws IOException if writing to the temporary file fails 
+     */
+    public void write(byte[] data, int offset, int length) throws IOException {
+
+        if ((m_channel == null) && ((m_position + length) > MEMORY_THRESHOLD)) {
+            moveToTempFile();
+        }
+        if (m_channel != null) {
+            ByteBuffer src = ByteBuffer.wrap(data, offset, length);
+            long pos = m_position;
+            while (src.hasRemaining()) {
+                pos += m_channel.write(src, pos);
+            }
+        } else {
+            m_buffer.writeBytes(data, offset, (int)m_position, length);
+        }
+    }
+
+    /**
+     * Moves the in-memory contents to a new temporary file and switches this buffer to file-backed mode.<p>
+     * 
+     * @throws IOException if creating or writing the temporary file fails 
+     */
+    private void moveToTempFile() throws IOException {
+
+        byte[] contents = getContents();
+        m_tempFile = File.createTempFile("opencms-jlan-", ".tmp");
+        m_tempFileAccess = new RandomAccessFile(m_tempFile, "rw");
+        m_channel = m_tempFileAccess.getChannel();
+        ByteBuffer src = ByteBuffer.wrap(contents);
+        while (src.hasRemaining()) {
+            m_channel.write(src);
+        }
+        m_buffer = null;
+    }
+
+    /**
+     * Fills a byte buffer from the temporary file, starting at a given file position.<p>
+     * 
+     * @param dest the byte buffer to fill 
+     * @param fileOffset the file position at which to start reading 
+     * 
+     * @throws IOException if reading from the temporary file fails 
      */
-    public void write(byte[] data) {
+    private void readFromChannel(ByteBuffer dest, long fileOffset) throws IOException {
 
-        m_buffer.writeBytes(data, 0, (int)m_position, data.length);
+        long pos = fileOffset;
+        while (dest.hasRemaining()) {
+            int read = m_channel.read(dest, pos);
+            if (read < 0) {
+                break;
+            }
+            pos += read;
+        }
     }
 }
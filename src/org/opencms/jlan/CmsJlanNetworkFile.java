@@ -30,15 +30,14 @@ package org.opencms.jlan;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsResource;
 import org.opencms.file.wrapper.CmsObjectWrapper;
-import org.opencms.file.wrapper.CmsWrappedResource;
 import org.opencms.lock.CmsLock;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
 import org.opencms.util.CmsUUID;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 import java.util.regex.Pattern;
 
@@ -97,17 +96,23 @@ public class CmsJlanNetworkFile extends NetworkFile {
     @Override
     public void closeFile() throws IOException {
 
-        if (hasDeleteOnClose()) {
-            delete();
-        } else {
-            flushFile();
-            if (getWriteCount() > 0) {
-                try {
-                    m_cms.unlockResource(m_cms.getSitePath(m_resource));
-                } catch (CmsException e) {
-                    LOG.error("Couldn't unlock file: " + m_resource.getRootPath());
+        try {
+            if (hasDeleteOnClose()) {
+                delete();
+            } else {
+                flushFile();
+                if (getWriteCount() > 0) {
+                    try {
+                        m_cms.unlockResource(m_cms.getSitePath(m_resource));
+                    } catch (CmsException e) {
+                        LOG.error("Couldn't unlock file: " + m_resource.getRootPath());
+                    }
                 }
             }
+        } finally {
+            // release the buffer, which may hold a temporary file for large contents
+            m_buffer.dispose();
+            m_bufferInitialized = false;
         }
     }
 
@@ -133,17 +138,18 @@ public class CmsJlanNetworkFile extends NetworkFile {
 
         int writeCount = getWriteCount();
         try {
-            if (writeCount > m_lastFlush) {
-                CmsFile file = getFile();
-                if (file != null) {
-                    CmsWrappedResource wr = new CmsWrappedResource(file);
-                    String rootPath = m_cms.getRequestContext().addSiteRoot(
-                        CmsJlanDiskInterface.getCmsPath(getFullName()));
-                    wr.setRootPath(rootPath);
-                    file = wr.getFile();
-                    file.setContents(m_buffer.getContents());
-                    ensureLock();
-                    m_cms.writeFile(file);
+            if ((writeCount > m_lastFlush) && m_bufferInitialized) {
+                long length = m_buffer.getLength();
+                if (length > Integer.MAX_VALUE) {
+                    throw new IOException("File too large: " + length);
+                }
+                ensureLock();
+                // streams the content from the buffer for resources delivered with the dump loader
+                InputStream content = m_buffer.getInputStream();
+                try {
+                    m_cms.writeContent(CmsJlanDiskInterface.getCmsPath(getFullName()), content, (int)length);
+                } finally {
+                    content.close();
                 }
             }
             m_lastFlush = writeCount;
@@ -245,7 +251,7 @@ public class CmsJlanNetworkFile extends NetworkFile {
 
         try {
             load(true);
-            int result = m_buffer.read(buffer, length, bufferOffset, (int)fileOffset);
+            int result = m_buffer.read(buffer, length, bufferOffset, fileOffset);
             return result;
         } catch (CmsException e) {
             throw CmsJlanDiskInterface.convertCmsException(e);
@@ -349,7 +355,7 @@ public class CmsJlanNetworkFile extends NetworkFile {
 
         try {
             load(true);
-            m_buffer.truncate((int)size);
+            m_buffer.truncate(size);
             incrementWriteCount();
         } catch (CmsException e) {
             throw CmsJlanDiskInterface.convertCmsException(e);
@@ -368,8 +374,7 @@ public class CmsJlanNetworkFile extends NetworkFile {
             }
             load(true);
             m_buffer.seek(offset);
-            byte[] dataToWrite = Arrays.copyOfRange(data, pos, pos + len);
-            m_buffer.write(dataToWrite);
+            m_buffer.write(data, pos, len);
             incrementWriteCount();
         } catch (CmsException e) {
             throw CmsJlanDiskInterface.convertCmsException(e);
@@ -430,15 +435,21 @@ public class CmsJlanNetworkFile extends NetworkFile {
             if (m_resource.isFolder() && needContent) {
                 throw new AccessDeniedException("Operation not supported for directories!");
             }
-            if (m_resource.isFile() && needContent && (!(m_resource instanceof CmsFile))) {
-                m_resource = m_cms.readFile(m_cms.getSitePath(m_resource), CmsJlanDiskInterface.STANDARD_FILTER);
-            }
             if (!m_bufferInitialized && (getFile() != null)) {
-                // readResource may already have returned a CmsFile, this is why we need to initialize the buffer
-                // here and not in the if-block above 
+                // readResource may already have returned a CmsFile, in this case its content is used 
                 m_buffer.init(getFile().getContents());
                 m_bufferInitialized = true;
             }
+            if (m_resource.isFile() && needContent && !m_bufferInitialized) {
+                // stream the content into the buffer, so large files are never held in memory completely 
+                m_buffer.seek(0);
+                m_cms.readContent(
+                    m_cms.getSitePath(m_resource),
+                    CmsJlanDiskInterface.STANDARD_FILTER,
+                    m_buffer.getOutputStream());
+                m_buffer.seek(0);
+                m_bufferInitialized = true;
+            }
         } catch (CmsException e) {
             throw e;
         }
@@ -419,30 +419,18 @@ public class CmsJspNavBuilder {
         Visibility visibility,
         CmsResourceFilter resourceFilter) {
 
-        folder = CmsFileUtil.removeTrailingSeparator(folder);
         List<CmsJspNavElement> result = new ArrayList<CmsJspNavElement>();
-
-        List<CmsResource> resources = null;
-        try {
-
-            resources = m_cms.getResourcesInFolder(folder, resourceFilter);
-        } catch (Exception e) {
-            // should never happen
-            LOG.error(e.getLocalizedMessage(), e);
-        }
-        if (resources == null) {
-            return Collections.<CmsJspNavElement> emptyList();
-        }
+        List<CmsJspNavElement> elements = getNavigationElements(
+            CmsFileUtil.addTrailingSeparator(folder),
+            resourceFilter,
+            false);
         boolean includeAll = visibility == Visibility.all;
         boolean includeHidden = visibility == Visibility.includeHidden;
-        for (CmsResource r : resources) {
-            CmsJspNavElement element = getNavigationForResource(m_cms.getSitePath(r), resourceFilter);
-            if ((element != null)
-                && (includeAll || (element.isInNavigation() && (includeHidden || !element.isHiddenNavigationEntry())))) {
+        for (CmsJspNavElement element : elements) {
+            if (includeAll || (element.isInNavigation() && (includeHidden || !element.isHiddenNavigationEntry()))) {
                 result.add(element);
             }
         }
-        Collections.sort(result);
         return result;
     }
 
@@ -614,6 +602,40 @@ public class CmsJspNavBuilder {
         m_requestUriFolder = CmsResource.getFolderPath(m_requestUri);
     }
 
+    /**
+     * Reads the navigation elements of all resources in the given folder, 
+     * regardless of their visibility in the navigation.<p>
+     * 
+     * This does not use the shared navigation cache.<p>
+     * 
+     * @param folder the folder path
+     * @param resourceFilter the filter to use reading the resources
+     * @param shallow <code>true</code> for a shallow look up, not regarding next level resources
+     * 
+     * @return a sorted (ascending to navigation position) list of navigation elements
+     */
+    List<CmsJspNavElement> readNavigationForFolder(String folder, CmsResourceFilter resourceFilter, boolean shallow) {
+
+        List<CmsJspNavElement> result = new ArrayList<CmsJspNavElement>();
+        List<CmsResource> resources;
+        try {
+            resources = m_cms.getResourcesInFolder(folder, resourceFilter);
+        } catch (Exception e) {
+            // should never happen
+            LOG.error(e.getLocalizedMessage(), e);
+            return result;
+        }
+        readPropertiesOfResources(resources);
+        for (CmsResource r : resources) {
+            CmsJspNavElement element = getNavigationForResource(m_cms.getSitePath(r), resourceFilter, shallow);
+            if (element != null) {
+                result.add(element);
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
     /**
      * Collect all navigation elements from the files in the given folder.<p>
     *
@@ -630,28 +652,42 @@ public class CmsJspNavBuilder {
         CmsResourceFilter resourceFilter,
         boolean shallow) {
 
-        folder = CmsResource.getFolderPath(folder);
         List<CmsJspNavElement> result = new ArrayList<CmsJspNavElement>();
-
-        List<CmsResource> resources;
-        try {
-            resources = m_cms.getResourcesInFolder(folder, resourceFilter);
-        } catch (Exception e) {
-            // should never happen
-            LOG.error(e.getLocalizedMessage(), e);
-            return Collections.<CmsJspNavElement> emptyList();
-        }
-
-        for (CmsResource r : resources) {
-            CmsJspNavElement element = getNavigationForResource(m_cms.getSitePath(r), resourceFilter, shallow);
-            if ((element != null) && (includeInvisible || element.isInNavigation())) {
+        for (CmsJspNavElement element : getNavigationElements(
+            CmsResource.getFolderPath(folder),
+            resourceFilter,
+            shallow)) {
+            if (includeInvisible || element.isInNavigation()) {
                 result.add(element);
             }
         }
-        Collections.sort(result);
         return result;
     }
 
+    /**
+     * Returns the navigation elements of all resources in the given folder, 
+     * regardless of their visibility in the navigation.<p>
+     * 
+     * In the online project, the elements are read from the shared navigation cache.<p>
+     * 
+     * @param folder the folder path
+     * @param resourceFilter the filter to use reading the resources
+     * @param shallow <code>true</code> for a shallow look up, not regarding next level resources
+     * 
+     * @return a sorted (ascending to navigation position) list of navigation elements
+     */
+    private List<CmsJspNavElement> getNavigationElements(
+        String folder,
+        CmsResourceFilter resourceFilter,
+        boolean shallow) {
+
+        CmsJspNavigationCache cache = CmsJspNavigationCache.getInstance();
+        if ((cache != null) && m_cms.getRequestContext().getCurrentProject().isOnlineProject()) {
+            return cache.getNavigationForFolder(m_cms, folder, resourceFilter, shallow);
+        }
+        return readNavigationForFolder(folder, resourceFilter, shallow);
+    }
+
     /**
      * Returns a navigation element for the named resource.<p>
      * 
@@ -697,4 +733,22 @@ public class CmsJspNavBuilder {
 
         return new CmsJspNavElement(sitePath, resource, propertiesMap, level);
     }
+
+    /**
+     * Reads the properties of all given resources with a single bulk read.<p>
+     * 
+     * This fills the property cache, so the following lookups for the single 
+     * navigation elements do not need to access the database again.<p>
+     * 
+     * @param resources the resources to read the properties for
+     */
+    private void readPropertiesOfResources(List<CmsResource> resources) {
+
+        try {
+            m_cms.readPropertyObjects(resources, false);
+        } catch (Exception e) {
+            // the properties will be read again for each single resource, so the navigation is still complete
+            LOG.warn(e.getLocalizedMessage(), e);
+        }
+    }
 }
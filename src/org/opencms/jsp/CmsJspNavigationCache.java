@@ -0,0 +1,360 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.jsp;
+
+import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.flex.CmsFlexRequestContextInfo;
+import org.opencms.main.CmsEvent;
+import org.opencms.main.CmsException;
+import org.opencms.main.CmsLog;
+import org.opencms.main.I_CmsEventListener;
+import org.opencms.main.OpenCms;
+import org.opencms.security.CmsPermissionSet;
+import org.opencms.security.CmsRole;
+import org.opencms.util.CmsCollectionsGenericWrapper;
+import org.opencms.util.CmsFileUtil;
+import org.opencms.util.CmsRequestUtil;
+import org.opencms.util.CmsUUID;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Cache for the navigation of the folders in the online project.<p>
+ * 
+ * For each folder, the navigation elements of all resources in the folder are cached. They are read 
+ * with the permissions of an administrator and ignoring release and expiration dates, so the cached 
+ * navigation can be shared by all users. The permissions of the current user and the time range of 
+ * the resource filter are checked when the navigation is read from the cache.<p>
+ * 
+ * Only the shallow navigation is cached. The targets of folders marked as navigation level depend on 
+ * the resources visible for the current user, so they are resolved for each request.<p>
+ * 
+ * The navigation of a folder is removed from the cache when the folder or one of its resources is published.<p>
+ * 
+ * @since 9.0.0
+ */
+public final class CmsJspNavigationCache implements I_CmsEventListener {
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsJspNavigationCache.class);
+
+    /** The maximum number of folders to cache the navigation for. */
+    private static final int MAX_FOLDERS = 4096;
+
+    /** The cache instance, <code>null</code> if not initialized. */
+    private static CmsJspNavigationCache m_instance;
+
+    /** The administrator context used for reading the navigation. */
+    private CmsObject m_adminCms;
+
+    /** The cached navigation elements, by folder root path and by site root and filter. */
+    private Map<String, Map<String, List<CmsJspNavElement>>> m_cache;
+
+    /** Counts the changes of the cache, to avoid storing navigation read before a publish event. */
+    private long m_generation;
+
+    /**
+     * Creates a new navigation cache.<p>
+     * 
+     * @param adminCms the administrator context used for reading the navigation
+     */
+    private CmsJspNavigationCache(CmsObject adminCms) {
+
+        m_adminCms = adminCms;
+        Map<String, Map<String, List<CmsJspNavElement>>> lruMap = CmsCollectionsGenericWrapper.createLRUMap(MAX_FOLDERS);
+        m_cache = Collections.synchronizedMap(lruMap);
+    }
+
+    /**
+     * Returns the navigation cache.<p>
+     * 
+     * @return the navigation cache, or <code>null</code> if the cache has not been initialized
+     */
+    public static CmsJspNavigationCache getInstance() {
+
+        return m_instance;
+    }
+
+    /**
+     * Initializes the navigation cache.<p>
+     * 
+     * @param cms an administrator context
+     * 
+     * @throws CmsException if something goes wrong 
+     */
+    public static void initialize(CmsObject cms) throws CmsException {
+
+        OpenCms.getRoleManager().checkRole(cms, CmsRole.ADMINISTRATOR);
+        CmsObject adminCms = OpenCms.initCmsObject(cms);
+        adminCms.getRequestContext().setCurrentProject(adminCms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        CmsJspNavigationCache cache = new CmsJspNavigationCache(adminCms);
+        OpenCms.addCmsEventListener(cache, new int[] {
+            I_CmsEventListener.EVENT_PUBLISH_PROJECT,
+            I_CmsEventListener.EVENT_CLEAR_CACHES,
+            I_CmsEventListener.EVENT_CLEAR_ONLINE_CACHES});
+        m_instance = cache;
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsEventListener#cmsEvent(org.opencms.main.CmsEvent)
+     */
+    public void cmsEvent(CmsEvent event) {
+
+        switch (event.getType()) {
+            case I_CmsEventListener.EVENT_PUBLISH_PROJECT:
+                uncachePublished(readPublishedResources(event));
+                break;
+            case I_CmsEventListener.EVENT_CLEAR_CACHES:
+            case I_CmsEventListener.EVENT_CLEAR_ONLINE_CACHES:
+                uncachePublished(null);
+                break;
+            default:
+                // noop
+                break;
+        }
+    }
+
+    /**
+     * Returns the navigation elements of all resources in the given folder that are visible for the current user.<p>
+     * 
+     * The returned elements are copies of the cached elements, so they may be changed by the caller.<p>
+     * 
+     * @param cms the current users context in the online project
+     * @param folder the site path of the folder
+     * @param resourceFilter the filter to use reading the resources
+     * @param shallow <code>true</code> for a shallow look up, not regarding next level resources
+     * 
+     * @return the navigation elements, sorted by navigation position
+     */
+    public List<CmsJspNavElement> getNavigationForFolder(
+        CmsObject cms,
+        String folder,
+        CmsResourceFilter resourceFilter,
+        boolean shallow) {
+
+        String siteRoot = cms.getRequestContext().getSiteRoot();
+        String folderRootPath = CmsFileUtil.addTrailingSeparator(cms.getRequestContext().addSiteRoot(folder));
+        String key = siteRoot + "|" + resourceFilter.getCacheId();
+
+        List<CmsJspNavElement> elements = null;
+        Map<String, List<CmsJspNavElement>> folderCache = m_cache.get(folderRootPath);
+        if (folderCache != null) {
+            elements = folderCache.get(key);
+        }
+        if (elements == null) {
+            long generation;
+            synchronized (m_cache) {
+                generation = m_generation;
+            }
+            elements = readNavigationForFolder(siteRoot, folder, resourceFilter);
+            synchronized (m_cache) {
+                if (generation == m_generation) {
+                    folderCache = m_cache.get(folderRootPath);
+                    if (folderCache == null) {
+                        folderCache = new ConcurrentHashMap<String, List<CmsJspNavElement>>();
+                        m_cache.put(folderRootPath, folderCache);
+                    }
+                    folderCache.put(key, elements);
+                }
+            }
+        }
+
+        // apply the permissions and the time range for the current user 
+        CmsFlexRequestContextInfo info = (CmsFlexRequestContextInfo)cms.getRequestContext().getAttribute(
+            CmsRequestUtil.HEADER_LAST_MODIFIED);
+        if (info != null) {
+            info.addFolderDependency(folderRootPath);
+        }
+        List<CmsJspNavElement> result = new ArrayList<CmsJspNavElement>(elements.size());
+        for (CmsJspNavElement element : elements) {
+            CmsResource resource = element.getResource();
+            if (info != null) {
+                // also resources that are not valid yet update the context dates
+                info.updateFromResource(resource);
+            }
+            try {
+                if (cms.hasPermissions(resource, CmsPermissionSet.ACCESS_READ, false, resourceFilter)) {
+                    String sitePath = element.getSitePath();
+                    if (!shallow && isNavigationLevel(element)) {
+                        sitePath = resolveNavigationLevel(cms, sitePath, resourceFilter);
+                    }
+                    result.add(new CmsJspNavElement(
+                        sitePath,
+                        resource,
+                        element.getProperties(),
+                        element.getNavTreeLevel()));
+                }
+            } catch (CmsException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Checks if the given navigation element is a folder marked as navigation level.<p>
+     * 
+     * @param element the navigation element
+     * 
+     * @return <code>true</code> if the element is a navigation level folder
+     */
+    private boolean isNavigationLevel(CmsJspNavElement element) {
+
+        return element.getResource().isFolder()
+            && CmsJspNavBuilder.NAVIGATION_LEVEL_FOLDER.equals(element.getProperties().get(
+                CmsPropertyDefinition.PROPERTY_DEFAULT_FILE));
+    }
+
+    /**
+     * Reads the published resources for the publish history id contained in the given publish event.<p>
+     * 
+     * @param event the publish event
+     * 
+     * @return the published resources, or <code>null</code> if they could not be read
+     */
+    private List<CmsPublishedResource> readPublishedResources(CmsEvent event) {
+
+        String publishId = (String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID);
+        if (publishId == null) {
+            return null;
+        }
+        try {
+            return m_adminCms.readPublishedResources(new CmsUUID(publishId));
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+            return null;
+        }
+    }
+
+    /**
+     * Reads the navigation elements of all resources in the given folder with administrator permissions.<p>
+     * 
+     * @param siteRoot the site root of the current user
+     * @param folder the site path of the folder
+     * @param resourceFilter the filter to use reading the resources
+     * 
+     * @return the unmodifiable list of navigation elements, not regarding next level resources
+     */
+    private List<CmsJspNavElement> readNavigationForFolder(
+        String siteRoot,
+        String folder,
+        CmsResourceFilter resourceFilter) {
+
+        List<CmsJspNavElement> result = new ArrayList<CmsJspNavElement>();
+        try {
+            CmsObject cms = OpenCms.initCmsObject(m_adminCms);
+            cms.getRequestContext().setSiteRoot(siteRoot);
+            CmsJspNavBuilder builder = new CmsJspNavBuilder(cms);
+            // the time range is checked for each request
+            CmsResourceFilter filter = resourceFilter.requireTimerange()
+            ? resourceFilter.addExcludeTimerange()
+            : resourceFilter;
+            for (CmsJspNavElement element : builder.readNavigationForFolder(folder, filter, true)) {
+                result.add(new CmsJspNavElement(
+                    element.getSitePath(),
+                    element.getResource(),
+                    Collections.unmodifiableMap(element.getProperties()),
+                    element.getNavTreeLevel()));
+            }
+        } catch (CmsException e) {
+            LOG.error(e.getLocalizedMessage(), e);
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Resolves the site path of a navigation level folder to the first sub element 
+     * in the navigation that is visible for the current user.<p>
+     * 
+     * @param cms the current users context in the online project
+     * @param sitePath the site path of the navigation level folder
+     * @param resourceFilter the filter to use reading the resources
+     * 
+     * @return the site path of the first visible sub element, or the given site path if there is none
+     */
+    private String resolveNavigationLevel(CmsObject cms, String sitePath, CmsResourceFilter resourceFilter) {
+
+        for (CmsJspNavElement subElement : getNavigationForFolder(cms, sitePath, resourceFilter, true)) {
+            if (subElement.isInNavigation()) {
+                if (isNavigationLevel(subElement)) {
+                    return resolveNavigationLevel(cms, subElement.getSitePath(), resourceFilter);
+                }
+                return subElement.getSitePath();
+            }
+        }
+        return sitePath;
+    }
+
+    /**
+     * Removes the navigation of the folders affected by the given published resources from the cache.<p>
+     * 
+     * @param publishedResources the published resources, or <code>null</code> to clear the whole cache
+     */
+    private void uncachePublished(List<CmsPublishedResource> publishedResources) {
+
+        synchronized (m_cache) {
+            m_generation++;
+            if (publishedResources != null) {
+                for (CmsPublishedResource publishedResource : publishedResources) {
+                    if (publishedResource.isMoved()) {
+                        // the previous parent folder is unknown
+                        publishedResources = null;
+                        break;
+                    }
+                }
+            }
+            if (publishedResources == null) {
+                m_cache.clear();
+                return;
+            }
+            for (CmsPublishedResource publishedResource : publishedResources) {
+                String rootPath = publishedResource.getRootPath();
+                if (publishedResource.isFolder()) {
+                    m_cache.remove(CmsFileUtil.addTrailingSeparator(rootPath));
+                }
+                // the navigation of the parent folder contains the resource
+                String parentFolder = CmsResource.getParentFolder(rootPath);
+                if (parentFolder != null) {
+                    m_cache.remove(parentFolder);
+                }
+            }
+        }
+    }
+}
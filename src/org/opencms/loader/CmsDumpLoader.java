@@ -229,13 +229,13 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
             return;
         }
 
-        // make sure we have the file contents available
-        CmsFile file = cms.readFile(resource);
+        // file contents that are already available are used, otherwise the contents are streamed from the VFS
+        CmsFile file = getFileWithContents(resource);
 
         // set response status to "200 - OK" (required for static export "on-demand")
         res.setStatus(HttpServletResponse.SC_OK);
         // set content length header
-        res.setContentLength(file.getContents().length);
+        res.setContentLength(file != null ? file.getContents().length : resource.getLength());
 
         if (CmsWorkplaceManager.isWorkplaceUser(req)) {
             // prevent caching for Workplace users
@@ -243,7 +243,7 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
             CmsRequestUtil.setNoCacheHeaders(res);
         } else {
             // set date last modified header
-            res.setDateHeader(CmsRequestUtil.HEADER_LAST_MODIFIED, file.getDateLastModified());
+            res.setDateHeader(CmsRequestUtil.HEADER_LAST_MODIFIED, resource.getDateLastModified());
 
             // set "Expires" only if cache control is not already set
             if (!res.containsHeader(CmsRequestUtil.HEADER_CACHE_CONTROL)) {
@@ -257,7 +257,7 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
             }
         }
 
-        service(cms, file, req, res);
+        service(cms, file != null ? file : resource, req, res);
     }
 
     /**
@@ -266,7 +266,13 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
     public void service(CmsObject cms, CmsResource resource, ServletRequest req, ServletResponse res)
     throws CmsException, IOException {
 
-        res.getOutputStream().write(cms.readFile(resource).getContents());
+        CmsFile file = getFileWithContents(resource);
+        if (file != null) {
+            res.getOutputStream().write(file.getContents());
+        } else {
+            // stream the contents, so large files are not buffered in memory
+            cms.readContent(resource, res.getOutputStream());
+        }
     }
 
     /**
@@ -301,4 +307,22 @@ public class CmsDumpLoader implements I_CmsResourceLoader {
         }
         return false;
     }
+
+    /**
+     * Returns the given resource as file, if it is a file with contents already available.<p>
+     * 
+     * @param resource the resource to check
+     * 
+     * @return the file with the contents, or <code>null</code> if the contents have to be read from the VFS
+     */
+    private CmsFile getFileWithContents(CmsResource resource) {
+
+        if (resource instanceof CmsFile) {
+            CmsFile file = (CmsFile)resource;
+            if ((file.getContents() != null) && (file.getContents().length > 0)) {
+                return file;
+            }
+        }
+        return null;
+    }
 }
\ No newline at end of file
@@ -29,9 +29,12 @@ package org.opencms.loader;
 
 import org.opencms.cache.CmsVfsNameBasedDiskCache;
 import org.opencms.configuration.CmsParameterConfiguration;
+import org.opencms.db.CmsPublishedResource;
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsResourceFilter;
+import org.opencms.file.types.CmsResourceTypeImage;
 import org.opencms.main.CmsEvent;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
@@ -39,9 +42,27 @@ import org.opencms.main.I_CmsEventListener;
 import org.opencms.main.OpenCms;
 import org.opencms.scheduler.jobs.CmsImageCacheCleanupJob;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 
+import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -58,6 +79,9 @@ import org.apache.commons.logging.Log;
  * For example, to scale an image to exact 800x600 pixel with center fitting and a background color of grey, 
  * the following parameter String can be used: <code>w:800,h:600,t:0,c:c0c0c0</code>.<p> 
  * 
+ * Images are scaled by a limited number of threads. If a scaled version of an image is requested again
+ * while it is being scaled, the request waits for the result instead of scaling the image again.<p>
+ * 
  * @since 6.2.0 
  */
 public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener {
@@ -74,9 +98,30 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
     /** The configuration parameter for the OpenCms XML configuration to set the maximum image scale size. */
     public static final String CONFIGURATION_MAX_SCALE_SIZE = "image.scaling.maxsize";
 
+    /** 
+     * The configuration parameter for the OpenCms XML configuration to set the scale parameters 
+     * of the image versions generated after publishing, separated by <code>|</code>. 
+     */
+    public static final String CONFIGURATION_PREGENERATE = "image.scaling.pregenerate";
+
     /** The configuration parameter for the OpenCms XML configuration to enable the image scaling. */
     public static final String CONFIGURATION_SCALING_ENABLED = "image.scaling.enabled";
 
+    /** The configuration parameter for the OpenCms XML configuration to set the maximum number of waiting scale operations. */
+    public static final String CONFIGURATION_SCALING_QUEUE_SIZE = "image.scaling.queuesize";
+
+    /** The configuration parameter for the OpenCms XML configuration to set the number of image scaling threads. */
+    public static final String CONFIGURATION_SCALING_THREADS = "image.scaling.threads";
+
+    /** The configuration parameter for the OpenCms XML configuration to set the time in milliseconds a request waits for a scaled image. */
+    public static final String CONFIGURATION_SCALING_TIMEOUT = "image.scaling.timeout";
+
+    /** The default maximum number of waiting scale operations. */
+    public static final int DEFAULT_SCALING_QUEUE_SIZE = 100;
+
+    /** The default time in milliseconds a request waits for a scaled image. */
+    public static final int DEFAULT_SCALING_TIMEOUT = 60000;
+
     /** Default name for the image cache repository. */
     public static final String IMAGE_REPOSITORY_DEFAULT = "/WEB-INF/imagecache/";
 
@@ -98,6 +143,24 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
     /** The maximum image size (width * height) to apply image blurring when down scaling (setting this to high may cause "out of memory" errors). */
     protected static int m_maxBlurSize = CmsImageScaler.SCALE_DEFAULT_MAX_BLUR_SIZE;
 
+    /** The scale parameters of the image versions generated after publishing. */
+    protected static List<String> m_pregenerateParams = Collections.emptyList();
+
+    /** The scale operations which are currently waiting or running, by cache name. */
+    protected static ConcurrentHashMap<String, Future<byte[]>> m_scaleTasks = new ConcurrentHashMap<String, Future<byte[]>>();
+
+    /** The thread pool used for scaling images. */
+    protected static ThreadPoolExecutor m_scalerPool;
+
+    /** The maximum number of waiting scale operations. */
+    protected static int m_scalingQueueSize = DEFAULT_SCALING_QUEUE_SIZE;
+
+    /** The number of image scaling threads. */
+    protected static int m_scalingThreads = Runtime.getRuntime().availableProcessors();
+
+    /** The time in milliseconds a request waits for a scaled image. */
+    protected static int m_scalingTimeout = DEFAULT_SCALING_TIMEOUT;
+
     /** The disk cache to use for saving scaled image versions. */
     protected static CmsVfsNameBasedDiskCache m_vfsDiskCache;
 
@@ -172,6 +235,47 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         return m_enabled;
     }
 
+    /**
+     * Starts to generate the configured scaled versions of an image in the image cache.<p>
+     * 
+     * The scale parameters are set with the {@link #CONFIGURATION_PREGENERATE} configuration option.
+     * Versions which are already cached are skipped.<p>
+     * 
+     * @param cms the current users OpenCms context
+     * @param resource the image resource
+     * 
+     * @return the scale operations, which can be used to wait for the scaled versions
+     * 
+     * @throws CmsException in case the image can not be read, or too many images are already waiting to be scaled
+     */
+    public static List<Future<byte[]>> pregenerateScaledImages(CmsObject cms, CmsResource resource)
+    throws CmsException {
+
+        List<Future<byte[]>> result = new ArrayList<Future<byte[]>>();
+        CmsFile file = null;
+        for (String params : m_pregenerateParams) {
+            CmsImageScaler scaler = new CmsImageScaler(params);
+            scaler.setMaxBlurSize(m_maxBlurSize);
+            if (!scaler.isValid()) {
+                continue;
+            }
+            String cacheName = m_vfsDiskCache.getCacheName(resource, scaler.toString());
+            if (new File(cacheName).exists()) {
+                // this version has already been generated
+                continue;
+            }
+            Future<byte[]> task = m_scaleTasks.get(cacheName);
+            if (task == null) {
+                if (file == null) {
+                    file = cms.readFile(resource);
+                }
+                task = scheduleScaling(cacheName, file, scaler);
+            }
+            result.add(task);
+        }
+        return result;
+    }
+
     /**
      * @see org.opencms.configuration.I_CmsConfigurationParameterHandler#addConfigurationParameter(java.lang.String, java.lang.String)
      */
@@ -197,6 +301,27 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
             if (CONFIGURATION_DOWNSCALE.equals(paramName)) {
                 m_downScaleParams = paramValue.trim();
             }
+            if (CONFIGURATION_PREGENERATE.equals(paramName)) {
+                List<String> params = new ArrayList<String>();
+                for (String value : CmsStringUtil.splitAsList(paramValue, '|', true)) {
+                    if (value.length() > 0) {
+                        params.add(value);
+                    }
+                }
+                m_pregenerateParams = Collections.unmodifiableList(params);
+            }
+            if (CONFIGURATION_SCALING_QUEUE_SIZE.equals(paramName)) {
+                m_scalingQueueSize = CmsStringUtil.getIntValue(paramValue, DEFAULT_SCALING_QUEUE_SIZE, paramName);
+            }
+            if (CONFIGURATION_SCALING_THREADS.equals(paramName)) {
+                m_scalingThreads = CmsStringUtil.getIntValue(
+                    paramValue,
+                    Runtime.getRuntime().availableProcessors(),
+                    paramName);
+            }
+            if (CONFIGURATION_SCALING_TIMEOUT.equals(paramName)) {
+                m_scalingTimeout = CmsStringUtil.getIntValue(paramValue, DEFAULT_SCALING_TIMEOUT, paramName);
+            }
         }
         super.addConfigurationParameter(paramName, paramValue);
     }
@@ -209,8 +334,14 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         if (event == null) {
             return;
         }
-        // only react on the clear caches event
         int type = event.getType();
+        if (type == I_CmsEventListener.EVENT_PUBLISH_PROJECT) {
+            if (m_enabled && !m_pregenerateParams.isEmpty()) {
+                schedulePregeneration(event);
+            }
+            return;
+        }
+        // only react on the clear caches event
         if (type != I_CmsEventListener.EVENT_CLEAR_CACHES) {
             return;
         }
@@ -241,6 +372,15 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         m_enabled = false;
         m_imageRepositoryFolder = null;
         m_vfsDiskCache = null;
+        if (m_scalerPool != null) {
+            // cancel the waiting scale operations, so that requests waiting for them don't run into the timeout
+            for (Runnable waitingTask : m_scalerPool.shutdownNow()) {
+                if (waitingTask instanceof Future<?>) {
+                    ((Future<?>)waitingTask).cancel(false);
+                }
+            }
+            m_scalerPool = null;
+        }
     }
 
     /**
@@ -283,6 +423,35 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
                 OpenCms.getSystemInfo().getWebApplicationRfsPath(),
                 m_imageRepositoryFolder);
         }
+        // initialize the image scaling threads
+        int threads = Math.max(1, m_scalingThreads);
+        int queueSize = Math.max(1, m_scalingQueueSize);
+        ThreadPoolExecutor oldPool = m_scalerPool;
+        if ((oldPool == null)
+            || (oldPool.getMaximumPoolSize() != threads)
+            || ((oldPool.getQueue().size() + oldPool.getQueue().remainingCapacity()) != queueSize)) {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            m_scalerPool = new ThreadPoolExecutor(
+                threads,
+                threads,
+                60,
+                TimeUnit.SECONDS,
+                new ArrayBlockingQueue<Runnable>(queueSize),
+                new ThreadFactory() {
+
+                    public Thread newThread(Runnable r) {
+
+                        Thread thread = new Thread(r, "OpenCms: Image scaler " + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    }
+                });
+            m_scalerPool.allowCoreThreadTimeOut(true);
+            if (oldPool != null) {
+                // the configuration has changed, operations already scheduled are still completed by the old pool
+                oldPool.shutdown();
+            }
+        }
         OpenCms.addCmsEventListener(this);
         // output setup information
         if (CmsLog.INIT.isInfoEnabled()) {
@@ -341,6 +510,10 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         String cacheParam = scaler.isValid() ? scaler.toString() : null;
         String cacheName = m_vfsDiskCache.getCacheName(resource, cacheParam);
         byte[] content = m_vfsDiskCache.getCacheContent(cacheName);
+        if ((content == null) && scaler.isValid()) {
+            // scale the image, or wait for the result if this version is already scaled for another request
+            content = getScaledContent(cms, resource, scaler, cacheName);
+        }
 
         CmsFile file;
         if (content != null) {
@@ -356,16 +529,162 @@ public class CmsImageLoader extends CmsDumpLoader implements I_CmsEventListener
         } else {
             // we must read the content from the VFS (if this has not been done yet)
             file = cms.readFile(resource);
-            // upgrade the file (load the content)
-            if (scaler.isValid()) {
-                // valid scaling parameters found, scale the content
-                content = scaler.scaleImage(file);
-                // exchange the content of the file with the scaled version
-                file.setContents(content);
-            }
-            // save the file content in the cache
+            // save the unscaled file content in the cache
             m_vfsDiskCache.saveCacheFile(cacheName, file.getContents());
         }
         return file;
     }
+
+    /**
+     * Schedules a scale operation for an image, unless the same version of the image is already being scaled.<p>
+     * 
+     * @param cacheName the cache name of the scaled image version
+     * @param file the image file
+     * @param scaler the configured image scaler
+     * 
+     * @return the scale operation for the image version
+     * 
+     * @throws CmsLoaderException in case too many images are already waiting to be scaled
+     */
+    private static Future<byte[]> scheduleScaling(final String cacheName, final CmsFile file, final CmsImageScaler scaler)
+    throws CmsLoaderException {
+
+        FutureTask<byte[]> task = new FutureTask<byte[]>(new Callable<byte[]>() {
+
+            public byte[] call() throws IOException {
+
+                byte[] content = scaler.scaleImage(file);
+                m_vfsDiskCache.saveCacheFile(cacheName, content);
+                return content;
+            }
+        }) {
+
+            @Override
+            protected void done() {
+
+                // the scaled image is in the disk cache now
+                m_scaleTasks.remove(cacheName, this);
+            }
+        };
+        Future<byte[]> existingTask = m_scaleTasks.putIfAbsent(cacheName, task);
+        if (existingTask != null) {
+            return existingTask;
+        }
+        try {
+            m_scalerPool.execute(task);
+        } catch (RejectedExecutionException e) {
+            // requests which are already waiting for this task get a cancellation
+            task.cancel(false);
+            throw new CmsLoaderException(Messages.get().container(
+                Messages.ERR_IMAGE_SCALING_QUEUE_FULL_2,
+                file.getRootPath(),
+                scaler.toString()));
+        }
+        return task;
+    }
+
+    /**
+     * Returns the content of a scaled image version, waiting for a scale operation of another request if necessary.<p>
+     * 
+     * @param cms the current users OpenCms context
+     * @param resource the base VFS resource for the image
+     * @param scaler the configured image scaler
+     * @param cacheName the cache name of the scaled image version
+     * 
+     * @return the content of the scaled image version
+     * 
+     * @throws CmsException in case the image can not be read or scaled in time
+     */
+    private byte[] getScaledContent(CmsObject cms, CmsResource resource, CmsImageScaler scaler, String cacheName)
+    throws CmsException {
+
+        Future<byte[]> task = m_scaleTasks.get(cacheName);
+        if (task == null) {
+            task = scheduleScaling(cacheName, cms.readFile(resource), scaler);
+        }
+        try {
+            return task.get(m_scalingTimeout, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // the image is still scaled and saved in the cache for later requests
+            throw new CmsLoaderException(Messages.get().container(
+                Messages.ERR_IMAGE_SCALING_TIMEOUT_2,
+                resource.getRootPath(),
+                scaler.toString()), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CmsLoaderException(Messages.get().container(
+                Messages.ERR_UNABLE_TO_SCALE_IMAGE_2,
+                resource.getRootPath(),
+                scaler.toString()), e);
+        } catch (CancellationException e) {
+            throw new CmsLoaderException(Messages.get().container(
+                Messages.ERR_IMAGE_SCALING_QUEUE_FULL_2,
+                resource.getRootPath(),
+                scaler.toString()), e);
+        } catch (ExecutionException e) {
+            throw new CmsLoaderException(Messages.get().container(
+                Messages.ERR_UNABLE_TO_SCALE_IMAGE_2,
+                resource.getRootPath(),
+                scaler.toString()), e.getCause());
+        }
+    }
+
+    /**
+     * Starts to generate the configured scaled versions of the images published with a publish job.<p>
+     * 
+     * @param publishIdStr the id of the publish job
+     */
+    private void pregenerateAfterPublish(String publishIdStr) {
+
+        CmsObject cms;
+        List<CmsPublishedResource> publishedResources;
+        try {
+            cms = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserExport());
+            publishedResources = cms.readPublishedResources(new CmsUUID(publishIdStr));
+        } catch (CmsException e) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_IMAGE_PREGENERATION_FAILED_1, publishIdStr), e);
+            return;
+        }
+        for (CmsPublishedResource published : publishedResources) {
+            if ((published.getType() != CmsResourceTypeImage.getStaticTypeId()) || published.getState().isDeleted()) {
+                continue;
+            }
+            try {
+                CmsResource resource = cms.readResource(published.getStructureId(), CmsResourceFilter.ALL);
+                pregenerateScaledImages(cms, resource);
+            } catch (CmsException e) {
+                // also thrown if too many images are waiting to be scaled, this image is then scaled on request 
+                LOG.warn(Messages.get().getBundle().key(
+                    Messages.LOG_IMAGE_PREGENERATION_FAILED_RESOURCE_1,
+                    published.getRootPath()), e);
+            }
+        }
+    }
+
+    /**
+     * Schedules the generation of the scaled images after a publish job in the image scaler pool, 
+     * so that the publish event thread does not have to read the published resources.<p>
+     * 
+     * @param event the publish event
+     */
+    private void schedulePregeneration(CmsEvent event) {
+
+        final String publishIdStr = (String)event.getData().get(I_CmsEventListener.KEY_PUBLISHID);
+        ThreadPoolExecutor pool = m_scalerPool;
+        if ((publishIdStr == null) || (pool == null)) {
+            return;
+        }
+        try {
+            pool.execute(new Runnable() {
+
+                public void run() {
+
+                    pregenerateAfterPublish(publishIdStr);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            // the images of this publish job are scaled on request
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_IMAGE_PREGENERATION_FAILED_1, publishIdStr), e);
+        }
+    }
 }
\ No newline at end of file
@@ -46,6 +46,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_CONFLICTING_RESTYPES_IN_MODULE_5 = "ERR_CONFLICTING_RESTYPES_IN_MODULE_5";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_IMAGE_SCALING_QUEUE_FULL_2 = "ERR_IMAGE_SCALING_QUEUE_FULL_2";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_IMAGE_SCALING_TIMEOUT_2 = "ERR_IMAGE_SCALING_TIMEOUT_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_INVALID_COLLECTOR_NAME_1 = "ERR_INVALID_COLLECTOR_NAME_1";
 
@@ -217,6 +223,12 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_IGNORING_EXC_1 = "LOG_IGNORING_EXC_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_IMAGE_PREGENERATION_FAILED_1 = "LOG_IMAGE_PREGENERATION_FAILED_1";
+
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_IMAGE_PREGENERATION_FAILED_RESOURCE_1 = "LOG_IMAGE_PREGENERATION_FAILED_RESOURCE_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_JSP_PERMCHECK_4 = "LOG_JSP_PERMCHECK_4";
 
@@ -55,6 +55,9 @@ import java.util.Map;
  * locked parent folders. The result of a query to the lock manager
  * are instances of CmsLock objects.<p>
  * 
+ * The locks are stored in the memory monitor sorted by root path, so that locks 
+ * of parent folders and sub-resources are found without iterating over all locks.<p>
+ * 
  * @since 6.0.0 
  * 
  * @see org.opencms.file.CmsObject#getLock(CmsResource)
@@ -126,11 +129,11 @@ public final class CmsLockManager {
         // handle collisions with exclusive locked sub-resources in case of a folder
         if (resource.isFolder() && newLock.getSystemLock().isUnlocked()) {
             String resourceName = resource.getRootPath();
-            Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+            Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getCachedLocks(resourceName).iterator();
             while (itLocks.hasNext()) {
                 CmsLock lock = itLocks.next();
                 String lockedPath = lock.getResourceName();
-                if (lockedPath.startsWith(resourceName) && !lockedPath.equals(resourceName)) {
+                if (!lockedPath.equals(resourceName)) {
                     unlockResource(lockedPath, false);
                 }
             }
@@ -231,7 +234,7 @@ public final class CmsLockManager {
     throws CmsException {
 
         List<CmsResource> lockedResources = new ArrayList<CmsResource>();
-        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+        Iterator<CmsLock> itLocks = getCandidateLocks(resource.getRootPath(), filter).iterator();
         while (itLocks.hasNext()) {
             CmsLock lock = itLocks.next();
             CmsResource lockedResource;
@@ -283,7 +286,7 @@ public final class CmsLockManager {
         Map<String, CmsResource> cache) throws CmsException {
 
         List<CmsResource> lockedResources = new ArrayList<CmsResource>();
-        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+        Iterator<CmsLock> itLocks = getCandidateLocks(resource.getRootPath(), filter).iterator();
         while (itLocks.hasNext()) {
             CmsLock lock = itLocks.next();
             CmsResource lockedResource;
@@ -358,7 +361,7 @@ public final class CmsLockManager {
     public List<CmsLock> getLocks(CmsDbContext dbc, String resourceName, CmsLockFilter filter) throws CmsException {
 
         List<CmsLock> locks = new ArrayList<CmsLock>();
-        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+        Iterator<CmsLock> itLocks = getCandidateLocks(resourceName, filter).iterator();
         while (itLocks.hasNext()) {
             CmsLock lock = itLocks.next();
             if (filter.isSharedExclusive()) {
@@ -404,40 +407,12 @@ public final class CmsLockManager {
         if (resource == null) {
             return false;
         }
-        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getCachedLocks(resource.getRootPath()).iterator();
         while (itLocks.hasNext()) {
             CmsLock lock = itLocks.next();
-            if (lock.getSystemLock().isUnlocked()) {
+            if (!lock.getSystemLock().isUnlocked()) {
                 // only system locks matter here
-                continue;
-            }
-            if (lock.getResourceName().startsWith(resource.getRootPath())) {
-                if (lock.getResourceName().startsWith(resource.getRootPath())) {
-                    return true;
-                }
-                try {
-                    resource = m_driverManager.readResource(dbc, lock.getResourceName(), CmsResourceFilter.ALL);
-                } catch (CmsVfsResourceNotFoundException e) {
-                    OpenCms.getMemoryMonitor().uncacheLock(lock.getResourceName());
-                    continue;
-                }
-                CmsResource lockedResource;
-                try {
-                    lockedResource = m_driverManager.readResource(dbc, lock.getResourceName(), CmsResourceFilter.ALL);
-                } catch (CmsVfsResourceNotFoundException e) {
-                    OpenCms.getMemoryMonitor().uncacheLock(lock.getResourceName());
-                    continue;
-                }
-                if (lockedResource.getSiblingCount() > 1) {
-                    Iterator<CmsResource> itSiblings = internalReadSiblings(dbc, lockedResource).iterator();
-                    while (itSiblings.hasNext()) {
-                        CmsResource sibling = itSiblings.next();
-                        CmsLock siblingLock = internalSiblingLock(lock, sibling.getRootPath());
-                        if (siblingLock.getResourceName().startsWith(resource.getRootPath())) {
-                            return true;
-                        }
-                    }
-                }
+                return true;
             }
         }
         return false;
@@ -577,10 +552,10 @@ public final class CmsLockManager {
             if (resource.isFolder()) {
                 // in case of a folder, remove any exclusive locks on sub-resources that probably have
                 // been upgraded from an inherited lock when the user edited a resource                
-                Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
+                Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getCachedLocks(resourcename).iterator();
                 while (itLocks.hasNext()) {
                     String lockedPath = (itLocks.next()).getResourceName();
-                    if (lockedPath.startsWith(resourcename) && !lockedPath.equals(resourcename)) {
+                    if (!lockedPath.equals(resourcename)) {
                         // remove the exclusive locked sub-resource
                         unlockResource(lockedPath, false);
                     }
@@ -594,13 +569,12 @@ public final class CmsLockManager {
         }
 
         if (lock.getType().isSharedExclusive()) {
-            List<String> locks = OpenCms.getMemoryMonitor().getAllCachedLockPaths();
             // when a resource with a shared lock gets unlocked, fetch all siblings of the resource 
             // to the same content record to identify the exclusive locked sibling
             List<CmsResource> siblings = internalReadSiblings(dbc, resource);
             for (int i = 0; i < siblings.size(); i++) {
                 CmsResource sibling = siblings.get(i);
-                if (locks.contains(sibling.getRootPath())) {
+                if (getDirectLock(sibling.getRootPath()) != null) {
                     // remove the exclusive locked sibling
                     if (removeSystemLock) {
                         unlockResource(sibling.getRootPath(), true);
@@ -746,6 +720,46 @@ public final class CmsLockManager {
         }
     }
 
+    /**
+     * Returns the cached locks which may match the given root path and lock filter.<p>
+     * 
+     * Only the locks of the resource itself, its sub-resources and its parent folders 
+     * are returned, depending on the filter settings. If the filter includes shared locks,
+     * all cached locks are returned since siblings may be located anywhere.<p>
+     * 
+     * @param rootPath the root path
+     * @param filter the lock filter
+     * 
+     * @return the cached locks which may match the given root path and lock filter
+     */
+    private List<CmsLock> getCandidateLocks(String rootPath, CmsLockFilter filter) {
+
+        if (filter.isSharedExclusive()) {
+            return OpenCms.getMemoryMonitor().getAllCachedLocks();
+        }
+        List<CmsLock> locks;
+        if (filter.isIncludeChildren()) {
+            locks = OpenCms.getMemoryMonitor().getCachedLocks(rootPath);
+        } else {
+            locks = new ArrayList<CmsLock>();
+        }
+        if (filter.isIncludeParent()) {
+            String parentFolder = rootPath;
+            if (filter.isIncludeChildren() || !rootPath.endsWith("/")) {
+                // the lock of the resource itself has already been added or is no parent lock
+                parentFolder = CmsResource.getParentFolder(rootPath);
+            }
+            while (parentFolder != null) {
+                CmsLock lock = getDirectLock(parentFolder);
+                if (lock != null) {
+                    locks.add(lock);
+                }
+                parentFolder = CmsResource.getParentFolder(parentFolder);
+            }
+        }
+        return locks;
+    }
+
     /**
      * Returns the direct lock of a resource.<p>
      * 
@@ -767,12 +781,10 @@ public final class CmsLockManager {
      */
     private CmsLock getParentFolderLock(String resourceName) {
 
-        Iterator<CmsLock> itLocks = OpenCms.getMemoryMonitor().getAllCachedLocks().iterator();
-        while (itLocks.hasNext()) {
-            CmsLock lock = itLocks.next();
-            if (lock.getResourceName().endsWith("/")
-                && resourceName.startsWith(lock.getResourceName())
-                && !resourceName.equals(lock.getResourceName())) {
+        String parentFolder = CmsResource.getParentFolder(resourceName);
+        while (parentFolder != null) {
+            CmsLock lock = getDirectLock(parentFolder);
+            if (lock != null) {
                 // system locks does not get inherited
                 lock = lock.getEditionLock();
                 // check the lock
@@ -780,6 +792,7 @@ public final class CmsLockManager {
                     return lock;
                 }
             }
+            parentFolder = CmsResource.getParentFolder(parentFolder);
         }
         return CmsLock.getNullLock();
     }
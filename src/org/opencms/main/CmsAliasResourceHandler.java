@@ -40,7 +40,6 @@ import org.opencms.util.CmsFileUtil;
 import org.opencms.workplace.CmsWorkplace;
 
 import java.io.IOException;
-import java.util.List;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -114,10 +113,8 @@ public class CmsAliasResourceHandler implements I_CmsResourceInit {
                 }
                 return null;
             }
-            List<CmsAlias> aliases = OpenCms.getAliasManager().getAliasesForPath(cms, siteRoot, sitePath);
-            assert aliases.size() < 2;
-            if (aliases.size() == 1) {
-                CmsAlias alias = aliases.get(0);
+            CmsAlias alias = OpenCms.getAliasManager().getAliasForPathCached(cms, siteRoot, sitePath);
+            if (alias != null) {
                 CmsResource aliasTarget = cms.readResource(alias.getStructureId());
 
                 if (alias.isRedirect()) {
@@ -0,0 +1,261 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.i18n.CmsEncoder;
+import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * An OpenCms event that is distributed to the other nodes of an OpenCms cluster.<p>
+ * 
+ * Only the serializable subset of the event data is distributed, that is values of type 
+ * <code>{@link String}</code>, <code>{@link Integer}</code>, <code>{@link Long}</code>, 
+ * <code>{@link Boolean}</code> and <code>{@link CmsUUID}</code>. 
+ * All other values, like the report or the database context, are only available on the 
+ * node where the event was fired.<p>
+ * 
+ * @since 9.0.0
+ * 
+ * @see CmsClusterEventManager
+ * @see I_CmsClusterEventTransport
+ */
+public class CmsClusterEvent {
+
+    /** The separator between the event data entries in the serialized form. */
+    private static final char ENTRY_SEPARATOR = '&';
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsClusterEvent.class);
+
+    /** The type prefix for boolean values. */
+    private static final char TYPE_BOOLEAN = 'b';
+
+    /** The type prefix for integer values. */
+    private static final char TYPE_INTEGER = 'i';
+
+    /** The type prefix for long values. */
+    private static final char TYPE_LONG = 'l';
+
+    /** The type prefix for string values. */
+    private static final char TYPE_STRING = 's';
+
+    /** The type prefix for UUID values. */
+    private static final char TYPE_UUID = 'u';
+
+    /** The separator between key and value in the serialized form. */
+    private static final char VALUE_SEPARATOR = '=';
+
+    /** The serializable event data. */
+    private Map<String, Object> m_data;
+
+    /** The id of the cluster node that fired the event. */
+    private String m_nodeId;
+
+    /** The event type. */
+    private int m_type;
+
+    /**
+     * Creates a new cluster event.<p>
+     * 
+     * @param nodeId the id of the cluster node that fired the event
+     * @param type the event type
+     * @param data the event data, values that can not be serialized are ignored
+     */
+    public CmsClusterEvent(String nodeId, int type, Map<String, Object> data) {
+
+        m_nodeId = nodeId;
+        m_type = type;
+        m_data = new HashMap<String, Object>();
+        if (data != null) {
+            for (Map.Entry<String, Object> entry : data.entrySet()) {
+                if (isSerializable(entry.getValue())) {
+                    m_data.put(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+    }
+
+    /**
+     * Creates a new cluster event from the serialized event data.<p>
+     * 
+     * @param nodeId the id of the cluster node that fired the event
+     * @param type the event type
+     * @param serializedData the event data, as created by {@link #getSerializedData()}
+     * 
+     * @return the cluster event
+     */
+    public static CmsClusterEvent valueOf(String nodeId, int type, String serializedData) {
+
+        Map<String, Object> data = new HashMap<String, Object>();
+        if (CmsStringUtil.isNotEmpty(serializedData)) {
+            List<String> entries = CmsStringUtil.splitAsList(serializedData, ENTRY_SEPARATOR);
+            for (String entry : entries) {
+                int pos = entry.indexOf(VALUE_SEPARATOR);
+                if ((pos <= 0) || (pos > (entry.length() - 2))) {
+                    continue;
+                }
+                String key = CmsEncoder.decode(entry.substring(0, pos), CmsEncoder.ENCODING_UTF_8);
+                char valueType = entry.charAt(pos + 1);
+                String value = CmsEncoder.decode(entry.substring(pos + 2), CmsEncoder.ENCODING_UTF_8);
+                try {
+                    switch (valueType) {
+                        case TYPE_BOOLEAN:
+                            data.put(key, Boolean.valueOf(value));
+                            break;
+                        case TYPE_INTEGER:
+                            data.put(key, Integer.valueOf(value));
+                            break;
+                        case TYPE_LONG:
+                            data.put(key, Long.valueOf(value));
+                            break;
+                        case TYPE_UUID:
+                            data.put(key, new CmsUUID(value));
+                            break;
+                        case TYPE_STRING:
+                        default:
+                            data.put(key, value);
+                            break;
+                    }
+                } catch (NumberFormatException e) {
+                    // should not happen, the entry is ignored
+                    LOG.error(e.getLocalizedMessage(), e);
+                }
+            }
+        }
+        return new CmsClusterEvent(nodeId, type, data);
+    }
+
+    /**
+     * Returns <code>true</code> if the given event data value is distributed to other cluster nodes.<p>
+     * 
+     * @param value the event data value to check
+     * 
+     * @return <code>true</code> if the given event data value is distributed to other cluster nodes
+     */
+    public static boolean isSerializable(Object value) {
+
+        return (value instanceof String)
+            || (value instanceof Integer)
+            || (value instanceof Long)
+            || (value instanceof Boolean)
+            || (value instanceof CmsUUID);
+    }
+
+    /**
+     * Returns the serializable event data.<p>
+     * 
+     * @return the serializable event data
+     */
+    public Map<String, Object> getData() {
+
+        return Collections.unmodifiableMap(m_data);
+    }
+
+    /**
+     * Returns the id of the cluster node that fired the event.<p>
+     * 
+     * @return the id of the cluster node that fired the event
+     */
+    public String getNodeId() {
+
+        return m_nodeId;
+    }
+
+    /**
+     * Returns the event data in serialized form.<p>
+     * 
+     * @return the event data in serialized form
+     */
+    public String getSerializedData() {
+
+        StringBuffer result = new StringBuffer();
+        Iterator<Map.Entry<String, Object>> it = m_data.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Object> entry = it.next();
+            Object value = entry.getValue();
+            char valueType;
+            if (value instanceof Boolean) {
+                valueType = TYPE_BOOLEAN;
+            } else if (value instanceof Integer) {
+                valueType = TYPE_INTEGER;
+            } else if (value instanceof Long) {
+                valueType = TYPE_LONG;
+            } else if (value instanceof CmsUUID) {
+                valueType = TYPE_UUID;
+            } else {
+                valueType = TYPE_STRING;
+            }
+            result.append(CmsEncoder.encode(entry.getKey(), CmsEncoder.ENCODING_UTF_8));
+            result.append(VALUE_SEPARATOR);
+            result.append(valueType);
+            result.append(CmsEncoder.encode(value.toString(), CmsEncoder.ENCODING_UTF_8));
+            if (it.hasNext()) {
+                result.append(ENTRY_SEPARATOR);
+            }
+        }
+        return result.toString();
+    }
+
+    /**
+     * Returns the event type.<p>
+     * 
+     * @return the event type
+     */
+    public int getType() {
+
+        return m_type;
+    }
+
+    /**
+     * Creates the OpenCms event that is fired on the receiving cluster node.<p>
+     * 
+     * @return the OpenCms event that is fired on the receiving cluster node
+     */
+    public CmsEvent toCmsEvent() {
+
+        return new CmsEvent(m_type, new HashMap<String, Object>(m_data));
+    }
+
+    /**
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+
+        return "[" + m_nodeId + ", " + m_type + ", " + getSerializedData() + "]";
+    }
+}
@@ -0,0 +1,217 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.db.CmsDbClusterEventTransport;
+import org.opencms.util.CmsUUID;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.apache.commons.logging.Log;
+
+/**
+ * Event manager that distributes events to the other nodes of an OpenCms cluster.<p>
+ * 
+ * Events of the types returned by {@link #getClusterEventTypes()} are fired on the local node 
+ * first, and are then sent to all other cluster nodes with the configured {@link I_CmsClusterEventTransport}.
+ * The other nodes fire the events to their local listeners, so that their caches are invalidated 
+ * the same way as the caches of the node where the event originated.<p>
+ * 
+ * Only the serializable subset of the event data is distributed, see {@link CmsClusterEvent}.
+ * By default, the events are distributed with a {@link CmsDbClusterEventTransport}.
+ * To use this event manager, configure it in the <code>&lt;events&gt;</code> node of 
+ * <code>opencms-system.xml</code> on all cluster nodes.<p>
+ * 
+ * @since 9.0.0
+ */
+public class CmsClusterEventManager extends CmsEventManager {
+
+    /** The event types distributed by default. */
+    public static final int[] DEFAULT_CLUSTER_EVENT_TYPES = new int[] {
+        I_CmsEventListener.EVENT_ALIASES_MODIFIED,
+        I_CmsEventListener.EVENT_PUBLISH_PROJECT,
+        I_CmsEventListener.EVENT_CLEAR_CACHES,
+        I_CmsEventListener.EVENT_CLEAR_ONLINE_CACHES,
+        I_CmsEventListener.EVENT_CLEAR_OFFLINE_CACHES,
+        I_CmsEventListener.EVENT_CLEAR_PRINCIPAL_CACHES,
+        I_CmsEventListener.EVENT_FLEX_CACHE_CLEAR,
+        I_CmsEventListener.EVENT_FLEX_PURGE_JSP_REPOSITORY,
+        I_CmsEventListener.EVENT_USER_MODIFIED,
+        I_CmsEventListener.EVENT_GROUP_MODIFIED,
+        I_CmsEventListener.EVENT_OU_MODIFIED};
+
+    /** The log object for this class. */
+    private static final Log LOG = CmsLog.getLog(CmsClusterEventManager.class);
+
+    /** The event types distributed to the other cluster nodes. */
+    private volatile Set<Integer> m_clusterEventTypes;
+
+    /** The id of this cluster node. */
+    private String m_nodeId;
+
+    /** The transport used to distribute the events. */
+    private I_CmsClusterEventTransport m_transport;
+
+    /**
+     * Creates a new cluster event manager that uses a {@link CmsDbClusterEventTransport}.<p>
+     */
+    public CmsClusterEventManager() {
+
+        this(new CmsDbClusterEventTransport());
+    }
+
+    /**
+     * Creates a new cluster event manager that uses the given transport.<p>
+     * 
+     * @param transport the transport used to distribute the events
+     */
+    public CmsClusterEventManager(I_CmsClusterEventTransport transport) {
+
+        super();
+        m_transport = transport;
+        // the node id must be unique for every started instance
+        m_nodeId = new CmsUUID().toString();
+        m_clusterEventTypes = new HashSet<Integer>();
+        for (int i = 0; i < DEFAULT_CLUSTER_EVENT_TYPES.length; i++) {
+            m_clusterEventTypes.add(new Integer(DEFAULT_CLUSTER_EVENT_TYPES[i]));
+        }
+    }
+
+    /**
+     * Adds an event type that is distributed to the other cluster nodes.<p>
+     * 
+     * @param eventType the event type to add
+     */
+    public synchronized void addClusterEventType(int eventType) {
+
+        // copy on write, the set is read without synchronization when firing events
+        Set<Integer> clusterEventTypes = new HashSet<Integer>(m_clusterEventTypes);
+        clusterEventTypes.add(new Integer(eventType));
+        m_clusterEventTypes = clusterEventTypes;
+    }
+
+    /**
+     * Fires the event to the local listeners, and sends it to the other cluster nodes 
+     * if the event type is distributed.<p>
+     * 
+     * @see org.opencms.main.CmsEventManager#fireEvent(org.opencms.main.CmsEvent)
+     */
+    @Override
+    public void fireEvent(CmsEvent event) {
+
+        super.fireEvent(event);
+        if (m_clusterEventTypes.contains(event.getTypeInteger())) {
+            CmsClusterEvent clusterEvent = new CmsClusterEvent(m_nodeId, event.getType(), event.getData());
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_CLUSTER_EVENT_SEND_1, clusterEvent));
+            }
+            try {
+                m_transport.send(clusterEvent);
+            } catch (Throwable t) {
+                // the local event has already been handled
+                LOG.error(Messages.get().getBundle().key(Messages.LOG_CLUSTER_EVENT_SEND_FAILED_1, clusterEvent), t);
+            }
+        }
+    }
+
+    /**
+     * Returns the event types distributed to the other cluster nodes.<p>
+     * 
+     * @return the event types distributed to the other cluster nodes
+     */
+    public Set<Integer> getClusterEventTypes() {
+
+        return Collections.unmodifiableSet(m_clusterEventTypes);
+    }
+
+    /**
+     * Returns the id of this cluster node.<p>
+     * 
+     * @return the id of this cluster node
+     */
+    public String getNodeId() {
+
+        return m_nodeId;
+    }
+
+    /**
+     * Returns the transport used to distribute the events.<p>
+     * 
+     * @return the transport used to distribute the events
+     */
+    public I_CmsClusterEventTransport getTransport() {
+
+        return m_transport;
+    }
+
+    /**
+     * Fires an event received from another cluster node to the local listeners.<p>
+     * 
+     * Events that have been sent by this node are ignored.<p>
+     * 
+     * @param event the received event
+     */
+    public void receiveEvent(CmsClusterEvent event) {
+
+        if (m_nodeId.equals(event.getNodeId())) {
+            return;
+        }
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(Messages.LOG_CLUSTER_EVENT_RECEIVED_1, event));
+        }
+        try {
+            // only fire to the local listeners, the event must not be sent again
+            super.fireEvent(event.toCmsEvent());
+        } catch (Throwable t) {
+            LOG.error(Messages.get().getBundle().key(Messages.LOG_CLUSTER_EVENT_RECEIVE_FAILED_1, event), t);
+        }
+    }
+
+    /**
+     * @see org.opencms.main.CmsEventManager#shutDown()
+     */
+    @Override
+    public void shutDown() {
+
+        m_transport.shutDown();
+    }
+
+    /**
+     * Starts the transport after the event listeners have been copied from the base event manager.<p>
+     * 
+     * @see org.opencms.main.CmsEventManager#initialize(org.opencms.main.CmsEventManager)
+     */
+    @Override
+    protected void initialize(CmsEventManager base) {
+
+        super.initialize(base);
+        m_transport.initialize(this);
+    }
+}
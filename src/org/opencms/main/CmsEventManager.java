@@ -155,6 +155,17 @@ public class CmsEventManager {
         }
     }
 
+    /**
+     * Shuts down this event manager.<p>
+     * 
+     * The default implementation does nothing, subclasses can override this 
+     * to release the resources they use.<p>
+     */
+    public void shutDown() {
+
+        // noop
+    }
+
     /**
      * Returns the map of all configured event listeners.<p>
      * 
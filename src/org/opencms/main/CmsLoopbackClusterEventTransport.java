@@ -0,0 +1,90 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * In memory cluster event transport that connects event managers in the same JVM.<p>
+ * 
+ * All event managers initialized with the same instance of this transport act like the 
+ * nodes of one cluster. The events are delivered synchronously in the thread that fired the event.
+ * This transport is intended for tests.<p>
+ * 
+ * @since 9.0.0
+ */
+public class CmsLoopbackClusterEventTransport implements I_CmsClusterEventTransport {
+
+    /** The event managers connected by this transport. */
+    private List<CmsClusterEventManager> m_managers;
+
+    /**
+     * Creates a new loopback transport.<p>
+     */
+    public CmsLoopbackClusterEventTransport() {
+
+        m_managers = new ArrayList<CmsClusterEventManager>();
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsClusterEventTransport#initialize(org.opencms.main.CmsClusterEventManager)
+     */
+    public synchronized void initialize(CmsClusterEventManager manager) {
+
+        if (!m_managers.contains(manager)) {
+            m_managers.add(manager);
+        }
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsClusterEventTransport#send(org.opencms.main.CmsClusterEvent)
+     */
+    public void send(CmsClusterEvent event) {
+
+        List<CmsClusterEventManager> managers;
+        synchronized (this) {
+            managers = new ArrayList<CmsClusterEventManager>(m_managers);
+        }
+        for (CmsClusterEventManager manager : managers) {
+            // pass the event in serialized form like a real transport, the manager ignores its own events
+            manager.receiveEvent(CmsClusterEvent.valueOf(
+                event.getNodeId(),
+                event.getType(),
+                event.getSerializedData()));
+        }
+    }
+
+    /**
+     * @see org.opencms.main.I_CmsClusterEventTransport#shutDown()
+     */
+    public synchronized void shutDown() {
+
+        m_managers.clear();
+    }
+}
@@ -0,0 +1,58 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+/**
+ * Transport used by the {@link CmsClusterEventManager} to distribute events to the other nodes of an OpenCms cluster.<p>
+ * 
+ * A transport sends the events fired on the local node, and passes the events received from 
+ * other nodes to {@link CmsClusterEventManager#receiveEvent(CmsClusterEvent)}.<p>
+ * 
+ * @since 9.0.0
+ */
+public interface I_CmsClusterEventTransport {
+
+    /**
+     * Starts this transport for the given event manager.<p>
+     * 
+     * @param manager the event manager to pass the received events to
+     */
+    void initialize(CmsClusterEventManager manager);
+
+    /**
+     * Sends an event fired on the local node to the other cluster nodes.<p>
+     * 
+     * @param event the event to send
+     */
+    void send(CmsClusterEvent event);
+
+    /**
+     * Stops this transport.<p>
+     */
+    void shutDown();
+}
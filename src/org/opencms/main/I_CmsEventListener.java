@@ -61,6 +61,13 @@ package org.opencms.main;
  */
 public interface I_CmsEventListener {
 
+    /**
+     * Event "aliases or rewrite aliases have been modified".<p>
+     * 
+     * Event data: none
+     */
+    int EVENT_ALIASES_MODIFIED = 34;
+
     /**
      * Event "a project is to published" (but has not yet been published).<p>
      * 
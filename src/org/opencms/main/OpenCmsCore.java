@@ -65,6 +65,7 @@ import org.opencms.i18n.CmsLocaleManager;
 import org.opencms.i18n.CmsMessageContainer;
 import org.opencms.i18n.CmsVfsBundleManager;
 import org.opencms.importexport.CmsImportExportManager;
+import org.opencms.jsp.CmsJspNavigationCache;
 import org.opencms.jsp.util.CmsErrorBean;
 import org.opencms.loader.CmsResourceManager;
 import org.opencms.loader.CmsTemplateContextManager;
@@ -1325,6 +1326,7 @@ public final class OpenCmsCore {
             // initialize ade manager
             // initialize the formatter configuration
             CmsFormatterConfiguration.initialize(adminCms);
+            CmsJspNavigationCache.initialize(adminCms);
             //m_adeManager = new CmsADEManager(initCmsObject(adminCms), m_memoryMonitor, systemConfiguration);
             m_adeManager = new CmsADEManager(adminCms, m_memoryMonitor, systemConfiguration);
             m_templateContextManager = new CmsTemplateContextManager(adminCms);
@@ -1638,13 +1640,8 @@ public final class OpenCmsCore {
             rpcService.checkPermissions(cms);
             // set runtime variables
             rpcService.setCms(cms);
-            Object lock = req.getSession();
-            if (lock == null) {
-                lock = new Object();
-            }
-            synchronized (lock) {
-                rpcService.service(req, res);
-            }
+            // the service itself serializes the calls of a session that are not free of side effects 
+            rpcService.service(req, res);
             // update the session info
             m_sessionManager.updateSessionInfo(cms, req);
         } catch (CmsRoleViolationException rv) {
@@ -1767,6 +1764,16 @@ public final class OpenCmsCore {
                         Messages.get().getBundle().key(Messages.LOG_ERROR_PUBLISH_SHUTDOWN_1, e.getMessage()),
                         e);
                 }
+                try {
+                    // stop distributing events to the other cluster nodes after the last publish event has been sent
+                    if (m_eventManager != null) {
+                        m_eventManager.shutDown();
+                    }
+                } catch (Throwable e) {
+                    CmsLog.INIT.error(
+                        Messages.get().getBundle().key(Messages.LOG_ERROR_EVENT_MANAGER_SHUTDOWN_1, e.getMessage()),
+                        e);
+                }
                 try {
                     // search manager must be shut down early since there may be background indexing still ongoing
                     if (m_searchManager != null) {
@@ -76,10 +76,14 @@ import java.util.Collections;
 import java.util.ConcurrentModificationException;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
 
 import javax.mail.internet.InternetAddress;
 
@@ -163,6 +167,9 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** Maximum depth for object size recursion. */
     private static final int MAX_DEPTH = 5;
 
+    /** Maximum number of published resources for which the caches are cleared selectively. */
+    private static final int MAX_SELECTIVE_CLEAR = 1000;
+
     /** Cache for access control lists. */
     private Map<String, CmsAccessControlList> m_cacheAccessControlList;
 
@@ -178,8 +185,8 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
     /** A cache for accelerated locale lookup. */
     private Map<String, Locale> m_cacheLocale;
 
-    /** Cache for the resource locks. */
-    private Map<String, CmsLock> m_cacheLock;
+    /** Cache for the resource locks, sorted by root path to allow fast sub-tree lookups. */
+    private ConcurrentNavigableMap<String, CmsLock> m_cacheLock;
 
     /** The memory object cache map. */
     private Map<String, Object> m_cacheMemObject;
@@ -902,6 +909,76 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         flushCache(CacheType.PUBLISHED_RESOURCES);
     }
 
+    /**
+     * Clears only the resource related cache entries that depend on the given published resources.<p>
+     * 
+     * Removed are the cached resources and property lists of the published resources 
+     * (including the sub-trees of published folders), the cached resource lists of all 
+     * their parent folders and the cached access control lists and permissions of the 
+     * published resources. If a folder was published, all access control lists and 
+     * permissions are removed, since they are inherited.<p>
+     * 
+     * For structural changes, i.e. moved folders or resources with siblings, as well 
+     * as for very large publish lists, this falls back to {@link #clearCache()}.<p>
+     * 
+     * @param publishedResources the published resources, if <code>null</code> all caches are cleared
+     */
+    public void clearCacheForPublishedResources(List<CmsPublishedResource> publishedResources) {
+
+        if ((publishedResources == null) || (publishedResources.size() > MAX_SELECTIVE_CLEAR)) {
+            clearCache();
+            return;
+        }
+
+        Set<String> files = new HashSet<String>();
+        Set<String> folders = new HashSet<String>();
+        Set<String> parentFolders = new HashSet<String>();
+        Set<String> structureIds = new HashSet<String>();
+        for (CmsPublishedResource pubRes : publishedResources) {
+            if ((pubRes.isFolder() && pubRes.isMoved())
+                || (pubRes.getSiblingCount() > 1)
+                || pubRes.getStructureId().isNullUUID()) {
+                // structural change, can not be resolved selectively
+                clearCache();
+                return;
+            }
+            String rootPath = pubRes.getRootPath();
+            if (pubRes.isFolder()) {
+                folders.add(rootPath);
+                parentFolders.add(rootPath);
+            } else {
+                files.add(rootPath);
+            }
+            structureIds.add(pubRes.getStructureId().toString());
+            String parentFolder = CmsResource.getParentFolder(rootPath);
+            while (parentFolder != null) {
+                parentFolders.add(parentFolder);
+                parentFolder = CmsResource.getParentFolder(parentFolder);
+            }
+        }
+
+        flushCache(CacheType.PROJECT);
+        flushCache(CacheType.PROJECT_RESOURCES);
+        flushCache(CacheType.PROPERTY);
+        flushCache(CacheType.HAS_ROLE);
+        flushCache(CacheType.ROLE_LIST);
+        if (folders.isEmpty()) {
+            uncacheByKeyParts(m_cacheAccessControlList, structureIds);
+            uncacheByKeyParts(m_cachePermission, structureIds);
+        } else {
+            flushCache(CacheType.ACL);
+            flushCache(CacheType.PERMISSION);
+        }
+        uncacheByPath(m_cacheResource, files, folders);
+        uncacheByPath(m_cachePropertyList, files, folders);
+        Set<String> parentKeyParts = new HashSet<String>(parentFolders.size());
+        for (String parent : parentFolders) {
+            // resource list cache keys contain the folder paths separated by '_'
+            parentKeyParts.add("_" + parent + "_");
+        }
+        uncacheByKeyParts(m_cacheResourceList, parentKeyParts);
+    }
+
     /**
      * Clears all internal principal-related caches.<p>
      */
@@ -1121,7 +1198,7 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
             return;
         }
         // initialize new lock cache
-        Map<String, CmsLock> newLockCache = Collections.synchronizedMap(newLocks);
+        ConcurrentNavigableMap<String, CmsLock> newLockCache = new ConcurrentSkipListMap<String, CmsLock>(newLocks);
         // register it
         register(CmsLockManager.class.getName(), newLockCache);
         // save the old cache
@@ -1448,6 +1525,21 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         return m_cacheLock.get(rootPath);
     }
 
+    /**
+     * Returns all cached locks for the given root path and the resources below it.<p>
+     * 
+     * Since the lock cache is sorted by root path, this does not need to iterate over all cached locks.<p>
+     * 
+     * @param rootPath the root path to look for, for folders this has to end with a slash
+     * 
+     * @return a list of {@link CmsLock} objects, sorted by root path
+     */
+    public List<CmsLock> getCachedLocks(String rootPath) {
+
+        String upperBound = rootPath + Character.MAX_VALUE;
+        return new ArrayList<CmsLock>(m_cacheLock.subMap(rootPath, true, upperBound, false).values());
+    }
+
     /**
      * Returns the memory object cached with the given cache key or <code>null</code> if not found.<p>
      * 
@@ -1838,9 +1930,8 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         register(CmsXmlEntityResolver.class.getName() + ".contentDefinitionsCache", m_cacheContentDefinitions);
 
         // lock cache
-        Map<String, CmsLock> lockCache = new HashMap<String, CmsLock>();
-        m_cacheLock = Collections.synchronizedMap(lockCache);
-        register(CmsLockManager.class.getName(), lockCache);
+        m_cacheLock = new ConcurrentSkipListMap<String, CmsLock>();
+        register(CmsLockManager.class.getName(), m_cacheLock);
 
         // locale cache
         Map<String, Locale> map = new HashMap<String, Locale>();
@@ -2250,6 +2341,16 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_cacheProject.remove(project.getName());
     }
 
+    /**
+     * Removes the cached property lists of the given folder and of all resources below it.<p>
+     * 
+     * @param folderRootPath the root path of the folder
+     */
+    public void uncachePropertyListsOfSubtree(String folderRootPath) {
+
+        uncacheByPath(m_cachePropertyList, Collections.<String> emptySet(), Collections.singleton(folderRootPath));
+    }
+
     /**
      * Removes the given publish job from the cache.<p>
      * 
@@ -2731,4 +2832,65 @@ public class CmsMemoryMonitor implements I_CmsScheduledJob {
         m_memoryCurrent.update();
         m_memoryAverage.calculateAverage(m_memoryCurrent);
     }
+
+    /**
+     * Removes all entries from the given cache which have a key that contains one of the given strings.<p>
+     * 
+     * @param cache the cache to remove the entries from
+     * @param keyParts the strings to look for in the cache keys
+     */
+    private void uncacheByKeyParts(Map<String, ?> cache, Set<String> keyParts) {
+
+        if (keyParts.isEmpty()) {
+            return;
+        }
+        synchronized (cache) {
+            Iterator<String> itKeys = cache.keySet().iterator();
+            while (itKeys.hasNext()) {
+                String key = itKeys.next();
+                for (String keyPart : keyParts) {
+                    if (key.indexOf(keyPart) > -1) {
+                        itKeys.remove();
+                        break;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Removes all entries from the given cache which have a key ending with one of the given paths, 
+     * or with a path inside one of the given folders.<p>
+     * 
+     * The path is expected to start at the first <code>'/'</code> of the cache key.<p>
+     * 
+     * @param cache the cache to remove the entries from
+     * @param paths the paths to remove
+     * @param folders the folders to remove including all resources inside
+     */
+    private void uncacheByPath(Map<String, ?> cache, Set<String> paths, Set<String> folders) {
+
+        synchronized (cache) {
+            Iterator<String> itKeys = cache.keySet().iterator();
+            while (itKeys.hasNext()) {
+                String key = itKeys.next();
+                int pos = key.indexOf('/');
+                if (pos < 0) {
+                    continue;
+                }
+                String path = key.substring(pos);
+                if (paths.contains(path)) {
+                    itKeys.remove();
+                    continue;
+                }
+                while (path != null) {
+                    if (folders.contains(path)) {
+                        itKeys.remove();
+                        break;
+                    }
+                    path = CmsResource.getParentFolder(path);
+                }
+            }
+        }
+    }
 }
@@ -36,6 +36,9 @@ import org.opencms.loader.CmsResourceManager;
 import org.opencms.main.CmsException;
 import org.opencms.main.OpenCms;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * Represents a single entry in the repository. In the context of OpenCms
  * this means a single {@link CmsResource}.<p>
@@ -163,4 +166,25 @@ public class CmsRepositoryItem implements I_CmsRepositoryItem {
         return m_resource.isFolder();
     }
 
+    /**
+     * @see org.opencms.repository.I_CmsRepositoryItem#writeContent(java.io.OutputStream)
+     */
+    public void writeContent(OutputStream out) throws IOException {
+
+        if (!m_resource.isFile()) {
+            return;
+        }
+
+        if (m_content != null) {
+            // the content has already been read
+            out.write(m_content);
+            return;
+        }
+        try {
+            m_cms.readContent(m_cms.getSitePath(m_resource), CmsResourceFilter.IGNORE_EXPIRATION, out);
+        } catch (CmsException ex) {
+            throw new IOException(ex.getLocalizedMessage(), ex);
+        }
+    }
+
 }
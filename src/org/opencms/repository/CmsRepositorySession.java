@@ -27,14 +27,15 @@
 
 package org.opencms.repository;
 
-import org.opencms.file.CmsFile;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.CmsUser;
 import org.opencms.file.CmsVfsResourceAlreadyExistsException;
 import org.opencms.file.CmsVfsResourceNotFoundException;
 import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.I_CmsResourceType;
 import org.opencms.file.wrapper.CmsObjectWrapper;
+import org.opencms.loader.CmsDumpLoader;
 import org.opencms.lock.CmsLock;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
@@ -42,12 +43,16 @@ import org.opencms.main.OpenCms;
 import org.opencms.security.CmsSecurityException;
 import org.opencms.util.CmsFileUtil;
 
+import java.io.ByteArrayInputStream;
+import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.DeferredFileOutputStream;
 import org.apache.commons.logging.Log;
 
 /**
@@ -69,6 +74,9 @@ public class CmsRepositorySession extends A_CmsRepositorySession {
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsRepositorySession.class);
 
+    /** Uploads larger than this number of bytes are spooled to a temporary file instead of memory. */
+    private static final int SPOOL_THRESHOLD = 1024 * 1024;
+
     /** The initialized {@link CmsObjectWrapper}. */
     private final CmsObjectWrapper m_cms;
 
@@ -367,57 +375,21 @@ public class CmsRepositorySession extends A_CmsRepositorySession {
     public void save(String path, InputStream inputStream, boolean overwrite) throws CmsException, IOException {
 
         path = validatePath(path);
-        byte[] content = CmsFileUtil.readFully(inputStream);
 
+        // spool the uploaded content, so that its length is known without buffering large files in memory
+        DeferredFileOutputStream spool = new DeferredFileOutputStream(SPOOL_THRESHOLD, "opencms-upload", ".tmp", null);
         try {
-            CmsFile file = m_cms.readFile(path, CmsResourceFilter.DEFAULT);
-
-            if (LOG.isDebugEnabled()) {
-                LOG.debug(Messages.get().getBundle().key(Messages.LOG_UPDATE_ITEM_1, path));
-            }
-
-            if (overwrite) {
-
-                file.setContents(content);
-
-                CmsLock lock = m_cms.getLock(file);
-
-                // lock resource
-                if (!lock.isInherited()) {
-                    m_cms.lockResource(path);
-                }
-
-                // write file
-                m_cms.writeFile(file);
-
-                if (lock.isNullLock()) {
-                    m_cms.unlockResource(path);
-                }
-            } else {
-
-                if (LOG.isDebugEnabled()) {
-                    LOG.debug(Messages.get().getBundle().key(Messages.ERR_DEST_EXISTS_0));
-                }
-
-                throw new CmsVfsResourceAlreadyExistsException(Messages.get().container(Messages.ERR_DEST_EXISTS_0));
-            }
-        } catch (CmsVfsResourceNotFoundException ex) {
-
-            if (LOG.isDebugEnabled()) {
-                LOG.debug(Messages.get().getBundle().key(Messages.LOG_CREATE_ITEM_1, path));
+            try {
+                IOUtils.copy(inputStream, spool);
+            } finally {
+                spool.close();
             }
-
-            int type = OpenCms.getResourceManager().getDefaultTypeForName(path).getTypeId();
-
-            // create the file
-            CmsResource res = m_cms.createResource(path, type, content, null);
-
-            // unlock file after creation if lock is not inherited
-            if (!m_cms.getLock(res).isInherited()) {
-                m_cms.unlockResource(path);
+            save(path, spool, overwrite);
+        } finally {
+            if (!spool.isInMemory()) {
+                spool.getFile().delete();
             }
         }
-
     }
 
     /**
@@ -489,4 +461,119 @@ public class CmsRepositorySession extends A_CmsRepositorySession {
 
         return ret;
     }
-}
\ No newline at end of file
+
+    /**
+     * Opens an input stream on the spooled content of an upload.<p>
+     * 
+     * @param spool the spooled content
+     * 
+     * @return an input stream to read the spooled content from
+     * 
+     * @throws IOException if the spool file could not be opened
+     */
+    private InputStream openSpool(DeferredFileOutputStream spool) throws IOException {
+
+        if (spool.isInMemory()) {
+            return new ByteArrayInputStream(spool.getData());
+        }
+        return new FileInputStream(spool.getFile());
+    }
+
+    /**
+     * Saves the spooled content of an upload at the given destination.<p>
+     * 
+     * Resources that are delivered with the {@link CmsDumpLoader} are written with 
+     * {@link CmsObjectWrapper#writeContent(String, InputStream, int)}, so the content is streamed 
+     * to the VFS instead of being buffered completely in memory.<p>
+     * 
+     * @param path the destination path
+     * @param spool the spooled content
+     * @param overwrite true if any existing resource should be overwritten
+     * 
+     * @throws CmsException if something goes wrong
+     * @throws IOException if reading the spooled content fails
+     */
+    private void save(String path, DeferredFileOutputStream spool, boolean overwrite)
+    throws CmsException, IOException {
+
+        int length = (int)spool.getByteCount();
+        try {
+            CmsResource resource = m_cms.readResource(path, CmsResourceFilter.DEFAULT);
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_UPDATE_ITEM_1, path));
+            }
+
+            if (overwrite) {
+
+                CmsLock lock = m_cms.getLock(resource);
+
+                // lock resource
+                if (!lock.isInherited()) {
+                    m_cms.lockResource(path);
+                }
+
+                // write content
+                writeContent(path, spool, length);
+
+                if (lock.isNullLock()) {
+                    m_cms.unlockResource(path);
+                }
+            } else {
+
+                if (LOG.isDebugEnabled()) {
+                    LOG.debug(Messages.get().getBundle().key(Messages.ERR_DEST_EXISTS_0));
+                }
+
+                throw new CmsVfsResourceAlreadyExistsException(Messages.get().container(Messages.ERR_DEST_EXISTS_0));
+            }
+        } catch (CmsVfsResourceNotFoundException ex) {
+
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_CREATE_ITEM_1, path));
+            }
+
+            I_CmsResourceType type = OpenCms.getResourceManager().getDefaultTypeForName(path);
+
+            // create the file
+            CmsResource res;
+            if (type.getLoaderId() == CmsDumpLoader.RESOURCE_LOADER_ID) {
+                res = m_cms.createResource(path, type.getTypeId(), new byte[0], null);
+                writeContent(path, spool, length);
+            } else {
+                InputStream in = openSpool(spool);
+                try {
+                    res = m_cms.createResource(path, type.getTypeId(), CmsFileUtil.readFully(in, length, false), null);
+                } finally {
+                    in.close();
+                }
+            }
+
+            // unlock file after creation if lock is not inherited
+            if (!m_cms.getLock(res).isInherited()) {
+                m_cms.unlockResource(path);
+            }
+        }
+    }
+
+    /**
+     * Writes the spooled content of an upload to an existing resource.<p>
+     * 
+     * @param path the path of the resource to write
+     * @param spool the spooled content
+     * @param length the length of the spooled content
+     * 
+     * @throws CmsException if something goes wrong
+     * @throws IOException if reading the spooled content fails
+     */
+    private void writeContent(String path, DeferredFileOutputStream spool, int length)
+    throws CmsException, IOException {
+
+        InputStream in = openSpool(spool);
+        try {
+            m_cms.writeContent(path, in, length);
+        } finally {
+            in.close();
+        }
+    }
+}
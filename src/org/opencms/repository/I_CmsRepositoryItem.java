@@ -27,6 +27,9 @@
 
 package org.opencms.repository;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * This class represents items in the repository interface. That can be
  * files or folders (collections). <p>
@@ -84,4 +87,16 @@ public interface I_CmsRepositoryItem {
      */
     boolean isCollection();
 
+    /**
+     * Writes the content of this item to the given output stream.<p>
+     * 
+     * In contrast to {@link #getContent()}, the content does not have to be buffered 
+     * completely in memory.<p>
+     * 
+     * @param out the output stream to write the content to
+     * 
+     * @throws IOException if the content could not be read or written
+     */
+    void writeContent(OutputStream out) throws IOException;
+
 }
@@ -46,6 +46,8 @@ import org.opencms.scheduler.I_CmsScheduledJob;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
 
 /**
  * A schedulable OpenCms job to calculate image size information.<p>
@@ -58,6 +60,9 @@ import java.util.Map;
  * <dt><code>downscale=true|false</code></dt>
  * <dd>Controls if images are automatically downscaled according to the configured image
  * downscale settings, by default this is <code>false</code>.</dd>
+ * <dt><code>pregenerate=true|false</code></dt>
+ * <dd>Controls if the scaled image versions configured with the image loader parameter
+ * <code>image.scaling.pregenerate</code> are generated in the image cache, by default this is <code>false</code>.</dd>
  * </dl>
  * 
  * @since 6.0.2 
@@ -75,6 +80,13 @@ public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
      */
     public static final String PARAM_DOWNSCALE = "downscale";
 
+    /** 
+     * This job parameter controls if the scaled image versions configured with the image loader parameter 
+     * {@link CmsImageLoader#CONFIGURATION_PREGENERATE} are generated in the image cache, 
+     * by default this is <code>false</code>.<p>
+     */
+    public static final String PARAM_PREGENERATE = "pregenerate";
+
     /**
      * @see org.opencms.scheduler.I_CmsScheduledJob#launch(CmsObject, Map)
      */
@@ -87,6 +99,8 @@ public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
 
         // read the downscale parameter
         boolean downscale = Boolean.valueOf(parameters.get(PARAM_DOWNSCALE)).booleanValue();
+        // read the pregenerate parameter
+        boolean pregenerate = Boolean.valueOf(parameters.get(PARAM_PREGENERATE)).booleanValue();
 
         I_CmsReport report = new CmsLogReport(cms.getRequestContext().getLocale(), CmsCreateImageSizeJob.class);
         report.println(Messages.get().container(Messages.RPT_IMAGE_SIZE_START_0), I_CmsReport.FORMAT_HEADLINE);
@@ -191,6 +205,18 @@ public class CmsCreateImageSizeJob implements I_CmsScheduledJob {
                                 Messages.get().container(Messages.RPT_IMAGE_SIZE_SKIP_1, scaler.toString()),
                                 I_CmsReport.FORMAT_DEFAULT);
                         }
+
+                        if (pregenerate) {
+                            // generate the scaled versions one image after another, so the scaling queue does not overflow
+                            CmsResource current = cms.readResource(res.getStructureId(), CmsResourceFilter.ALL);
+                            for (Future<byte[]> task : CmsImageLoader.pregenerateScaledImages(cms, current)) {
+                                try {
+                                    task.get();
+                                } catch (ExecutionException e) {
+                                    report.println(e.getCause());
+                                }
+                            }
+                        }
                     } else {
                         // no valid image scaler
                         report.println(
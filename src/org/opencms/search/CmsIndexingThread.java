@@ -41,7 +41,9 @@ import org.apache.commons.logging.Log;
  * Implements the indexing method for a single resource as thread.<p>
  * 
  * The indexing of a single resource is wrapped into a thread
- * in order to prevent the overall indexer from hanging.<p>
+ * in order to prevent the overall indexer from hanging.
+ * The {@link CmsIndexingThreadManager} executes the {@link #run()} method 
+ * of the indexing threads in a pool of worker threads.<p>
  * 
  * @since 6.0.0 
  */
@@ -66,7 +68,7 @@ public class CmsIndexingThread extends Thread {
     private CmsResource m_res;
 
     /** The result document. */
-    private I_CmsSearchDocument m_result;
+    private volatile I_CmsSearchDocument m_result;
 
     /**
      * Create a new indexing thread.<p>
@@ -118,25 +120,33 @@ public class CmsIndexingThread extends Thread {
             docOk = true;
 
             // check if the thread was interrupted
-            if (isInterrupted() && LOG.isDebugEnabled()) {
+            if (Thread.currentThread().isInterrupted() && LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_ABANDONED_THREAD_FINISHED_1, m_res.getRootPath()));
             }
 
         } catch (CmsIndexNoContentException e) {
             // Ignore exception caused by empty documents, so that the report is not messed up with error message
-            m_report.println(
-                org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                I_CmsReport.FORMAT_OK);
+            if (m_report != null) {
+                synchronized (m_report) {
+                    reportBegin();
+                    m_report.println(
+                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                        I_CmsReport.FORMAT_OK);
+                }
+            }
         } catch (Exception exc) {
             if (m_report != null) {
-                m_report.println(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
-                    I_CmsReport.FORMAT_ERROR);
-                m_report.println(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_ARGUMENT_1,
-                        exc.toString()),
-                    I_CmsReport.FORMAT_ERROR);
+                synchronized (m_report) {
+                    reportBegin();
+                    m_report.println(
+                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
+                        I_CmsReport.FORMAT_ERROR);
+                    m_report.println(
+                        org.opencms.report.Messages.get().container(
+                            org.opencms.report.Messages.RPT_ARGUMENT_1,
+                            exc.toString()),
+                        I_CmsReport.FORMAT_ERROR);
+                }
             }
             if (LOG.isErrorEnabled()) {
                 LOG.error(
@@ -152,15 +162,18 @@ public class CmsIndexingThread extends Thread {
             if (!docOk) {
                 // apparently there was a Throwable that causes an issue
                 if (m_report != null) {
-                    m_report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
-                        I_CmsReport.FORMAT_ERROR);
-                    m_report.println(
-                        Messages.get().container(
-                            Messages.ERR_INDEX_RESOURCE_FAILED_2,
-                            m_res.getRootPath(),
-                            m_index.getName()),
-                        I_CmsReport.FORMAT_ERROR);
+                    synchronized (m_report) {
+                        reportBegin();
+                        m_report.println(
+                            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
+                            I_CmsReport.FORMAT_ERROR);
+                        m_report.println(
+                            Messages.get().container(
+                                Messages.ERR_INDEX_RESOURCE_FAILED_2,
+                                m_res.getRootPath(),
+                                m_index.getName()),
+                            I_CmsReport.FORMAT_ERROR);
+                    }
                 }
                 if (LOG.isErrorEnabled()) {
                     LOG.error(Messages.get().getBundle().key(
@@ -175,6 +188,9 @@ public class CmsIndexingThread extends Thread {
     /**
      * Creates the search index document.<p>
      * 
+     * The report output for the resource is written after the document has been created,
+     * so that the output of indexing threads running in parallel is not mixed up.<p>
+     * 
      * @param cms the current OpenCms user context
      * @param res the resource to index
      * @param index the index to update the resource in
@@ -194,21 +210,6 @@ public class CmsIndexingThread extends Thread {
 
         I_CmsSearchDocument result = null;
 
-        if (report != null) {
-            report.print(
-                org.opencms.report.Messages.get().container(
-                    org.opencms.report.Messages.RPT_SUCCESSION_1,
-                    String.valueOf(count)),
-                I_CmsReport.FORMAT_NOTE);
-            report.print(Messages.get().container(Messages.RPT_SEARCH_INDEXING_FILE_BEGIN_0), I_CmsReport.FORMAT_NOTE);
-            report.print(org.opencms.report.Messages.get().container(
-                org.opencms.report.Messages.RPT_ARGUMENT_1,
-                report.removeSiteRoot(res.getRootPath())));
-            report.print(
-                org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0),
-                I_CmsReport.FORMAT_DEFAULT);
-        }
-
         // check if this resource should be excluded from the index, if so skip it
         boolean excludeFromIndex = index.excludeFromIndex(cms, res);
 
@@ -230,22 +231,49 @@ public class CmsIndexingThread extends Thread {
         if (result == null) {
             // this resource is not contained in the given search index or locale did not match
             if (report != null) {
-                report.println(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_SKIPPED_0),
-                    I_CmsReport.FORMAT_NOTE);
+                synchronized (report) {
+                    reportBegin();
+                    report.println(
+                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_SKIPPED_0),
+                        I_CmsReport.FORMAT_NOTE);
+                }
             }
             if (LOG.isDebugEnabled()) {
                 LOG.debug(Messages.get().getBundle().key(Messages.LOG_SKIPPED_1, res.getRootPath()));
             }
         } else {
             // index document was successfully created
-            if ((m_report != null)) {
-                m_report.println(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                    I_CmsReport.FORMAT_OK);
+            if ((report != null)) {
+                synchronized (report) {
+                    reportBegin();
+                    report.println(
+                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                        I_CmsReport.FORMAT_OK);
+                }
             }
         }
 
         return result;
     }
+
+    /**
+     * Writes the begin of the report output line for the indexed resource.<p>
+     * 
+     * The caller has to synchronize on the report and must finish the line.<p>
+     */
+    private void reportBegin() {
+
+        m_report.print(
+            org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_SUCCESSION_1,
+                String.valueOf(m_count)),
+            I_CmsReport.FORMAT_NOTE);
+        m_report.print(Messages.get().container(Messages.RPT_SEARCH_INDEXING_FILE_BEGIN_0), I_CmsReport.FORMAT_NOTE);
+        m_report.print(org.opencms.report.Messages.get().container(
+            org.opencms.report.Messages.RPT_ARGUMENT_1,
+            m_report.removeSiteRoot(m_res.getRootPath())));
+        m_report.print(
+            org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0),
+            I_CmsReport.FORMAT_DEFAULT);
+    }
 }
\ No newline at end of file
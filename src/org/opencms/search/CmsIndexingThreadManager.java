@@ -28,23 +28,176 @@
 package org.opencms.search;
 
 import org.opencms.db.CmsPublishedResource;
+import org.opencms.file.CmsObject;
 import org.opencms.file.CmsResource;
 import org.opencms.i18n.CmsMessageContainer;
+import org.opencms.main.CmsException;
 import org.opencms.main.CmsLog;
+import org.opencms.main.OpenCms;
 import org.opencms.report.CmsLogReport;
 import org.opencms.report.I_CmsReport;
 
 import java.io.IOException;
+import java.util.LinkedList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.apache.commons.logging.Log;
 
 /**
  * Implements the management of indexing threads.<p>
  * 
+ * The text extraction for the indexed resources is done in a bounded pool of worker threads,
+ * while the resulting documents are written to the index by the thread that uses this manager,
+ * in the same order the resources have been passed to the manager.<p>
+ * 
  * @since 6.0.0 
  */
 public class CmsIndexingThreadManager {
 
+    /**
+     * A resource that is indexed by a worker thread of the indexing pool.<p>
+     */
+    private class CmsIndexingTask implements Runnable {
+
+        /** Flag to indicate that this task has been abandoned because of a timeout. */
+        private boolean m_abandoned;
+
+        /** Flag to indicate that the indexing thread of this task has finished. */
+        private boolean m_finished;
+
+        /** The future of this task. */
+        private Future<?> m_future;
+
+        /** The VFS indexer that created this task. */
+        private CmsVfsIndexer m_indexer;
+
+        /** The resource to index. */
+        private CmsResource m_res;
+
+        /** The time the indexing of the resource was started, 0 if not yet started. */
+        private volatile long m_startTime;
+
+        /** The indexing thread that creates the search document. */
+        private CmsIndexingThread m_thread;
+
+        /** The index writer to write the search document with. */
+        private I_CmsIndexWriter m_writer;
+
+        /**
+         * Creates a new indexing task.<p>
+         * 
+         * @param indexer the VFS indexer to create the task for 
+         * @param writer the index writer that can update the index
+         * @param res the resource to index
+         * @param thread the indexing thread that creates the search document
+         */
+        CmsIndexingTask(CmsVfsIndexer indexer, I_CmsIndexWriter writer, CmsResource res, CmsIndexingThread thread) {
+
+            m_indexer = indexer;
+            m_writer = writer;
+            m_res = res;
+            m_thread = thread;
+        }
+
+        /**
+         * @see java.lang.Runnable#run()
+         */
+        public void run() {
+
+            m_startTime = System.currentTimeMillis();
+            try {
+                m_thread.run();
+            } finally {
+                synchronized (this) {
+                    m_finished = true;
+                    if (m_abandoned) {
+                        // the replacement worker thread is not longer required
+                        resizePool(-1);
+                    }
+                }
+            }
+        }
+
+        /**
+         * Marks this task as abandoned, unless it has already finished.<p>
+         * 
+         * @return <code>true</code> if the task has been abandoned
+         */
+        synchronized boolean abandon() {
+
+            if (m_finished) {
+                return false;
+            }
+            m_abandoned = true;
+            // replace the blocked worker thread, so that the pool size is not reduced by hanging threads
+            resizePool(1);
+            return true;
+        }
+
+        /**
+         * Returns the time in milliseconds that remains until this task is timed out.<p>
+         * 
+         * @return the time in milliseconds that remains until this task is timed out
+         */
+        long getRemainingTime() {
+
+            long startTime = m_startTime;
+            if (startTime == 0) {
+                // the task has not been started yet
+                return m_timeout;
+            }
+            return m_timeout - (System.currentTimeMillis() - startTime);
+        }
+
+        /**
+         * Returns <code>true</code> if the indexing thread of this task has finished.<p>
+         * 
+         * @return <code>true</code> if the indexing thread of this task has finished
+         */
+        boolean isDone() {
+
+            return m_future.isDone();
+        }
+
+        /**
+         * Returns <code>true</code> if the timeout for this task has been reached.<p>
+         * 
+         * @return <code>true</code> if the timeout for this task has been reached
+         */
+        boolean isTimedOut() {
+
+            return (m_startTime > 0) && (getRemainingTime() <= 0);
+        }
+
+        /**
+         * Waits until the task has finished or the given time has elapsed.<p>
+         * 
+         * @param time the maximum time to wait in milliseconds
+         */
+        void waitFor(long time) {
+
+            try {
+                m_future.get(Math.max(time, 1), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                // ignore
+            } catch (ExecutionException e) {
+                // ignore, the indexing thread handles all errors itself
+            } catch (TimeoutException e) {
+                // ignore, the caller checks the timeout of the task
+            }
+        }
+    }
+
+    /** The number of indexing tasks per worker thread that may be pending before the caller has to wait. */
+    private static final int PENDING_TASKS_PER_THREAD = 4;
+
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsIndexingThreadManager.class);
 
@@ -60,15 +213,27 @@ public class CmsIndexingThreadManager {
     /** The maximum number of modifications before a commit in the search index is triggered. */
     private int m_maxModificationsBeforeCommit;
 
+    /** The indexing tasks that have not yet been written to the index, in the order they were created. */
+    private LinkedList<CmsIndexingTask> m_pendingTasks;
+
+    /** The pool of worker threads that execute the indexing threads. */
+    private volatile ThreadPoolExecutor m_pool;
+
     /** Number of thread returned. */
     private int m_returnedCounter;
 
     /** Overall number of threads started. */
     private int m_startedCounter;
 
+    /** The number of worker threads used for indexing. */
+    private int m_threadCount;
+
     /** Timeout for abandoning threads. */
     private long m_timeout;
 
+    /** Number of documents written to the index. */
+    private int m_writtenCounter;
+
     /**
      * Creates and starts a thread manager for indexing threads.<p>
      * 
@@ -77,17 +242,35 @@ public class CmsIndexingThreadManager {
      */
     public CmsIndexingThreadManager(long timeout, int maxModificationsBeforeCommit) {
 
+        this(timeout, maxModificationsBeforeCommit, 1);
+    }
+
+    /**
+     * Creates and starts a thread manager for indexing threads.<p>
+     * 
+     * @param timeout timeout after a thread is abandoned
+     * @param maxModificationsBeforeCommit the maximum number of modifications before a commit in the search index is triggered
+     * @param threadCount the number of worker threads used for indexing
+     */
+    public CmsIndexingThreadManager(long timeout, int maxModificationsBeforeCommit, int threadCount) {
+
         m_timeout = timeout;
         m_maxModificationsBeforeCommit = maxModificationsBeforeCommit;
+        m_threadCount = Math.max(1, threadCount);
+        m_pendingTasks = new LinkedList<CmsIndexingTask>();
     }
 
     /**
      * Creates and starts a new indexing thread for a resource.<p>
      * 
-     * After an indexing thread was started, the manager suspends itself 
-     * and waits for an amount of time specified by the <code>timeout</code>
-     * value. If the timeout value is reached, the indexing thread is
-     * aborted by an interrupt signal.<p>
+     * The indexing thread is executed by a worker thread of the indexing pool. 
+     * If too many resources are waiting for a free worker thread, the manager 
+     * suspends itself until the oldest pending resource has been indexed.
+     * If the indexing of a resource takes longer than specified by the <code>timeout</code>
+     * value, the indexing thread is aborted by an interrupt signal.<p>
+     * 
+     * The search documents are written to the index in the same order 
+     * as the resources have been passed to this method.<p>
      * 
      * @param indexer the VFS indexer to create the index thread for 
      * @param writer the index writer that can update the index
@@ -95,67 +278,34 @@ public class CmsIndexingThreadManager {
      */
     public void createIndexingThread(CmsVfsIndexer indexer, I_CmsIndexWriter writer, CmsResource res) {
 
-        I_CmsReport report = indexer.getReport();
         m_startedCounter++;
+        CmsObject cms = indexer.getCms();
+        if (m_threadCount > 1) {
+            // the request context is not thread safe, so every thread uses its own copy
+            try {
+                cms = OpenCms.initCmsObject(cms);
+            } catch (CmsException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+        }
         CmsIndexingThread thread = new CmsIndexingThread(
-            indexer.getCms(),
+            cms,
             res,
             indexer.getIndex(),
             m_startedCounter,
-            report);
-        thread.setPriority(Thread.MIN_PRIORITY);
-        thread.start();
-        try {
-            thread.join(m_timeout);
-        } catch (InterruptedException e) {
-            // ignore
-        }
-        if (thread.isAlive()) {
-            // the thread has not finished - so it must be marked as an abandoned thread 
-            m_abandonedCounter++;
-            thread.interrupt();
-            if (LOG.isWarnEnabled()) {
-                LOG.warn(Messages.get().getBundle().key(Messages.LOG_INDEXING_TIMEOUT_1, res.getRootPath()));
-            }
-            if (report != null) {
-                report.println();
-                report.print(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
-                    I_CmsReport.FORMAT_WARNING);
-                report.println(
-                    Messages.get().container(Messages.RPT_SEARCH_INDEXING_TIMEOUT_1, res.getRootPath()),
-                    I_CmsReport.FORMAT_WARNING);
-            }
-        } else {
-            // the thread finished normally
-            m_returnedCounter++;
-        }
-        I_CmsSearchDocument doc = thread.getResult();
-        if (doc != null) {
-            // write the document to the index
-            indexer.updateResource(writer, res.getRootPath(), doc);
-        } else {
-            indexer.deleteResource(writer, new CmsPublishedResource(res));
-        }
-        if ((m_startedCounter % m_maxModificationsBeforeCommit) == 0) {
-            try {
-                writer.commit();
-            } catch (IOException e) {
-                if (LOG.isWarnEnabled()) {
-                    LOG.warn(
-                        Messages.get().getBundle().key(
-                            Messages.LOG_IO_INDEX_WRITER_COMMIT_2,
-                            indexer.getIndex().getName(),
-                            indexer.getIndex().getPath()),
-                        e);
-                }
-            }
-        }
+            indexer.getReport());
+        CmsIndexingTask task = new CmsIndexingTask(indexer, writer, res, thread);
+        task.m_future = getPool().submit(task);
+        m_pendingTasks.add(task);
+        // write the finished documents and wait if too many resources are pending
+        processPendingTasks(m_threadCount * PENDING_TASKS_PER_THREAD);
     }
 
     /**
      * Returns if the indexing manager still have indexing threads.<p>
      * 
+     * Search documents that have been created in the meantime are written to the index.<p>
+     * 
      * @return true if the indexing manager still have indexing threads
      */
     public boolean isRunning() {
@@ -185,10 +335,18 @@ public class CmsIndexingThreadManager {
             }
         }
 
-        boolean result = (m_returnedCounter + m_abandonedCounter) < m_startedCounter;
-        if (result && LOG.isInfoEnabled()) {
-            // write a note to the log that all threads have finished
-            LOG.info(Messages.get().getBundle().key(Messages.LOG_THREADS_FINISHED_0));
+        processPendingTasks(Integer.MAX_VALUE);
+        boolean result = !m_pendingTasks.isEmpty();
+        if (!result) {
+            if (m_pool != null) {
+                // abandoned threads are still interrupted, but no new tasks will be accepted
+                m_pool.shutdown();
+                m_pool = null;
+                if (LOG.isInfoEnabled()) {
+                    // write a note to the log that all threads have finished
+                    LOG.info(Messages.get().getBundle().key(Messages.LOG_THREADS_FINISHED_0));
+                }
+            }
         }
         return result;
     }
@@ -221,4 +379,146 @@ public class CmsIndexingThreadManager {
             }
         }
     }
-}
\ No newline at end of file
+
+    /**
+     * Abandons the given indexing task because it has reached the timeout.<p>
+     * 
+     * @param task the task to abandon
+     */
+    private void abandonTask(CmsIndexingTask task) {
+
+        if (!task.abandon()) {
+            // the task has finished in the meantime
+            m_returnedCounter++;
+            return;
+        }
+        m_abandonedCounter++;
+        task.m_future.cancel(true);
+        if (LOG.isWarnEnabled()) {
+            LOG.warn(Messages.get().getBundle().key(Messages.LOG_INDEXING_TIMEOUT_1, task.m_res.getRootPath()));
+        }
+        I_CmsReport report = task.m_indexer.getReport();
+        if (report != null) {
+            synchronized (report) {
+                report.println();
+                report.print(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_FAILED_0),
+                    I_CmsReport.FORMAT_WARNING);
+                report.println(
+                    Messages.get().container(Messages.RPT_SEARCH_INDEXING_TIMEOUT_1, task.m_res.getRootPath()),
+                    I_CmsReport.FORMAT_WARNING);
+            }
+        }
+    }
+
+    /**
+     * Returns the pool of worker threads, creating it if required.<p>
+     * 
+     * @return the pool of worker threads
+     */
+    private ThreadPoolExecutor getPool() {
+
+        if (m_pool == null) {
+            final AtomicInteger threadNumber = new AtomicInteger();
+            m_pool = new ThreadPoolExecutor(
+                m_threadCount,
+                m_threadCount,
+                60,
+                TimeUnit.SECONDS,
+                new LinkedBlockingQueue<Runnable>(),
+                new ThreadFactory() {
+
+                    public Thread newThread(Runnable r) {
+
+                        Thread thread = new Thread(r, "OpenCms: Indexing worker " + threadNumber.incrementAndGet());
+                        thread.setDaemon(true);
+                        thread.setPriority(Thread.MIN_PRIORITY);
+                        return thread;
+                    }
+                });
+            m_pool.allowCoreThreadTimeOut(true);
+        }
+        return m_pool;
+    }
+
+    /**
+     * Writes the documents of the finished indexing tasks to the index, in the order the tasks were created.<p>
+     * 
+     * If more than the given number of tasks are pending, this method waits until enough tasks 
+     * have been finished or abandoned.<p>
+     * 
+     * @param maxPending the maximum number of tasks that may still be pending when this method returns
+     */
+    private void processPendingTasks(int maxPending) {
+
+        while (!m_pendingTasks.isEmpty()) {
+            CmsIndexingTask task = m_pendingTasks.getFirst();
+            if (task.isDone()) {
+                m_returnedCounter++;
+            } else if (task.isTimedOut()) {
+                abandonTask(task);
+            } else if (m_pendingTasks.size() > maxPending) {
+                task.waitFor(task.getRemainingTime());
+                continue;
+            } else {
+                break;
+            }
+            m_pendingTasks.removeFirst();
+            writeDocument(task);
+        }
+    }
+
+    /**
+     * Changes the size of the worker thread pool by the given number of threads.<p>
+     * 
+     * @param delta the number of threads to add, or to remove if negative
+     */
+    private synchronized void resizePool(int delta) {
+
+        ThreadPoolExecutor pool = m_pool;
+        if (pool == null) {
+            return;
+        }
+        int size = Math.max(1, pool.getCorePoolSize() + delta);
+        if (delta > 0) {
+            pool.setMaximumPoolSize(size);
+            pool.setCorePoolSize(size);
+        } else {
+            pool.setCorePoolSize(size);
+            pool.setMaximumPoolSize(size);
+        }
+    }
+
+    /**
+     * Writes the result of the given indexing task to the index.<p>
+     * 
+     * @param task the indexing task
+     */
+    private void writeDocument(CmsIndexingTask task) {
+
+        CmsVfsIndexer indexer = task.m_indexer;
+        I_CmsIndexWriter writer = task.m_writer;
+        I_CmsSearchDocument doc = task.m_abandoned ? null : task.m_thread.getResult();
+        if (doc != null) {
+            // write the document to the index
+            indexer.updateResource(writer, task.m_res.getRootPath(), doc);
+        } else {
+            indexer.deleteResource(writer, new CmsPublishedResource(task.m_res));
+        }
+        m_writtenCounter++;
+        if ((m_writtenCounter % m_maxModificationsBeforeCommit) == 0) {
+            try {
+                writer.commit();
+            } catch (IOException e) {
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn(
+                        Messages.get().getBundle().key(
+                            Messages.LOG_IO_INDEX_WRITER_COMMIT_2,
+                            indexer.getIndex().getName(),
+                            indexer.getIndex().getPath()),
+                        e);
+                }
+            }
+        }
+    }
+}
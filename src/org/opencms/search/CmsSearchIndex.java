@@ -38,6 +38,7 @@ import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
 import org.opencms.file.CmsResourceFilter;
 import org.opencms.file.types.CmsResourceTypeXmlContent;
+import org.opencms.flex.CmsFlexRequestContextInfo;
 import org.opencms.i18n.CmsLocaleManager;
 import org.opencms.i18n.CmsMessageContainer;
 import org.opencms.main.CmsException;
@@ -51,6 +52,7 @@ import org.opencms.search.fields.CmsLuceneFieldConfiguration;
 import org.opencms.search.fields.CmsSearchField;
 import org.opencms.search.fields.CmsSearchFieldConfiguration;
 import org.opencms.util.CmsFileUtil;
+import org.opencms.util.CmsRequestUtil;
 import org.opencms.util.CmsStringUtil;
 
 import java.io.File;
@@ -66,6 +68,7 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.apache.commons.logging.Log;
 import org.apache.lucene.analysis.Analyzer;
@@ -90,6 +93,8 @@ import org.apache.lucene.search.IndexSearcher;
 import org.apache.lucene.search.MatchAllDocsQuery;
 import org.apache.lucene.search.MultiTermQuery;
 import org.apache.lucene.search.Query;
+import org.apache.lucene.search.SearcherFactory;
+import org.apache.lucene.search.SearcherManager;
 import org.apache.lucene.search.Sort;
 import org.apache.lucene.search.SortField;
 import org.apache.lucene.search.TermQuery;
@@ -268,8 +273,8 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      */
     private boolean m_ignoreExpiration;
 
-    /** The Lucene index searcher to use. */
-    private IndexSearcher m_indexSearcher;
+    /** The manager for the shared Lucene index searchers, swapped atomically if the index is re-opened. */
+    private volatile SearcherManager m_indexSearcherManager;
 
     /** The index writer to use. */
     private I_CmsIndexWriter m_indexWriter;
@@ -323,6 +328,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
 
         m_sourceNames = new ArrayList<String>();
         m_documenttypes = new HashMap<String, List<String>>();
+        m_displayFilters = new ConcurrentHashMap<String, Filter>();
         m_enabled = true;
         m_checkPermissions = true;
         m_extractContent = true;
@@ -678,11 +684,15 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      */
     public I_CmsSearchDocument getDocument(int docId) {
 
-        try {
-            IndexSearcher searcher = getSearcher();
-            return new CmsLuceneDocument(searcher.doc(docId));
-        } catch (IOException e) {
-            // ignore, return null and assume document was not found
+        IndexSearcher searcher = indexSearcherAcquire();
+        if (searcher != null) {
+            try {
+                return new CmsLuceneDocument(searcher.doc(docId));
+            } catch (IOException e) {
+                // ignore, return null and assume document was not found
+            } finally {
+                indexSearcherRelease(searcher);
+            }
         }
         return null;
     }
@@ -715,10 +725,10 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      * 
      * @return the first document where the given term matches the selected index field
      */
-    public synchronized I_CmsSearchDocument getDocument(String field, String term) {
+    public I_CmsSearchDocument getDocument(String field, String term) {
 
         Document result = null;
-        IndexSearcher searcher = getSearcher();
+        IndexSearcher searcher = indexSearcherAcquire();
         if (searcher != null) {
             // search for an exact match on the selected field
             Term resultTerm = new Term(field, term);
@@ -729,6 +739,8 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                 }
             } catch (IOException e) {
                 // ignore, return null and assume document was not found
+            } finally {
+                indexSearcherRelease(searcher);
             }
         }
         if (result != null) {
@@ -951,11 +963,19 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
     /**
      * Returns the Lucene index searcher used for this search index.<p>
      *
+     * The returned searcher is not reference counted, so it may be closed if the index 
+     * is updated while it is in use. For searches use {@link #indexSearcherAcquire()} 
+     * together with {@link #indexSearcherRelease(IndexSearcher)} instead.<p>
+     *
      * @return the Lucene index searcher used for this search index
      */
     public IndexSearcher getSearcher() {
 
-        return m_indexSearcher;
+        IndexSearcher searcher = indexSearcherAcquire();
+        if (searcher != null) {
+            indexSearcherRelease(searcher);
+        }
+        return searcher;
     }
 
     /**
@@ -1235,6 +1255,10 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      * 
      * The result is returned as List with entries of type I_CmsSearchResult.<p>
      * 
+     * Searches are not synchronized, many searches can run in parallel on the same index.
+     * Each search uses a reference counted index searcher, which stays open until the search 
+     * is finished even if the index is updated in the meantime.<p>
+     * 
      * @param cms the current user's Cms object
      * @param params the parameters to use for the search
      * 
@@ -1242,7 +1266,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      * 
      * @throws CmsSearchException if something goes wrong
      */
-    public synchronized CmsSearchResultList search(CmsObject cms, CmsSearchParameters params) throws CmsSearchException {
+    public CmsSearchResultList search(CmsObject cms, CmsSearchParameters params) throws CmsSearchException {
 
         long timeTotal = -System.currentTimeMillis();
         long timeLucene;
@@ -1252,6 +1276,13 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_SEARCH_PARAMS_2, params, getName()));
         }
 
+        // the result of a search may change with any published resource, this can not be tracked by the Flex cache
+        CmsFlexRequestContextInfo contextInfo = (CmsFlexRequestContextInfo)cms.getRequestContext().getAttribute(
+            CmsRequestUtil.HEADER_LAST_MODIFIED);
+        if (contextInfo != null) {
+            contextInfo.addUntrackedDependency();
+        }
+
         // the hits found during the search
         TopDocs hits;
 
@@ -1260,6 +1291,9 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
 
         int previousPriority = Thread.currentThread().getPriority();
 
+        // the index searcher used, must be released after the search
+        IndexSearcher searcher = null;
+
         try {
             // copy the user OpenCms context
             CmsObject searchCms = OpenCms.initCmsObject(cms);
@@ -1298,7 +1332,10 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
 
             // get an index searcher that is certainly up to date
             indexSearcherUpdate();
-            IndexSearcher searcher = getSearcher();
+            searcher = indexSearcherAcquire();
+            if (searcher == null) {
+                throw new CmsSearchException(Messages.get().container(Messages.ERR_INDEX_SEARCHER_1, getName()));
+            }
 
             if (!params.isIgnoreQuery()) {
                 // since OpenCms 8 the query can be empty in which case only filters are used for the result
@@ -1469,6 +1506,8 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             throw new CmsSearchException(Messages.get().container(Messages.ERR_SEARCH_PARAMS_1, params), e);
         } finally {
 
+            // release the index searcher
+            indexSearcherRelease(searcher);
             // re-set thread to previous priority
             Thread.currentThread().setPriority(previousPriority);
         }
@@ -2096,7 +2135,8 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
             }
             termsStr = buf.toString();
         }
-        Filter result = m_displayFilters.get((new StringBuffer(64)).append(field).append('|').append(termsStr).toString());
+        String key = (new StringBuffer(64)).append(field).append('|').append(termsStr).toString();
+        Filter result = m_displayFilters.get(key);
         if (result == null) {
             List<Term> terms = new ArrayList<Term>();
             if (termsList == null) {
@@ -2106,7 +2146,7 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
                 terms.add(new Term(field, termsList.get(i)));
             }
             result = new CachingWrapperFilter(new TermsFilter(terms));
-            m_displayFilters.put(field + termsStr, result);
+            m_displayFilters.put(key, result);
         }
         return result;
     }
@@ -2173,27 +2213,59 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
         return !needsPermissionCheck(doc) ? true : (null != getResource(cms, doc));
     }
 
+    /**
+     * Acquires a reference counted Lucene index searcher for this index.<p>
+     * 
+     * The searcher is shared with other concurrent searches. It must be released with 
+     * {@link #indexSearcherRelease(IndexSearcher)} after use, so that outdated searchers 
+     * can be closed after the index has been updated.<p>
+     * 
+     * @return the acquired index searcher, or <code>null</code> if no searcher is available
+     */
+    protected IndexSearcher indexSearcherAcquire() {
+
+        SearcherManager manager = m_indexSearcherManager;
+        while (manager != null) {
+            try {
+                return manager.acquire();
+            } catch (Exception e) {
+                // the manager may have been closed because the searcher has been re-opened, try the new one
+                if (manager == m_indexSearcherManager) {
+                    LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_1, getName()), e);
+                    return null;
+                }
+                manager = m_indexSearcherManager;
+            }
+        }
+        return null;
+    }
+
     /**
      * Closes the index searcher for this index.<p>
      * 
+     * Searches which currently use the index searcher are finished before the underlying 
+     * index reader is actually closed.<p>
+     * 
      * @see #indexSearcherOpen(String)
      */
     protected synchronized void indexSearcherClose() {
 
-        indexSearcherClose(m_indexSearcher);
+        SearcherManager manager = m_indexSearcherManager;
+        m_indexSearcherManager = null;
+        indexSearcherClose(manager);
     }
 
     /**
-     * Closes the given Lucene index searcher.<p>
+     * Closes the given Lucene index searcher manager.<p>
      * 
-     * @param searcher the searcher to close
+     * @param manager the searcher manager to close
      */
-    protected synchronized void indexSearcherClose(IndexSearcher searcher) {
+    protected void indexSearcherClose(SearcherManager manager) {
 
-        // in case there is an index searcher available close it
-        if ((searcher != null) && (searcher.getIndexReader() != null)) {
+        // in case there is an index searcher manager available close it
+        if (manager != null) {
             try {
-                searcher.getIndexReader().close();
+                manager.close();
             } catch (Exception e) {
                 LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_CLOSE_1, getName()), e);
             }
@@ -2205,61 +2277,90 @@ public class CmsSearchIndex implements I_CmsConfigurationParameterHandler {
      * 
      * In case there is an index searcher still open, it is closed first.<p>
      * 
-     * For performance reasons, one instance of the index searcher should be kept 
-     * for all searches. However, if the index is updated or changed 
-     * this searcher instance needs to be re-initialized.<p>
+     * For performance reasons, the index searchers are shared by all searches. 
+     * However, if the index is updated or changed, the shared searcher instance needs to be re-initialized.
+     * This is done atomically, searches already running continue to use the old searcher.<p>
      * 
      * @param path the path to the index directory
      */
     protected synchronized void indexSearcherOpen(String path) {
 
-        IndexSearcher oldSearcher = null;
+        SearcherManager oldManager = null;
         try {
             Directory indexDirectory = FSDirectory.open(new File(path));
             if (DirectoryReader.indexExists(indexDirectory)) {
-                IndexReader reader = DirectoryReader.open(indexDirectory);
-                if (m_indexSearcher != null) {
-                    // store old searcher instance to close it later
-                    oldSearcher = m_indexSearcher;
-                }
-                m_indexSearcher = new IndexSearcher(reader);
-                m_indexSearcher.setSimilarity(m_sim);
-                m_displayFilters = new HashMap<String, Filter>();
+                SearcherManager manager = new SearcherManager(indexDirectory, new SearcherFactory() {
+
+                    /**
+                     * @see org.apache.lucene.search.SearcherFactory#newSearcher(org.apache.lucene.index.IndexReader)
+                     */
+                    @Override
+                    public IndexSearcher newSearcher(IndexReader reader) {
+
+                        IndexSearcher searcher = new IndexSearcher(reader);
+                        searcher.setSimilarity(m_sim);
+                        return searcher;
+                    }
+                });
+                // store old searcher manager to close it later
+                oldManager = m_indexSearcherManager;
+                m_displayFilters = new ConcurrentHashMap<String, Filter>();
+                m_indexSearcherManager = manager;
             }
         } catch (IOException e) {
             LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_1, getName()), e);
         }
-        if (oldSearcher != null) {
-            // close the old searcher if required
-            indexSearcherClose(oldSearcher);
+        if (oldManager != null) {
+            // close the old searcher manager if required
+            indexSearcherClose(oldManager);
+        }
+    }
+
+    /**
+     * Releases an index searcher acquired with {@link #indexSearcherAcquire()}.<p>
+     * 
+     * @param searcher the searcher to release, may be <code>null</code>
+     */
+    protected void indexSearcherRelease(IndexSearcher searcher) {
+
+        if (searcher == null) {
+            return;
+        }
+        try {
+            // decreasing the reference directly also works if the manager has been closed in the meantime
+            searcher.getIndexReader().decRef();
+        } catch (Exception e) {
+            LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_CLOSE_1, getName()), e);
         }
     }
 
     /**
      * Reopens the index search reader for this index, required after the index has been changed.<p>
      * 
+     * If the index has not changed, the current searcher is kept. If another thread is 
+     * already reopening the searcher, this method returns immediately without waiting.<p>
+     * 
      * @see #indexSearcherOpen(String)
      */
-    protected synchronized void indexSearcherUpdate() {
+    protected void indexSearcherUpdate() {
 
-        IndexSearcher oldSearcher = m_indexSearcher;
-        if ((oldSearcher != null) && (oldSearcher.getIndexReader() != null)) {
-            // in case there is an index searcher available close it
+        SearcherManager manager = m_indexSearcherManager;
+        if (manager != null) {
             try {
-                if (oldSearcher.getIndexReader() instanceof DirectoryReader) {
-                    IndexReader newReader = DirectoryReader.openIfChanged((DirectoryReader)oldSearcher.getIndexReader());
-                    if (newReader != null) {
-                        m_indexSearcher = new IndexSearcher(newReader);
-                        m_indexSearcher.setSimilarity(m_sim);
-                        indexSearcherClose(oldSearcher);
-                    }
-                }
+                manager.maybeRefresh();
             } catch (Exception e) {
-                LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_REOPEN_1, getName()), e);
+                // the manager may have been closed by a concurrent re-open, this is no error
+                if (manager == m_indexSearcherManager) {
+                    LOG.error(Messages.get().getBundle().key(Messages.ERR_INDEX_SEARCHER_REOPEN_1, getName()), e);
+                }
             }
         } else {
             // make sure we end up with an open index searcher / reader           
-            indexSearcherOpen(getPath());
+            synchronized (this) {
+                if (m_indexSearcherManager == null) {
+                    indexSearcherOpen(getPath());
+                }
+            }
         }
     }
 
@@ -589,6 +589,9 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** The default value used for keeping the extraction results in the cache (672 hours = 4 weeks). */
     public static final float DEFAULT_EXTRACTION_CACHE_MAX_AGE = 672.0f;
 
+    /** Default for the number of worker threads used for indexing (the number of available processors). */
+    public static final int DEFAULT_INDEXING_THREADS = Runtime.getRuntime().availableProcessors();
+
     /** Default for the maximum number of modifications before a commit in the search index is triggered (500). */
     public static final int DEFAULT_MAX_MODIFICATIONS_BEFORE_COMMIT = 500;
 
@@ -652,6 +655,9 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
     /** A list of search indexes. */
     private List<CmsSearchIndex> m_indexes;
 
+    /** The configured number of worker threads used for indexing, 0 if not configured. */
+    private int m_indexingThreads;
+
     /** Seconds to wait for an index lock. */
     private int m_indexLockMaxWaitSeconds = 10;
 
@@ -1343,6 +1349,18 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         return null;
     }
 
+    /**
+     * Returns the configured number of worker threads used for indexing.<p>
+     *
+     * If not configured, <code>0</code> is returned and {@link #DEFAULT_INDEXING_THREADS} threads are used.<p>
+     *
+     * @return the configured number of worker threads used for indexing
+     */
+    public int getIndexingThreads() {
+
+        return m_indexingThreads;
+    }
+
     /**
      * Returns a search index source for a specified source name.<p>
      * 
@@ -2024,6 +2042,36 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         m_indexLockMaxWaitSeconds = value;
     }
 
+    /**
+     * Sets the number of worker threads used for indexing.<p>
+     *
+     * @param indexingThreads the number of worker threads to set
+     */
+    public void setIndexingThreads(int indexingThreads) {
+
+        m_indexingThreads = indexingThreads;
+    }
+
+    /**
+     * Sets the number of worker threads used for indexing as a String.<p>
+     *
+     * @param value the number of worker threads to set
+     */
+    public void setIndexingThreads(String value) {
+
+        try {
+            setIndexingThreads(Integer.parseInt(value));
+        } catch (Exception e) {
+            LOG.error(
+                Messages.get().getBundle().key(
+                    Messages.LOG_PARSE_INDEXING_THREADS_FAILED_2,
+                    value,
+                    new Integer(DEFAULT_INDEXING_THREADS)),
+                e);
+            setIndexingThreads(DEFAULT_INDEXING_THREADS);
+        }
+    }
+
     /**
      * Sets the max. excerpt length.<p>
      *
@@ -2231,6 +2279,55 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
         return names;
     }
 
+    /**
+     * Returns the resources to update in an index that contains the read permissions of the documents.<p>
+     * 
+     * The read permissions are inherited from the parent folders, so if the access control entries 
+     * of a folder change, the documents of all files below that folder have to be updated.
+     * Since the publish history does not tell which folders have changed access control entries,
+     * the files below all changed folders are updated.<p>
+     * 
+     * @param adminCms an OpenCms user context with Admin permissions
+     * @param changedFolders the published folders with state changed
+     * @param updateResources the published resources to update in all indexes
+     * 
+     * @return the resources to update in an index that contains the read permissions
+     */
+    protected List<CmsPublishedResource> getPermissionUpdateResources(
+        CmsObject adminCms,
+        List<CmsPublishedResource> changedFolders,
+        List<CmsPublishedResource> updateResources) {
+
+        if (changedFolders.isEmpty()) {
+            return updateResources;
+        }
+        List<CmsPublishedResource> result = new ArrayList<CmsPublishedResource>(updateResources);
+        Set<CmsPublishedResource> contained = new HashSet<CmsPublishedResource>(updateResources);
+        for (CmsPublishedResource folder : changedFolders) {
+            try {
+                List<CmsResource> files = adminCms.readResources(
+                    folder.getRootPath(),
+                    CmsResourceFilter.ALL.addRequireFile(),
+                    true);
+                for (CmsResource file : files) {
+                    CmsPublishedResource res = new CmsPublishedResource(file);
+                    if (contained.add(res)) {
+                        result.add(res);
+                    }
+                }
+            } catch (CmsException e) {
+                // ignore, the files below this folder keep their indexed permissions
+                if (LOG.isWarnEnabled()) {
+                    LOG.warn(
+                        Messages.get().getBundle().key(Messages.LOG_UNABLE_TO_READ_SUBRESOURCES_1, folder.getRootPath()),
+                        e);
+                }
+            }
+        }
+        Collections.sort(result);
+        return result;
+    }
+
     /** 
      * Returns a new thread manager for the indexing threads.<p>
      * 
@@ -2238,7 +2335,8 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
      */
     protected CmsIndexingThreadManager getThreadManager() {
 
-        return new CmsIndexingThreadManager(m_timeout, m_maxModificationsBeforeCommit);
+        int threads = m_indexingThreads > 0 ? m_indexingThreads : DEFAULT_INDEXING_THREADS;
+        return new CmsIndexingThreadManager(m_timeout, m_maxModificationsBeforeCommit, threads);
     }
 
     /**
@@ -2383,7 +2481,12 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
             // When published resources with both states 'new' and 'deleted' exist in the same publish job history, the resource has been moved
 
             List<CmsPublishedResource> updateResources = new ArrayList<CmsPublishedResource>();
+            List<CmsPublishedResource> changedFolders = new ArrayList<CmsPublishedResource>();
             for (CmsPublishedResource res : publishedResources) {
+                if (res.isFolder() && res.getState().isChanged()) {
+                    // the access control entries of the folder may have changed
+                    changedFolders.add(res);
+                }
                 if (res.isFolder() || res.getState().isUnchanged()) {
                     // folders and unchanged resources don't need to be indexed after publish
                     continue;
@@ -2439,7 +2542,10 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                 }
             }
 
-            if (!updateResources.isEmpty()) {
+            // the resources to update in indexes which contain the inherited read permissions
+            List<CmsPublishedResource> permissionUpdateResources = null;
+
+            if (!updateResources.isEmpty() || !changedFolders.isEmpty()) {
                 // sort the resource to update
                 Collections.sort(updateResources);
                 // only update the indexes if the list of remaining published resources is not empty
@@ -2448,8 +2554,21 @@ public class CmsSearchManager implements I_CmsScheduledJob, I_CmsEventListener {
                     CmsSearchIndex index = i.next();
                     if (CmsSearchIndex.REBUILD_MODE_AUTO.equals(index.getRebuildMode())) {
                         // only update indexes which have the rebuild mode set to "auto"
+                        List<CmsPublishedResource> indexResources = updateResources;
+                        if ((index instanceof CmsSolrIndex) && ((CmsSolrIndex)index).isPermissionFilter()) {
+                            if (permissionUpdateResources == null) {
+                                permissionUpdateResources = getPermissionUpdateResources(
+                                    adminCms,
+                                    changedFolders,
+                                    updateResources);
+                            }
+                            indexResources = permissionUpdateResources;
+                        }
+                        if (indexResources.isEmpty()) {
+                            continue;
+                        }
                         try {
-                            updateIndex(index, report, updateResources);
+                            updateIndex(index, report, indexResources);
                         } catch (CmsException e) {
                             LOG.error(
                                 Messages.get().getBundle().key(Messages.LOG_UPDATE_INDEX_FAILED_1, index.getName()),
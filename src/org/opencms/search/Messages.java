@@ -346,6 +346,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PARSE_EXTRACTION_CACHE_AGE_FAILED_2 = "LOG_PARSE_EXTRACTION_CACHE_AGE_FAILED_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PARSE_INDEXING_THREADS_FAILED_2 = "LOG_PARSE_INDEXING_THREADS_FAILED_2";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PARSE_MAXCOMMIT_FAILED_2 = "LOG_PARSE_MAXCOMMIT_FAILED_2";
 
@@ -421,6 +424,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_UNABLE_TO_READ_SOURCE_2 = "LOG_UNABLE_TO_READ_SOURCE_2";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_UNABLE_TO_READ_SUBRESOURCES_1 = "LOG_UNABLE_TO_READ_SUBRESOURCES_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_UPDATE_INDEX_FAILED_1 = "LOG_UPDATE_INDEX_FAILED_1";
 
@@ -261,7 +261,7 @@ public class CmsGallerySearchIndex extends CmsSearchIndex {
      * 
      * @throws CmsSearchException if something goes wrong
      */
-    public synchronized CmsGallerySearchResultList searchGallery(CmsObject cms, CmsGallerySearchParameters params)
+    public CmsGallerySearchResultList searchGallery(CmsObject cms, CmsGallerySearchParameters params)
     throws CmsSearchException {
 
         // the hits found during the search
@@ -270,6 +270,9 @@ public class CmsGallerySearchIndex extends CmsSearchIndex {
         // storage for the results found
         CmsGallerySearchResultList searchResults = new CmsGallerySearchResultList();
 
+        // the index searcher used, must be released after the search
+        IndexSearcher searcher = null;
+
         try {
             // copy the user OpenCms context
             CmsObject searchCms = OpenCms.initCmsObject(cms);
@@ -346,7 +349,10 @@ public class CmsGallerySearchIndex extends CmsSearchIndex {
 
             // get an index searcher that is certainly up to date
             indexSearcherUpdate();
-            IndexSearcher searcher = getSearcher();
+            searcher = indexSearcherAcquire();
+            if (searcher == null) {
+                throw new CmsSearchException(Messages.get().container(Messages.ERR_INDEX_SEARCHER_1, getName()));
+            }
 
             Locale locale = params.getLocale() == null ? null : CmsLocaleManager.getLocale(params.getLocale());
             if (params.getSearchWords() != null) {
@@ -400,7 +406,7 @@ public class CmsGallerySearchIndex extends CmsSearchIndex {
                 int visibleHitCount = hitCount;
                 for (int i = 0, cnt = 0; (i < hitCount) && (cnt < end); i++) {
                     try {
-                        doc = getSearcher().doc(hits.scoreDocs[i].doc);
+                        doc = searcher.doc(hits.scoreDocs[i].doc);
                         I_CmsSearchDocument searchDoc = new CmsLuceneDocument(doc);
                         if (hasReadPermission(searchCms, searchDoc)) {
                             // user has read permission
@@ -445,6 +451,9 @@ public class CmsGallerySearchIndex extends CmsSearchIndex {
             throw new CmsSearchException(Messages.get().container(Messages.ERR_SEARCH_PARAMS_1, params), e);
         } catch (Exception e) {
             throw new CmsSearchException(Messages.get().container(Messages.ERR_SEARCH_PARAMS_1, params), e);
+        } finally {
+            // release the index searcher
+            indexSearcherRelease(searcher);
         }
 
         return searchResults;
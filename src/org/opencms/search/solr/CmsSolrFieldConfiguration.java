@@ -49,7 +49,12 @@ import org.opencms.search.fields.CmsSearchFieldConfiguration;
 import org.opencms.search.fields.CmsSearchFieldMapping;
 import org.opencms.search.fields.CmsSearchFieldMappingType;
 import org.opencms.search.fields.I_CmsSearchFieldMapping;
+import org.opencms.security.CmsAccessControlEntry;
+import org.opencms.security.CmsAccessControlList;
+import org.opencms.security.CmsPermissionSet;
+import org.opencms.security.CmsPermissionSetCustom;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 import org.opencms.xml.CmsXmlContentDefinition;
 import org.opencms.xml.content.I_CmsXmlContentHandler;
 
@@ -122,6 +127,15 @@ public class CmsSolrFieldConfiguration extends CmsSearchFieldConfiguration {
         sfield.addMapping(map);
         m_solrFields.put(sfield.getName(), sfield);
 
+        sfield = new CmsSolrField(CmsSearchField.FIELD_ACL_READERS, null, null, null, 0);
+        m_solrFields.put(sfield.getName(), sfield);
+
+        sfield = new CmsSolrField(CmsSearchField.FIELD_ACL_DENIED, null, null, null, 0);
+        m_solrFields.put(sfield.getName(), sfield);
+
+        sfield = new CmsSolrField(CmsSearchField.FIELD_ACL_PRINCIPALS, null, null, null, 0);
+        m_solrFields.put(sfield.getName(), sfield);
+
         getFields().clear();
         getFields().addAll(m_solrFields.values());
     }
@@ -149,6 +163,10 @@ public class CmsSolrFieldConfiguration extends CmsSearchFieldConfiguration {
 
         document.addSearchField(m_solrFields.get(CmsSearchField.FIELD_VERSION), "" + resource.getVersion());
 
+        if ((getIndex() instanceof CmsSolrIndex) && ((CmsSolrIndex)getIndex()).isPermissionFilter()) {
+            appendPermissions(document, cms, resource);
+        }
+
         return document;
     }
 
@@ -366,6 +384,59 @@ public class CmsSolrFieldConfiguration extends CmsSearchFieldConfiguration {
         return document;
     }
 
+    /**
+     * Appends the principals of the effective access control list to the document.<p>
+     * 
+     * These fields are used by the permission filter query of the Solr index, 
+     * see {@link CmsSolrIndex#getPermissionFilterQuery(CmsObject)}.<p>
+     * 
+     * @param document the document to extend
+     * @param cms the OpenCms context used for indexing
+     * @param resource the resource that is indexed
+     * 
+     * @return the extended document
+     */
+    protected I_CmsSearchDocument appendPermissions(
+        I_CmsSearchDocument document,
+        CmsObject cms,
+        CmsResource resource) {
+
+        CmsAccessControlList acl;
+        try {
+            acl = cms.getAccessControlList(cms.getRequestContext().getSitePath(resource));
+        } catch (CmsException e) {
+            // without the access control entries the document is only checked by the regular permission check
+            LOG.warn(e.getLocalizedMessage(), e);
+            return document;
+        }
+        StringBuffer readers = new StringBuffer();
+        StringBuffer denied = new StringBuffer();
+        StringBuffer principals = new StringBuffer();
+        for (Map.Entry<CmsUUID, CmsPermissionSetCustom> entry : acl.getPermissionMap().entrySet()) {
+            if (CmsAccessControlEntry.PRINCIPAL_OVERWRITE_ALL_ID.equals(entry.getKey())) {
+                continue;
+            }
+            String principal = entry.getKey().toString();
+            principals.append(principal).append('\n');
+            CmsPermissionSetCustom permissions = entry.getValue();
+            if ((permissions.getDeniedPermissions() & CmsPermissionSet.PERMISSION_READ) > 0) {
+                denied.append(principal).append('\n');
+            } else if ((permissions.getAllowedPermissions() & CmsPermissionSet.PERMISSION_READ) > 0) {
+                readers.append(principal).append('\n');
+            }
+        }
+        if (readers.length() > 0) {
+            document.addSearchField(m_solrFields.get(CmsSearchField.FIELD_ACL_READERS), readers.toString());
+        }
+        if (denied.length() > 0) {
+            document.addSearchField(m_solrFields.get(CmsSearchField.FIELD_ACL_DENIED), denied.toString());
+        }
+        if (principals.length() > 0) {
+            document.addSearchField(m_solrFields.get(CmsSearchField.FIELD_ACL_PRINCIPALS), principals.toString());
+        }
+        return document;
+    }
+
     /**
      * @see org.opencms.search.fields.CmsSearchFieldConfiguration#appendProperties(org.opencms.search.I_CmsSearchDocument, org.opencms.file.CmsObject, org.opencms.file.CmsResource, org.opencms.search.extractors.I_CmsExtractionResult, java.util.List, java.util.List)
      */
@@ -33,11 +33,14 @@ package org.opencms.search.solr;
 
 import org.opencms.configuration.CmsConfigurationException;
 import org.opencms.configuration.CmsParameterConfiguration;
+import org.opencms.file.CmsGroup;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
+import org.opencms.file.CmsUser;
 import org.opencms.file.types.CmsResourceTypeXmlContainerPage;
 import org.opencms.file.types.CmsResourceTypeXmlContent;
+import org.opencms.flex.CmsFlexRequestContextInfo;
 import org.opencms.i18n.CmsEncoder;
 import org.opencms.main.CmsException;
 import org.opencms.main.CmsIllegalArgumentException;
@@ -55,6 +58,8 @@ import org.opencms.search.I_CmsIndexWriter;
 import org.opencms.search.I_CmsSearchDocument;
 import org.opencms.search.documents.I_CmsDocumentFactory;
 import org.opencms.search.fields.CmsSearchField;
+import org.opencms.security.CmsAccessControlEntry;
+import org.opencms.security.CmsRole;
 import org.opencms.util.CmsRequestUtil;
 import org.opencms.util.CmsStringUtil;
 
@@ -64,6 +69,7 @@ import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Locale;
@@ -114,6 +120,9 @@ public class CmsSolrIndex extends CmsSearchIndex {
     /** The name of the default Solr Online index. */
     public static final String DEFAULT_INDEX_NAME_ONLINE = "Solr Online";
 
+    /** Constant for additional parameter to enable the permission filter query. */
+    public static final String PERMISSION_FILTER = "search.solr.permissionFilter";
+
     /** Constant for additional parameter to set the post processor class name. */
     public static final String POST_PROCESSOR = "search.solr.postProcessor";
 
@@ -165,6 +174,9 @@ public class CmsSolrIndex extends CmsSearchIndex {
     /** The embedded Solr server for this index. */
     SolrServer m_solr;
 
+    /** Signals whether the read permissions are indexed and used as filter query. */
+    private boolean m_permissionFilter;
+
     /** The post document manipulator. */
     private I_CmsSolrPostSearchProcessor m_postProcessor;
 
@@ -216,7 +228,9 @@ public class CmsSolrIndex extends CmsSearchIndex {
     @Override
     public void addConfigurationParameter(String key, String value) {
 
-        if (POST_PROCESSOR.equals(key)) {
+        if (PERMISSION_FILTER.equals(key)) {
+            setPermissionFilter(Boolean.valueOf(value).booleanValue());
+        } else if (POST_PROCESSOR.equals(key)) {
             if (CmsStringUtil.isNotEmptyOrWhitespaceOnly(value)) {
                 try {
                     setPostProcessor((I_CmsSolrPostSearchProcessor)Class.forName(value).newInstance());
@@ -258,6 +272,9 @@ public class CmsSolrIndex extends CmsSearchIndex {
     public CmsParameterConfiguration getConfiguration() {
 
         CmsParameterConfiguration result = super.getConfiguration();
+        if (isPermissionFilter()) {
+            result.put(PERMISSION_FILTER, String.valueOf(isPermissionFilter()));
+        }
         if (getPostProcessor() != null) {
             result.put(POST_PROCESSOR, getPostProcessor().getClass().getName());
         }
@@ -338,6 +355,79 @@ public class CmsSolrIndex extends CmsSearchIndex {
         return result;
     }
 
+    /**
+     * Returns the filter query that restricts the search result to the documents 
+     * the current user of the given context is allowed to read.<p>
+     * 
+     * A document is readable if one of the principals of the user (the user itself, its groups and its roles) 
+     * is allowed to read it and none of them is denied, or if none of the principals has an access control 
+     * entry and the 'all others' entry allows reading. Documents without indexed access control 
+     * entries are always matched, those are checked by the regular permission check.<p>
+     * 
+     * The filter only depends on the principals of the user, so Solr can cache it 
+     * and reuse it for all queries of users with the same principals.<p>
+     * 
+     * @param cms the current OpenCms context
+     * 
+     * @return the filter query, or <code>null</code> if no filter can be applied for the current user
+     */
+    public String getPermissionFilterQuery(CmsObject cms) {
+
+        if (!isPermissionFilter() || !isCheckingPermissions()) {
+            return null;
+        }
+        CmsUser user = cms.getRequestContext().getCurrentUser();
+        List<String> principals = new ArrayList<String>();
+        principals.add(user.getId().toString());
+        try {
+            for (CmsGroup group : cms.getGroupsOfUser(user.getName(), false)) {
+                principals.add(group.getId().toString());
+            }
+            if (!user.isGuestUser()) {
+                List<CmsRole> roles = OpenCms.getRoleManager().getRolesOfUser(
+                    cms,
+                    user.getName(),
+                    "",
+                    true,
+                    false,
+                    true);
+                for (CmsRole role : roles) {
+                    if (role.forOrgUnit(null).equals(CmsRole.VFS_MANAGER)) {
+                        // VFS managers can ignore the permissions, at least for a part of the VFS
+                        return null;
+                    }
+                    String roleId = role.getId().toString();
+                    if (!principals.contains(roleId)) {
+                        principals.add(roleId);
+                    }
+                }
+            }
+        } catch (CmsException e) {
+            LOG.warn(e.getLocalizedMessage(), e);
+            return null;
+        }
+        // sort the principals to get the same filter for the same set of principals 
+        Collections.sort(principals);
+        StringBuffer ids = new StringBuffer();
+        ids.append('(');
+        for (int i = 0; i < principals.size(); i++) {
+            if (i > 0) {
+                ids.append(" OR ");
+            }
+            ids.append('"').append(principals.get(i)).append('"');
+        }
+        ids.append(')');
+        String allOthers = "\"" + CmsAccessControlEntry.PRINCIPAL_ALL_OTHERS_ID + "\"";
+        StringBuffer result = new StringBuffer();
+        result.append("(+").append(CmsSearchField.FIELD_ACL_READERS).append(':').append(ids);
+        result.append(" -").append(CmsSearchField.FIELD_ACL_DENIED).append(':').append(ids);
+        result.append(") OR (+").append(CmsSearchField.FIELD_ACL_READERS).append(':').append(allOthers);
+        result.append(" -").append(CmsSearchField.FIELD_ACL_DENIED).append(':').append(allOthers);
+        result.append(" -").append(CmsSearchField.FIELD_ACL_PRINCIPALS).append(':').append(ids);
+        result.append(") OR (*:* -").append(CmsSearchField.FIELD_ACL_PRINCIPALS).append(":[* TO *])");
+        return result.toString();
+    }
+
     /**
      * Returns the search post processor.<p>
      *
@@ -504,6 +594,29 @@ public class CmsSolrIndex extends CmsSearchIndex {
         search(cms, query, ignoreMaxRows, response);
     }
 
+    /**
+     * Returns <code>true</code> if the read permissions are indexed and used as filter query.<p>
+     * 
+     * @return <code>true</code> if the read permissions are indexed and used as filter query
+     */
+    public boolean isPermissionFilter() {
+
+        return m_permissionFilter;
+    }
+
+    /**
+     * Sets whether the read permissions are indexed and used as filter query.<p>
+     * 
+     * If enabled, the index only has to fetch the requested page of documents 
+     * instead of over-fetching documents for the permission check.<p>
+     * 
+     * @param permissionFilter <code>true</code> to enable the permission filter query
+     */
+    public void setPermissionFilter(boolean permissionFilter) {
+
+        m_permissionFilter = permissionFilter;
+    }
+
     /**
      * Sets the search post processor.<p>
      *
@@ -700,6 +813,13 @@ public class CmsSolrIndex extends CmsSearchIndex {
         boolean ignoreMaxRows,
         ServletResponse response) throws CmsSearchException {
 
+        // the result of a search may change with any published resource, this can not be tracked by the Flex cache
+        CmsFlexRequestContextInfo contextInfo = (CmsFlexRequestContextInfo)cms.getRequestContext().getAttribute(
+            CmsRequestUtil.HEADER_LAST_MODIFIED);
+        if (contextInfo != null) {
+            contextInfo.addUntrackedDependency();
+        }
+
         int previousPriority = Thread.currentThread().getPriority();
         long startTime = System.currentTimeMillis();
 
@@ -708,6 +828,8 @@ public class CmsSolrIndex extends CmsSearchIndex {
 
         query.setHighlight(false);
         LocalSolrQueryRequest solrQueryRequest = null;
+        // the permission filter depends on the user, so it is removed from the query of the caller again
+        String addedPermissionFilter = null;
         try {
 
             // initialize the search context
@@ -734,9 +856,24 @@ public class CmsSolrIndex extends CmsSearchIndex {
                 page = Math.round(start / rows) + 1;
             }
 
-            // set the start to '0' and expand the rows before performing the query
-            query.setStart(new Integer(0));
-            query.setRows(new Integer((5 * rows * page) + start));
+            // the position of the first returned document in the complete result
+            int offset = 0;
+            String permissionFilter = rows > 0 ? getPermissionFilterQuery(searchCms) : null;
+            if (permissionFilter != null) {
+                // Solr only returns readable documents, so only the requested page is fetched
+                if ((query.getFilterQueries() == null)
+                    || !Arrays.asList(query.getFilterQueries()).contains(permissionFilter)) {
+                    query.addFilterQuery(permissionFilter);
+                    addedPermissionFilter = permissionFilter;
+                }
+                offset = rows * (page - 1);
+                query.setStart(new Integer(offset));
+                query.setRows(new Integer(rows));
+            } else {
+                // set the start to '0' and expand the rows before performing the query
+                query.setStart(new Integer(0));
+                query.setRows(new Integer((5 * rows * page) + start));
+            }
 
             // perform the Solr query and remember the original Solr response
             QueryResponse queryResponse = m_solr.query(query);
@@ -763,7 +900,7 @@ public class CmsSolrIndex extends CmsSearchIndex {
 
             // process found documents
             List<CmsSearchResource> allDocs = new ArrayList<CmsSearchResource>();
-            int cnt = 0;
+            int cnt = offset;
             for (int i = 0; (i < queryResponse.getResults().size()) && (cnt < end); i++) {
                 try {
                     SolrDocument doc = queryResponse.getResults().get(i);
@@ -961,6 +1098,9 @@ public class CmsSolrIndex extends CmsSearchIndex {
                 Messages.LOG_SOLR_ERR_SEARCH_EXECUTION_FAILD_1,
                 CmsEncoder.decode(query.toString())), e);
         } finally {
+            if (addedPermissionFilter != null) {
+                query.removeFilterQuery(addedPermissionFilter);
+            }
 
             // re-set thread to previous priority
             Thread.currentThread().setPriority(previousPriority);
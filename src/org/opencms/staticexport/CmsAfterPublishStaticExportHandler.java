@@ -54,9 +54,19 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletResponse;
@@ -280,6 +290,8 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
     /**
      * Exports all non template resources found in a list of published resources.<p>
      * 
+     * If more than one export thread is configured, the resources are exported in parallel.<p>
+     * 
      * @param cms the current cms object
      * @param publishedResources the list of published resources
      * @param report an I_CmsReport instance to print output message, or null to write messages to the log file
@@ -291,9 +303,9 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
      * @throws ServletException in case of errors accessing the servlet 
      */
     protected boolean exportNonTemplateResources(
-        CmsObject cms,
+        final CmsObject cms,
         List<CmsPublishedResource> publishedResources,
-        I_CmsReport report) throws CmsException, IOException, ServletException {
+        final I_CmsReport report) throws CmsException, IOException, ServletException {
 
         report.println(
             Messages.get().container(Messages.RPT_STATICEXPORT_NONTEMPLATE_RESOURCES_BEGIN_0),
@@ -309,54 +321,31 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
         List<CmsStaticExportData> resourcesToExport = new ArrayList<CmsStaticExportData>();
         boolean templatesFound = readNonTemplateResourcesToExport(cms, publishedResources, resourcesToExport);
 
-        int count = 1;
-        int size = resourcesToExport.size();
+        // make sure every RFS file is only written once
+        Map<String, CmsStaticExportData> uniqueResources = new LinkedHashMap<String, CmsStaticExportData>();
+        for (CmsStaticExportData exportData : resourcesToExport) {
+            if (!uniqueResources.containsKey(exportData.getRfsName())) {
+                uniqueResources.put(exportData.getRfsName(), exportData);
+            }
+        }
+        final int size = uniqueResources.size();
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_NUM_EXPORT_1, new Integer(size)));
         }
         // now do the export
-        Iterator<CmsStaticExportData> i = resourcesToExport.iterator();
-        while (i.hasNext()) {
-            CmsStaticExportData exportData = i.next();
-            if (LOG.isDebugEnabled()) {
-                LOG.debug(Messages.get().getBundle().key(
-                    Messages.LOG_EXPORT_FILE_2,
-                    exportData.getVfsName(),
-                    exportData.getRfsName()));
-            }
+        final AtomicInteger count = new AtomicInteger(1);
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(size);
+        for (final CmsStaticExportData exportData : uniqueResources.values()) {
+            tasks.add(new Callable<Void>() {
 
-            report.print(
-                org.opencms.report.Messages.get().container(
-                    org.opencms.report.Messages.RPT_SUCCESSION_2,
-                    new Integer(count++),
-                    new Integer(size)),
-                I_CmsReport.FORMAT_NOTE);
-            report.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
-            report.print(org.opencms.report.Messages.get().container(
-                org.opencms.report.Messages.RPT_ARGUMENT_1,
-                exportData.getVfsName()));
-            report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-            int status = manager.export(null, null, cms, exportData);
-            if (status == HttpServletResponse.SC_OK) {
-                report.println(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                    I_CmsReport.FORMAT_OK);
-            } else {
-                report.println(
-                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
-                    I_CmsReport.FORMAT_NOTE);
-            }
+                public Void call() throws Exception {
 
-            if (LOG.isInfoEnabled()) {
-                Object[] arguments = new Object[] {
-                    exportData.getVfsName(),
-                    exportData.getRfsName(),
-                    new Integer(status)};
-                LOG.info(Messages.get().getBundle().key(Messages.LOG_EXPORT_FILE_STATUS_3, arguments));
-            }
-            //don't lock up the CPU exclusively - allow other Threads to run as well 
-            Thread.yield();
+                    exportNonTemplateResource(cms, exportData, report, count, size);
+                    return null;
+                }
+            });
         }
+        executeExportTasks(tasks);
 
         resourcesToExport = null;
 
@@ -597,15 +586,22 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
     /**
      * Exports all template resources found in a list of published resources.<p>
      * 
+     * If more than one export thread is configured, the resources are requested from the server in parallel.
+     * The detail page variants of a resource are always requested before the resource itself.<p>
+     * 
      * @param cms the cms context, in the root site as Export user
      * @param publishedTemplateResources list of potential candidates to export
      * @param report an I_CmsReport instance to print output message, or null to write messages to the log file    
      */
-    protected void exportTemplateResources(CmsObject cms, List<String> publishedTemplateResources, I_CmsReport report) {
+    protected void exportTemplateResources(
+        CmsObject cms,
+        List<String> publishedTemplateResources,
+        final I_CmsReport report) {
 
         CmsStaticExportManager manager = OpenCms.getStaticExportManager();
-        int size = publishedTemplateResources.size();
-        int count = 1;
+        // make sure every RFS name is only requested once
+        Set<String> rfsNames = new LinkedHashSet<String>(publishedTemplateResources);
+        final int size = rfsNames.size();
 
         if (LOG.isDebugEnabled()) {
             LOG.debug(Messages.get().getBundle().key(Messages.LOG_EXPORT_TEMPLATES_1, new Integer(size)));
@@ -614,9 +610,11 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
             Messages.get().container(Messages.RPT_STATICEXPORT_TEMPLATE_RESOURCES_BEGIN_0),
             I_CmsReport.FORMAT_HEADLINE);
 
-        StringBuffer cookies = new StringBuffer();
-        // now loop through all of them and request them from the server
-        Iterator<String> i = publishedTemplateResources.iterator();
+        final StringBuffer cookies = new StringBuffer();
+        final AtomicInteger count = new AtomicInteger(1);
+        List<Callable<Void>> tasks = new ArrayList<Callable<Void>>(size);
+        // now loop through all of them and collect the export data, this uses the cms context and is not done in parallel
+        Iterator<String> i = rfsNames.iterator();
         while (i.hasNext()) {
             String rfsName = i.next();
             CmsStaticExportData data = null;
@@ -638,68 +636,53 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
                     }
                 }
             }
-            if (data != null) {
-                data.setRfsName(rfsName);
-                report.print(
-                    org.opencms.report.Messages.get().container(
-                        org.opencms.report.Messages.RPT_SUCCESSION_2,
-                        new Integer(count++),
-                        new Integer(size)),
-                    I_CmsReport.FORMAT_NOTE);
-                report.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
-                report.print(org.opencms.report.Messages.get().container(
-                    org.opencms.report.Messages.RPT_ARGUMENT_1,
-                    rfsName));
-                report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
-            } else {
+            if (data == null) {
                 // no valid resource found for rfs name (already deleted), skip it
                 continue;
             }
+            data.setRfsName(rfsName);
 
+            final List<CmsStaticExportData> detailData = new ArrayList<CmsStaticExportData>();
             try {
-                CmsResource resource = data.getResource();
-                try {
-                    Collection<String> detailPages = CmsDetailPageUtil.getAllDetailPagesWithUrlName(cms, resource);
-                    for (String detailPageUri : detailPages) {
-                        String altRfsName = manager.getRfsName(cms, detailPageUri);
-                        CmsStaticExportData detailData = new CmsStaticExportData(
-                            data.getVfsName(),
-                            altRfsName,
-                            data.getResource(),
-                            data.getParameters());
-                        exportTemplateResource(detailData, cookies);
-                    }
-                } catch (CmsException e) {
-                    LOG.error(e.getLocalizedMessage(), e);
+                Collection<String> detailPages = CmsDetailPageUtil.getAllDetailPagesWithUrlName(cms, data.getResource());
+                for (String detailPageUri : detailPages) {
+                    String altRfsName = manager.getRfsName(cms, detailPageUri);
+                    detailData.add(new CmsStaticExportData(
+                        data.getVfsName(),
+                        altRfsName,
+                        data.getResource(),
+                        data.getParameters()));
                 }
+            } catch (CmsException e) {
+                LOG.error(e.getLocalizedMessage(), e);
+            }
+
+            final CmsStaticExportData exportData = data;
+            tasks.add(new Callable<Void>() {
+
+                public Void call() {
 
-                int status = exportTemplateResource(data, cookies);
-
-                // write the report
-                if (status == HttpServletResponse.SC_OK) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
-                        I_CmsReport.FORMAT_OK);
-                } else if (status == HttpServletResponse.SC_NOT_MODIFIED) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_SKIPPED_0),
-                        I_CmsReport.FORMAT_NOTE);
-                } else if (status == HttpServletResponse.SC_SEE_OTHER) {
-                    report.println(
-                        org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
-                        I_CmsReport.FORMAT_NOTE);
-                } else {
-                    report.println(
-                        org.opencms.report.Messages.get().container(
-                            org.opencms.report.Messages.RPT_ARGUMENT_1,
-                            new Integer(status)),
-                        I_CmsReport.FORMAT_OK);
+                    exportTemplateResource(exportData, detailData, cookies, report, count, size);
+                    return null;
                 }
-            } catch (IOException e) {
-                report.println(e);
+            });
+        }
+
+        if (!tasks.isEmpty() && (cookies.length() == 0)) {
+            // the first request is done alone to retrieve the session cookie that is used by all other requests 
+            try {
+                tasks.remove(0).call();
+            } catch (Exception e) {
+                // should not happen, the task handles all errors itself
+                LOG.error(e.getLocalizedMessage(), e);
             }
-            //don't lock up the CPU exclusively - allow other Threads to run as well 
-            Thread.yield();
+        }
+        try {
+            executeExportTasks(tasks);
+        } catch (Exception e) {
+            // should not happen, the tasks handle all errors themselves
+            LOG.error(e.getLocalizedMessage(), e);
+            report.println(e);
         }
         report.println(
             Messages.get().container(Messages.RPT_STATICEXPORT_TEMPLATE_RESOURCES_END_0),
@@ -890,4 +873,197 @@ public class CmsAfterPublishStaticExportHandler extends A_CmsStaticExportHandler
 
         return templatesFound;
     }
-}
\ No newline at end of file
+
+    /**
+     * Executes the given export tasks, in parallel if more than one export thread is configured.<p>
+     * 
+     * The method returns after all tasks have been finished. 
+     * If a task fails, the remaining tasks are cancelled and the error is thrown.<p>
+     * 
+     * @param tasks the export tasks to execute
+     * 
+     * @throws CmsException in case of errors accessing the VFS
+     * @throws IOException in case of errors writing to the export output stream
+     * @throws ServletException in case of errors accessing the servlet 
+     */
+    private void executeExportTasks(List<Callable<Void>> tasks) throws CmsException, IOException, ServletException {
+
+        int threads = Math.min(OpenCms.getStaticExportManager().getExportThreads().intValue(), tasks.size());
+        try {
+            if (threads <= 1) {
+                for (Callable<Void> task : tasks) {
+                    task.call();
+                    //don't lock up the CPU exclusively - allow other Threads to run as well 
+                    Thread.yield();
+                }
+                return;
+            }
+            ExecutorService pool = Executors.newFixedThreadPool(threads, new ThreadFactory() {
+
+                private AtomicInteger m_threadNumber = new AtomicInteger();
+
+                public Thread newThread(Runnable r) {
+
+                    Thread thread = new Thread(r, "OpenCms: Static export worker " + m_threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }
+            });
+            try {
+                CompletionService<Void> completionService = new ExecutorCompletionService<Void>(pool);
+                for (Callable<Void> task : tasks) {
+                    completionService.submit(task);
+                }
+                for (int i = 0; i < tasks.size(); i++) {
+                    try {
+                        completionService.take().get();
+                    } catch (ExecutionException e) {
+                        throw e.getCause();
+                    }
+                }
+            } finally {
+                // cancels all remaining tasks in case of an error
+                pool.shutdownNow();
+            }
+        } catch (CmsException e) {
+            throw e;
+        } catch (IOException e) {
+            throw e;
+        } catch (ServletException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Error e) {
+            throw e;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CmsStaticExportException(Messages.get().container(Messages.ERR_EXPORT_NOT_SUCCESSFUL_0), e);
+        } catch (Throwable e) {
+            throw new CmsStaticExportException(Messages.get().container(Messages.ERR_EXPORT_NOT_SUCCESSFUL_0), e);
+        }
+    }
+
+    /**
+     * Exports a single non template resource and writes the result to the report.<p>
+     * 
+     * @param cms the current cms object
+     * @param exportData the export data of the resource
+     * @param report an I_CmsReport instance to print output message
+     * @param count the counter for the report output
+     * @param size the total number of resources to export
+     * 
+     * @throws CmsException in case of errors accessing the VFS
+     * @throws IOException in case of errors writing to the export output stream
+     * @throws ServletException in case of errors accessing the servlet 
+     */
+    private void exportNonTemplateResource(
+        CmsObject cms,
+        CmsStaticExportData exportData,
+        I_CmsReport report,
+        AtomicInteger count,
+        int size) throws CmsException, IOException, ServletException {
+
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(
+                Messages.LOG_EXPORT_FILE_2,
+                exportData.getVfsName(),
+                exportData.getRfsName()));
+        }
+        int status = OpenCms.getStaticExportManager().export(null, null, cms, exportData);
+
+        // write the report in one block, so that the output of parallel exports is not mixed up
+        synchronized (report) {
+            report.print(
+                org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_SUCCESSION_2,
+                    new Integer(count.getAndIncrement()),
+                    new Integer(size)),
+                I_CmsReport.FORMAT_NOTE);
+            report.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
+            report.print(org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_ARGUMENT_1,
+                exportData.getVfsName()));
+            report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+            if (status == HttpServletResponse.SC_OK) {
+                report.println(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                    I_CmsReport.FORMAT_OK);
+            } else {
+                report.println(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
+                    I_CmsReport.FORMAT_NOTE);
+            }
+        }
+
+        if (LOG.isInfoEnabled()) {
+            Object[] arguments = new Object[] {exportData.getVfsName(), exportData.getRfsName(), new Integer(status)};
+            LOG.info(Messages.get().getBundle().key(Messages.LOG_EXPORT_FILE_STATUS_3, arguments));
+        }
+    }
+
+    /**
+     * Exports a single template resource together with its detail page variants and writes the result to the report.<p>
+     * 
+     * @param data the export data of the resource
+     * @param detailData the export data for the detail page variants of the resource
+     * @param cookies cookies to keep the session
+     * @param report an I_CmsReport instance to print output message
+     * @param count the counter for the report output
+     * @param size the total number of resources to export
+     */
+    private void exportTemplateResource(
+        CmsStaticExportData data,
+        List<CmsStaticExportData> detailData,
+        StringBuffer cookies,
+        I_CmsReport report,
+        AtomicInteger count,
+        int size) {
+
+        int status = 0;
+        IOException error = null;
+        try {
+            for (CmsStaticExportData detail : detailData) {
+                exportTemplateResource(detail, cookies);
+            }
+            status = exportTemplateResource(data, cookies);
+        } catch (IOException e) {
+            error = e;
+        }
+
+        // write the report in one block, so that the output of parallel exports is not mixed up
+        synchronized (report) {
+            report.print(
+                org.opencms.report.Messages.get().container(
+                    org.opencms.report.Messages.RPT_SUCCESSION_2,
+                    new Integer(count.getAndIncrement()),
+                    new Integer(size)),
+                I_CmsReport.FORMAT_NOTE);
+            report.print(Messages.get().container(Messages.RPT_EXPORTING_0), I_CmsReport.FORMAT_NOTE);
+            report.print(org.opencms.report.Messages.get().container(
+                org.opencms.report.Messages.RPT_ARGUMENT_1,
+                data.getRfsName()));
+            report.print(org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_DOTS_0));
+            if (error != null) {
+                report.println(error);
+            } else if (status == HttpServletResponse.SC_OK) {
+                report.println(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_OK_0),
+                    I_CmsReport.FORMAT_OK);
+            } else if (status == HttpServletResponse.SC_NOT_MODIFIED) {
+                report.println(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_SKIPPED_0),
+                    I_CmsReport.FORMAT_NOTE);
+            } else if (status == HttpServletResponse.SC_SEE_OTHER) {
+                report.println(
+                    org.opencms.report.Messages.get().container(org.opencms.report.Messages.RPT_IGNORED_0),
+                    I_CmsReport.FORMAT_NOTE);
+            } else {
+                report.println(
+                    org.opencms.report.Messages.get().container(
+                        org.opencms.report.Messages.RPT_ARGUMENT_1,
+                        new Integer(status)),
+                    I_CmsReport.FORMAT_OK);
+            }
+        }
+    }
+}
@@ -112,6 +112,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     /** Name for the folder default index file. */
     public static final String EXPORT_DEFAULT_FILE = "index_export.html";
 
+    /** The default number of threads used for the static export after publish. */
+    public static final Integer EXPORT_DEFAULT_THREADS = new Integer(1);
+
     /** Name for the default work path. */
     public static final String EXPORT_DEFAULT_WORKPATH = CmsSystemInfo.FOLDER_WEBINF + "temp";
 
@@ -241,6 +244,9 @@ public class CmsStaticExportManager implements I_CmsEventListener {
     /** Indicates if the static export is enabled or disabled. */
     private boolean m_staticExportEnabled;
 
+    /** The number of threads used for the static export after publish. */
+    private Integer m_staticExportThreads;
+
     /** The path to where the static export will be written. */
     private String m_staticExportPath;
 
@@ -1063,6 +1069,20 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         return m_exportSuffixes;
     }
 
+    /**
+     * Returns the number of threads used to export resources after publishing.<p>
+     * 
+     * @return the number of threads used to export resources after publishing
+     */
+    public Integer getExportThreads() {
+
+        if (m_staticExportThreads != null) {
+            return m_staticExportThreads;
+        }
+        // if threads not configured set to default value
+        return EXPORT_DEFAULT_THREADS;
+    }
+
     /**
      * Returns the export URL used for internal requests for exporting resources that require a 
      * request / response (like JSP).<p>
@@ -2077,6 +2097,16 @@ public class CmsStaticExportManager implements I_CmsEventListener {
         m_exportSuffixes.add(suffix.toLowerCase());
     }
 
+    /**
+     * Sets the number of threads used to export resources after publishing.<p>
+     * 
+     * @param threads the number of threads
+     */
+    public void setExportThreads(String threads) {
+
+        m_staticExportThreads = new Integer(threads);
+    }
+
     /**
      * Sets the export url.<p>
      * 
@@ -0,0 +1,129 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+
+package org.opencms.webdav;
+
+import java.io.IOException;
+import java.io.Writer;
+
+import org.dom4j.Element;
+import org.dom4j.Namespace;
+import org.dom4j.QName;
+import org.dom4j.io.OutputFormat;
+import org.dom4j.io.XMLWriter;
+
+/**
+ * Writes a WebDAV multistatus response incrementally.<p>
+ * 
+ * Each response element is written as soon as it is complete, so large multistatus 
+ * responses never have to be kept in memory as a whole.<p>
+ * 
+ * @since 9.0.0
+ */
+public class CmsWebdavMultistatusWriter extends XMLWriter {
+
+    /** The number of written responses after which the output is flushed. */
+    private static final int FLUSH_INTERVAL = 50;
+
+    /** The number of responses written so far. */
+    private int m_count;
+
+    /** The name of the multistatus root element. */
+    private QName m_rootName;
+
+    /**
+     * Creates a new multistatus writer.<p>
+     * 
+     * @param writer the writer to write the XML to
+     * @param rootName the name of the multistatus root element
+     */
+    public CmsWebdavMultistatusWriter(Writer writer, QName rootName) {
+
+        super(writer, new OutputFormat());
+        m_rootName = rootName;
+    }
+
+    /**
+     * Writes the end of the multistatus element and flushes the output.<p>
+     * 
+     * @throws IOException if writing to the output fails
+     */
+    public void writeEnd() throws IOException {
+
+        writer.write("</");
+        writer.write(m_rootName.getQualifiedName());
+        writer.write(">");
+        flush();
+    }
+
+    /**
+     * Writes a single response element.<p>
+     * 
+     * The namespace of the root element is not declared again.<p>
+     * 
+     * @param response the response element
+     * 
+     * @throws IOException if writing to the output fails
+     */
+    public void writeResponse(Element response) throws IOException {
+
+        write(response);
+        m_count++;
+        if ((m_count % FLUSH_INTERVAL) == 0) {
+            // let the client start processing the responses
+            flush();
+        }
+    }
+
+    /**
+     * Writes the XML declaration and the start of the multistatus element.<p>
+     * 
+     * @throws IOException if writing to the output fails
+     */
+    public void writeStart() throws IOException {
+
+        writeDeclaration();
+        writer.write("<");
+        writer.write(m_rootName.getQualifiedName());
+        writeNamespace(m_rootName.getNamespace());
+        writer.write(">");
+    }
+
+    /**
+     * @see org.dom4j.io.XMLWriter#isNamespaceDeclaration(org.dom4j.Namespace)
+     */
+    @Override
+    protected boolean isNamespaceDeclaration(Namespace ns) {
+
+        if (m_rootName.getNamespace().equals(ns)) {
+            // already declared in the root element
+            return false;
+        }
+        return super.isNamespaceDeclaration(ns);
+    }
+}
@@ -87,7 +87,6 @@ import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Stack;
 import java.util.StringTokenizer;
 import java.util.TimeZone;
 import java.util.Vector;
@@ -252,6 +251,15 @@ public class CmsWebdavServlet extends HttpServlet {
     /** The name of the init parameter in the web.xml to allow listing. */
     private static final String INIT_PARAM_LIST = "listings";
 
+    /** 
+     * The name of the init parameter in the web.xml to set the depth used for PROPFIND with depth infinity.<p>
+     * 
+     * The responses are streamed, but the repository session lists each folder completely. For every 
+     * level of the walked tree, the children of the current folder are kept in memory, so very large 
+     * folders should be served with a small depth, or with "refuse".<p>
+     */
+    private static final String INIT_PARAM_MAXDEPTH = "maxdepth";
+
     /** The name of the init parameter in the web.xml to set read only. */
     private static final String INIT_PARAM_READONLY = "readonly";
 
@@ -267,6 +275,9 @@ public class CmsWebdavServlet extends HttpServlet {
     /** The log object for this class. */
     private static final Log LOG = CmsLog.getLog(CmsWebdavServlet.class);
 
+    /** The value of the init parameter "maxdepth" to refuse PROPFIND requests with depth infinity. */
+    private static final String MAXDEPTH_REFUSE = "refuse";
+
     /** The repository used from this servlet. */
     private static A_CmsRepository m_repository;
 
@@ -297,6 +308,9 @@ public class CmsWebdavServlet extends HttpServlet {
     /** The name of the tag "displayname" in the WebDAV protocol. */
     private static final String TAG_DISPLAYNAME = "displayname";
 
+    /** The name of the tag "error" in the WebDAV protocol. */
+    private static final String TAG_ERROR = "error";
+
     /** The name of the tag "getetag" in the WebDAV protocol. */
     private static final String TAG_ETAG = "getetag";
 
@@ -330,6 +344,9 @@ public class CmsWebdavServlet extends HttpServlet {
     /** The name of the tag "prop" in the WebDAV protocol. */
     private static final String TAG_PROP = "prop";
 
+    /** The name of the tag "propfind-finite-depth" in the WebDAV protocol. */
+    private static final String TAG_PROPFIND_FINITE_DEPTH = "propfind-finite-depth";
+
     /** The name of the tag "propstat" in the WebDAV protocol. */
     private static final String TAG_PROPSTAT = "propstat";
 
@@ -339,6 +356,9 @@ public class CmsWebdavServlet extends HttpServlet {
     /** The name of the tag "response" in the WebDAV protocol. */
     private static final String TAG_RESPONSE = "response";
 
+    /** The name of the tag "responsedescription" in the WebDAV protocol. */
+    private static final String TAG_RESPONSEDESCRIPTION = "responsedescription";
+
     /** The name of the tag "source" in the WebDAV protocol. */
     private static final String TAG_SOURCE = "source";
 
@@ -363,9 +383,15 @@ public class CmsWebdavServlet extends HttpServlet {
     /** Should we generate directory listings? */
     private boolean m_listings;
 
+    /** The depth used for PROPFIND requests with depth infinity. */
+    private int m_maxDepth = CmsRepositoryLockInfo.DEPTH_INFINITY_VALUE;
+
     /** Read only flag. By default, it's set to true. */
     private boolean m_readOnly = true;
 
+    /** Flag to refuse PROPFIND requests with depth infinity. */
+    private boolean m_refuseInfinityDepth;
+
     /** Secret information used to generate reasonably secure lock ids. */
     private String m_secret = "catalina";
 
@@ -464,6 +490,31 @@ public class CmsWebdavServlet extends HttpServlet {
                 Boolean.valueOf(m_readOnly)));
         }
 
+        // init parameter: maximum depth for PROPFIND requests with depth infinity
+        try {
+            value = getServletConfig().getInitParameter(INIT_PARAM_MAXDEPTH);
+            if (value != null) {
+                if (MAXDEPTH_REFUSE.equalsIgnoreCase(value.trim())) {
+                    m_refuseInfinityDepth = true;
+                } else {
+                    m_maxDepth = Math.max(0, Integer.parseInt(value.trim()));
+                }
+            }
+        } catch (Exception e) {
+            if (LOG.isErrorEnabled()) {
+                LOG.error(
+                    Messages.get().getBundle().key(Messages.LOG_READ_INIT_PARAM_ERROR_2, INIT_PARAM_MAXDEPTH, value),
+                    e);
+            }
+        }
+
+        if (LOG.isInfoEnabled()) {
+            LOG.info(Messages.get().getBundle().key(
+                Messages.LOG_READ_INIT_PARAM_2,
+                INIT_PARAM_MAXDEPTH,
+                m_refuseInfinityDepth ? MAXDEPTH_REFUSE : String.valueOf(m_maxDepth)));
+        }
+
         // Load the MD5 helper used to calculate signatures.
         try {
             m_md5Helper = MessageDigest.getInstance("MD5");
@@ -562,22 +613,15 @@ public class CmsWebdavServlet extends HttpServlet {
     protected void copy(I_CmsRepositoryItem item, InputStream is, ServletOutputStream ostream) throws IOException {
 
         IOException exception = null;
-        InputStream resourceInputStream = null;
 
-        // Optimization: If the binary content has already been loaded, send
-        // it directly
+        // stream the content of files directly to the client, so large
+        // files are not buffered in memory
         if (!item.isCollection()) {
-            byte[] buffer = item.getContent();
-            if (buffer != null) {
-                ostream.write(buffer, 0, buffer.length);
-                return;
-            }
-            resourceInputStream = new ByteArrayInputStream(item.getContent());
-        } else {
-            resourceInputStream = is;
+            item.writeContent(ostream);
+            return;
         }
 
-        InputStream istream = new BufferedInputStream(resourceInputStream, m_input);
+        InputStream istream = new BufferedInputStream(is, m_input);
 
         // Copy the input stream to the output stream
         exception = copyRange(istream, ostream);
@@ -1797,24 +1841,23 @@ public class CmsWebdavServlet extends HttpServlet {
         // Properties which are to be displayed.
         List<String> properties = new Vector<String>();
 
-        // Propfind depth
-        int depth = CmsRepositoryLockInfo.DEPTH_INFINITY_VALUE;
+        // Propfind depth, a missing or unknown depth header means infinity
+        int depth = m_maxDepth;
 
         // Propfind type
         int type = FIND_ALL_PROP;
 
         String depthStr = req.getHeader(HEADER_DEPTH);
-
-        if (depthStr == null) {
-            depth = CmsRepositoryLockInfo.DEPTH_INFINITY_VALUE;
-        } else {
-            if (depthStr.equals("0")) {
-                depth = 0;
-            } else if (depthStr.equals("1")) {
-                depth = 1;
-            } else if (depthStr.equalsIgnoreCase(DEPTH_INFINITY)) {
-                depth = CmsRepositoryLockInfo.DEPTH_INFINITY_VALUE;
+        if ("0".equals(depthStr)) {
+            depth = 0;
+        } else if ("1".equals(depthStr)) {
+            depth = 1;
+        } else if (m_refuseInfinityDepth) {
+            if (LOG.isDebugEnabled()) {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_PROPFIND_INFINITY_REFUSED_1, path));
             }
+            sendFiniteDepthError(resp);
+            return;
         }
 
         Element propNode = null;
@@ -1903,59 +1946,16 @@ public class CmsWebdavServlet extends HttpServlet {
         resp.setStatus(CmsWebdavStatus.SC_MULTI_STATUS);
         resp.setContentType("text/xml; charset=UTF-8");
 
-        // Create multistatus object
-        Document doc = DocumentHelper.createDocument();
-        Element multiStatusElem = doc.addElement(new QName(TAG_MULTISTATUS, Namespace.get("D", DEFAULT_NAMESPACE)));
-
-        if (depth == 0) {
-            parseProperties(req, multiStatusElem, item, type, properties);
-        } else {
-            // The stack always contains the object of the current level
-            Stack<I_CmsRepositoryItem> stack = new Stack<I_CmsRepositoryItem>();
-            stack.push(item);
-
-            // Stack of the objects one level below
-            Stack<I_CmsRepositoryItem> stackBelow = new Stack<I_CmsRepositoryItem>();
-
-            while ((!stack.isEmpty()) && (depth >= 0)) {
-
-                I_CmsRepositoryItem currentItem = stack.pop();
-                parseProperties(req, multiStatusElem, currentItem, type, properties);
-
-                if ((currentItem.isCollection()) && (depth > 0)) {
-
-                    try {
-                        List<I_CmsRepositoryItem> list = m_session.list(currentItem.getName());
-                        Iterator<I_CmsRepositoryItem> iter = list.iterator();
-                        while (iter.hasNext()) {
-                            I_CmsRepositoryItem element = iter.next();
-                            stackBelow.push(element);
-                        }
-
-                    } catch (CmsException e) {
-
-                        resp.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-
-                        if (LOG.isErrorEnabled()) {
-                            LOG.error(
-                                Messages.get().getBundle().key(Messages.LOG_LIST_ITEMS_ERROR_1, currentItem.getName()),
-                                e);
-                        }
-
-                        return;
-                    }
-                }
-
-                if (stack.isEmpty()) {
-                    depth--;
-                    stack = stackBelow;
-                    stackBelow = new Stack<I_CmsRepositoryItem>();
-                }
-            }
-        }
-
-        Writer writer = resp.getWriter();
-        doc.write(writer);
+        // the responses are streamed one by one, the multistatus element only holds the current response 
+        Element multiStatusElem = DocumentHelper.createElement(new QName(
+            TAG_MULTISTATUS,
+            Namespace.get("D", DEFAULT_NAMESPACE)));
+        CmsWebdavMultistatusWriter writer = new CmsWebdavMultistatusWriter(
+            resp.getWriter(),
+            multiStatusElem.getQName());
+        writer.writeStart();
+        writePropfindResponses(req, writer, multiStatusElem, item, depth, type, properties);
+        writer.writeEnd();
         writer.close();
     }
 
@@ -3570,6 +3570,28 @@ public class CmsWebdavServlet extends HttpServlet {
         resp.sendError(HttpServletResponse.SC_UNAUTHORIZED);
     }
 
+    /**
+     * Sends a "403 Forbidden" response with the "propfind-finite-depth" precondition 
+     * for a refused PROPFIND request with depth infinity.<p>
+     * 
+     * @param resp the servlet response we are processing
+     * 
+     * @throws IOException if errors while writing to response occurs
+     */
+    private void sendFiniteDepthError(HttpServletResponse resp) throws IOException {
+
+        resp.setStatus(CmsWebdavStatus.SC_FORBIDDEN);
+        resp.setContentType("text/xml; charset=UTF-8");
+
+        Document doc = DocumentHelper.createDocument();
+        Element errorElem = doc.addElement(new QName(TAG_ERROR, Namespace.get("D", DEFAULT_NAMESPACE)));
+        addElement(errorElem, TAG_PROPFIND_FINITE_DEPTH);
+
+        Writer writer = resp.getWriter();
+        doc.write(writer);
+        writer.close();
+    }
+
     /**
      * Send a multistatus element containing a complete error report to the
      * client.<p>
@@ -3612,4 +3634,65 @@ public class CmsWebdavServlet extends HttpServlet {
         doc.write(writer);
         writer.close();
     }
-}
\ No newline at end of file
+
+    /**
+     * Writes the PROPFIND responses for the given item and its children, up to the given depth.<p>
+     * 
+     * The tree is walked depth first, so only the children of the current path have to be kept in memory.
+     * The children of each folder are listed completely with the repository session.<p>
+     * 
+     * If the children of a collection can not be listed, the response of the collection gets a 
+     * description, so the client can tell that the multistatus response is incomplete.<p>
+     * 
+     * @param req the servlet request we are processing
+     * @param writer the writer for the multistatus response
+     * @param multiStatusElem the multistatus element used to build the single responses
+     * @param item the current item
+     * @param depth the remaining depth
+     * @param type the propfind type
+     * @param properties if the propfind type is find properties by name, then this List contains those properties
+     * 
+     * @throws IOException if errors while writing to response occurs
+     */
+    private void writePropfindResponses(
+        HttpServletRequest req,
+        CmsWebdavMultistatusWriter writer,
+        Element multiStatusElem,
+        I_CmsRepositoryItem item,
+        int depth,
+        int type,
+        List<String> properties) throws IOException {
+
+        List<I_CmsRepositoryItem> children = null;
+        boolean listFailed = false;
+        if (item.isCollection() && (depth > 0)) {
+            try {
+                children = m_session.list(item.getName());
+            } catch (CmsException e) {
+                // the response status has already been sent, so the failure is described in the response
+                if (LOG.isErrorEnabled()) {
+                    LOG.error(Messages.get().getBundle().key(Messages.LOG_LIST_ITEMS_ERROR_1, item.getName()), e);
+                }
+                listFailed = true;
+            }
+        }
+
+        parseProperties(req, multiStatusElem, item, type, properties);
+        @SuppressWarnings("unchecked")
+        List<Element> responses = multiStatusElem.elements();
+        for (Element response : responses) {
+            if (listFailed) {
+                addElement(response, TAG_RESPONSEDESCRIPTION).addText(
+                    Messages.get().getBundle().key(Messages.ERR_LIST_ITEMS_INCOMPLETE_0));
+            }
+            writer.writeResponse(response);
+        }
+        multiStatusElem.clearContent();
+
+        if (children != null) {
+            for (I_CmsRepositoryItem child : children) {
+                writePropfindResponses(req, writer, multiStatusElem, child, depth - 1, type, properties);
+            }
+        }
+    }
+}
@@ -61,6 +61,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String ERR_INIT_PARAM_MISSING_1 = "ERR_INIT_PARAM_MISSING_1";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String ERR_LIST_ITEMS_INCOMPLETE_0 = "ERR_LIST_ITEMS_INCOMPLETE_0";
+
     /** Message constant for key in the resource bundle. */
     public static final String ERR_MD5_NOT_AVAILABLE_0 = "ERR_MD5_NOT_AVAILABLE_0";
 
@@ -142,6 +145,9 @@ public final class Messages extends A_CmsMessageBundle {
     /** Message constant for key in the resource bundle. */
     public static final String LOG_PARSE_DEST_HEADER_0 = "LOG_PARSE_DEST_HEADER_0";
 
+    /** Message constant for key in the resource bundle. */
+    public static final String LOG_PROPFIND_INFINITY_REFUSED_1 = "LOG_PROPFIND_INFINITY_REFUSED_1";
+
     /** Message constant for key in the resource bundle. */
     public static final String LOG_READ_INIT_PARAM_2 = "LOG_READ_INIT_PARAM_2";
 
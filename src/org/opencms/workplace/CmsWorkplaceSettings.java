@@ -41,6 +41,7 @@ import org.opencms.util.CmsUUID;
 import org.opencms.workplace.explorer.CmsExplorer;
 import org.opencms.workplace.tools.CmsToolUserData;
 
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 
@@ -140,7 +141,8 @@ public class CmsWorkplaceSettings {
         m_treeType = new HashMap<String, String>();
         m_treeSite = new HashMap<String, String>();
         m_frameUris = new HashMap<String, String>();
-        m_lastUsedGalleries = new HashMap<String, String>();
+        // the last used galleries are also written by concurrent gallery searches
+        m_lastUsedGalleries = Collections.synchronizedMap(new HashMap<String, String>());
         m_currentSite = OpenCms.getSiteManager().getDefaultSite().getSiteRoot();
     }
 
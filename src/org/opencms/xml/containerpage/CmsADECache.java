@@ -35,6 +35,7 @@ import org.opencms.monitor.CmsMemoryMonitor;
 import org.opencms.util.CmsCollectionsGenericWrapper;
 import org.opencms.util.CmsUUID;
 import org.opencms.xml.content.CmsXmlContent;
+import org.opencms.xml.content.CmsXmlContentCacheEntry;
 
 import java.util.Collections;
 import java.util.Iterator;
@@ -69,6 +70,9 @@ public final class CmsADECache extends CmsVfsCache {
     /** Read-write lock to ensure that the cache maps aren't accessed while we iterate through them to remove invalid entries. */
     private ReadWriteLock m_lock = new ReentrantReadWriteLock(true);
 
+    /** Cache for parsed online XML contents, which is only flushed as a whole so it does not need the read-write lock. */
+    private Map<String, CmsXmlContentCacheEntry> m_xmlContentsOnline;
+
     /**
      * Initializes the cache. Only intended to be called during startup.<p>
      * 
@@ -121,6 +125,14 @@ public final class CmsADECache extends CmsVfsCache {
         }
     }
 
+    /**
+     * Flushes the cache for parsed online XML contents.<p>
+     */
+    public void flushXmlContents() {
+
+        m_xmlContentsOnline.clear();
+    }
+
     /**
      * Returns the cached container page under the given key and for the given project.<p>
      * 
@@ -233,6 +245,45 @@ public final class CmsADECache extends CmsVfsCache {
         return structureId.toString() + "_" + keepEncoding;
     }
 
+    /**
+     * Returns the cached parsed online XML content under the given key.<p>
+     * 
+     * @param key the cache key
+     * 
+     * @return the cached parsed XML content or <code>null</code> if not found
+     * 
+     * @see #getXmlContentCacheKey(CmsResource)
+     */
+    public CmsXmlContentCacheEntry getCacheXmlContent(String key) {
+
+        CmsXmlContentCacheEntry retValue = m_xmlContentsOnline.get(key);
+        if (LOG.isDebugEnabled()) {
+            if (retValue == null) {
+                LOG.debug(Messages.get().getBundle().key(Messages.LOG_DEBUG_CACHE_MISSED_ONLINE_1, new Object[] {key}));
+            } else {
+                LOG.debug(Messages.get().getBundle().key(
+                    Messages.LOG_DEBUG_CACHE_MATCHED_ONLINE_2,
+                    new Object[] {key, retValue}));
+            }
+        }
+        return retValue;
+    }
+
+    /**
+     * Returns the cache key for a parsed online XML content.<p>
+     * 
+     * Since the key contains the date of last modification, a cached XML content 
+     * never outlives a change of the resource.<p>
+     * 
+     * @param resource the XML content resource
+     * 
+     * @return the cache key for the parsed XML content
+     */
+    public String getXmlContentCacheKey(CmsResource resource) {
+
+        return resource.getStructureId().toString() + "_" + resource.getDateLastModified();
+    }
+
     /**
      * Caches the given container page under the given key and for the given project.<p>
      * 
@@ -297,6 +348,24 @@ public final class CmsADECache extends CmsVfsCache {
         }
     }
 
+    /**
+     * Caches the given parsed online XML content under the given key.<p>
+     * 
+     * @param key the cache key
+     * @param xmlContent the parsed XML content to cache
+     * 
+     * @see #getXmlContentCacheKey(CmsResource)
+     */
+    public void setCacheXmlContent(String key, CmsXmlContentCacheEntry xmlContent) {
+
+        m_xmlContentsOnline.put(key, xmlContent);
+        if (LOG.isDebugEnabled()) {
+            LOG.debug(Messages.get().getBundle().key(Messages.LOG_DEBUG_CACHE_SET_ONLINE_2, new Object[] {
+                key,
+                xmlContent}));
+        }
+    }
+
     /**
      * Removes the container page identified by its structure id from the cache.<p>
      * 
@@ -351,6 +420,9 @@ public final class CmsADECache extends CmsVfsCache {
             m_lock.writeLock().lock();
             flushContainerPages(online);
             flushGroupContainers(online);
+            if (online) {
+                flushXmlContents();
+            }
         } finally {
             m_lock.writeLock().unlock();
         }
@@ -403,6 +475,11 @@ public final class CmsADECache extends CmsVfsCache {
         lruMapGroupContainer = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getGroupContainerOnlineSize());
         m_groupContainersOnline = Collections.synchronizedMap(lruMapGroupContainer);
         memMonitor.register(CmsADECache.class.getName() + ".groupContainersOnline", lruMapGroupContainer);
+
+        // parsed XML content cache
+        Map<String, CmsXmlContentCacheEntry> lruMapXmlContent = CmsCollectionsGenericWrapper.createLRUMap(cacheSettings.getXmlContentOnlineSize());
+        m_xmlContentsOnline = Collections.synchronizedMap(lruMapXmlContent);
+        memMonitor.register(CmsADECache.class.getName() + ".xmlContentsOnline", lruMapXmlContent);
     }
 
     /**
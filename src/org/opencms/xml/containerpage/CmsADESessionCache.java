@@ -38,6 +38,7 @@ import java.util.List;
 import java.util.Map;
 
 import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpSession;
 
 import org.apache.commons.collections.list.NodeCachingLinkedList;
 
@@ -61,7 +62,8 @@ public final class CmsADESessionCache {
     private List<CmsContainerElementBean> m_recentLists;
 
     /** Template bean cache. */
-    private Map<String, TemplateBean> m_templateBeanCache = new HashMap<String, TemplateBean>();
+    private Map<String, TemplateBean> m_templateBeanCache = Collections.synchronizedMap(
+        new HashMap<String, TemplateBean>());
 
     /** The tool-bar visibility flag. */
     private boolean m_toolbarVisible;
@@ -95,13 +97,17 @@ public final class CmsADESessionCache {
      */
     public static CmsADESessionCache getCache(HttpServletRequest request, CmsObject cms) {
 
-        CmsADESessionCache cache = (CmsADESessionCache)request.getSession().getAttribute(
-            CmsADESessionCache.SESSION_ATTR_ADE_CACHE);
-        if (cache == null) {
-            cache = new CmsADESessionCache(cms);
-            request.getSession().setAttribute(CmsADESessionCache.SESSION_ATTR_ADE_CACHE, cache);
+        HttpSession session = request.getSession();
+        // read only RPC calls of the same session may run concurrently
+        synchronized (session) {
+            CmsADESessionCache cache = (CmsADESessionCache)session.getAttribute(
+                CmsADESessionCache.SESSION_ATTR_ADE_CACHE);
+            if (cache == null) {
+                cache = new CmsADESessionCache(cms);
+                session.setAttribute(CmsADESessionCache.SESSION_ATTR_ADE_CACHE, cache);
+            }
+            return cache;
         }
-        return cache;
     }
 
     /**
@@ -0,0 +1,95 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.xml.content;
+
+import org.opencms.file.CmsFile;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsResource;
+import org.opencms.xml.CmsXmlEntityResolver;
+
+import org.dom4j.Document;
+
+/**
+ * A parsed XML content that is shared between requests.<p>
+ *
+ * The parsed document is never handed out, every request gets its own {@link CmsXmlContent}
+ * instance created from a copy of it, so the entry can be read by any number of threads
+ * without synchronization.<p>
+ *
+ * @since 9.0.0
+ *
+ * @see org.opencms.xml.containerpage.CmsADECache#getCacheXmlContent(String)
+ */
+public final class CmsXmlContentCacheEntry {
+
+    /** The raw content of the file. */
+    private final byte[] m_contents;
+
+    /** The parsed XML document. */
+    private final Document m_document;
+
+    /** The encoding of the XML content. */
+    private final String m_encoding;
+
+    /**
+     * Creates a new cache entry.<p>
+     *
+     * @param contents the raw content of the file
+     * @param document the parsed XML document, which must not be modified afterwards
+     * @param encoding the encoding of the XML content
+     */
+    public CmsXmlContentCacheEntry(byte[] contents, Document document, String encoding) {
+
+        m_contents = contents;
+        m_document = document;
+        m_encoding = encoding;
+    }
+
+    /**
+     * Creates a new XML content instance for the current request from this entry.<p>
+     *
+     * @param cms the current cms context
+     * @param resource the resource the XML content was read from
+     *
+     * @return the new XML content instance
+     */
+    public CmsXmlContent createContent(CmsObject cms, CmsResource resource) {
+
+        CmsFile file = new CmsFile(resource);
+        // the contents are copied by the file
+        file.setContents(m_contents);
+        CmsXmlContent content = CmsXmlContentFactory.unmarshal(
+            cms,
+            (Document)m_document.clone(),
+            m_encoding,
+            new CmsXmlEntityResolver(cms));
+        content.setFile(file);
+        // call prepare for use content handler and return the result
+        return content.getHandler().prepareForUse(cms, content);
+    }
+}
@@ -31,6 +31,7 @@ import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
+import org.opencms.file.history.I_CmsHistoryResource;
 import org.opencms.file.types.CmsResourceTypeXmlContent;
 import org.opencms.i18n.CmsEncoder;
 import org.opencms.loader.CmsLoaderException;
@@ -40,6 +41,7 @@ import org.opencms.xml.CmsXmlContentDefinition;
 import org.opencms.xml.CmsXmlEntityResolver;
 import org.opencms.xml.CmsXmlException;
 import org.opencms.xml.CmsXmlUtils;
+import org.opencms.xml.containerpage.CmsADECache;
 
 import java.io.UnsupportedEncodingException;
 import java.util.Locale;
@@ -210,21 +212,7 @@ public final class CmsXmlContentFactory {
 
         byte[] contentBytes = file.getContents();
         String filename = cms.getSitePath(file);
-
-        String encoding = null;
-        try {
-            encoding = cms.readPropertyObject(filename, CmsPropertyDefinition.PROPERTY_CONTENT_ENCODING, true).getValue();
-        } catch (CmsException e) {
-            // encoding will be null 
-        }
-        if (encoding == null) {
-            encoding = OpenCms.getSystemInfo().getDefaultEncoding();
-        } else {
-            encoding = CmsEncoder.lookupEncoding(encoding, null);
-            if (encoding == null) {
-                throw new CmsXmlException(Messages.get().container(Messages.ERR_XMLCONTENT_INVALID_ENC_1, filename));
-            }
-        }
+        String encoding = getEncoding(cms, file);
 
         CmsXmlContent content;
         if (contentBytes.length > 0) {
@@ -285,8 +273,8 @@ public final class CmsXmlContentFactory {
         CmsXmlContent content = (CmsXmlContent)req.getAttribute(rootPath);
 
         if (content == null) {
-            // unmarshal XML structure from the file content
-            content = unmarshal(cms, cms.readFile(resource));
+            // unmarshal XML structure from the file content, parsed online contents are shared between requests
+            content = unmarshalCached(cms, resource);
             // store the content as request attribute for future read requests
             req.setAttribute(rootPath, content);
         }
@@ -372,4 +360,67 @@ public final class CmsXmlContentFactory {
 
         return unmarshal(null, xmlData, encoding, resolver);
     }
+
+    /**
+     * Returns the encoding of a XML content resource, read from the content encoding property.<p>
+     * 
+     * @param cms the current cms object
+     * @param resource the XML content resource
+     * 
+     * @return the encoding of the XML content
+     * 
+     * @throws CmsXmlException if the configured encoding is not valid
+     */
+    private static String getEncoding(CmsObject cms, CmsResource resource) throws CmsXmlException {
+
+        String filename = cms.getSitePath(resource);
+        String encoding = null;
+        try {
+            encoding = cms.readPropertyObject(filename, CmsPropertyDefinition.PROPERTY_CONTENT_ENCODING, true).getValue();
+        } catch (CmsException e) {
+            // encoding will be null 
+        }
+        if (encoding == null) {
+            encoding = OpenCms.getSystemInfo().getDefaultEncoding();
+        } else {
+            encoding = CmsEncoder.lookupEncoding(encoding, null);
+            if (encoding == null) {
+                throw new CmsXmlException(Messages.get().container(Messages.ERR_XMLCONTENT_INVALID_ENC_1, filename));
+            }
+        }
+        return encoding;
+    }
+
+    /**
+     * Unmarshals a XML content resource, using the parsed XML contents shared between requests 
+     * in the online project.<p>
+     * 
+     * @param cms the current cms object
+     * @param resource the resource to unmarshal
+     * 
+     * @return the unmarshaled XML content
+     * 
+     * @throws CmsException if something goes wrong
+     */
+    private static CmsXmlContent unmarshalCached(CmsObject cms, CmsResource resource) throws CmsException {
+
+        CmsADECache cache = (OpenCms.getADEManager() != null) ? OpenCms.getADEManager().getCache() : null;
+        if ((cache == null)
+            || !cms.getRequestContext().getCurrentProject().isOnlineProject()
+            || (resource instanceof I_CmsHistoryResource)) {
+            return unmarshal(cms, cms.readFile(resource));
+        }
+        String key = cache.getXmlContentCacheKey(resource);
+        CmsXmlContentCacheEntry entry = cache.getCacheXmlContent(key);
+        if (entry == null) {
+            CmsFile file = cms.readFile(resource);
+            byte[] contentBytes = file.getContents();
+            Document document = (contentBytes.length > 0) ? CmsXmlUtils.unmarshalHelper(
+                contentBytes,
+                new CmsXmlEntityResolver(cms)) : DocumentHelper.createDocument();
+            entry = new CmsXmlContentCacheEntry(contentBytes, document, getEncoding(cms, file));
+            cache.setCacheXmlContent(key, entry);
+        }
+        return entry.createContent(cms, resource);
+    }
 }
\ No newline at end of file
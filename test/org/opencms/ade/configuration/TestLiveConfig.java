@@ -73,6 +73,53 @@ public class TestLiveConfig extends OpenCmsTestCase {
         return generateSetupTestWrapper(TestLiveConfig.class, "ade-config", "/");
     }
 
+    /**
+     * Tests looking up configurations from multiple threads while a configuration file is changed.<p>
+     * 
+     * @throws Exception
+     */
+    public void testConcurrentLookup() throws Exception {
+
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        final boolean[] stop = new boolean[] {false};
+        List<Thread> readers = new ArrayList<Thread>();
+        for (int i = 0; i < 4; i++) {
+            final CmsObject readerCms = OpenCms.initCmsObject(getCmsObject());
+            Thread reader = new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        while (!stop[0]) {
+                            CmsADEConfigData data = OpenCms.getADEManager().lookupConfiguration(
+                                readerCms,
+                                "/sites/default/today/news/foo");
+                            assertFalse(data.getResourceTypes().isEmpty());
+                            OpenCms.getADEManager().getDetailPageTypes(readerCms);
+                        }
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                }
+            };
+            readers.add(reader);
+            reader.start();
+        }
+        try {
+            delete(getCmsObject().readResource("/.content/.config"));
+            CmsObject offlineCms = getCmsObject();
+            checkResourceTypes(offlineCms, "/sites/default/today/news/foo", "foldername", "c3", "e3");
+        } finally {
+            stop[0] = true;
+            for (Thread reader : readers) {
+                reader.join();
+            }
+            restoreFiles();
+        }
+        assertEquals(Collections.emptyList(), errors);
+    }
+
     /**
      * Tests deletion of configuration files.<p>
      * 
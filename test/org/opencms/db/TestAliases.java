@@ -130,6 +130,46 @@ public class TestAliases extends OpenCmsTestCase {
         assertTrue("At least 3 aliases", aliasManager.getAliasesForSite(cms, "").size() >= 3);
     }
 
+    /**
+     * Tests that cached alias lookups reflect changes to the aliases.<p>
+     * 
+     * @throws Exception if something goes wrong 
+     */
+    public void testCachedLookups() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        CmsAliasManager aliasManager = OpenCms.getAliasManager();
+        String siteRoot = "/sites/default";
+        CmsResource foo5 = cms.createResource("/system/foo5", CmsResourceTypePlain.getStaticTypeId());
+        assertNull(aliasManager.getAliasForPathCached(cms, siteRoot, "/xyzzy5"));
+        assertNull(aliasManager.getRewriteAliasMatcher(cms, siteRoot).match("/cached/abc"));
+
+        CmsAlias alias = new CmsAlias(foo5.getStructureId(), siteRoot, "/xyzzy5", CmsAliasMode.page);
+        aliasManager.saveAliases(cms, foo5.getStructureId(), Collections.singletonList(alias));
+        CmsAlias cachedAlias = aliasManager.getAliasForPathCached(cms, siteRoot, "/xyzzy5");
+        assertNotNull(cachedAlias);
+        assertEquals(foo5.getStructureId(), cachedAlias.getStructureId());
+
+        CmsRewriteAlias rewrite = new CmsRewriteAlias(
+            new CmsUUID(),
+            siteRoot,
+            "/cached/(.*)",
+            "/target/$1",
+            CmsAliasMode.page);
+        aliasManager.saveRewriteAliases(cms, siteRoot, Collections.singletonList(rewrite));
+        CmsRewriteAliasMatcher.RewriteResult result = aliasManager.getRewriteAliasMatcher(cms, siteRoot).match(
+            "/cached/abc");
+        assertNotNull(result);
+        assertEquals("/target/abc", result.getNewPath());
+        assertNull(aliasManager.getRewriteAliasMatcher(cms, siteRoot).match("/other/abc"));
+        aliasManager.saveRewriteAliases(cms, siteRoot, Collections.<CmsRewriteAlias> emptyList());
+        assertNull(aliasManager.getRewriteAliasMatcher(cms, siteRoot).match("/cached/abc"));
+
+        aliasManager.saveAliases(cms, foo5.getStructureId(), Collections.<CmsAlias> emptyList());
+        assertNull(aliasManager.getAliasForPathCached(cms, siteRoot, "/xyzzy5"));
+        cms.deleteResource("/system/foo5", CmsResource.DELETE_PRESERVE_SIBLINGS);
+    }
+
     /**
      * Tests reading/writing rewrite aliases.<p>
      * 
@@ -207,6 +207,34 @@ public class TestUrlNameMapping extends OpenCmsTestCase {
         assertEquals(res.getStructureId(), cms.readIdForUrlName(name2));
     }
 
+    /**
+     * Tests that the Online URL name mappings are updated when changed mappings or deleted resources are published.<p>
+     *
+     * @throws Exception if something goes wrong
+     */
+    public void testOnlineUpdates() throws Exception {
+
+        CmsObject onlineCms = getOnlineCmsObject();
+        String baseName = "testOnlineUpdates";
+        String name1 = baseName + 1;
+        String name2 = baseName + 2;
+        CmsResource res = createFile();
+        addMapping(name1, res);
+        publish();
+        assertEquals(name1, readBestUrlName(onlineCms, res.getStructureId()));
+        assertEquals(res.getStructureId(), onlineCms.readIdForUrlName(name1));
+        addMapping(name2, res);
+        publish();
+        assertEquals(name2, readBestUrlName(onlineCms, res.getStructureId()));
+        assertEquals(res.getStructureId(), onlineCms.readIdForUrlName(name1));
+        assertEquals(res.getStructureId(), onlineCms.readIdForUrlName(name2));
+        delete(res);
+        publish();
+        assertNull(readBestUrlName(onlineCms, res.getStructureId()));
+        assertNull(onlineCms.readIdForUrlName(name1));
+        assertNull(onlineCms.readIdForUrlName(name2));
+    }
+
     /**
      * Tests that an URL name that has not been published will be overwritten by a new URL name.<p>
      * 
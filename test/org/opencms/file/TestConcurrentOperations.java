@@ -29,6 +29,7 @@ package org.opencms.file;
 
 import org.opencms.db.CmsPublishList;
 import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
 import org.opencms.main.OpenCms;
 import org.opencms.publish.CmsPublishJobFinished;
 import org.opencms.report.CmsShellReport;
@@ -79,6 +80,7 @@ public class TestConcurrentOperations extends OpenCmsTestCase {
         suite.addTest(new TestConcurrentOperations("testConcurrentPublishResourceWithRelated"));
         suite.addTest(new TestConcurrentOperations("testConcurrentPublishProject"));
         suite.addTest(new TestConcurrentOperations("testConcurrentCreationIssue"));
+        suite.addTest(new TestConcurrentOperations("testConcurrentCreationInFolders"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -120,6 +122,27 @@ public class TestConcurrentOperations extends OpenCmsTestCase {
             + count.intValue());
     }
 
+    /**
+     * Concurrent creation test method which creates resources in a separate folder for each thread,
+     * and a resource with the same name in a folder shared by all threads.<p>
+     * 
+     * @param cms the OpenCms user context to use
+     * @param count the count for this test
+     * @param value the number of resources to create in the separate folder
+     * 
+     * @throws Exception in case the resource in the shared folder could not be created (which is expected)
+     */
+    public void doConcurrentCreationInFoldersOperation(CmsObject cms, Integer count, Integer[] value)
+    throws Exception {
+
+        String folder = "/parallel/folder" + count + "/";
+        cms.createResource(folder, CmsResourceTypeFolder.RESOURCE_TYPE_ID);
+        for (int i = 0; i < value[0].intValue(); i++) {
+            cms.createResource(folder + "file" + i + ".txt", CmsResourceTypePlain.getStaticTypeId());
+        }
+        cms.createResource("/parallel/shared/file.txt", CmsResourceTypePlain.getStaticTypeId());
+    }
+
     /**
      * Concurrent publish project test method.<p>
      * 
@@ -296,6 +319,57 @@ public class TestConcurrentOperations extends OpenCmsTestCase {
         echo("Total runtime of concurrent test suite: " + CmsStringUtil.formatRuntime(suite.getRuntime()));
     }
 
+    /**
+     * Tests concurrent creation of resources in different folders and in the same folder.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testConcurrentCreationInFolders() throws Exception {
+
+        int count = 20;
+        int filesPerFolder = 10;
+        echo("Concurrent creation test: Testing concurrent creation in different folders with " + count + " threads");
+
+        CmsObject cms = getCmsObject();
+        cms.createResource("/parallel/", CmsResourceTypeFolder.RESOURCE_TYPE_ID);
+        cms.createResource("/parallel/shared/", CmsResourceTypeFolder.RESOURCE_TYPE_ID);
+
+        String name = "doConcurrentCreationInFoldersOperation";
+        Integer[] value = new Integer[] {new Integer(filesPerFolder)};
+        Object[] parameters = new Object[] {
+            OpenCmsThreadedTestCaseSuite.PARAM_CMSOBJECT,
+            OpenCmsThreadedTestCaseSuite.PARAM_COUNTER,
+            value};
+        OpenCmsThreadedTestCaseSuite suite = new OpenCmsThreadedTestCaseSuite(count, this, name, parameters);
+        suite.setAllowedRuntime(60000);
+        OpenCmsThreadedTestCase[] threads = suite.run();
+
+        if (suite.getThrowable() != null) {
+            throw new Exception(suite.getThrowable());
+        }
+
+        // exactly one thread must have created the resource in the shared folder 
+        int failed = 0;
+        for (int i = 0; i < count; i++) {
+            Throwable e = threads[i].getThrowable();
+            if (e != null) {
+                if (!(e instanceof CmsVfsResourceAlreadyExistsException)) {
+                    throw new Exception(e);
+                }
+                failed++;
+            }
+        }
+        assertEquals(count - 1, failed);
+        assertEquals(1, cms.readResources("/parallel/shared/", CmsResourceFilter.ALL).size());
+
+        // all threads must have created the resources in their own folder
+        for (int i = 0; i < count; i++) {
+            List<CmsResource> resources = cms.readResources("/parallel/folder" + i + "/", CmsResourceFilter.ALL);
+            assertEquals(filesPerFolder, resources.size());
+        }
+        echo("Total runtime of concurrent test suite: " + CmsStringUtil.formatRuntime(suite.getRuntime()));
+    }
+
     /**
      * Test concurrently publish same project.<p>
      * 
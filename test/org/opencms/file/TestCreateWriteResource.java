@@ -27,6 +27,7 @@
 
 package org.opencms.file;
 
+import org.opencms.file.types.CmsResourceTypeBinary;
 import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.file.types.CmsResourceTypeJsp;
 import org.opencms.file.types.CmsResourceTypePlain;
@@ -43,7 +44,10 @@ import org.opencms.test.OpenCmsTestResourceConfigurableFilter;
 import org.opencms.test.OpenCmsTestResourceFilter;
 import org.opencms.util.CmsUUID;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 
 import junit.extensions.TestSetup;
@@ -91,6 +95,7 @@ public class TestCreateWriteResource extends OpenCmsTestCase {
         suite.addTest(new TestCreateWriteResource("testCreateDotnameResources"));
         suite.addTest(new TestCreateWriteResource("testOverwriteInvisibleResource"));
         suite.addTest(new TestCreateWriteResource("testCreateResourceWithSpecialChars"));
+        suite.addTest(new TestCreateWriteResource("testStreamContent"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -953,4 +958,63 @@ public class TestCreateWriteResource extends OpenCmsTestCase {
         assertFilter(cms, source, OpenCmsTestResourceFilter.FILTER_EQUAL);
         assertFilter(cms, target, OpenCmsTestResourceFilter.FILTER_EQUAL);
     }
+
+    /**
+     * Tests reading and writing the content of a file with streams.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testStreamContent() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing reading and writing the content of a file with streams");
+
+        String resourcename = "/folder1/stream.bin";
+        cms.createResource(resourcename, CmsResourceTypeBinary.getStaticTypeId(), new byte[] {1, 2, 3}, null);
+
+        byte[] content = new byte[100000];
+        for (int i = 0; i < content.length; i++) {
+            content[i] = (byte)(i % 251);
+        }
+        long timestamp = System.currentTimeMillis() - 1;
+        CmsResource resource = cms.readResource(resourcename);
+        CmsResource written = cms.writeContent(resource, new ByteArrayInputStream(content), content.length);
+
+        assertEquals(content.length, written.getLength());
+        assertTrue(written.getDateContent() > timestamp);
+        assertContent(cms, resourcename, content);
+        assertState(cms, resourcename, CmsResource.STATE_NEW);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        cms.readContent(cms.readResource(resourcename), out);
+        assertTrue(Arrays.equals(content, out.toByteArray()));
+
+        // publish and read the content in the online project
+        cms.unlockResource(resourcename);
+        OpenCms.getPublishManager().publishResource(cms, resourcename);
+        OpenCms.getPublishManager().waitWhileRunning();
+        CmsObject online = getCmsObject();
+        online.getRequestContext().setCurrentProject(online.readProject(CmsProject.ONLINE_PROJECT_ID));
+        out = new ByteArrayOutputStream();
+        online.readContent(online.readResource(resourcename), out);
+        assertTrue(Arrays.equals(content, out.toByteArray()));
+
+        // folders have no content
+        try {
+            cms.readContent(cms.readResource("/folder1/"), new ByteArrayOutputStream());
+            fail("should fail to read the content of a folder");
+        } catch (CmsVfsResourceNotFoundException e) {
+            // ok
+        }
+
+        // resource types which process the content can not be written with streams
+        String pagename = "/folder1/stream.html";
+        cms.createResource(pagename, CmsResourceTypeXmlPage.getStaticTypeId());
+        try {
+            cms.writeContent(cms.readResource(pagename), new ByteArrayInputStream(content), content.length);
+            fail("should fail to write the content of an xml page with a stream");
+        } catch (CmsVfsException e) {
+            assertEquals(Messages.ERR_WRITE_CONTENT_STREAM_UNSUPPORTED_2, e.getMessageContainer().getKey());
+        }
+    }
 }
@@ -27,6 +27,7 @@
 
 package org.opencms.file;
 
+import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.file.types.CmsResourceTypePlain;
 import org.opencms.main.CmsRuntimeException;
 import org.opencms.main.OpenCms;
@@ -35,6 +36,7 @@ import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.test.OpenCmsTestResourceFilter;
 import org.opencms.util.CmsStringUtil;
+import org.opencms.util.CmsUUID;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -87,6 +89,8 @@ public class TestProperty extends OpenCmsTestCase {
         suite.addTest(new TestProperty("testCreateProperty"));
         suite.addTest(new TestProperty("testCreateProperties"));
         suite.addTest(new TestProperty("testWritePropertyOnFolder"));
+        suite.addTest(new TestProperty("testInheritedProperties"));
+        suite.addTest(new TestProperty("testReadPropertyObjectsBulk"));
         suite.addTest(new TestProperty("testDefaultPropertyCreation"));
         suite.addTest(new TestProperty("testCaseSensitiveProperties"));
         suite.addTest(new TestProperty("testReadResourcesWithProperty"));
@@ -575,6 +579,142 @@ public class TestProperty extends OpenCmsTestCase {
         writeProperty(this, cms, "/folder2/", property10);
     }
 
+    /**
+     * Tests reading inherited properties after the properties of the parent folders have been changed.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testInheritedProperties() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing reading inherited properties");
+
+        String folder = "/inherited/";
+        String subFolder = folder + "sub/";
+        String file = subFolder + "file.txt";
+        cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(subFolder, CmsResourceTypeFolder.getStaticTypeId());
+        cms.createResource(file, CmsResourceTypePlain.getStaticTypeId());
+
+        cms.writePropertyObject(folder, new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, "Folder", null));
+        cms.writePropertyObject(folder, new CmsProperty(
+            CmsPropertyDefinition.PROPERTY_DESCRIPTION,
+            "Folder description",
+            null));
+        cms.writePropertyObject(subFolder, new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, "Sub folder", null));
+        cms.writePropertyObject(file, new CmsProperty(CmsPropertyDefinition.PROPERTY_KEYWORDS, "Keywords", null));
+
+        Map<String, String> properties = CmsProperty.toMap(cms.readPropertyObjects(file, true));
+        assertEquals("Sub folder", properties.get(CmsPropertyDefinition.PROPERTY_TITLE));
+        assertEquals("Folder description", properties.get(CmsPropertyDefinition.PROPERTY_DESCRIPTION));
+        assertEquals("Keywords", properties.get(CmsPropertyDefinition.PROPERTY_KEYWORDS));
+
+        // the properties of the resource itself come last
+        List<CmsProperty> propertyList = cms.readPropertyObjects(file, true);
+        assertEquals(
+            CmsPropertyDefinition.PROPERTY_KEYWORDS,
+            propertyList.get(propertyList.size() - 1).getName());
+
+        // changing the upper folder must be visible in the sub-tree
+        cms.writePropertyObject(folder, new CmsProperty(
+            CmsPropertyDefinition.PROPERTY_DESCRIPTION,
+            "Changed description",
+            null));
+        properties = CmsProperty.toMap(cms.readPropertyObjects(file, true));
+        assertEquals("Changed description", properties.get(CmsPropertyDefinition.PROPERTY_DESCRIPTION));
+        assertEquals("Sub folder", properties.get(CmsPropertyDefinition.PROPERTY_TITLE));
+        properties = CmsProperty.toMap(cms.readPropertyObjects(subFolder, true));
+        assertEquals("Changed description", properties.get(CmsPropertyDefinition.PROPERTY_DESCRIPTION));
+
+        // removing the property from the sub folder must reveal the value of the upper folder
+        cms.writePropertyObject(subFolder, new CmsProperty(
+            CmsPropertyDefinition.PROPERTY_TITLE,
+            CmsProperty.DELETE_VALUE,
+            null));
+        properties = CmsProperty.toMap(cms.readPropertyObjects(file, true));
+        assertEquals("Folder", properties.get(CmsPropertyDefinition.PROPERTY_TITLE));
+        assertEquals("Keywords", properties.get(CmsPropertyDefinition.PROPERTY_KEYWORDS));
+
+        // the published inherited properties must be visible online
+        cms.unlockResource(folder);
+        OpenCms.getPublishManager().publishProject(cms);
+        OpenCms.getPublishManager().waitWhileRunning();
+        CmsObject onlineCms = getCmsObject();
+        onlineCms.getRequestContext().setCurrentProject(onlineCms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        properties = CmsProperty.toMap(onlineCms.readPropertyObjects(file, true));
+        assertEquals("Folder", properties.get(CmsPropertyDefinition.PROPERTY_TITLE));
+        assertEquals("Changed description", properties.get(CmsPropertyDefinition.PROPERTY_DESCRIPTION));
+        assertEquals("Keywords", properties.get(CmsPropertyDefinition.PROPERTY_KEYWORDS));
+
+        // publishing a changed folder must update the inherited properties online
+        cms.lockResource(folder);
+        cms.writePropertyObject(folder, new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, "Published", null));
+        cms.unlockResource(folder);
+        OpenCms.getPublishManager().publishProject(cms);
+        OpenCms.getPublishManager().waitWhileRunning();
+        properties = CmsProperty.toMap(onlineCms.readPropertyObjects(file, true));
+        assertEquals("Published", properties.get(CmsPropertyDefinition.PROPERTY_TITLE));
+    }
+
+    /**
+     * Tests reading the properties of a list of resources at once.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testReadPropertyObjectsBulk() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing reading the properties of a list of resources");
+
+        String folder = "/bulk/";
+        cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+        cms.writePropertyObject(folder, new CmsProperty(CmsPropertyDefinition.PROPERTY_KEYWORDS, "Folder", null));
+        cms.createResource(folder + "a.txt", CmsResourceTypePlain.getStaticTypeId());
+        cms.writePropertyObject(folder + "a.txt", new CmsProperty(
+            CmsPropertyDefinition.PROPERTY_TITLE,
+            "Title A",
+            "Shared title"));
+        cms.writePropertyObject(folder + "a.txt", new CmsProperty(
+            CmsPropertyDefinition.PROPERTY_DESCRIPTION,
+            null,
+            "Shared description"));
+        cms.createSibling(folder + "a.txt", folder + "b.txt", null);
+        cms.writePropertyObject(folder + "b.txt", new CmsProperty(
+            CmsPropertyDefinition.PROPERTY_TITLE,
+            "Title B",
+            null));
+        cms.createResource(folder + "c.txt", CmsResourceTypePlain.getStaticTypeId());
+
+        List<CmsResource> resources = cms.readResources(folder, CmsResourceFilter.DEFAULT, false);
+        assertEquals(3, resources.size());
+
+        // the result must be the same as reading the properties of each resource
+        Map<CmsUUID, List<CmsProperty>> bulk = cms.readPropertyObjects(resources, false);
+        assertEquals(3, bulk.size());
+        for (CmsResource resource : resources) {
+            assertEquals(
+                cms.readPropertyObjects(resource, false),
+                bulk.get(resource.getStructureId()));
+        }
+        CmsResource sibling = cms.readResource(folder + "b.txt");
+        Map<String, String> properties = CmsProperty.toMap(bulk.get(sibling.getStructureId()));
+        assertEquals("Title B", properties.get(CmsPropertyDefinition.PROPERTY_TITLE));
+        assertEquals("Shared description", properties.get(CmsPropertyDefinition.PROPERTY_DESCRIPTION));
+        assertNull(properties.get(CmsPropertyDefinition.PROPERTY_KEYWORDS));
+        assertTrue(bulk.get(cms.readResource(folder + "c.txt").getStructureId()).isEmpty());
+
+        // filter by name and search the parent folders
+        bulk = cms.readPropertyObjects(
+            resources,
+            Collections.singleton(CmsPropertyDefinition.PROPERTY_KEYWORDS),
+            true);
+        for (CmsResource resource : resources) {
+            List<CmsProperty> propertyList = bulk.get(resource.getStructureId());
+            assertEquals(1, propertyList.size());
+            assertEquals("Folder", propertyList.get(0).getValue());
+        }
+    }
+
     /**
      * Tests the writePropertyObject method for writing of a property on a folder.<p>
      * 
@@ -112,6 +112,7 @@ public class TestPublishing extends OpenCmsTestCase {
         suite.addTest(new TestPublishing("testPublishDeletedSiblings"));
         suite.addTest(new TestPublishing("testPublishDeletedSiblings2"));
         suite.addTest(new TestPublishing("testPublishReplacedFile"));
+        suite.addTest(new TestPublishing("testPublishBatches"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -344,6 +345,56 @@ public class TestPublishing extends OpenCmsTestCase {
         assertLock(cms, file2, CmsLockType.UNLOCKED);
     }
 
+    /**
+     * Test publishing more resources than fit into one publish batch.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testPublishBatches() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing publishing more resources than fit into one publish batch");
+
+        String folder = "/batches/";
+        int count = 12;
+        cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+        for (int i = 0; i < count; i++) {
+            String file = folder + "file" + i + ".txt";
+            cms.createResource(file, CmsResourceTypePlain.getStaticTypeId());
+            cms.writePropertyObject(file, new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, "title" + i, "res" + i));
+        }
+        cms.unlockResource(folder);
+
+        CmsPublishList publishList = OpenCms.getPublishManager().getPublishList(cms, cms.readResource(folder), false);
+        OpenCms.getPublishManager().publishProject(cms, new CmsShellReport(Locale.ENGLISH), publishList);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        // all resources are written to the publish history
+        List<CmsPublishedResource> published = cms.readPublishedResources(publishList.getPublishHistoryId());
+        assertEquals(count + 1, published.size());
+
+        // all resources are unchanged offline and available online
+        assertState(cms, folder, CmsResource.STATE_UNCHANGED);
+        for (int i = 0; i < count; i++) {
+            assertState(cms, folder + "file" + i + ".txt", CmsResource.STATE_UNCHANGED);
+        }
+        CmsProject offlineProject = cms.getRequestContext().getCurrentProject();
+        cms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        try {
+            assertEquals(count, cms.readResources(folder, CmsResourceFilter.ALL).size());
+            // the properties are written online and the resources are written to the history
+            for (int i = 0; i < count; i++) {
+                String file = folder + "file" + i + ".txt";
+                CmsProperty title = cms.readPropertyObject(file, CmsPropertyDefinition.PROPERTY_TITLE, false);
+                assertEquals("title" + i, title.getStructureValue());
+                assertEquals("res" + i, title.getResourceValue());
+                assertEquals(1, cms.readAllAvailableVersions(file).size());
+            }
+        } finally {
+            cms.getRequestContext().setCurrentProject(offlineProject);
+        }
+    }
+
     /**
      * Test publishing changed files.<p>
      * 
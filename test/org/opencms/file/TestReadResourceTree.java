@@ -28,10 +28,15 @@
 package org.opencms.file;
 
 import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.OpenCms;
+import org.opencms.security.I_CmsPrincipal;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.test.OpenCmsTestResourceFilter;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 
 import junit.extensions.TestSetup;
@@ -73,6 +78,8 @@ public class TestReadResourceTree extends OpenCmsTestCase {
         suite.addTest(new TestReadResourceTree("testReadResources"));
         suite.addTest(new TestReadResourceTree("testReadModifiedResources"));
         suite.addTest(new TestReadResourceTree("testReadResourcesInTimerange"));
+        suite.addTest(new TestReadResourceTree("testReadSortedResources"));
+        suite.addTest(new TestReadResourceTree("testReadSortedResourcesReleased"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -92,6 +99,92 @@ public class TestReadResourceTree extends OpenCmsTestCase {
         return wrapper;
     }
 
+    /**
+     * Test readResources for reading the first resources of a subtree in a given order.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testReadSortedResources() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing readResources: reading sorted and limited resources");
+
+        cms.getRequestContext().setSiteRoot("/");
+        String path = "/sites/default/";
+
+        // the result must be the same as sorting and limiting the full result
+        assertSortedResources(cms, path);
+
+        // the resources the user can not read must be skipped
+        cms.createUser("sortuser", "sortuser", "A test user", null);
+        cms.addUserToGroup("sortuser", OpenCms.getDefaultUsers().getGroupUsers());
+        cms.lockResource(path + "folder1/");
+        cms.chacc(path + "folder1/", I_CmsPrincipal.PRINCIPAL_USER, "sortuser", "-r+i");
+        cms.unlockResource(path + "folder1/");
+
+        CmsProject offline = cms.getRequestContext().getCurrentProject();
+        cms.loginUser("sortuser", "sortuser");
+        cms.getRequestContext().setCurrentProject(offline);
+        try {
+            List<CmsResource> resources = cms.readResources(
+                path,
+                CmsResourceFilter.DEFAULT,
+                true,
+                CmsResourceSortOrder.ROOT_PATH,
+                5);
+            assertEquals(5, resources.size());
+            for (CmsResource resource : resources) {
+                assertFalse(resource.getRootPath().startsWith(path + "folder1/"));
+            }
+            assertSortedResources(cms, path);
+        } finally {
+            cms.loginUser("Admin", "admin");
+            cms.getRequestContext().setCurrentProject(offline);
+        }
+    }
+
+    /**
+     * Test readResources for reading sorted and limited resources from the cache, 
+     * after the release date of a cached resource has passed.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testReadSortedResourcesReleased() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing readResources: reading sorted and limited resources after a release date");
+
+        cms.getRequestContext().setSiteRoot("/");
+        String path = "/sites/default/sortreleased/";
+        cms.createResource(path, CmsResourceTypeFolder.getStaticTypeId());
+        CmsResource first = cms.createResource(path + "a.txt", CmsResourceTypePlain.getStaticTypeId());
+        CmsResource second = cms.createResource(path + "b.txt", CmsResourceTypePlain.getStaticTypeId());
+        CmsResource third = cms.createResource(path + "c.txt", CmsResourceTypePlain.getStaticTypeId());
+        long requestTime = cms.getRequestContext().getRequestTime();
+        cms.setDateReleased(path + "b.txt", requestTime + 10000, false);
+
+        List<CmsResource> resources = cms.readResources(
+            path,
+            CmsResourceFilter.DEFAULT,
+            false,
+            CmsResourceSortOrder.ROOT_PATH,
+            2);
+        assertEquals(2, resources.size());
+        assertEquals(first.getStructureId(), resources.get(0).getStructureId());
+        assertEquals(third.getStructureId(), resources.get(1).getStructureId());
+
+        // the cached list must be returned in the requested order after the release date
+        cms.getRequestContext().setRequestTime(requestTime + 20000);
+        try {
+            resources = cms.readResources(path, CmsResourceFilter.DEFAULT, false, CmsResourceSortOrder.ROOT_PATH, 2);
+            assertEquals(2, resources.size());
+            assertEquals(first.getStructureId(), resources.get(0).getStructureId());
+            assertEquals(second.getStructureId(), resources.get(1).getStructureId());
+        } finally {
+            cms.getRequestContext().setRequestTime(requestTime);
+        }
+    }
+
     /**
      * Test readResources for reading immediate child resources below a given path.<p>
      * 
@@ -398,4 +491,31 @@ public class TestReadResourceTree extends OpenCmsTestCase {
         // check the number of resources
         assertEquals(this.m_currentResourceStrorage.size(), i);
     }
-}
\ No newline at end of file
+
+    /**
+     * Checks that reading sorted and limited resources returns the same result as sorting the full result in memory.<p>
+     * 
+     * @param cms the current OpenCms user context
+     * @param path the path to read the resources from
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private void assertSortedResources(CmsObject cms, String path) throws Exception {
+
+        List<CmsResource> all = cms.readResources(path, CmsResourceFilter.DEFAULT, true);
+        for (CmsResourceSortOrder order : CmsResourceSortOrder.values()) {
+            List<CmsResource> expected = new ArrayList<CmsResource>(all);
+            Collections.sort(expected, order.getComparator());
+            for (int maxResults : new int[] {0, 1, 3, 1000}) {
+                List<CmsResource> resources = cms.readResources(
+                    path,
+                    CmsResourceFilter.DEFAULT,
+                    true,
+                    order,
+                    maxResults);
+                int size = (maxResults == 0) ? expected.size() : Math.min(maxResults, expected.size());
+                assertEquals(order + " " + maxResults, expected.subList(0, size), resources);
+            }
+        }
+    }
+}
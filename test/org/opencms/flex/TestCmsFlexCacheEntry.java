@@ -27,6 +27,12 @@
 
 package org.opencms.flex;
 
+import org.opencms.util.CmsUUID;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 import junit.framework.TestCase;
 
 /**
@@ -44,6 +50,91 @@ public class TestCmsFlexCacheEntry extends TestCase {
         super(arg0);
     }
 
+    /**
+     * Tests the dependency check used for removing entries after publishing.<p>
+     */
+    public void testIsAffectedBy() {
+
+        Set<CmsUUID> noIds = Collections.emptySet();
+        Set<String> noPaths = Collections.emptySet();
+
+        // an entry without dependency information is always affected
+        CmsFlexCacheEntry entry = new CmsFlexCacheEntry();
+        assertTrue(entry.isAffectedBy(noIds, noPaths, noPaths));
+
+        CmsUUID pageId = new CmsUUID();
+        CmsFlexRequestContextInfo info = new CmsFlexRequestContextInfo();
+        info.addDependency(pageId, "/sites/default/folder1/page.html");
+        info.addFolderDependency("/sites/default/news/");
+        // resources in the listed folder are not stored individually
+        info.addDependency(new CmsUUID(), "/sites/default/news/article.html");
+        assertEquals(1, info.getPathDependencies().size());
+
+        entry = new CmsFlexCacheEntry();
+        entry.setDependencies(info);
+        entry.complete();
+        assertFalse(entry.isAffectedBy(noIds, noPaths, noPaths));
+
+        // changed by structure id
+        assertTrue(entry.isAffectedBy(Collections.singleton(pageId), noPaths, noPaths));
+
+        // changed by path, e.g. a deleted and newly created resource
+        assertTrue(entry.isAffectedBy(noIds, Collections.singleton("/sites/default/folder1/page.html"), noPaths));
+
+        // a parent folder of a dependency was changed
+        assertTrue(entry.isAffectedBy(noIds, Collections.singleton("/sites/default/folder1/"), noPaths));
+
+        // a resource in a listed folder was changed
+        Set<String> parentFolders = new HashSet<String>();
+        parentFolders.add("/sites/default/news/");
+        parentFolders.add("/sites/default/");
+        parentFolders.add("/sites/");
+        parentFolders.add("/");
+        assertTrue(entry.isAffectedBy(
+            noIds,
+            Collections.singleton("/sites/default/news/other.html"),
+            parentFolders));
+
+        // an unrelated resource was changed
+        parentFolders.remove("/sites/default/news/");
+        parentFolders.add("/sites/default/folder2/");
+        assertFalse(entry.isAffectedBy(
+            noIds,
+            Collections.singleton("/sites/default/folder2/other.html"),
+            parentFolders));
+    }
+
+    /**
+     * Tests that entries generated from untracked reads are removed on every publish operation.<p>
+     */
+    public void testIsAffectedByUntracked() {
+
+        Set<CmsUUID> noIds = Collections.emptySet();
+        Set<String> noPaths = Collections.emptySet();
+
+        CmsFlexRequestContextInfo info = new CmsFlexRequestContextInfo();
+        info.addDependency(new CmsUUID(), "/sites/default/folder1/page.html");
+        // a missing resource read by id may be created later
+        CmsUUID missingId = new CmsUUID();
+        info.addDependency(missingId, null);
+        assertEquals(1, info.getPathDependencies().size());
+        assertEquals(2, info.getStructureIdDependencies().size());
+
+        CmsFlexCacheEntry entry = new CmsFlexCacheEntry();
+        entry.setDependencies(info);
+        entry.complete();
+        assertFalse(entry.isAffectedBy(noIds, noPaths, noPaths));
+        assertTrue(entry.isAffectedBy(Collections.singleton(missingId), noPaths, noPaths));
+
+        // e.g. a search or a relation lookup
+        info.addUntrackedDependency();
+        assertTrue(info.hasUntrackedDependencies());
+        entry = new CmsFlexCacheEntry();
+        entry.setDependencies(info);
+        entry.complete();
+        assertTrue(entry.isAffectedBy(noIds, noPaths, noPaths));
+    }
+
     /**
      * Tests the method getAbsoluteUri.<p>
      */
@@ -0,0 +1,222 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.gwt;
+
+import org.opencms.test.OpenCmsTestServletRequest;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.servlet.http.HttpSession;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the session lock used by {@link CmsGwtService} to process the RPC calls of a session.<p>
+ *
+ * @since 9.0.0
+ */
+public class TestCmsGwtServiceSessionLock extends TestCase {
+
+    /**
+     * Service with a read-only and a writing method.<p>
+     */
+    public static class TestService extends CmsGwtService {
+
+        /** Serialization id. */
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Read-only test method.<p>
+         */
+        @CmsReadOnlyRpc
+        public void readData() {
+
+            // noop
+        }
+
+        /**
+         * Writing test method.<p>
+         */
+        public void writeData() {
+
+            // noop
+        }
+    }
+
+    /**
+     * Request which always returns the same session.<p>
+     */
+    private static class TestRequest extends OpenCmsTestServletRequest {
+
+        /** The session. */
+        private HttpSession m_session;
+
+        /**
+         * Creates a new request.<p>
+         *
+         * @param session the session to return
+         */
+        TestRequest(HttpSession session) {
+
+            m_session = session;
+        }
+
+        /**
+         * @see org.opencms.test.OpenCmsTestServletRequest#getSession()
+         */
+        @Override
+        public HttpSession getSession() {
+
+            return m_session;
+        }
+    }
+
+    /** The timeout for waiting on other threads, in milliseconds. */
+    private static final long TIMEOUT = 5000;
+
+    /**
+     * Tests that read-only calls of a session do not wait for the session lock.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testReadOnlyCallsBypassLock() throws Exception {
+
+        final TestService service = new TestService();
+        final TestRequest request = new TestRequest(createSession());
+        final Method write = TestService.class.getMethod("writeData");
+        final Method read = TestService.class.getMethod("readData");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            service.lockSession(request, write);
+            Future<?> readCall = executor.submit(new Runnable() {
+
+                public void run() {
+
+                    service.lockSession(request, read);
+                    service.unlockSession();
+                }
+            });
+            // must not wait for the writing call
+            readCall.get(TIMEOUT, TimeUnit.MILLISECONDS);
+        } finally {
+            service.unlockSession();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Tests that writing calls of the same session are processed one after the other.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testWritingCallsAreSerialized() throws Exception {
+
+        final TestService service = new TestService();
+        final TestRequest request = new TestRequest(createSession());
+        final Method write = TestService.class.getMethod("writeData");
+        final CountDownLatch started = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            service.lockSession(request, write);
+            Future<?> secondCall = executor.submit(new Runnable() {
+
+                public void run() {
+
+                    started.countDown();
+                    service.lockSession(request, write);
+                    service.unlockSession();
+                }
+            });
+            assertTrue(started.await(TIMEOUT, TimeUnit.MILLISECONDS));
+            try {
+                secondCall.get(500, TimeUnit.MILLISECONDS);
+                fail("The second call must wait for the first call of the session");
+            } catch (TimeoutException e) {
+                // expected
+            }
+            service.unlockSession();
+            secondCall.get(TIMEOUT, TimeUnit.MILLISECONDS);
+
+            // a call of another session does not wait
+            service.lockSession(request, write);
+            final TestRequest otherRequest = new TestRequest(createSession());
+            executor.submit(new Runnable() {
+
+                public void run() {
+
+                    service.lockSession(otherRequest, write);
+                    service.unlockSession();
+                }
+            }).get(TIMEOUT, TimeUnit.MILLISECONDS);
+        } finally {
+            service.unlockSession();
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Creates a session which only supports attributes.<p>
+     *
+     * @return the session
+     */
+    private HttpSession createSession() {
+
+        final Map<String, Object> attributes = new HashMap<String, Object>();
+        return (HttpSession)Proxy.newProxyInstance(
+            getClass().getClassLoader(),
+            new Class<?>[] {HttpSession.class},
+            new InvocationHandler() {
+
+                public Object invoke(Object proxy, Method method, Object[] args) {
+
+                    String name = method.getName();
+                    if ("getAttribute".equals(name)) {
+                        return attributes.get(args[0]);
+                    } else if ("setAttribute".equals(name)) {
+                        attributes.put((String)args[0], args[1]);
+                        return null;
+                    } else if ("hashCode".equals(name)) {
+                        return Integer.valueOf(System.identityHashCode(proxy));
+                    } else if ("equals".equals(name)) {
+                        return Boolean.valueOf(proxy == args[0]);
+                    }
+                    throw new UnsupportedOperationException(name);
+                }
+            });
+    }
+}
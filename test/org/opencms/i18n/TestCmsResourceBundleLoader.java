@@ -0,0 +1,136 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.i18n;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.ResourceBundle;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests for the resource bundle cache of the CmsResourceBundleLoader.<p>
+ */
+public class TestCmsResourceBundleLoader extends TestCase {
+
+    /**
+     * Tests that concurrent lookups of the same bundle all get the same cached instance.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testConcurrentLookup() throws Exception {
+
+        final String baseName = org.opencms.workplace.Messages.get().getBundleName();
+        CmsResourceBundleLoader.flushBundleCache();
+
+        final List<ResourceBundle> bundles = Collections.synchronizedList(new ArrayList<ResourceBundle>());
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 10; i++) {
+            Thread thread = new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        for (int j = 0; j < 100; j++) {
+                            bundles.add(CmsResourceBundleLoader.getBundle(baseName, Locale.ENGLISH));
+                        }
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertTrue(errors.isEmpty());
+        assertEquals(1000, bundles.size());
+        ResourceBundle first = bundles.get(0);
+        for (ResourceBundle bundle : bundles) {
+            assertSame(first, bundle);
+        }
+        assertEquals("Login", first.getString("GUI_LOGIN_BUTTON_0"));
+    }
+
+    /**
+     * Tests flushing the resource bundle cache.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testFlushBundleCache() throws Exception {
+
+        String workplaceBundle = org.opencms.workplace.Messages.get().getBundleName();
+        String i18nBundle = Messages.get().getBundleName();
+
+        ResourceBundle workplace = CmsResourceBundleLoader.getBundle(workplaceBundle, Locale.ENGLISH);
+        ResourceBundle i18n = CmsResourceBundleLoader.getBundle(i18nBundle, Locale.ENGLISH);
+        assertSame(workplace, CmsResourceBundleLoader.getBundle(workplaceBundle, Locale.ENGLISH));
+
+        // only the bundles with the given base name are flushed
+        CmsResourceBundleLoader.flushBundleCache(workplaceBundle, false);
+        ResourceBundle reloaded = CmsResourceBundleLoader.getBundle(workplaceBundle, Locale.ENGLISH);
+        assertNotSame(workplace, reloaded);
+        assertEquals(workplace.getString("GUI_LOGIN_BUTTON_0"), reloaded.getString("GUI_LOGIN_BUTTON_0"));
+        assertSame(i18n, CmsResourceBundleLoader.getBundle(i18nBundle, Locale.ENGLISH));
+
+        CmsResourceBundleLoader.flushBundleCache();
+        assertNotSame(i18n, CmsResourceBundleLoader.getBundle(i18nBundle, Locale.ENGLISH));
+    }
+
+    /**
+     * Tests the permanent cache for bundles which are not available from the class path.<p>
+     *
+     * @throws Exception if the test fails
+     */
+    public void testPermanentCache() throws Exception {
+
+        String baseName = "org.opencms.test.permanent";
+        CmsListResourceBundle bundle = new CmsListResourceBundle();
+        bundle.addMessage("KEY", "value");
+        CmsResourceBundleLoader.addBundleToCache(baseName, null, bundle);
+
+        assertEquals("value", CmsResourceBundleLoader.getBundle(baseName, Locale.ENGLISH).getString("KEY"));
+
+        // flushing the bundle cache keeps the permanent bundles
+        CmsResourceBundleLoader.flushBundleCache();
+        assertEquals("value", CmsResourceBundleLoader.getBundle(baseName, Locale.ENGLISH).getString("KEY"));
+
+        CmsResourceBundleLoader.flushBundleCache(baseName, true);
+        CmsListResourceBundle changed = new CmsListResourceBundle();
+        changed.addMessage("KEY", "changed");
+        CmsResourceBundleLoader.addBundleToCache(baseName, null, changed);
+        assertEquals("changed", CmsResourceBundleLoader.getBundle(baseName, Locale.ENGLISH).getString("KEY"));
+    }
+}
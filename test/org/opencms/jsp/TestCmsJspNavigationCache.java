@@ -0,0 +1,265 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software GmbH, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ * 
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.jsp;
+
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
+import org.opencms.file.types.CmsResourceTypeFolder;
+import org.opencms.file.types.CmsResourceTypePlain;
+import org.opencms.main.OpenCms;
+import org.opencms.security.I_CmsPrincipal;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.util.List;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Unit tests for the <code>{@link CmsJspNavigationCache}</code>.<p>
+ * 
+ * @since 9.0.0
+ */
+public class TestCmsJspNavigationCache extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     * 
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsJspNavigationCache(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     * 
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsJspNavigationCache.class.getName());
+
+        suite.addTest(new TestCmsJspNavigationCache("testNavigationCache"));
+        suite.addTest(new TestCmsJspNavigationCache("testNavigationCachePermissions"));
+        suite.addTest(new TestCmsJspNavigationCache("testNavigationLevelPermissions"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests that the online navigation is cached and updated after publishing.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testNavigationCache() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the navigation cache");
+
+        String folder = "/folder1/";
+        String page = folder + "page1.html";
+        writeNavigation(cms, page, "Navigation A", "1");
+
+        CmsObject onlineCms = OpenCms.initCmsObject(cms);
+        onlineCms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        CmsJspNavBuilder builder = new CmsJspNavBuilder(onlineCms);
+
+        List<CmsJspNavElement> navigation = builder.getNavigationForFolder(folder);
+        CmsJspNavElement element = findElement(navigation, page);
+        assertNotNull(element);
+        assertEquals("Navigation A", element.getNavText());
+
+        // the second read must be served from the cache
+        List<CmsJspNavElement> cachedNavigation = builder.getNavigationForFolder(folder);
+        CmsJspNavElement cachedElement = findElement(cachedNavigation, page);
+        assertNotNull(cachedElement);
+        assertNotSame(element, cachedElement);
+        assertSame(element.getProperties(), cachedElement.getProperties());
+
+        // offline changes must not be visible online
+        cms.lockResource(page);
+        cms.writePropertyObject(page, new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVTEXT, "Navigation B", null));
+        assertEquals("Navigation A", findElement(builder.getNavigationForFolder(folder), page).getNavText());
+
+        // the offline navigation is not cached
+        CmsJspNavElement offlineElement = findElement(new CmsJspNavBuilder(cms).getNavigationForFolder(folder), page);
+        assertEquals("Navigation B", offlineElement.getNavText());
+
+        // publishing the change must update the cached navigation
+        OpenCms.getPublishManager().publishResource(cms, page);
+        OpenCms.getPublishManager().waitWhileRunning();
+        element = findElement(builder.getNavigationForFolder(folder), page);
+        assertNotNull(element);
+        assertEquals("Navigation B", element.getNavText());
+    }
+
+    /**
+     * Tests that the cached online navigation respects the permissions of the current user.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testNavigationCachePermissions() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the permissions of the navigation cache");
+
+        String folder = "/folder1/";
+        String page = folder + "page2.html";
+        writeNavigation(cms, page, "Restricted", "2");
+
+        cms.createUser("navuser", "navuser", "A test user", null);
+        cms.addUserToGroup("navuser", OpenCms.getDefaultUsers().getGroupUsers());
+        cms.lockResource(page);
+        cms.chacc(page, I_CmsPrincipal.PRINCIPAL_USER, "navuser", "-r");
+        OpenCms.getPublishManager().publishResource(cms, page);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        CmsObject adminCms = OpenCms.initCmsObject(cms);
+        adminCms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        assertNotNull(findElement(new CmsJspNavBuilder(adminCms).getNavigationForFolder(folder), page));
+
+        CmsObject userCms = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+        userCms.loginUser("navuser", "navuser");
+        userCms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        userCms.getRequestContext().setSiteRoot(cms.getRequestContext().getSiteRoot());
+        List<CmsJspNavElement> navigation = new CmsJspNavBuilder(userCms).getNavigationForFolder(folder);
+        assertNull(findElement(navigation, page));
+        assertNotNull(findElement(navigation, folder + "page1.html"));
+
+        // the navigation of the administrator must not be affected
+        assertNotNull(findElement(new CmsJspNavBuilder(adminCms).getNavigationForFolder(folder), page));
+    }
+
+    /**
+     * Tests that navigation level folders are resolved with the permissions of the current user.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testNavigationLevelPermissions() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the navigation level folders of the navigation cache");
+
+        String folder = "/navlevel/";
+        cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+        cms.writePropertyObject(folder, new CmsProperty(
+            CmsPropertyDefinition.PROPERTY_DEFAULT_FILE,
+            CmsJspNavBuilder.NAVIGATION_LEVEL_FOLDER,
+            null));
+        cms.createResource(folder + "first.html", CmsResourceTypePlain.getStaticTypeId());
+        cms.createResource(folder + "second.html", CmsResourceTypePlain.getStaticTypeId());
+        cms.unlockResource(folder);
+        writeNavigation(cms, folder, "Level", "10");
+        writeNavigation(cms, folder + "first.html", "First", "1");
+        writeNavigation(cms, folder + "second.html", "Second", "2");
+
+        cms.createUser("leveluser", "leveluser", "A test user", null);
+        cms.addUserToGroup("leveluser", OpenCms.getDefaultUsers().getGroupUsers());
+        cms.lockResource(folder + "first.html");
+        cms.chacc(folder + "first.html", I_CmsPrincipal.PRINCIPAL_USER, "leveluser", "-r");
+        OpenCms.getPublishManager().publishResource(cms, folder + "first.html");
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        // the administrator reads the navigation first, so it is cached
+        CmsObject adminCms = OpenCms.initCmsObject(cms);
+        adminCms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        assertNotNull(findElement(new CmsJspNavBuilder(adminCms).getNavigationForFolder("/"), folder + "first.html"));
+
+        CmsObject userCms = OpenCms.initCmsObject(OpenCms.getDefaultUsers().getUserGuest());
+        userCms.loginUser("leveluser", "leveluser");
+        userCms.getRequestContext().setCurrentProject(cms.readProject(CmsProject.ONLINE_PROJECT_ID));
+        userCms.getRequestContext().setSiteRoot(cms.getRequestContext().getSiteRoot());
+        List<CmsJspNavElement> navigation = new CmsJspNavBuilder(userCms).getNavigationForFolder("/");
+        assertNull(findElement(navigation, folder + "first.html"));
+        assertNotNull(findElement(navigation, folder + "second.html"));
+
+        // the navigation of the administrator must not be affected
+        assertNotNull(findElement(new CmsJspNavBuilder(adminCms).getNavigationForFolder("/"), folder + "first.html"));
+    }
+
+    /**
+     * Returns the navigation element with the given site path.<p>
+     * 
+     * @param navigation the navigation elements
+     * @param sitePath the site path to look for
+     * 
+     * @return the navigation element, or <code>null</code> if not found
+     */
+    private CmsJspNavElement findElement(List<CmsJspNavElement> navigation, String sitePath) {
+
+        for (CmsJspNavElement element : navigation) {
+            if (element.getResourceName().equals(sitePath)) {
+                return element;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Writes and publishes the navigation properties of the given resource.<p>
+     * 
+     * @param cms the current users context in the offline project
+     * @param sitePath the site path of the resource
+     * @param navText the navigation text
+     * @param navPos the navigation position
+     * 
+     * @throws Exception if something goes wrong
+     */
+    private void writeNavigation(CmsObject cms, String sitePath, String navText, String navPos) throws Exception {
+
+        cms.lockResource(sitePath);
+        cms.writePropertyObject(sitePath, new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVTEXT, navText, null));
+        cms.writePropertyObject(sitePath, new CmsProperty(CmsPropertyDefinition.PROPERTY_NAVPOS, navPos, null));
+        OpenCms.getPublishManager().publishResource(cms, sitePath);
+        OpenCms.getPublishManager().waitWhileRunning();
+    }
+}
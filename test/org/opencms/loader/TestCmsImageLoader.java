@@ -0,0 +1,254 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.loader;
+
+import org.opencms.file.CmsFile;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsResource;
+import org.opencms.file.types.CmsResourceTypeImage;
+import org.opencms.main.OpenCms;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Tests the scaling of images by the OpenCms image loader.<p>
+ */
+public class TestCmsImageLoader extends OpenCmsTestCase {
+
+    /**
+     * Image scaler that counts the scale operations.<p>
+     */
+    protected static class CmsCountingImageScaler extends CmsImageScaler {
+
+        /** The number of scale operations. */
+        private AtomicInteger m_count;
+
+        /**
+         * Constructor.<p>
+         * 
+         * @param parameters the scale parameters
+         * @param count the counter for the scale operations
+         */
+        protected CmsCountingImageScaler(String parameters, AtomicInteger count) {
+
+            super(parameters);
+            m_count = count;
+        }
+
+        /**
+         * @see org.opencms.loader.CmsImageScaler#scaleImage(org.opencms.file.CmsFile)
+         */
+        @Override
+        public byte[] scaleImage(CmsFile file) {
+
+            m_count.incrementAndGet();
+            return super.scaleImage(file);
+        }
+    }
+
+    /** The image cache files written by the current test. */
+    private List<String> m_cacheFiles = new ArrayList<String>();
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsImageLoader(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsImageLoader.class.getName());
+
+        suite.addTest(new TestCmsImageLoader("testConcurrentScaling"));
+        suite.addTest(new TestCmsImageLoader("testPregenerateScaledImages"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests concurrent requests for the same scaled version of an image.<p>
+     *
+     * @throws Throwable if the test fails
+     */
+    public void testConcurrentScaling() throws Throwable {
+
+        echo("Testing concurrent requests for the same scaled image");
+
+        CmsObject cms = getCmsObject();
+        final CmsResource resource = importTestResource(
+            cms,
+            "org/opencms/loader/img_01.jpg",
+            "/concurrent.jpg",
+            CmsResourceTypeImage.getStaticTypeId(),
+            Collections.<CmsProperty> emptyList());
+        final CmsImageLoader loader = (CmsImageLoader)OpenCms.getResourceManager().getLoader(
+            CmsImageLoader.RESOURCE_LOADER_ID_IMAGE_LOADER);
+
+        final String params = "w:200,h:150";
+        final AtomicInteger scaleCount = new AtomicInteger();
+        String cacheName = CmsImageLoader.m_vfsDiskCache.getCacheName(resource, params);
+        m_cacheFiles.add(cacheName);
+
+        final List<byte[]> results = Collections.synchronizedList(new ArrayList<byte[]>());
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 10; i++) {
+            final CmsObject threadCms = getCmsObject();
+            Thread thread = new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        CmsFile file = loader.getScaledImage(threadCms, resource, new CmsCountingImageScaler(
+                            params,
+                            scaleCount));
+                        results.add(file.getContents());
+                    } catch (Throwable t) {
+                        errors.add(t);
+                    }
+                }
+            };
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        if (!errors.isEmpty()) {
+            throw errors.get(0);
+        }
+        assertEquals(10, results.size());
+        CmsImageScaler scaled = new CmsImageScaler(results.get(0), resource.getRootPath());
+        assertEquals(200, scaled.getWidth());
+        assertEquals(150, scaled.getHeight());
+        for (byte[] content : results) {
+            assertTrue(Arrays.equals(results.get(0), content));
+        }
+        // the image has been scaled only once for all requests
+        assertEquals(1, scaleCount.get());
+        // the scaled version is used from the cache from now on
+        assertTrue(new File(cacheName).exists());
+    }
+
+    /**
+     * Tests the generation of the configured scaled versions of an image.<p>
+     *
+     * @throws Throwable if the test fails
+     */
+    public void testPregenerateScaledImages() throws Throwable {
+
+        echo("Testing the generation of the configured scaled versions of an image");
+
+        CmsObject cms = getCmsObject();
+        CmsResource resource = importTestResource(
+            cms,
+            "org/opencms/loader/img_02.gif",
+            "/pregenerate.gif",
+            CmsResourceTypeImage.getStaticTypeId(),
+            Collections.<CmsProperty> emptyList());
+        m_cacheFiles.add(CmsImageLoader.m_vfsDiskCache.getCacheName(resource, "w:100,h:100"));
+        m_cacheFiles.add(CmsImageLoader.m_vfsDiskCache.getCacheName(resource, "w:48,h:64"));
+        CmsImageLoader loader = new CmsImageLoader();
+        loader.addConfigurationParameter(CmsImageLoader.CONFIGURATION_PREGENERATE, "w:100,h:100|w:48,h:64");
+        try {
+            List<Future<byte[]>> tasks = CmsImageLoader.pregenerateScaledImages(cms, resource);
+            assertEquals(2, tasks.size());
+            for (Future<byte[]> task : tasks) {
+                task.get();
+            }
+            for (String cacheName : m_cacheFiles) {
+                assertTrue(new File(cacheName).exists());
+            }
+
+            // versions which are already cached are not generated again
+            assertTrue(CmsImageLoader.pregenerateScaledImages(cms, resource).isEmpty());
+        } finally {
+            CmsImageLoader.m_pregenerateParams = Collections.emptyList();
+        }
+    }
+
+    /**
+     * Deletes the image cache files written by the test.<p>
+     * 
+     * @see junit.framework.TestCase#tearDown()
+     */
+    @Override
+    protected void tearDown() throws Exception {
+
+        for (String cacheName : m_cacheFiles) {
+            File cacheFile = new File(cacheName);
+            if (cacheFile.exists()) {
+                cacheFile.delete();
+            }
+        }
+        m_cacheFiles.clear();
+        super.tearDown();
+    }
+}
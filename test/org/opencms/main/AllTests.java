@@ -64,6 +64,7 @@ public final class AllTests {
         suite.addTest(new TestSuite(TestCmsShell.class));
         suite.addTest(TestOpenCmsSingleton.suite());
         suite.addTest(TestCmsEvents.suite());
+        suite.addTest(TestCmsClusterEventManager.suite());
         suite.addTest(TestCmsSystemInfo.suite());
         // $JUnit-END$
         return suite;
@@ -0,0 +1,244 @@
+/*
+ * This library is part of OpenCms -
+ * the Open Source Content Management System
+ *
+ * Copyright (c) Alkacon Software GmbH (http://www.alkacon.com)
+ *
+ * This library is free software; you can redistribute it and/or
+ * modify it under the terms of the GNU Lesser General Public
+ * License as published by the Free Software Foundation; either
+ * version 2.1 of the License, or (at your option) any later version.
+ *
+ * This library is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * For further information about Alkacon Software, please see the
+ * company website: http://www.alkacon.com
+ *
+ * For further information about OpenCms, please see the
+ * project website: http://www.opencms.org
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this library; if not, write to the Free Software
+ * Foundation, Inc., 59 Temple Place, Suite 330, Boston, MA  02111-1307  USA
+ */
+
+package org.opencms.main;
+
+import org.opencms.db.CmsDbClusterEventTransport;
+import org.opencms.test.OpenCmsTestCase;
+import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.util.CmsUUID;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import junit.extensions.TestSetup;
+import junit.framework.Test;
+import junit.framework.TestSuite;
+
+/**
+ * Unit tests for the distribution of events to the nodes of an OpenCms cluster.<p>
+ */
+public class TestCmsClusterEventManager extends OpenCmsTestCase {
+
+    /**
+     * Default JUnit constructor.<p>
+     *
+     * @param arg0 JUnit parameters
+     */
+    public TestCmsClusterEventManager(String arg0) {
+
+        super(arg0);
+    }
+
+    /**
+     * Test suite for this test class.<p>
+     *
+     * @return the test suite
+     */
+    public static Test suite() {
+
+        OpenCmsTestProperties.initialize(org.opencms.test.AllTests.TEST_PROPERTIES_PATH);
+
+        TestSuite suite = new TestSuite();
+        suite.setName(TestCmsClusterEventManager.class.getName());
+
+        suite.addTest(new TestCmsClusterEventManager("testEventSerialization"));
+        suite.addTest(new TestCmsClusterEventManager("testLoopbackTransport"));
+        suite.addTest(new TestCmsClusterEventManager("testDbTransport"));
+
+        TestSetup wrapper = new TestSetup(suite) {
+
+            @Override
+            protected void setUp() {
+
+                setupOpenCms("simpletest", "/");
+            }
+
+            @Override
+            protected void tearDown() {
+
+                removeOpenCms();
+            }
+        };
+
+        return wrapper;
+    }
+
+    /**
+     * Tests reading the events written by other nodes from the database.<p>
+     *
+     * @throws Throwable if the test fails
+     */
+    public void testDbTransport() throws Throwable {
+
+        echo("Testing the database cluster event transport");
+
+        CmsDbClusterEventTransport transport1 = new CmsDbClusterEventTransport();
+        CmsDbClusterEventTransport transport2 = new CmsDbClusterEventTransport();
+        // the test polls manually
+        transport1.setPollInterval(Long.MAX_VALUE);
+        transport2.setPollInterval(Long.MAX_VALUE);
+        CmsClusterEventManager node1 = createNode(transport1);
+        CmsClusterEventManager node2 = createNode(transport2);
+        CmsTestEventListener listener1 = new CmsTestEventListener();
+        CmsTestEventListener listener2 = new CmsTestEventListener();
+        node1.addCmsEventListener(listener1);
+        node2.addCmsEventListener(listener2);
+        try {
+            Map<String, Object> data = new HashMap<String, Object>();
+            data.put(I_CmsEventListener.KEY_PUBLISHID, new CmsUUID().toString());
+            node1.fireEvent(new CmsEvent(I_CmsEventListener.EVENT_PUBLISH_PROJECT, data));
+            node1.fireEvent(new CmsEvent(I_CmsEventListener.EVENT_CLEAR_CACHES, null));
+            assertEquals(2, listener1.getEvents().size());
+            assertEquals(0, listener2.getEvents().size());
+
+            transport2.poll();
+            assertEquals(2, listener2.getEvents().size());
+            CmsEvent received = (CmsEvent)listener2.getEvents().get(0);
+            assertEquals(I_CmsEventListener.EVENT_PUBLISH_PROJECT, received.getType());
+            assertEquals(data, received.getData());
+            assertEquals(I_CmsEventListener.EVENT_CLEAR_CACHES, ((CmsEvent)listener2.getEvents().get(1)).getType());
+
+            // events that have already been received are not fired again
+            transport2.poll();
+            assertEquals(2, listener2.getEvents().size());
+
+            // the events of a node are not fired again on the same node
+            transport1.poll();
+            assertEquals(2, listener1.getEvents().size());
+
+            node2.fireEvent(new CmsEvent(I_CmsEventListener.EVENT_FLEX_CACHE_CLEAR, null));
+            transport1.poll();
+            transport2.poll();
+            assertEquals(3, listener1.getEvents().size());
+            assertEquals(3, listener2.getEvents().size());
+
+            // outdated events are deleted
+            transport1.setRetentionTime(-1000);
+            transport1.deleteOutdatedEvents(true);
+            CmsClusterEventManager node3 = createNode(new CmsDbClusterEventTransport());
+            CmsTestEventListener listener3 = new CmsTestEventListener();
+            node3.addCmsEventListener(listener3);
+            ((CmsDbClusterEventTransport)node3.getTransport()).poll();
+            node3.shutDown();
+            assertEquals(0, listener3.getEvents().size());
+        } finally {
+            node1.shutDown();
+            node2.shutDown();
+        }
+    }
+
+    /**
+     * Tests the conversion of events to the serializable form and back.<p>
+     *
+     * @throws Throwable if the test fails
+     */
+    public void testEventSerialization() throws Throwable {
+
+        echo("Testing the serialization of cluster events");
+
+        CmsUUID id = new CmsUUID();
+        Map<String, Object> data = new HashMap<String, Object>();
+        data.put("string", "a=b&c %d\u00e4");
+        data.put("int", new Integer(42));
+        data.put("long", new Long(Long.MAX_VALUE));
+        data.put("boolean", Boolean.TRUE);
+        data.put("uuid", id);
+        // values that can not be serialized are only available on the local node
+        data.put(I_CmsEventListener.KEY_DBCONTEXT, new Object());
+
+        CmsClusterEvent event = new CmsClusterEvent("node", I_CmsEventListener.EVENT_CLEAR_CACHES, data);
+        assertEquals(5, event.getData().size());
+        assertFalse(event.getData().containsKey(I_CmsEventListener.KEY_DBCONTEXT));
+
+        CmsClusterEvent copy = CmsClusterEvent.valueOf("node", event.getType(), event.getSerializedData());
+        assertEquals("node", copy.getNodeId());
+        assertEquals(I_CmsEventListener.EVENT_CLEAR_CACHES, copy.getType());
+        assertEquals(event.getData(), copy.getData());
+        assertEquals(id, copy.getData().get("uuid"));
+
+        CmsClusterEvent empty = CmsClusterEvent.valueOf("node", I_CmsEventListener.EVENT_CLEAR_CACHES, "");
+        assertTrue(empty.getData().isEmpty());
+    }
+
+    /**
+     * Tests the distribution of events with the loopback transport.<p>
+     *
+     * @throws Throwable if the test fails
+     */
+    public void testLoopbackTransport() throws Throwable {
+
+        echo("Testing the loopback cluster event transport");
+
+        CmsLoopbackClusterEventTransport transport = new CmsLoopbackClusterEventTransport();
+        CmsClusterEventManager node1 = createNode(transport);
+        CmsClusterEventManager node2 = createNode(transport);
+        CmsTestEventListener listener1 = new CmsTestEventListener();
+        CmsTestEventListener listener2 = new CmsTestEventListener();
+        node1.addCmsEventListener(listener1);
+        node2.addCmsEventListener(listener2);
+
+        Map<String, Object> data = new HashMap<String, Object>();
+        data.put(I_CmsEventListener.KEY_RESOURCE, new Object());
+        data.put(I_CmsEventListener.KEY_USER_NAME, "Admin");
+        node1.fireEvent(new CmsEvent(I_CmsEventListener.EVENT_USER_MODIFIED, data));
+
+        // the event is fired exactly once on every node
+        assertEquals(1, listener1.getEvents().size());
+        assertEquals(1, listener2.getEvents().size());
+        assertSame(data, ((CmsEvent)listener1.getEvents().get(0)).getData());
+        Map<String, Object> received = ((CmsEvent)listener2.getEvents().get(0)).getData();
+        assertEquals(1, received.size());
+        assertEquals("Admin", received.get(I_CmsEventListener.KEY_USER_NAME));
+
+        // events that are not distributed only reach the local listeners
+        node2.fireEvent(new CmsEvent(I_CmsEventListener.EVENT_LOGIN_USER, null));
+        assertEquals(1, listener1.getEvents().size());
+        assertEquals(2, listener2.getEvents().size());
+
+        node1.addClusterEventType(I_CmsEventListener.EVENT_LOGIN_USER);
+        node1.fireEvent(new CmsEvent(I_CmsEventListener.EVENT_LOGIN_USER, null));
+        assertEquals(2, listener1.getEvents().size());
+        assertEquals(3, listener2.getEvents().size());
+
+        transport.shutDown();
+    }
+
+    /**
+     * Creates a cluster event manager that acts as a cluster node.<p>
+     *
+     * @param transport the transport connecting the node with the cluster
+     *
+     * @return the cluster event manager
+     */
+    private CmsClusterEventManager createNode(I_CmsClusterEventTransport transport) {
+
+        CmsClusterEventManager manager = new CmsClusterEventManager(transport);
+        manager.initialize(new CmsEventManager());
+        return manager;
+    }
+}
@@ -27,6 +27,10 @@
 
 package org.opencms.monitor;
 
+import org.opencms.db.CmsDriverManager;
+import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProperty;
+import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.main.CmsContextInfo;
 import org.opencms.main.OpenCms;
 import org.opencms.scheduler.CmsScheduledJobInfo;
@@ -67,6 +71,7 @@ public class TestMemoryMonitor extends OpenCmsTestCase {
         suite.setName(TestMemoryMonitor.class.getName());
 
         suite.addTest(new TestMemoryMonitor("testMemoryMonitor"));
+        suite.addTest(new TestMemoryMonitor("testClearCacheForPublishedResources"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -86,6 +91,40 @@ public class TestMemoryMonitor extends OpenCmsTestCase {
         return wrapper;
     }
 
+    /**
+     * Tests that publishing a single resource only clears the cache entries depending on that resource.<p>
+     * 
+     * @throws Exception if something goes wrong
+     */
+    public void testClearCacheForPublishedResources() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing selective cache clearing after publishing");
+
+        String publishedFile = "/folder1/page1.html";
+        String otherFile = "/folder2/index.html";
+        CmsMemoryMonitor monitor = OpenCms.getMemoryMonitor();
+
+        cms.lockResource(publishedFile);
+        cms.writePropertyObject(publishedFile, new CmsProperty(CmsPropertyDefinition.PROPERTY_TITLE, "changed", null));
+        cms.unlockResource(publishedFile);
+
+        // fill the property list cache
+        cms.readPropertyObjects(publishedFile, true);
+        cms.readPropertyObjects(otherFile, true);
+        String publishedKey = CmsDriverManager.CACHE_ALL_PROPERTIES + "+-" + cms.addSiteRoot(publishedFile);
+        String otherKey = CmsDriverManager.CACHE_ALL_PROPERTIES + "+-" + cms.addSiteRoot(otherFile);
+        assertNotNull(monitor.getCachedPropertyList(publishedKey));
+        assertNotNull(monitor.getCachedPropertyList(otherKey));
+
+        OpenCms.getPublishManager().publishResource(cms, publishedFile);
+        OpenCms.getPublishManager().waitWhileRunning();
+
+        assertNull(monitor.getCachedPropertyList(publishedKey));
+        assertNotNull(monitor.getCachedPropertyList(otherKey));
+        assertEquals("changed", cms.readPropertyObject(publishedFile, CmsPropertyDefinition.PROPERTY_TITLE, true).getValue());
+    }
+
     /**
      * Tests the memory monitor.<p>
      * 
@@ -35,6 +35,9 @@ import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.util.CmsStringUtil;
 
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
 import junit.extensions.TestSetup;
 import junit.framework.Test;
 import junit.framework.TestSuite;
@@ -80,6 +83,7 @@ public class TestRepository extends OpenCmsTestCase {
             }
         };
         suite.addTest(new TestRepository("testPropertyCachingBug"));
+        suite.addTest(new TestRepository("testWriteContent"));
 
         return wrapper;
     }
@@ -104,4 +108,30 @@ public class TestRepository extends OpenCmsTestCase {
             "template-elements property should not be empty",
             !CmsStringUtil.isEmptyOrWhitespaceOnly(templateElements.getValue()));
     }
+
+    /**
+     * Tests that writing the content of repository items to a stream delivers the same content as reading it.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testWriteContent() throws Exception {
+
+        I_CmsRepositorySession session = OpenCms.getRepositoryManager().getRepository(
+            "standard",
+            CmsRepository.class).login("Admin", "admin");
+
+        // a binary file is streamed, a xml page is read through the resource wrappers
+        String[] paths = {"/folder1/image1.gif", "/folder1/page1.html"};
+        for (String path : paths) {
+            byte[] content = session.getItem(path).getContent();
+            assertNotNull(content);
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            session.getItem(path).writeContent(out);
+            assertTrue(path, Arrays.equals(content, out.toByteArray()));
+        }
+        byte[] image = getCmsObject().readFile("/folder1/image1.gif").getContents();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        session.getItem(paths[0]).writeContent(out);
+        assertTrue(Arrays.equals(image, out.toByteArray()));
+    }
 }
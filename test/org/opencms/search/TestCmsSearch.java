@@ -45,6 +45,7 @@ import org.opencms.xml.content.CmsXmlContent;
 import org.opencms.xml.content.CmsXmlContentFactory;
 
 import java.text.DateFormat;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
@@ -157,6 +158,7 @@ public class TestCmsSearch extends OpenCmsTestCase {
         suite.addTest(new TestCmsSearch("testCmsSearchUppercaseFolderName"));
         suite.addTest(new TestCmsSearch("testCmsSearchDocumentTypes"));
         suite.addTest(new TestCmsSearch("testCmsSearchXmlContent"));
+        suite.addTest(new TestCmsSearch("testConcurrentSearch"));
         suite.addTest(new TestCmsSearch("testIndexGeneration"));
         suite.addTest(new TestCmsSearch("testQueryEncoding"));
         suite.addTest(new TestCmsSearch("testSearchIssueWithSpecialFoldernames"));
@@ -421,6 +423,69 @@ public class TestCmsSearch extends OpenCmsTestCase {
         // assertEquals("/sites/default/xmlcontent/article_0004.html", ((CmsSearchResult)results.get(1)).getPath());
     }
 
+    /**
+     * Tests concurrent searches on the same index while the index searcher is re-opened.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testConcurrentSearch() throws Throwable {
+
+        echo("Testing concurrent searches on the same index");
+
+        final CmsSearchIndex index = OpenCms.getSearchManager().getIndex(INDEX_OFFLINE);
+        final List<Throwable> errors = Collections.synchronizedList(new ArrayList<Throwable>());
+        List<Thread> threads = new ArrayList<Thread>();
+        for (int i = 0; i < 8; i++) {
+            threads.add(new Thread() {
+
+                @Override
+                public void run() {
+
+                    try {
+                        CmsSearch cmsSearchBean = new CmsSearch();
+                        cmsSearchBean.init(OpenCms.initCmsObject(getCmsObject()));
+                        cmsSearchBean.setIndex(INDEX_OFFLINE);
+                        cmsSearchBean.setQuery(">>SearchEgg1<<");
+                        for (int j = 0; j < 20; j++) {
+                            List<CmsSearchResult> results = cmsSearchBean.getSearchResult();
+                            assertEquals(1, results.size());
+                            assertEquals("/sites/default/xmlcontent/article_0001.html", results.get(0).getPath());
+                            // force a new search with the next iteration
+                            cmsSearchBean.setSearchPage(1);
+                        }
+                    } catch (Throwable e) {
+                        errors.add(e);
+                    }
+                }
+            });
+        }
+        threads.add(new Thread() {
+
+            @Override
+            public void run() {
+
+                for (int j = 0; j < 10; j++) {
+                    // re-open the searcher while searches are running 
+                    index.indexSearcherOpen(index.getPath());
+                    try {
+                        Thread.sleep(10);
+                    } catch (InterruptedException e) {
+                        // ignore
+                    }
+                }
+            }
+        });
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        if (!errors.isEmpty()) {
+            throw errors.get(0);
+        }
+    }
+
     /**
      * Tests index generation with different analyzers.<p>
      * 
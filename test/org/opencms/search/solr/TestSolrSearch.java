@@ -29,6 +29,7 @@ package org.opencms.search.solr;
 
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
 import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsResource;
 import org.opencms.file.types.CmsResourceTypeBinary;
@@ -40,6 +41,7 @@ import org.opencms.report.I_CmsReport;
 import org.opencms.search.CmsSearchIndex;
 import org.opencms.search.CmsSearchResource;
 import org.opencms.search.fields.CmsSearchField;
+import org.opencms.security.I_CmsPrincipal;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
 import org.opencms.util.CmsRequestUtil;
@@ -104,6 +106,8 @@ public class TestSolrSearch extends OpenCmsTestCase {
         //        suite.addTest(new TestSolrSearch("testMultipleSearchRoots"));
         suite.addTest(new TestSolrSearch("testQueryDefaults"));
         suite.addTest(new TestSolrSearch("testQueryParameterStrength"));
+        suite.addTest(new TestSolrSearch("testPermissionFilter"));
+        suite.addTest(new TestSolrSearch("testPermissionFilterInherited"));
         //        suite.addTest(new TestSolrSearch("testSortResults"));
         //        suite.addTest(new TestSolrSearch("testXmlContent"));
 
@@ -679,6 +683,121 @@ public class TestSolrSearch extends OpenCmsTestCase {
         }
     }
 
+    /**
+     * Tests paging through a search result with the permission filter query enabled.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testPermissionFilter() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the permission filter query");
+
+        CmsSolrIndex index = OpenCms.getSearchManager().getIndexSolr(AllTests.SOLR_ONLINE);
+        index.setPermissionFilter(true);
+        try {
+            cms.createUser("filteruser", "filteruser", "A user with restricted read permissions", null);
+            String folderName = "/permissionfilter/";
+            cms.createResource(folderName, CmsResourceTypeFolder.getStaticTypeId());
+            for (int i = 0; i < 15; i++) {
+                String fileName = folderName + "file" + i + ".txt";
+                cms.createResource(
+                    fileName,
+                    CmsResourceTypePlain.getStaticTypeId(),
+                    "OpenCms permissionfiltertoken".getBytes(),
+                    null);
+                if ((i % 3) == 0) {
+                    cms.chacc(fileName, I_CmsPrincipal.PRINCIPAL_USER, "filteruser", "-r");
+                }
+            }
+            cms.unlockResource(folderName);
+            OpenCms.getPublishManager().publishProject(cms);
+            OpenCms.getPublishManager().waitWhileRunning();
+
+            // administrators can read everything, so no filter is used for them
+            assertNull(index.getPermissionFilterQuery(cms));
+
+            CmsObject userCms = OpenCms.initCmsObject(cms);
+            userCms.loginUser("filteruser", "filteruser");
+            userCms.getRequestContext().setCurrentProject(userCms.readProject(CmsProject.ONLINE_PROJECT_ID));
+            assertNotNull(index.getPermissionFilterQuery(userCms));
+
+            String query = "q=+text:permissionfiltertoken +parent-folders:\"/sites/default" + folderName + "\"&rows=4";
+            CmsSolrResultList results = index.search(cms, query);
+            assertEquals(15, results.getNumFound());
+
+            int found = 0;
+            for (int start = 0; start < 12; start += 4) {
+                results = index.search(userCms, query + "&start=" + start);
+                AllTests.printResults(userCms, results, false);
+                assertEquals(10, results.getNumFound());
+                for (CmsSearchResource res : results) {
+                    int i = Integer.parseInt(res.getName().substring(4, res.getName().indexOf('.')));
+                    assertTrue((i % 3) != 0);
+                    found++;
+                }
+            }
+            assertEquals(10, found);
+
+            // the filter query of the user is not left in a query that is reused for another user
+            CmsSolrQuery squery = new CmsSolrQuery(null, CmsRequestUtil.createParameterMap(query));
+            assertEquals(10, index.search(userCms, squery).getNumFound());
+            assertEquals(15, index.search(cms, squery).getNumFound());
+        } finally {
+            index.setPermissionFilter(false);
+        }
+    }
+
+    /**
+     * Tests that changing the access control entries of a folder updates the indexed permissions of its files.<p>
+     * 
+     * @throws Exception if the test fails
+     */
+    public void testPermissionFilterInherited() throws Exception {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing the permission filter query with inherited permissions");
+
+        CmsSolrIndex index = OpenCms.getSearchManager().getIndexSolr(AllTests.SOLR_ONLINE);
+        index.setPermissionFilter(true);
+        try {
+            cms.createUser("inheriteduser", "inheriteduser", "A user with inherited read permissions", null);
+            String folderName = "/permissioninherited/";
+            cms.createResource(folderName, CmsResourceTypeFolder.getStaticTypeId());
+            cms.createResource(
+                folderName + "file.txt",
+                CmsResourceTypePlain.getStaticTypeId(),
+                "OpenCms permissioninheritedtoken".getBytes(),
+                null);
+            cms.chacc(folderName, I_CmsPrincipal.PRINCIPAL_USER, "inheriteduser", "-r");
+            cms.unlockResource(folderName);
+            OpenCms.getPublishManager().publishProject(cms);
+            OpenCms.getPublishManager().waitWhileRunning();
+
+            CmsObject userCms = OpenCms.initCmsObject(cms);
+            userCms.loginUser("inheriteduser", "inheriteduser");
+            userCms.getRequestContext().setCurrentProject(userCms.readProject(CmsProject.ONLINE_PROJECT_ID));
+
+            String query = "q=+text:permissioninheritedtoken +parent-folders:\"/sites/default" + folderName + "\"";
+            assertEquals(1, index.search(cms, query).getNumFound());
+            assertEquals(0, index.search(userCms, query).getNumFound());
+
+            // only the folder is changed and published, the file is reindexed with the new permissions
+            cms.lockResource(folderName);
+            cms.rmacc(folderName, I_CmsPrincipal.PRINCIPAL_USER, "inheriteduser");
+            cms.unlockResource(folderName);
+            OpenCms.getPublishManager().publishResource(cms, folderName);
+            OpenCms.getPublishManager().waitWhileRunning();
+
+            CmsSolrResultList results = index.search(userCms, query);
+            AllTests.printResults(userCms, results, false);
+            assertEquals(1, results.getNumFound());
+            assertEquals(cms.getRequestContext().addSiteRoot(folderName + "file.txt"), results.get(0).getRootPath());
+        } finally {
+            index.setPermissionFilter(false);
+        }
+    }
+
     /**
      * @throws Throwable
      */
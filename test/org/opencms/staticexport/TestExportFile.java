@@ -28,6 +28,7 @@
 package org.opencms.staticexport;
 
 import org.opencms.file.CmsObject;
+import org.opencms.file.types.CmsResourceTypeFolder;
 import org.opencms.file.types.CmsResourceTypePlain;
 import org.opencms.main.OpenCms;
 import org.opencms.test.OpenCmsTestCase;
@@ -69,6 +70,7 @@ public class TestExportFile extends OpenCmsTestCase {
         suite.setName(TestExportFile.class.getName());
 
         suite.addTest(new TestExportFile("testStaticexportFile"));
+        suite.addTest(new TestExportFile("testParallelStaticexport"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -88,6 +90,56 @@ public class TestExportFile extends OpenCmsTestCase {
         return wrapper;
     }
 
+    /**
+     * Tests the parallel export of several files after publishing.<p>
+     * 
+     * @throws Throwable if something goes wrong
+     */
+    public void testParallelStaticexport() throws Throwable {
+
+        CmsObject cms = getCmsObject();
+        echo("Testing parallel file export");
+
+        // set the export mode to export immediately after publishing resources
+        OpenCms.getStaticExportManager().setHandler("org.opencms.staticexport.CmsAfterPublishStaticExportHandler");
+        OpenCms.getStaticExportManager().setExportThreads("4");
+        try {
+            String folder = "/parallel/";
+            cms.createResource(folder, CmsResourceTypeFolder.getStaticTypeId());
+            int count = 20;
+            for (int i = 0; i < count; i++) {
+                String content = "this is the test content of file " + i;
+                cms.createResource(
+                    folder + "file" + i + ".txt",
+                    CmsResourceTypePlain.getStaticTypeId(),
+                    content.getBytes(),
+                    null);
+            }
+            cms.unlockResource(folder);
+
+            // now publish (and export) the resources
+            OpenCms.getPublishManager().publishProject(cms);
+            OpenCms.getPublishManager().waitWhileRunning();
+
+            // now check all exported files in the file system
+            for (int i = 0; i < count; i++) {
+                String rootPath = cms.getRequestContext().addSiteRoot(folder + "file" + i + ".txt");
+                String exportPath = CmsFileUtil.normalizePath(OpenCms.getStaticExportManager().getExportPath(
+                    rootPath) + rootPath);
+                File f = new File(exportPath);
+                assertTrue(exportPath, f.exists());
+
+                byte[] exportContent = new byte[(int)f.length()];
+                FileInputStream fileStream = new FileInputStream(f);
+                fileStream.read(exportContent);
+                fileStream.close();
+                assertEquals("this is the test content of file " + i, new String(exportContent));
+            }
+        } finally {
+            OpenCms.getStaticExportManager().setExportThreads("1");
+        }
+    }
+
     /**
      * Tests the file export.<p>
      * 
@@ -29,6 +29,7 @@ package org.opencms.xml.content;
 
 import org.opencms.file.CmsFile;
 import org.opencms.file.CmsObject;
+import org.opencms.file.CmsProject;
 import org.opencms.file.CmsProperty;
 import org.opencms.file.CmsPropertyDefinition;
 import org.opencms.file.CmsResource;
@@ -46,6 +47,7 @@ import org.opencms.relations.CmsRelationType;
 import org.opencms.staticexport.CmsLinkTable;
 import org.opencms.test.OpenCmsTestCase;
 import org.opencms.test.OpenCmsTestProperties;
+import org.opencms.test.OpenCmsTestServletRequest;
 import org.opencms.util.CmsFileUtil;
 import org.opencms.widgets.CmsCheckboxWidget;
 import org.opencms.widgets.CmsHtmlWidget;
@@ -53,6 +55,7 @@ import org.opencms.widgets.I_CmsWidget;
 import org.opencms.xml.CmsXmlContentDefinition;
 import org.opencms.xml.CmsXmlEntityResolver;
 import org.opencms.xml.CmsXmlUtils;
+import org.opencms.xml.containerpage.CmsADECache;
 import org.opencms.xml.types.CmsXmlHtmlValue;
 import org.opencms.xml.types.CmsXmlNestedContentDefinition;
 import org.opencms.xml.types.CmsXmlStringValue;
@@ -62,9 +65,11 @@ import org.opencms.xml.types.I_CmsXmlContentValue;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 
 import junit.extensions.TestSetup;
 import junit.framework.Test;
@@ -166,6 +171,7 @@ public class TestCmsXmlContentWithVfs extends OpenCmsTestCase {
         suite.addTest(new TestCmsXmlContentWithVfs("testMacros"));
         suite.addTest(new TestCmsXmlContentWithVfs("testAddFileReference"));
         suite.addTest(new TestCmsXmlContentWithVfs("testXmlContentCreate"));
+        suite.addTest(new TestCmsXmlContentWithVfs("testSharedOnlineCache"));
 
         TestSetup wrapper = new TestSetup(suite) {
 
@@ -1916,6 +1922,63 @@ public class TestCmsXmlContentWithVfs extends OpenCmsTestCase {
         assertEquals("Der Autor ist JETZT", messagesDEde.key("label.newauthor"));
     }
 
+    /**
+     * Tests the cache for parsed XML contents shared between requests in the online project.<p>
+     * 
+     * @throws Exception in case something goes wrong
+     */
+    public void testSharedOnlineCache() throws Exception {
+
+        echo("Testing the cache for parsed XML contents shared between requests");
+
+        String resourcename = "/xmlcontent/article_0001.html";
+        CmsObject cms = getCmsObject();
+        CmsObject online = getCmsObject();
+        online.getRequestContext().setCurrentProject(online.readProject(CmsProject.ONLINE_PROJECT_ID));
+        CmsADECache cache = OpenCms.getADEManager().getCache();
+        cache.flushXmlContents();
+
+        CmsResource resource = online.readResource(resourcename);
+        String key = cache.getXmlContentCacheKey(resource);
+        CmsXmlContent content1 = CmsXmlContentFactory.unmarshal(online, resource, createRequest());
+        assertNotNull(cache.getCacheXmlContent(key));
+        CmsXmlContent content2 = CmsXmlContentFactory.unmarshal(online, resource, createRequest());
+        assertNotSame(content1, content2);
+        assertEquals(content1.toString(), content2.toString());
+        assertEquals(resource.getLength(), content2.getFile().getContents().length);
+
+        // changing the XML content of one request must not affect other requests
+        content1.getValue("Title", Locale.ENGLISH).setStringValue(online, "Changed title");
+        CmsXmlContent content3 = CmsXmlContentFactory.unmarshal(online, resource, createRequest());
+        assertEquals("Changed title", content1.getStringValue(online, "Title", Locale.ENGLISH));
+        assertEquals(
+            content2.getStringValue(online, "Title", Locale.ENGLISH),
+            content3.getStringValue(online, "Title", Locale.ENGLISH));
+
+        // the offline project does not use the shared cache
+        cache.flushXmlContents();
+        CmsResource offlineResource = cms.readResource(resourcename);
+        CmsXmlContentFactory.unmarshal(cms, offlineResource, createRequest());
+        assertNull(cache.getCacheXmlContent(cache.getXmlContentCacheKey(offlineResource)));
+
+        // publishing a changed XML content makes the new version visible online
+        CmsXmlContentFactory.unmarshal(online, resource, createRequest());
+        assertNotNull(cache.getCacheXmlContent(key));
+        cms.lockResource(resourcename);
+        CmsFile file = cms.readFile(resourcename);
+        CmsXmlContent xmlContent = CmsXmlContentFactory.unmarshal(cms, file);
+        xmlContent.getValue("Title", Locale.ENGLISH).setStringValue(cms, "Published title");
+        file.setContents(xmlContent.marshal());
+        cms.writeFile(file);
+        cms.unlockResource(resourcename);
+        OpenCms.getPublishManager().publishResource(cms, resourcename);
+        OpenCms.getPublishManager().waitWhileRunning();
+        assertNull(cache.getCacheXmlContent(key));
+        resource = online.readResource(resourcename);
+        CmsXmlContent published = CmsXmlContentFactory.unmarshal(online, resource, createRequest());
+        assertEquals("Published title", published.getStringValue(online, "Title", Locale.ENGLISH));
+    }
+
     /**
      * Test the validation of the value elements.<p>
      * 
@@ -2433,4 +2496,29 @@ public class TestCmsXmlContentWithVfs extends OpenCmsTestCase {
         file.setContents(xmlcontent.marshal());
         cms.writeFile(file);
     }
+
+    /**
+     * Creates a servlet request that supports request attributes.<p>
+     * 
+     * @return the servlet request
+     */
+    private OpenCmsTestServletRequest createRequest() {
+
+        return new OpenCmsTestServletRequest() {
+
+            private Map<String, Object> m_attributes = new HashMap<String, Object>();
+
+            @Override
+            public Object getAttribute(String name) {
+
+                return m_attributes.get(name);
+            }
+
+            @Override
+            public void setAttribute(String name, Object value) {
+
+                m_attributes.put(name, value);
+            }
+        };
+    }
 }
@@ -712,4 +712,6 @@ CREATE INDEX CMS_USERPUBLIST_IDX_02 ON CMS_USER_PUBLISH_LIST (STRUCTURE_ID);
 
 CREATE TABLE CMS_REWRITES (ID VARCHAR(36) NOT NULL, ALIAS_MODE INTEGER NOT NULL, PATTERN VARCHAR(254) NOT NULL, REPLACEMENT VARCHAR(254) NOT NULL, SITE_ROOT VARCHAR(64) NOT NULL, PRIMARY KEY (ID));
 CREATE INDEX CMS_REWRITES_IDX_01 ON CMS_REWRITES (SITE_ROOT); 
+CREATE TABLE CMS_CLUSTER_EVENTS (NODE_ID VARCHAR(36) NOT NULL, EVENT_SEQ INT NOT NULL, EVENT_TYPE INT NOT NULL, DATE_CREATED BIGINT NOT NULL, EVENT_DATA BLOB(10M), PRIMARY KEY (NODE_ID, EVENT_SEQ));
+CREATE INDEX CMS_CLUSTER_EVENTS_IDX_01 ON CMS_CLUSTER_EVENTS (DATE_CREATED);
    
@@ -852,4 +852,10 @@ CREATE TABLE CMS_REWRITES -- CmsDAORewriteAlias
     (ID VARCHAR(36) NOT NULL, ALIAS_MODE INTEGER NOT NULL, PATTERN VARCHAR(255) NOT NULL, REPLACEMENT VARCHAR(255) NOT NULL, SITE_ROOT VARCHAR(64) NOT NULL, PRIMARY KEY (ID));
 
 CREATE INDEX CMS_REWRITES_IDX_01 ON CMS_REWRITES (SITE_ROOT);
+
+
+CREATE TABLE CMS_CLUSTER_EVENTS
+    (NODE_ID VARCHAR(36) NOT NULL, EVENT_SEQ INTEGER NOT NULL, EVENT_TYPE INTEGER NOT NULL, DATE_CREATED BIGINT NOT NULL, EVENT_DATA BLOB, PRIMARY KEY (NODE_ID, EVENT_SEQ));
+
+CREATE INDEX CMS_CLUSTER_EVENTS_IDX_01 ON CMS_CLUSTER_EVENTS (DATE_CREATED);
     
\ No newline at end of file
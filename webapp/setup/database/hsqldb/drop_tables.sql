@@ -5,6 +5,7 @@ DROP INDEX CMS_ONLINE_URLNAME_MAPPINGS_01_IDX;
 DROP INDEX CMS_ONLINE_URLNAME_MAPPINGS_02_IDX;
 DROP INDEX CMS_ALIASES_IDX_1;
 DROP INDEX CMS_REWRITES_IDX_01;
+DROP INDEX CMS_CLUSTER_EVENTS_IDX_01;
 
 DROP TABLE CMS_CONTENTS;
 DROP TABLE CMS_GROUPUSERS;
@@ -45,4 +46,5 @@ DROP TABLE CMS_OFFLINE_URLNAME_MAPPINGS ;
 DROP TABLE CMS_COUNTERS ; 
 DROP TABLE CMS_ALIASES ; 
 DROP TABLE CMS_REWRITES;
+DROP TABLE CMS_CLUSTER_EVENTS;
 DROP TABLE CMS_USER_PUBLISH_LIST;
@@ -387,3 +387,5 @@ CREATE INDEX CMS_USERPUBLIST_IDX_02 ON CMS_USER_PUBLISH_LIST (STRUCTURE_ID);
 
 CREATE TABLE CMS_REWRITES (ID VARCHAR(36) NOT NULL, ALIAS_MODE INTEGER NOT NULL, PATTERN VARCHAR(255) NOT NULL, REPLACEMENT VARCHAR(255) NOT NULL, SITE_ROOT VARCHAR(64) NOT NULL, PRIMARY KEY (ID)) LOCK MODE ROW;
 CREATE INDEX CMS_REWRITES_IDX_01 ON CMS_REWRITES (SITE_ROOT);
+CREATE TABLE CMS_CLUSTER_EVENTS (NODE_ID VARCHAR(36) NOT NULL, EVENT_SEQ INTEGER NOT NULL, EVENT_TYPE INTEGER NOT NULL, DATE_CREATED NUMERIC(32,0) NOT NULL, EVENT_DATA BYTE, PRIMARY KEY (NODE_ID, EVENT_SEQ)) LOCK MODE ROW;
+CREATE INDEX CMS_CLUSTER_EVENTS_IDX_01 ON CMS_CLUSTER_EVENTS (DATE_CREATED);
@@ -38,4 +38,5 @@ DROP TABLE CMS_ONLINE_URLNAME_MAPPINGS;
 DROP TABLE CMS_ALIASES;
 
 DROP TABLE CMS_REWRITES;
+DROP TABLE CMS_CLUSTER_EVENTS;
 DROP TABLE CMS_USER_PUBLISH_LIST;
\ No newline at end of file
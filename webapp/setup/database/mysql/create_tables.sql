@@ -524,4 +524,17 @@ CREATE TABLE CMS_REWRITES
   )
 ENGINE = MYISAM CHARACTER SET UTF8;
 
-CREATE INDEX CMS_REWRITES_IDX_01 ON CMS_REWRITES (SITE_ROOT); 
\ No newline at end of file
+CREATE INDEX CMS_REWRITES_IDX_01 ON CMS_REWRITES (SITE_ROOT); 
+
+CREATE TABLE CMS_CLUSTER_EVENTS
+  (
+     NODE_ID      VARCHAR(36) BINARY NOT NULL,
+     EVENT_SEQ    INT NOT NULL,
+     EVENT_TYPE   INT NOT NULL,
+     DATE_CREATED BIGINT NOT NULL,
+     EVENT_DATA   LONGBLOB,
+     PRIMARY KEY (NODE_ID, EVENT_SEQ)
+  )
+ENGINE = MYISAM CHARACTER SET UTF8;
+
+CREATE INDEX CMS_CLUSTER_EVENTS_IDX_01 ON CMS_CLUSTER_EVENTS (DATE_CREATED);
\ No newline at end of file